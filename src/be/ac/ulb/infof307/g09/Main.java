@@ -30,6 +30,8 @@ public class Main extends Application {
     try {
       if (!UserDatabase.getInstance().checkIfDatabaseExists()) {
         UserDatabase.createNewDatabaseFile(START_PATH);
+      } else {
+        UserDatabase.updateDatabaseSchema(START_PATH);
       }
     } catch (DatabaseException | ConnectionFailedException e) {
       displayErrorAlert();
@@ -1,18 +1,22 @@
 package be.ac.ulb.infof307.g09.application.controllers.collaborator;
 
 import be.ac.ulb.infof307.g09.application.controllers.user.HomeController;
+import be.ac.ulb.infof307.g09.application.controllers.user.ViewFactory;
+import be.ac.ulb.infof307.g09.application.models.Invitation;
 import be.ac.ulb.infof307.g09.application.models.Project;
 import be.ac.ulb.infof307.g09.application.models.Task;
 import be.ac.ulb.infof307.g09.application.models.User;
 import be.ac.ulb.infof307.g09.application.models.handlers.Application;
+import be.ac.ulb.infof307.g09.application.models.handlers.DeadlineScheduler;
 import be.ac.ulb.infof307.g09.application.utilities.ErrorMessagesUtils;
 import be.ac.ulb.infof307.g09.application.view.controllers.collaborator.NotificationsViewController;
-import be.ac.ulb.infof307.g09.application.view.controllers.project.ListProjectsViewController;
 import be.ac.ulb.infof307.g09.exceptions.ConnectionFailedException;
 import be.ac.ulb.infof307.g09.exceptions.DatabaseException;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
@@ -28,11 +32,13 @@ import javafx.util.Pair;
  * @author Nguyen Khanh-Michel
  * @author Bernard Loïc
  */
-public class NotificationsController implements NotificationsViewController.Listener {
+public class NotificationsController implements NotificationsViewController.Listener,
+    DeadlineScheduler.Listener {
 
   public static final String NOTIFICATIONS_WINDOWS_TITLE = "Notifications";
   private NotificationsViewController viewController;
   private Stage stage;
+  private final Stage ownerStage;
   private final Application application;
   private final List<Pair<Project, User>> listProjectUserAccepted = new ArrayList<>();
   private final List<Pair<Project, User>> listProjectUserRefused = new ArrayList<>();
@@ -48,6 +54,7 @@ public class NotificationsController implements NotificationsViewController.List
    */
   public NotificationsController(Stage stage, Application application) {
     this.stage = stage;
+    this.ownerStage = stage;
     this.application = application;
   }
 
@@ -57,12 +64,19 @@ public class NotificationsController implements NotificationsViewController.List
    * @return the InvitationProject view
    */
   public Parent getView() {
+    return openView(Modality.APPLICATION_MODAL);
+  }
+
+  /**
+   * Opens the notifications window.
+   *
+   * @param modality the modality of the window
+   * @return the notifications view
+   */
+  private Parent openView(Modality modality) {
     Parent view = null;
     try {
-      FXMLLoader loader = new FXMLLoader(
-          ListProjectsViewController.class
-              .getResource("/views/collaborator/InvitationAnswered.fxml"));
-      loader.load();
+      FXMLLoader loader = ViewFactory.getInstance().load(ViewFactory.NOTIFICATIONS_VIEW);
 
       viewController = loader.getController();
       viewController.setListener(this);
@@ -73,7 +87,10 @@ public class NotificationsController implements NotificationsViewController.List
       this.stage.setMinHeight(MIN_STAGE_HEIGHT);
       this.stage.setMinWidth(MIN_STAGE_WIDTH);
       this.stage.setTitle(NOTIFICATIONS_WINDOWS_TITLE);
-      this.stage.initModality(Modality.APPLICATION_MODAL);
+      this.stage.initModality(modality);
+      if (modality == Modality.NONE) {
+        this.stage.initOwner(this.ownerStage);
+      }
       this.stage.show();
     } catch (IOException e) {
 
@@ -84,22 +101,26 @@ public class NotificationsController implements NotificationsViewController.List
   }
 
   /**
-   * Adds the projects invitations answered into the view.
+   * Adds the projects invitations answered into the view, sorted by answer.
    *
-   * @param projectsAccepted the list of projects invited
-   * @param projectsRefused the list of projects refused
-   * @param projectsWaiting the list of projects that has not answered yet
-   * @throws DatabaseException if an error occurs during the access in the database
-   * @throws ConnectionFailedException If the connection to the database fails
+   * @param invitations the invitations sent by the user, fetched in one query
    */
-  public void addProjectsInvitations(List<Project> projectsAccepted,
-                                     List<Project> projectsRefused,
-                                     List<Project> projectsWaiting)
-      throws DatabaseException, ConnectionFailedException {
-
-    addAcceptedProjects(projectsAccepted);
-    addRefusedProjects(projectsRefused);
-    addWaitingProjects(projectsWaiting);
+  public void addProjectsInvitations(List<Invitation> invitations) {
+    for (Invitation invitation : invitations) {
+      Project project = this.application.getUser().getProjectById(invitation.getProjectId());
+      Pair<Project, User> projectUser = new Pair<>(project, invitation.getCollaborator());
+      switch (invitation.getAnswer()) {
+        case ACCEPTED:
+          this.listProjectUserAccepted.add(projectUser);
+          break;
+        case REFUSED:
+          this.listProjectUserRefused.add(projectUser);
+          break;
+        default:
+          this.listProjectUserWaiting.add(projectUser);
+          break;
+      }
+    }
 
     viewController.addInvitationsAnsweredRows(this.listProjectUserAccepted,
                                               this.listProjectUserRefused,
@@ -107,88 +128,48 @@ public class NotificationsController implements NotificationsViewController.List
   }
 
   /**
-   * Adds all the waiting projects.
+   * Adds the tasks close to their deadline into the view.
    *
-   * @param projectsWaiting the list of waiting projects
-   * @throws DatabaseException If there is an error during the execution of the query
-   *                           or during the extraction of the result.
-   * @throws ConnectionFailedException If the connection to the database fails
+   * @param tasksCloseToDeadline tasks close to their deadline
    */
-  private void addWaitingProjects(List<Project> projectsWaiting)
-      throws DatabaseException, ConnectionFailedException {
-
-    for (Project projectWaiting : projectsWaiting) {
-      List<User> usersWhoHaveNotAcceptedProject =
-          this.application.getCollaboratorsByProjectWaiting(projectWaiting);
-      for (User user : usersWhoHaveNotAcceptedProject) {
-        this.listProjectUserWaiting.add(new Pair<>(projectWaiting, user));
-      }
-    }
+  public void addTasksNotifications(List<Task> tasksCloseToDeadline) {
+    viewController.addTasksCloseToDeadlineRows(tasksCloseToDeadline);
   }
 
   /**
-   * Adds all the refused projects.
+   * Adds a task to the notifications, opening the notifications window if it is not shown.
+   * As the deadlines are reached in the background, the window does not block the other
+   * windows, and the focus is given back to the main window if the user was working in it.
    *
-   * @param projectsRefused the list of refused projects
-   * @throws DatabaseException If there is an error during the execution of the query
-   *                           or during the extraction of the result.
-   * @throws ConnectionFailedException If the connection to the database fails
+   * @param task the task to notify
    */
-  private void addRefusedProjects(List<Project> projectsRefused)
-      throws DatabaseException, ConnectionFailedException {
-
-    for (Project projectNotAccepted : projectsRefused) {
-      List<User> usersWhoHaveNotAcceptedProject =
-          this.application.getCollaboratorsByProjectRefused(projectNotAccepted);
-      for (User user : usersWhoHaveNotAcceptedProject) {
-        this.listProjectUserRefused.add(new Pair<>(projectNotAccepted, user));
+  private void pushTaskNotification(Task task) {
+    Platform.runLater(() -> {
+      if (this.viewController == null || !this.stage.isShowing()) {
+        boolean ownerFocused = this.ownerStage.isFocused();
+        openView(Modality.NONE);
+        if (ownerFocused) {
+          this.ownerStage.requestFocus();
+        }
       }
-    }
+      addTasksNotifications(Collections.singletonList(task));
+    });
   }
 
-  /**
-   * Adds all the accepted projects.
-   *
-   * @param projectsAccepted the list of accepted projects
-   * @throws DatabaseException If there is an error during the execution of the query
-   *                           or during the extraction of the result.
-   * @throws ConnectionFailedException If the connection to the database fails
-   */
-  private void addAcceptedProjects(List<Project> projectsAccepted)
-      throws DatabaseException, ConnectionFailedException {
-    for (Project projectAccepted : projectsAccepted) {
-      List<User> usersWhoAcceptedProject =
-          this.application.getCollaboratorsByProjectAccepted(projectAccepted);
-      for (User user : usersWhoAcceptedProject) {
-        this.listProjectUserAccepted.add(new Pair<>(projectAccepted, user));
-      }
-    }
+  @Override
+  public void deadlineApproaching(Task task) {
+    pushTaskNotification(task);
   }
 
-  /**
-   * Adds the tasks close to their deadline into the view.
-   *
-   * @param tasksCloseToDeadline tasks close to their deadline
-   */
-  public void addTasksNotifications(List<Task> tasksCloseToDeadline) {
-    viewController.addTasksCloseToDeadlineRows(tasksCloseToDeadline);
+  @Override
+  public void deadlineReached(Task task) {
+    pushTaskNotification(task);
   }
 
   @Override
   public void closeButtonAction() throws DatabaseException, ConnectionFailedException {
-    for (Pair<Project, User> projectCollaboratorPair : this.listProjectUserRefused) {
-      Project projectToDelete = projectCollaboratorPair.getKey();
-      User collaborator = projectCollaboratorPair.getValue();
-      this.application.deleteRowWithRefusedInvitation(
-          projectToDelete, collaborator);
-    }
-
-    for (Pair<Project, User> projectCollaboratorPair : this.listProjectUserAccepted) {
-      Project projectToUpdate = projectCollaboratorPair.getKey();
-      User collaborator = projectCollaboratorPair.getValue();
-      this.application.updateInvitationRead(
-          projectToUpdate, collaborator);
-    }
+    this.application.acknowledgeInvitations(this.listProjectUserRefused,
+        this.listProjectUserAccepted);
 
     this.stage.close();
 
@@ -2,8 +2,10 @@ package be.ac.ulb.infof307.g09.application.controllers.project;
 
 import be.ac.ulb.infof307.g09.application.controllers.user.HomeController;
 import be.ac.ulb.infof307.g09.application.models.Project;
+import be.ac.ulb.infof307.g09.application.models.State;
 import be.ac.ulb.infof307.g09.application.models.Task;
 import be.ac.ulb.infof307.g09.application.models.handlers.Application;
+import be.ac.ulb.infof307.g09.application.models.handlers.ModelEvent;
 import be.ac.ulb.infof307.g09.application.utilities.ErrorMessagesUtils;
 import be.ac.ulb.infof307.g09.application.view.controllers.project.CalendarViewController;
 import com.calendarfx.model.Calendar;
@@ -11,22 +13,39 @@ import com.calendarfx.model.Entry;
 import java.io.IOException;
 import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Observable;
-import java.util.Observer;
+import java.util.Map;
+import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 
 /**
  * Displays a calendar containing the tasks of the user projects.
  * It is located on a tab called "Calendrier" of the application.
+ * The calendar of each project is built once then kept up to date entry by entry, and only
+ * holds the tasks overlapping a window of a few months around the visible month.
  */
-public class CalendarController implements CalendarViewController.Listener, Observer {
+public class CalendarController implements CalendarViewController.Listener {
 
   private CalendarViewController viewController;
   private final Application application;
   private static final String CALENDAR_NAME = "Tasks";
+  private static final int PREFETCH_MONTHS = 2;
+  private final Runnable projectsReload = this::reloadProjects;
+  private final Runnable projectsRefresh = this::refreshProjects;
+  private final Runnable windowLoad = this::loadPendingWindow;
+  private final Map<Integer, Calendar> projectCalendars = new HashMap<>();
+  private final Map<Integer, Project> calendarProjects = new HashMap<>();
+  private final Map<Integer, Entry<Task>> taskEntries = new HashMap<>();
+  private YearMonth loadedMonth;
+  private YearMonth pendingMonth;
+  private long windowStart;
+  private long windowEnd;
 
   /**
    * Initializes the Calendar controller.
@@ -35,7 +54,9 @@ public class CalendarController implements CalendarViewController.Listener, Obse
    */
   public CalendarController(Application application) {
     this.application = application;
-    this.application.addObserver(this);
+    this.application.subscribe(this::onModelEvents, Platform::runLater,
+        State.PROJECT_CREATED, State.PROJECT_MODIFIED, State.PROJECT_DELETED,
+        State.COLLABORATOR_REMOVED, State.TASK_CREATED, State.TASK_MODIFIED, State.TASK_DELETED);
   }
 
   /**
@@ -51,6 +72,7 @@ public class CalendarController implements CalendarViewController.Listener, Obse
       loader.load();
       viewController = loader.getController();
       viewController.setListener(this);
+      this.loadWindow(viewController.getVisibleMonth());
       this.initialiseCheckComboBox();
       viewController.updateCurrentDateLabel();
       view = loader.getRoot();
@@ -71,62 +93,230 @@ public class CalendarController implements CalendarViewController.Listener, Obse
 
   @Override
   public Calendar getCalendar(Project project) {
-    Calendar myCalendar = new Calendar(CALENDAR_NAME);
+    Calendar myCalendar = projectCalendars.get(project.getId());
+    if (myCalendar == null) {
+      myCalendar = new Calendar(CALENDAR_NAME);
+      for (Task task : project.getTaskIndex().getTasksOverlapping(windowStart, windowEnd)) {
+        myCalendar.addEntry(createTaskEntry(task));
+      }
+      myCalendar.setStyle(Calendar.Style.getStyle(project.getColorCode()));
+      projectCalendars.put(project.getId(), myCalendar);
+      calendarProjects.put(project.getId(), project);
+    }
+    return myCalendar;
+  }
 
-    for (Task task : project.getTasks()) {
-      Entry<String> entry = createTaskEntry(task);
+  @Override
+  public void visibleMonthChanged(YearMonth month) {
+    long distance = Math.abs(ChronoUnit.MONTHS.between(loadedMonth, month));
+    if (distance >= PREFETCH_MONTHS) {
+      // The visible weeks are not loaded yet
+      this.pendingMonth = null;
+      this.loadWindow(month);
+    } else if (distance > 0) {
+      // The visible weeks are loaded, the next months are loaded after the navigation is shown
+      this.pendingMonth = month;
+      RefreshScheduler.getInstance().markDirty(windowLoad);
+    }
+  }
 
-      myCalendar.addEntry(entry);
+  /**
+   * Loads the window around the last month navigated to, if it was not loaded meanwhile.
+   */
+  private void loadPendingWindow() {
+    if (pendingMonth != null) {
+      this.loadWindow(pendingMonth);
+      this.pendingMonth = null;
     }
-    myCalendar.setStyle(Calendar.Style.getStyle(project.getColorCode()));
-    return myCalendar;
   }
 
   /**
-   * Creates a task entry in the calendar.
+   * Moves the loaded window around the given month: the entries of the tasks leaving the
+   * window are removed and the tasks entering it are added to the calendars already built.
+   *
+   * @param month the month at the center of the window
+   */
+  private void loadWindow(YearMonth month) {
+    this.loadedMonth = month;
+    ZoneId zone = ZoneId.systemDefault();
+    this.windowStart = month.minusMonths(PREFETCH_MONTHS).atDay(1)
+        .atStartOfDay(zone).toInstant().toEpochMilli();
+    this.windowEnd = month.plusMonths(PREFETCH_MONTHS + 1L).atDay(1)
+        .atStartOfDay(zone).toInstant().toEpochMilli() - 1;
+
+    Iterator<Entry<Task>> entries = taskEntries.values().iterator();
+    while (entries.hasNext()) {
+      Entry<Task> entry = entries.next();
+      if (!isInWindow(entry.getUserObject())) {
+        entries.remove();
+        entry.removeFromCalendar();
+      }
+    }
+    for (Map.Entry<Integer, Calendar> projectCalendar : projectCalendars.entrySet()) {
+      Project project = calendarProjects.get(projectCalendar.getKey());
+      for (Task task : project.getTaskIndex().getTasksOverlapping(windowStart, windowEnd)) {
+        if (!taskEntries.containsKey(task.getId())) {
+          projectCalendar.getValue().addEntry(createTaskEntry(task));
+        }
+      }
+    }
+  }
+
+  /**
+   * Checks whether a task overlaps the loaded window.
+   *
+   * @param task the task to check
+   * @return true if the task overlaps the window
+   */
+  private boolean isInWindow(Task task) {
+    return task.getStartDate() <= windowEnd && task.getEndDate() >= windowStart;
+  }
+
+  /**
+   * Creates a task entry in the calendar and remembers it for the later changes of the task.
    *
    * @param task the task to create
    * @return a entry of task
    */
-  private Entry<String> createTaskEntry(Task task) {
-    Entry<String> entry = new Entry<>(task.getDescription());
-    LocalDateTime startDateTime = Instant.ofEpochMilli(task.getStartDate())
-        .atZone(ZoneId.systemDefault()).toLocalDateTime();
-    LocalDateTime endDateTime =
-        Instant.ofEpochMilli(task.getEndDate()).atZone(ZoneId.systemDefault()).toLocalDateTime();
-    entry.changeStartDate(startDateTime.toLocalDate());
-    entry.changeStartTime(startDateTime.toLocalTime());
-    entry.changeEndDate(endDateTime.toLocalDate());
-    entry.changeEndTime(endDateTime.toLocalTime());
+  private Entry<Task> createTaskEntry(Task task) {
+    Entry<Task> entry = new Entry<>(task.getDescription());
+    entry.setUserObject(task);
+    entry.setInterval(toLocalDateTime(task.getStartDate()), toLocalDateTime(task.getEndDate()));
+    taskEntries.put(task.getId(), entry);
     return entry;
   }
 
-  @Override
-  public void update(Observable o, Object arg) {
-    if (o instanceof Application && (arg instanceof Project || arg instanceof Task)) {
-      switch (((Application) o).getState()) {
+  /**
+   * Converts a date of the model to a date of the calendar.
+   *
+   * @param date the date in milliseconds
+   * @return the date in the system time zone
+   */
+  private static LocalDateTime toLocalDateTime(long date) {
+    return Instant.ofEpochMilli(date).atZone(ZoneId.systemDefault()).toLocalDateTime();
+  }
+
+  /**
+   * Adds, moves or removes the entry of a changed task. Only the calendars already built
+   * are updated: the others are built with the task when their project is selected. A task
+   * leaving the loaded window loses its entry.
+   *
+   * @param type the type of change
+   * @param task the changed task
+   */
+  private void updateTaskEntry(State type, Task task) {
+    Entry<Task> entry = taskEntries.get(task.getId());
+    Calendar calendar = projectCalendars.get(task.getProjectId());
+    boolean removed = type == State.TASK_DELETED || !isInWindow(task);
+    if (entry != null && (removed || entry.getCalendar() != calendar)) {
+      taskEntries.remove(task.getId());
+      entry.removeFromCalendar();
+      entry = null;
+    }
+    if (removed || calendar == null) {
+      return;
+    }
+    if (entry == null) {
+      calendar.addEntry(createTaskEntry(task));
+    } else {
+      entry.setUserObject(task);
+      entry.setTitle(task.getDescription());
+      entry.setInterval(toLocalDateTime(task.getStartDate()), toLocalDateTime(task.getEndDate()));
+    }
+  }
+
+  /**
+   * Forgets the calendars of a project and its sub projects, and the entries of their tasks.
+   *
+   * @param project the deleted project
+   */
+  private void forgetProject(Project project) {
+    projectCalendars.remove(project.getId());
+    calendarProjects.remove(project.getId());
+    for (Task task : project.getTasks()) {
+      taskEntries.remove(task.getId());
+    }
+    for (Project subProject : project.getAllChildren()) {
+      projectCalendars.remove(subProject.getId());
+      calendarProjects.remove(subProject.getId());
+      for (Task task : subProject.getTasks()) {
+        taskEntries.remove(task.getId());
+      }
+    }
+  }
+
+  /**
+   * Updates the calendar with a batch of changes of the projects and tasks. The entries of
+   * the changed tasks are updated in place; the project lists are reloaded on the next pulse,
+   * at most once whatever the number of batches.
+   *
+   * @param events the changes of the projects and tasks, in order
+   */
+  private void onModelEvents(List<ModelEvent> events) {
+    boolean reloadProjects = false;
+    boolean refreshProjects = false;
+    for (ModelEvent event : events) {
+      switch (event.getType()) {
         case PROJECT_CREATED:
-          if (arg instanceof Project) {
-            viewController.addToCheckBox((Project) arg);
-            viewController.refreshProjectComboBox();
+          Project createdProject = event.getSubject(Project.class);
+          if (createdProject != null) {
+            viewController.addToCheckBox(createdProject);
+            for (Project subProject : createdProject.getAllChildren()) {
+              viewController.addToCheckBox(subProject);
+            }
+            refreshProjects = true;
           }
           break;
         case PROJECT_MODIFIED:
+          Project modifiedProject = event.getSubject(Project.class);
+          if (modifiedProject != null) {
+            Calendar calendar = projectCalendars.get(modifiedProject.getId());
+            if (calendar != null) {
+              calendar.setStyle(Calendar.Style.getStyle(modifiedProject.getColorCode()));
+              calendarProjects.put(modifiedProject.getId(), modifiedProject);
+            }
+            reloadProjects = true;
+          }
+          break;
         case PROJECT_DELETED:
         case COLLABORATOR_REMOVED:
-          viewController.reloadCheckCombobox();
-          viewController.refreshProjectComboBox();
+          Project removedProject = event.getSubject(Project.class);
+          if (removedProject != null) {
+            forgetProject(removedProject);
+            reloadProjects = true;
+          }
           break;
         case TASK_CREATED:
         case TASK_MODIFIED:
         case TASK_DELETED:
-          if (arg instanceof Task) {
-            viewController.taskModified((Task) arg);
+          Task task = event.getSubject(Task.class);
+          if (task != null) {
+            updateTaskEntry(event.getType(), task);
           }
           break;
         default:
           break;
       }
     }
+    if (reloadProjects) {
+      RefreshScheduler.getInstance().markDirty(projectsReload);
+    } else if (refreshProjects) {
+      RefreshScheduler.getInstance().markDirty(projectsRefresh);
+    }
+  }
+
+  /**
+   * Reloads the project lists of the calendar.
+   */
+  private void reloadProjects() {
+    viewController.reloadCheckCombobox();
+    viewController.refreshProjectComboBox();
+  }
+
+  /**
+   * Refreshes the project combo box of the calendar.
+   */
+  private void refreshProjects() {
+    viewController.refreshProjectComboBox();
   }
 }
@@ -4,15 +4,19 @@ import static be.ac.ulb.infof307.g09.application.view.controllers.project.Dashbo
 
 import be.ac.ulb.infof307.g09.application.controllers.user.HomeController;
 import be.ac.ulb.infof307.g09.application.models.Project;
+import be.ac.ulb.infof307.g09.application.models.State;
+import be.ac.ulb.infof307.g09.application.models.StatisticsColumn;
 import be.ac.ulb.infof307.g09.application.models.Task;
 import be.ac.ulb.infof307.g09.application.models.handlers.Application;
+import be.ac.ulb.infof307.g09.application.models.handlers.ModelEvent;
 import be.ac.ulb.infof307.g09.application.utilities.ErrorMessagesUtils;
 import be.ac.ulb.infof307.g09.application.view.controllers.project.DashboardViewController;
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.util.Observable;
-import java.util.Observer;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.stage.Stage;
@@ -22,19 +26,17 @@ import javafx.util.Pair;
  * Handles the statistics of different projects.
  * It is located on a tab called "Statistiques" of the application.
  */
-public class DashboardController implements DashboardViewController.Listener, Observer {
-
-  private static final String CSV_HEADER =
-          "Username; Project title; Initial duration (hours); Current duration (hours); Tasks";
+public class DashboardController implements DashboardViewController.Listener {
 
   private static final String FILE_NAME = "I(Should)PlanAll_Statistics";
   private static final String FILE_EXTENSION = ".csv";
   private static final String SEPARATOR = File.separator;
-  private static final String NEWLINE = System.getProperty("line.separator");
 
   private final Stage stage;
   private final Application application;
   private DashboardViewController viewController;
+  private StatisticsExportTask currentExport;
+  private final Runnable statisticsRefresh = this::refreshStatistics;
 
   /**
    * Constructor of Dashboard controller class.
@@ -44,7 +46,10 @@ public class DashboardController implements DashboardViewController.Listener, Ob
    */
   public DashboardController(Stage stage, Application application) {
     this.application = application;
-    this.application.addObserver(this);
+    this.application.subscribe(this::onModelEvents, Platform::runLater,
+        State.PROJECT_CREATED, State.PROJECT_MODIFIED, State.PROJECT_DELETED,
+        State.COLLABORATOR_REMOVED, State.TASK_CREATED, State.TASK_MODIFIED, State.TASK_DELETED,
+        State.PROJECTS_LOADED);
     this.stage = stage;
   }
 
@@ -62,6 +67,7 @@ public class DashboardController implements DashboardViewController.Listener, Ob
 
       this.viewController = loader.getController();
       viewController.setListener(this);
+      viewController.setLoading(application.isLoadingProjects());
       this.updateComboBox();
 
       view = loader.getRoot();
@@ -74,47 +80,49 @@ public class DashboardController implements DashboardViewController.Listener, Ob
   }
 
   /**
-   * Writes the statistics in the csv file.
+   * Writes the statistics in the csv file in a background thread.
    *
    * @param filePath the path of the file
-   * @param project  the project
+   * @param project  the project, or the dummy project for all projects
+   * @param columns  the columns to export
    */
-  public void createCsvFile(String filePath, Project project) {
-    String data;
-    if (project.getId() == NEGATIVE_VALUE) {
-      data = this.getAllProjectsDataToCsv();
-    } else {
-      data = CSV_HEADER + NEWLINE + project.toCsvFormat() + NEWLINE;
-    }
-    try (FileWriter writer = new FileWriter(filePath)) {
-      writer.write(data);
-    } catch (IOException e) {
-      HomeController.displayErrorAlert(e.getMessage(),
+  public void createCsvFile(String filePath, Project project, List<StatisticsColumn> columns) {
+    List<Project> projects = project.getId() == NEGATIVE_VALUE
+        ? this.application.getUserProjects() : Collections.singletonList(project);
+    StatisticsExportTask exportTask =
+        new StatisticsExportTask(Paths.get(filePath), projects, columns);
+    this.currentExport = exportTask;
+
+    exportTask.setOnSucceeded(event -> this.viewController.hideExportProgress());
+    exportTask.setOnCancelled(event -> this.viewController.hideExportProgress());
+    exportTask.setOnFailed(event -> {
+      this.viewController.hideExportProgress();
+      HomeController.displayErrorAlert(exportTask.getException().getMessage(),
           ErrorMessagesUtils.ERROR_MESSAGE);
-    }
-  }
+    });
+    this.viewController.showExportProgress(exportTask.progressProperty());
 
-  /**
-   * Returns the data of all projects as a String in the CSV format.
-   *
-   * @return the formatted string containing the statistics of all the user's project.
-   */
-  public String getAllProjectsDataToCsv() {
-    StringBuilder data = new StringBuilder(CSV_HEADER + NEWLINE);
+    Thread exportThread = new Thread(exportTask);
+    exportThread.setDaemon(true);
+    exportThread.start();
+  }
 
-    for (Project project : this.application.getUserProjects()) {
-      data.append(project.toCsvFormat()).append(NEWLINE);
+  @Override
+  public void cancelExport() {
+    if (this.currentExport != null) {
+      this.currentExport.cancel();
+      this.currentExport = null;
     }
-    return data.toString();
   }
 
   @Override
   public long getTotalTime() {
-    long totalTime = 0;
-    for (Project project : application.getUserProjects()) {
-      totalTime += project.getCurrentDuration();
-    }
-    return totalTime;
+    return application.getTotalTime();
+  }
+
+  @Override
+  public long getTotalTimeLeft() {
+    return application.getTotalTimeLeft();
   }
 
   @Override
@@ -123,26 +131,41 @@ public class DashboardController implements DashboardViewController.Listener, Ob
   }
 
   @Override
-  public void exportStatistics(String path, Project project) {
+  public void exportStatistics(String path, Project project, List<StatisticsColumn> columns) {
     String newFilePath =
         project.getId() == NEGATIVE_VALUE
             ? path + SEPARATOR + FILE_NAME + FILE_EXTENSION :
             path + SEPARATOR + project.getTitle() + FILE_EXTENSION;
 
-    this.createCsvFile(newFilePath, project);
+    this.createCsvFile(newFilePath, project, columns);
   }
 
   @Override
   public Pair<Integer, Integer> getTotalTasksCount() {
-    int tasksDone = 0;
-    int tasksLeft = 0;
+    return application.getTotalTasksCount();
+  }
 
-    for (Project project : application.getUserProjects()) {
-      Pair<Integer, Integer> tasks = project.getCompletedTasksCount();
-      tasksDone += tasks.getKey();
-      tasksLeft += tasks.getValue();
-    }
-    return new Pair<>(tasksDone, tasksLeft);
+  @Override
+  public Pair<Integer, Integer> getProjectTasksCount(Project project, boolean includeSubProjects) {
+    return includeSubProjects
+        ? application.getSubtreeTasksCount(project) : application.getProjectTasksCount(project);
+  }
+
+  @Override
+  public long getProjectDuration(Project project, boolean includeSubProjects) {
+    return includeSubProjects
+        ? application.getSubtreeDuration(project) : project.getCurrentDuration();
+  }
+
+  @Override
+  public long getProjectTimeLeft(Project project, boolean includeSubProjects) {
+    return includeSubProjects ? application.getSubtreeTimeLeft(project) : project.getTimeLeft();
+  }
+
+  @Override
+  public long getProjectInitialDuration(Project project, boolean includeSubProjects) {
+    return includeSubProjects
+        ? application.getSubtreeInitialDuration(project) : project.getInitialDuration();
   }
 
   @Override
@@ -150,22 +173,30 @@ public class DashboardController implements DashboardViewController.Listener, Ob
     this.viewController.fillComboBox(application.getUserProjects());
   }
 
-  @Override
-  public void update(Observable o, Object arg) {
-    if (o instanceof Application && (arg instanceof Project || arg instanceof Task)) {
-      switch (((Application) o).getState()) {
-        case PROJECT_CREATED:
-        case PROJECT_MODIFIED:
-        case PROJECT_DELETED:
-        case COLLABORATOR_REMOVED:
-        case TASK_CREATED:
-        case TASK_MODIFIED:
-        case TASK_DELETED:
-          viewController.observableNotification();
-          break;
-        default:
-          break;
+  /**
+   * Marks the statistics dirty for a batch of changes of the projects and tasks. They are
+   * redrawn on the next pulse, once whatever the number of batches received until then.
+   *
+   * @param events the changes of the projects and tasks
+   */
+  private void onModelEvents(List<ModelEvent> events) {
+    boolean statisticsChanged = false;
+    for (ModelEvent event : events) {
+      if (event.getType() == State.PROJECTS_LOADED) {
+        viewController.setLoading(false);
+      } else if (event.getSubject() instanceof Project || event.getSubject() instanceof Task) {
+        statisticsChanged = true;
       }
     }
+    if (statisticsChanged) {
+      RefreshScheduler.getInstance().markDirty(statisticsRefresh);
+    }
+  }
+
+  /**
+   * Redraws the statistics of the dashboard.
+   */
+  private void refreshStatistics() {
+    viewController.observableNotification();
   }
 }
@@ -1,13 +1,13 @@
 package be.ac.ulb.infof307.g09.application.controllers.project;
 
 import be.ac.ulb.infof307.g09.application.controllers.user.HomeController;
+import be.ac.ulb.infof307.g09.application.controllers.user.ViewFactory;
 import be.ac.ulb.infof307.g09.application.models.Project;
 import be.ac.ulb.infof307.g09.application.models.Task;
 import be.ac.ulb.infof307.g09.application.models.handlers.Application;
 import be.ac.ulb.infof307.g09.application.utilities.DateTimeUtils;
 import be.ac.ulb.infof307.g09.application.utilities.ErrorMessagesUtils;
 import be.ac.ulb.infof307.g09.application.view.controllers.project.EditTaskViewController;
-import be.ac.ulb.infof307.g09.application.view.controllers.project.ListProjectsViewController;
 import be.ac.ulb.infof307.g09.exceptions.ConnectionFailedException;
 import be.ac.ulb.infof307.g09.exceptions.DatabaseException;
 import java.io.IOException;
@@ -60,10 +60,7 @@ public class EditTaskController implements EditTaskViewController.Listener {
     this.task = null;
     Parent view = null;
     try {
-      FXMLLoader loader =
-          new FXMLLoader(
-              ListProjectsViewController.class.getResource("/views/project/CreateTask.fxml"));
-      loader.load();
+      FXMLLoader loader = ViewFactory.getInstance().load(ViewFactory.EDIT_TASK_VIEW);
 
       viewController = loader.getController();
       viewController.setListener(this);
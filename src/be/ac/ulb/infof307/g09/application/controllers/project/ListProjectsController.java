@@ -3,52 +3,62 @@ package be.ac.ulb.infof307.g09.application.controllers.project;
 import be.ac.ulb.infof307.g09.application.controllers.collaborator.CollaboratorController;
 import be.ac.ulb.infof307.g09.application.controllers.user.HomeController;
 import be.ac.ulb.infof307.g09.application.models.Project;
+import be.ac.ulb.infof307.g09.application.models.State;
 import be.ac.ulb.infof307.g09.application.models.Tag;
-import be.ac.ulb.infof307.g09.application.models.Task;
 import be.ac.ulb.infof307.g09.application.models.User;
 import be.ac.ulb.infof307.g09.application.models.handlers.Application;
+import be.ac.ulb.infof307.g09.application.models.handlers.ModelEvent;
 import be.ac.ulb.infof307.g09.application.utilities.DateTimeUtils;
 import be.ac.ulb.infof307.g09.application.utilities.ErrorMessagesUtils;
 import be.ac.ulb.infof307.g09.application.view.controllers.project.ListProjectsViewController;
+import be.ac.ulb.infof307.g09.archive.ProjectArchive;
+import be.ac.ulb.infof307.g09.archive.ProjectArchiveUtils;
+import be.ac.ulb.infof307.g09.archive.ProjectDelta;
 import be.ac.ulb.infof307.g09.exceptions.ConnectionFailedException;
 import be.ac.ulb.infof307.g09.exceptions.DatabaseException;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
-import java.nio.file.Files;
-import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.Objects;
-import java.util.Observable;
-import java.util.Observer;
+import java.util.StringJoiner;
+import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.control.Tab;
 import javafx.stage.Stage;
-import org.rauschig.jarchivelib.ArchiveFormat;
-import org.rauschig.jarchivelib.Archiver;
-import org.rauschig.jarchivelib.ArchiverFactory;
-import org.rauschig.jarchivelib.CompressionType;
 
 /**
  * ListProjectController class handles one action directly, deletion,
  * in the projects list UI, and delegates the addition and modification of a project
  * to ProjectController, as well as the handling of tasks of a project to TaskController.
  */
-public class ListProjectsController implements ListProjectsViewController.Listener, Observer {
+public class ListProjectsController implements ListProjectsViewController.Listener {
   private static final String ERROR_EXPORT_HEADER_TEXT = "Échec de l'exportation";
   private static final String ERROR_EXPORT_MESSAGE_TEXT = "Votre projet n'a pas pu être exporté !";
   private static final String ERROR_IMPORT_HEADER_TEXT = "Échec de l'importation";
   private static final String ERROR_IMPORT_MESSAGE_TEXT = "Votre projet n'a pas pu être importé !";
   private static final String ERROR_IMPORT_AUTHOR_MESSAGE_TEXT =
       "Vous ne pouvez pas importer un projet dont vous n'êtes pas l'auteur !";
+  private static final String ERROR_IMPORT_CONFLICT_MESSAGE_TEXT =
+      "Ces projets existent déjà dans votre liste de projets : ";
   private static final String SUCCESS_EXPORT_HEADER_TEXT = "Exportation réussie";
   private static final String SUCCESS_EXPORT_MESSAGE_TEXT = "Votre projet a bien été exporté !";
+  private static final String SUCCESS_EXPORT_ALL_MESSAGE_TEXT = "Vos projets ont bien été exportés !";
+  private static final String ERROR_EXPORT_ALL_MESSAGE_TEXT = "Vos projets n'ont pas pu être exportés !";
+  private static final String ERROR_EXPORT_NO_PROJECT_TEXT = "Vous n'êtes l'auteur d'aucun projet !";
+  private static final String ERROR_EXPORT_DELTA_NOT_EXPORTED_TEXT =
+      "Votre projet doit d'abord être exporté entièrement !";
+  private static final String SUCCESS_EXPORT_DELTA_MESSAGE_TEXT =
+      "Les changements de votre projet ont bien été exportés !";
+  private static final String DELTA_ARCHIVE_SUFFIX = "_changements";
+  private static final String SUCCESS_IMPORT_DELTA_MESSAGE_TEXT =
+      "Les changements de votre projet ont bien été importés !";
+  private static final String ALL_PROJECTS_ARCHIVE_NAME = "projets";
   private static final String SUCCESS_IMPORT_HEADER_TEXT = "Importation réussie";
   private static final String SUCCESS_IMPORT_MESSAGE_TEXT = "Votre projet a bien été importé !";
+  private static final String SUCCESS_IMPORT_ALL_MESSAGE_TEXT = " projets ont bien été importés.";
+  private static final String IMPORTED_PROJECTS_TEXT = "Projets importés : ";
   private static final String TAB_TASK_TITLE = "Tâches";
   private static final String TAB_COLLABORATORS_TITLE = "Ajout d'un collaborateur";
   private static final String TAB_NEW_PROJECT_TITLE = "Nouveau projet";
@@ -59,6 +69,7 @@ public class ListProjectsController implements ListProjectsViewController.Listen
   private final ProjectController projectController;
   private final Application application;
   private final Stage stage;
+  private ProjectsExportTask currentExport;
 
   /**
    * ListProjectController constructor.
@@ -69,7 +80,9 @@ public class ListProjectsController implements ListProjectsViewController.Listen
   public ListProjectsController(Stage stage, Application application) {
     this.stage = stage;
     this.application = application;
-    this.application.addObserver(this);
+    this.application.subscribe(this::onProjectEvents, Platform::runLater,
+        State.PROJECT_CREATED, State.PROJECT_MODIFIED, State.PROJECT_DELETED,
+        State.COLLABORATOR_REMOVED, State.TAG_CREATED, State.TAG_DELETED, State.PROJECTS_LOADED);
     this.projectController = new ProjectController(this.application);
   }
 
@@ -87,6 +100,7 @@ public class ListProjectsController implements ListProjectsViewController.Listen
 
       listProjectsViewController = loader.getController();
       listProjectsViewController.setListener(this);
+      listProjectsViewController.setLoading(application.isLoadingProjects());
       listProjectsViewController.initialiseTree(application.getUserParentProjects());
 
       view = loader.getRoot();
@@ -103,7 +117,6 @@ public class ListProjectsController implements ListProjectsViewController.Listen
     try {
       this.application.deleteProject(projectToRemove);
       resetProjectDataPanel();
-      listProjectsViewController.initialiseTree(this.application.getUserParentProjects());
     } catch (DatabaseException e) {
       HomeController.displayErrorAlert(e.getMessage(),
           ErrorMessagesUtils.ERROR_MESSAGE);
@@ -265,147 +278,149 @@ public class ListProjectsController implements ListProjectsViewController.Listen
   @Override
   public void importProject(File archive) {
     try {
-      Path tempDir = Files.createTempDirectory("tempDir");
-      File destination = tempDir.toFile();
-      Archiver archiver = ArchiverFactory.createArchiver(
-          ArchiveFormat.TAR, CompressionType.GZIP);
-      archiver.extract(archive, destination);
-
-      importProjectFromFile(destination);
-
-    } catch (IOException | ClassNotFoundException
-        | DatabaseException | ConnectionFailedException e) {
+      ProjectArchive content = ProjectArchiveUtils.importArchive(archive);
+      if (content.isDelta()) {
+        application.applyProjectDelta(content.getDelta(), content.getSequence());
+        HomeController.displayInformationAlert(SUCCESS_IMPORT_HEADER_TEXT,
+            SUCCESS_IMPORT_DELTA_MESSAGE_TEXT);
+      } else {
+        importArchivedProjects(content.getProjects(), content.getSequence());
+      }
+    } catch (DatabaseException e) {
+      HomeController.displayErrorAlert(ERROR_IMPORT_HEADER_TEXT, e.getMessage());
+    } catch (IOException | ClassNotFoundException | ConnectionFailedException e) {
       HomeController.displayErrorAlert(ERROR_IMPORT_HEADER_TEXT,
           ERROR_IMPORT_MESSAGE_TEXT);
     }
   }
 
   /**
-   * Imports a project from a file source.
+   * Imports the projects read from an archive, then shows one alert summing up the import.
+   * The projects of another author and the projects in conflict with existing ones, or with
+   * a project imported before them, are skipped.
    *
-   * @param source the file containing the project to import
-   * @throws IOException               if the source file is not found
-   * @throws ClassNotFoundException    if the DRIVER class is not found
-   *                                   It implies that the connection fails
+   * @param projects the projects to import
+   * @param sequence the change sequence of the exporting database
    * @throws DatabaseException         if a problem occurs during the access to the database
    * @throws ConnectionFailedException If the connection to the database fails
    */
-  private void importProjectFromFile(File source)
-      throws IOException, ClassNotFoundException, DatabaseException, ConnectionFailedException {
-
-    if (Objects.requireNonNull(source.listFiles()).length > 0) {
-      File file = Objects.requireNonNull(source.listFiles())[0];
-
-      try (FileInputStream fileIn = new FileInputStream(file.getPath());
-           ObjectInputStream in = new ObjectInputStream(fileIn)) {
-
-        Project project = (Project) in.readObject();
-        if (project.getAuthor().equals(application.getUser())) {
-          if (canImportProject(project)) {
-            insertImportedProject(project);
-            HomeController.displayInformationAlert(SUCCESS_IMPORT_HEADER_TEXT,
-                SUCCESS_IMPORT_MESSAGE_TEXT);
-          } else {
-            HomeController.displayErrorAlert(ERROR_IMPORT_HEADER_TEXT,
-                "Un projet existe déjà dans votre liste de projets");
-          }
-        } else {
-          HomeController.displayErrorAlert(ERROR_IMPORT_HEADER_TEXT,
-              ERROR_IMPORT_AUTHOR_MESSAGE_TEXT);
+  private void importArchivedProjects(List<Project> projects, long sequence)
+      throws DatabaseException, ConnectionFailedException {
+    int importedProjects = 0;
+    boolean otherAuthor = false;
+    StringJoiner conflictTitles = new StringJoiner(", ");
+    List<List<Project>> conflictsByProject = application.findImportConflicts(projects);
+    for (int i = 0; i < projects.size(); i++) {
+      Project project = projects.get(i);
+      if (!application.isAuthoredByUser(project)) {
+        otherAuthor = true;
+        continue;
+      }
+      List<Project> conflicts = conflictsByProject.get(i);
+      if (conflicts.isEmpty()) {
+        application.importProject(project, sequence);
+        importedProjects++;
+      } else {
+        for (Project conflict : conflicts) {
+          conflictTitles.add(conflict.getTitle());
         }
       }
-      source.deleteOnExit();
     }
-  }
-
-  /**
-   * Inserts the imported project in the user's projects list.
-   *
-   * @param project the imported project
-   * @throws DatabaseException         if a problem occurs while deleting
-   *                                   the project in projectDatabase
-   * @throws ConnectionFailedException If the connection to the database fails
-   */
-  private void insertImportedProject(Project project)
-      throws DatabaseException, ConnectionFailedException {
-    Project insertedProject = application.insertProject(
-        project, project.getParentProject() != null);
 
-    for (Task task : project.getTasks()) {
-      application.addTaskToProject(insertedProject, task.getDescription(),
-          task.getStartDate(), task.getEndDate());
+    if (!otherAuthor && conflictTitles.length() == 0) {
+      HomeController.displayInformationAlert(SUCCESS_IMPORT_HEADER_TEXT, importedProjects == 1
+          ? SUCCESS_IMPORT_MESSAGE_TEXT : importedProjects + SUCCESS_IMPORT_ALL_MESSAGE_TEXT);
+      return;
     }
-
-    for (Tag tag : project.getTags()) {
-      Tag tagFromDatabase = application.getTagFromDatabase(tag.getDescription());
-      if (tagFromDatabase == null) {
-        Tag createdTag = application.createTag(tag.getDescription());
-        application.addTagToProject(insertedProject, createdTag);
-      } else {
-        application.addTagToProject(insertedProject, tagFromDatabase);
-      }
+    List<String> errors = new ArrayList<>();
+    if (importedProjects > 0) {
+      errors.add(IMPORTED_PROJECTS_TEXT + importedProjects);
     }
-    for (Project subProject : project.getSubProjects()) {
-      subProject.setParentProject(insertedProject);
-      insertImportedProject(subProject);
+    if (otherAuthor) {
+      errors.add(ERROR_IMPORT_AUTHOR_MESSAGE_TEXT);
     }
-  }
-
-  /**
-   * Checks if the project already exists in user projects list.
-   *
-   * @param projectToCheck the project to search
-   * @return true if the project exists, false otherwise
-   */
-  private boolean isProjectExist(Project projectToCheck) {
-    for (Project project : application.getUserProjects()) {
-      if (project.getTitle().equals(projectToCheck.getTitle())
-          && project.getAuthor().equals(projectToCheck.getAuthor())) {
-        return true;
-      }
+    if (conflictTitles.length() > 0) {
+      errors.add(ERROR_IMPORT_CONFLICT_MESSAGE_TEXT + conflictTitles);
     }
-    return false;
+    HomeController.displayErrorAlert(ERROR_IMPORT_HEADER_TEXT, String.join("\n", errors));
   }
 
-  /**
-   * Methods that verifies if an user can import the project.
-   * It does a recursive call to check if a sub project is already
-   * in the list of projects.
-   *
-   * @param project the project to import
-   * @return true if he can import, false otherwise
-   */
-  private boolean canImportProject(Project project) {
-    boolean temp = !isProjectExist(project);
-    for (Project subproject : project.getSubProjects()) {
-      temp = temp && canImportProject(subproject);
+  @Override
+  public void exportProject(File path, Project project) {
+    String filename = ProjectsExportTask.getArchiveName(project);
+    try {
+      File destination = new File(path, filename + ProjectArchiveUtils.TAR_GZ_EXTENSION);
+      long sequence = application.getLastChangeSequence();
+      ProjectArchiveUtils.exportProjects(destination, filename,
+          Collections.singletonList(project), sequence);
+      application.recordProjectExport(project, sequence);
+      HomeController.displayInformationAlert(SUCCESS_EXPORT_HEADER_TEXT,
+          SUCCESS_EXPORT_MESSAGE_TEXT);
+    } catch (IOException | DatabaseException | ConnectionFailedException e) {
+      HomeController.displayErrorAlert(ERROR_EXPORT_HEADER_TEXT,
+          ERROR_EXPORT_MESSAGE_TEXT);
     }
-    return temp;
   }
 
   @Override
-  public void exportProject(File path, Project project) {
-    String filename = project.getId() + "_" + project.getTitle();
-    String extension = ".tmp";
+  public void exportProjectDelta(File path, Project project) {
+    String filename = ProjectsExportTask.getArchiveName(project) + DELTA_ARCHIVE_SUFFIX;
     try {
-      File temp = File.createTempFile(filename, extension);
-      try (FileOutputStream fileOut = new FileOutputStream(temp);
-           ObjectOutputStream out = new ObjectOutputStream(fileOut)) {
-        out.writeObject(project);
+      long sequence = application.getLastChangeSequence();
+      ProjectDelta delta = application.createProjectDelta(project);
+      if (delta == null) {
+        HomeController.displayErrorAlert(ERROR_EXPORT_HEADER_TEXT,
+            ERROR_EXPORT_DELTA_NOT_EXPORTED_TEXT);
+        return;
       }
-      File destination = new File(path.getPath());
-      File source = new File(temp.getPath());
-      Archiver archiver = ArchiverFactory.createArchiver(ArchiveFormat.TAR, CompressionType.GZIP);
-      archiver.create(filename, destination, source);
-      source.deleteOnExit();
+      File destination = new File(path, filename + ProjectArchiveUtils.TAR_GZ_EXTENSION);
+      ProjectArchiveUtils.exportDelta(destination, filename, delta, sequence);
+      application.recordProjectExport(project, sequence);
       HomeController.displayInformationAlert(SUCCESS_EXPORT_HEADER_TEXT,
-          SUCCESS_EXPORT_MESSAGE_TEXT);
-    } catch (IOException i) {
+          SUCCESS_EXPORT_DELTA_MESSAGE_TEXT);
+    } catch (IOException | DatabaseException | ConnectionFailedException e) {
       HomeController.displayErrorAlert(ERROR_EXPORT_HEADER_TEXT,
           ERROR_EXPORT_MESSAGE_TEXT);
     }
   }
 
+  @Override
+  public void exportAllProjects(File directory, boolean singleArchive) {
+    List<Project> projects = application.getExportableProjects();
+    if (projects.isEmpty()) {
+      HomeController.displayErrorAlert(ERROR_EXPORT_HEADER_TEXT, ERROR_EXPORT_NO_PROJECT_TEXT);
+      return;
+    }
+    ProjectsExportTask exportTask =
+        new ProjectsExportTask(directory, ALL_PROJECTS_ARCHIVE_NAME, projects, singleArchive);
+    this.currentExport = exportTask;
+
+    exportTask.setOnSucceeded(event -> {
+      this.listProjectsViewController.hideExportProgress();
+      HomeController.displayInformationAlert(SUCCESS_EXPORT_HEADER_TEXT,
+          SUCCESS_EXPORT_ALL_MESSAGE_TEXT);
+    });
+    exportTask.setOnCancelled(event -> this.listProjectsViewController.hideExportProgress());
+    exportTask.setOnFailed(event -> {
+      this.listProjectsViewController.hideExportProgress();
+      HomeController.displayErrorAlert(ERROR_EXPORT_HEADER_TEXT,
+          ERROR_EXPORT_ALL_MESSAGE_TEXT);
+    });
+    this.listProjectsViewController.showExportProgress(exportTask.progressProperty());
+
+    Thread exportThread = new Thread(exportTask);
+    exportThread.setDaemon(true);
+    exportThread.start();
+  }
+
+  @Override
+  public void cancelExport() {
+    if (this.currentExport != null) {
+      this.currentExport.cancel();
+      this.currentExport = null;
+    }
+  }
+
   @Override
   public Stage getStage() {
     return this.stage;
@@ -457,10 +472,32 @@ public class ListProjectsController implements ListProjectsViewController.Listen
     HomeController.disableLeftTabs(tab);
   }
 
-  @Override
-  public void update(Observable o, Object arg) {
-    if (o instanceof Application && arg instanceof Project) {
-      listProjectsViewController.initialiseTree(((Application) o).getUserParentProjects());
+  /**
+   * Updates the branches of the projects tree touched by a batch of changes of the projects.
+   *
+   * @param events the changes of the projects, in order
+   */
+  private void onProjectEvents(List<ModelEvent> events) {
+    for (ModelEvent event : events) {
+      if (event.getType() == State.PROJECTS_LOADED) {
+        listProjectsViewController.setLoading(false);
+      }
+      Project project = event.getSubject(Project.class);
+      if (project == null) {
+        continue;
+      }
+      switch (event.getType()) {
+        case PROJECT_CREATED:
+          listProjectsViewController.addProjectItem(project);
+          break;
+        case PROJECT_DELETED:
+        case COLLABORATOR_REMOVED:
+          listProjectsViewController.removeProjectItem(project);
+          break;
+        default:
+          listProjectsViewController.updateProjectItem(project);
+          break;
+      }
     }
   }
 }
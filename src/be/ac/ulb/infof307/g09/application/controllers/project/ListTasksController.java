@@ -2,12 +2,14 @@ package be.ac.ulb.infof307.g09.application.controllers.project;
 
 import be.ac.ulb.infof307.g09.application.controllers.collaborator.UserSelectionController;
 import be.ac.ulb.infof307.g09.application.controllers.user.HomeController;
+import be.ac.ulb.infof307.g09.application.controllers.user.ViewFactory;
 import be.ac.ulb.infof307.g09.application.models.Project;
+import be.ac.ulb.infof307.g09.application.models.State;
 import be.ac.ulb.infof307.g09.application.models.Task;
 import be.ac.ulb.infof307.g09.application.models.User;
 import be.ac.ulb.infof307.g09.application.models.handlers.Application;
+import be.ac.ulb.infof307.g09.application.models.handlers.ModelEvent;
 import be.ac.ulb.infof307.g09.application.utilities.ErrorMessagesUtils;
-import be.ac.ulb.infof307.g09.application.view.controllers.project.ListProjectsViewController;
 import be.ac.ulb.infof307.g09.application.view.controllers.project.ListTasksViewController;
 import be.ac.ulb.infof307.g09.exceptions.ConnectionFailedException;
 import be.ac.ulb.infof307.g09.exceptions.DatabaseException;
@@ -16,8 +18,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Observable;
-import java.util.Observer;
+import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.control.Tab;
@@ -28,7 +29,7 @@ import javafx.scene.control.Tab;
  * project, to delete a task and delegate the addition and modification
  * of a task to EditTaskController.
  */
-public class ListTasksController implements ListTasksViewController.Listener, Observer {
+public class ListTasksController implements ListTasksViewController.Listener {
   private ListTasksViewController viewController;
   private final Project project;
   private final EditTaskController editTaskController;
@@ -47,7 +48,8 @@ public class ListTasksController implements ListTasksViewController.Listener, Ob
     this.project = project;
     this.application = application;
     this.editTaskController = new EditTaskController(project, this.application);
-    this.application.addObserver(this);
+    this.application.subscribe(this::onTaskEvents, Platform::runLater,
+        State.TASK_CREATED, State.TASK_MODIFIED, State.TASK_DELETED);
   }
 
   /**
@@ -58,9 +60,7 @@ public class ListTasksController implements ListTasksViewController.Listener, Ob
   public Parent getView() {
     Parent view = null;
     try {
-      FXMLLoader loader = new FXMLLoader(
-          ListProjectsViewController.class.getResource("/views/project/ListTasks.fxml"));
-      loader.load();
+      FXMLLoader loader = ViewFactory.getInstance().load(ViewFactory.LIST_TASKS_VIEW);
 
       viewController = loader.getController();
       viewController.setListener(this);
@@ -180,21 +180,28 @@ public class ListTasksController implements ListTasksViewController.Listener, Ob
     tab.setOnSelectionChanged(event -> this.refreshTasks());
   }
 
-  @Override
-  public void update(Observable o, Object arg) {
-    if (o instanceof Application && arg instanceof Task) {
-      switch (((Application) o).getState()) {
-        case TASK_CREATED:
-          viewController.addTask((Task) arg);
-          break;
-        case TASK_MODIFIED:
-          viewController.updateTask((Task) arg);
-          break;
-        case TASK_DELETED:
-          viewController.removeTask((Task) arg);
-          break;
-        default:
-          break;
+  /**
+   * Updates the tasks table with the changes of the tasks.
+   *
+   * @param events the changes of the tasks, in order
+   */
+  private void onTaskEvents(List<ModelEvent> events) {
+    for (ModelEvent event : events) {
+      Task task = event.getSubject(Task.class);
+      if (task != null) {
+        switch (event.getType()) {
+          case TASK_CREATED:
+            viewController.addTask(task);
+            break;
+          case TASK_MODIFIED:
+            viewController.updateTask(task);
+            break;
+          case TASK_DELETED:
+            viewController.removeTask(task);
+            break;
+          default:
+            break;
+        }
       }
     }
   }
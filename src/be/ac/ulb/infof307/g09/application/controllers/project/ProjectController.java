@@ -1,6 +1,7 @@
 package be.ac.ulb.infof307.g09.application.controllers.project;
 
 import be.ac.ulb.infof307.g09.application.controllers.user.HomeController;
+import be.ac.ulb.infof307.g09.application.controllers.user.ViewFactory;
 import be.ac.ulb.infof307.g09.application.models.Color;
 import be.ac.ulb.infof307.g09.application.models.Project;
 import be.ac.ulb.infof307.g09.application.models.Tag;
@@ -18,7 +19,9 @@ import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
@@ -70,9 +73,7 @@ public class ProjectController implements
     this.project = null;
     Parent view = null;
     try {
-      FXMLLoader loader = new FXMLLoader(
-          ListProjectsViewController.class.getResource("/views/project/Project.fxml"));
-      loader.load();
+      FXMLLoader loader = ViewFactory.getInstance().load(ViewFactory.PROJECT_VIEW);
 
       initProjectViewController(loader);
       view = loader.getRoot();
@@ -198,8 +199,9 @@ public class ProjectController implements
   private void removeUnselectedTags(List<Tag> checkedTags) {
     try {
       List<Tag> projectTags = this.project.getTags();
+      Set<Tag> checkedTagsSet = new HashSet<>(checkedTags);
       for (int i = projectTags.size() - 1; i >= 0; i--) {
-        if (!checkedTags.contains(projectTags.get(i))) {
+        if (!checkedTagsSet.contains(projectTags.get(i))) {
           application.deleteTagFromProject(project, projectTags.get(i));
         }
       }
@@ -219,8 +221,9 @@ public class ProjectController implements
    */
   private void handleSubProjectTagsInsertion(Project parentProject, List<Tag> checkedTags) {
     List<Tag> parentTags = parentProject.getTags();
+    Set<Tag> checkedTagsSet = new HashSet<>(checkedTags);
     for (Tag tag : parentTags) {
-      if (!checkedTags.contains(tag)) {
+      if (checkedTagsSet.add(tag)) {
         checkedTags.add(tag);
       }
     }
@@ -234,7 +237,7 @@ public class ProjectController implements
    */
   private void updateSelectedTags(List<Tag> checkedTags) {
     try {
-      List<Tag> projectTags = this.project.getTags();
+      Set<Tag> projectTags = new HashSet<>(this.project.getTags());
       for (Tag tag : checkedTags) {
         if (!projectTags.contains(tag)) {
           application.addTagToProject(this.project, tag);
@@ -758,8 +761,9 @@ public class ProjectController implements
   public List<Tag> getUncheckedTags(ObservableList<Tag> allTags,
                                     ObservableList<Tag> checkedTags) {
     List<Tag> unselectedTags = new ArrayList<>();
+    Set<Tag> checkedTagsSet = new HashSet<>(checkedTags);
     for (Tag tag : allTags) {
-      if (!checkedTags.contains(tag)) {
+      if (!checkedTagsSet.contains(tag)) {
         unselectedTags.add(tag);
       }
     }
@@ -0,0 +1,161 @@
+package be.ac.ulb.infof307.g09.application.controllers.project;
+
+import be.ac.ulb.infof307.g09.application.models.Project;
+import be.ac.ulb.infof307.g09.archive.ProjectArchiveUtils;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import javafx.concurrent.Task;
+
+/**
+ * Background task exporting several projects, either in one archive or in one archive
+ * per project. The work runs on a pool bounded by the number of available cores: the
+ * projects of a single archive are encoded and its blocks compressed in parallel, and
+ * separate archives are written in parallel. The export stops between two projects once
+ * cancelled, and removes the archives it created when cancelled or failed.
+ */
+public class ProjectsExportTask extends Task<Void> {
+  private static final long TERMINATION_TIMEOUT_SECONDS = 5;
+  private static final String FORBIDDEN_FILE_NAME_CHARACTERS = "[\\\\/:*?\"<>|\\p{Cntrl}]";
+  private static final String FILE_NAME_REPLACEMENT = "_";
+
+  private final File directory;
+  private final String archiveName;
+  private final List<Project> projects;
+  private final boolean singleArchive;
+  private final List<File> createdFiles;
+
+  /**
+   * Constructor of the export task. The project trees are copied here, on the thread of
+   * the views, so that the workers never read the projects while they change.
+   *
+   * @param directory     the directory where the archives are created
+   * @param archiveName   the name of the archive when all the projects are in one archive
+   * @param projects      the projects to export
+   * @param singleArchive true to export all the projects in one archive,
+   *                      false to create one archive per project
+   */
+  public ProjectsExportTask(File directory, String archiveName, List<Project> projects,
+                            boolean singleArchive) {
+    this.directory = directory;
+    this.archiveName = archiveName;
+    this.projects = new ArrayList<>();
+    for (Project project : projects) {
+      this.projects.add(project.copyTree());
+    }
+    this.singleArchive = singleArchive;
+    this.createdFiles = Collections.synchronizedList(new ArrayList<>());
+  }
+
+  /**
+   * Returns the name of the archive of a project, as for a single export. The characters of
+   * the title which cannot appear in a file name, such as path separators, are replaced.
+   *
+   * @param project the project
+   * @return the name of the archive, without extension
+   */
+  public static String getArchiveName(Project project) {
+    return project.getId() + "_"
+        + project.getTitle().replaceAll(FORBIDDEN_FILE_NAME_CHARACTERS, FILE_NAME_REPLACEMENT);
+  }
+
+  @Override
+  protected Void call() throws IOException, InterruptedException {
+    ExecutorService executor = Executors.newFixedThreadPool(
+        Runtime.getRuntime().availableProcessors(), runnable -> {
+          Thread thread = new Thread(runnable, "projects-export");
+          thread.setDaemon(true);
+          return thread;
+        });
+    boolean exported = false;
+    try {
+      if (this.singleArchive) {
+        exportInSingleArchive(executor);
+      } else {
+        exportInSeparateArchives(executor);
+      }
+      exported = !isCancelled();
+    } finally {
+      executor.shutdownNow();
+      if (!exported) {
+        deleteCreatedFiles(executor);
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Deletes the archives created by a cancelled or failed export, once the workers are
+   * stopped.
+   *
+   * @param executor the executor of the export, already shut down
+   */
+  private void deleteCreatedFiles(ExecutorService executor) {
+    Thread.interrupted();
+    try {
+      executor.awaitTermination(TERMINATION_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    for (File file : this.createdFiles) {
+      file.delete();
+    }
+  }
+
+  /**
+   * Exports all the projects in one archive whose projects are encoded and whose blocks
+   * are compressed in parallel.
+   *
+   * @param executor the executor encoding and compressing the archive
+   * @throws IOException if the archive cannot be written or the export is cancelled
+   */
+  private void exportInSingleArchive(ExecutorService executor) throws IOException {
+    File destination = new File(this.directory,
+        this.archiveName + ProjectArchiveUtils.TAR_GZ_EXTENSION);
+    this.createdFiles.add(destination);
+    ProjectArchiveUtils.exportProjects(destination, this.archiveName, this.projects, executor,
+        this::updateProgress, this::isCancelled);
+  }
+
+  /**
+   * Exports each project in its own archive, the archives being written in parallel.
+   *
+   * @param executor the executor writing the archives
+   * @throws IOException          if an archive cannot be written
+   * @throws InterruptedException if the export is interrupted
+   */
+  private void exportInSeparateArchives(ExecutorService executor)
+      throws IOException, InterruptedException {
+    CompletionService<File> completionService = new ExecutorCompletionService<>(executor);
+    for (Project project : this.projects) {
+      completionService.submit(() -> {
+        String name = getArchiveName(project);
+        File destination = new File(this.directory, name + ProjectArchiveUtils.TAR_GZ_EXTENSION);
+        this.createdFiles.add(destination);
+        ProjectArchiveUtils.exportProjects(destination, name, Collections.singletonList(project));
+        return destination;
+      });
+    }
+    for (int exportedProjects = 1; exportedProjects <= this.projects.size(); exportedProjects++) {
+      if (isCancelled()) {
+        return;
+      }
+      Future<File> exported = completionService.take();
+      try {
+        exported.get();
+      } catch (ExecutionException e) {
+        throw new IOException("The export of a project failed", e.getCause());
+      }
+      updateProgress(exportedProjects, this.projects.size());
+    }
+  }
+}
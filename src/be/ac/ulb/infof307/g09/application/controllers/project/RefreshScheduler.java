@@ -0,0 +1,73 @@
+package be.ac.ulb.infof307.g09.application.controllers.project;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import javafx.animation.AnimationTimer;
+
+/**
+ * Schedules the refreshes of the views on the JavaFX pulses. A refresh requested several
+ * times before the next pulse runs only once, so a bulk change of the model redraws each
+ * view once instead of once per change. The timer only runs while refreshes are pending.
+ * All the methods must be called on the JavaFX application thread.
+ */
+final class RefreshScheduler {
+  private static RefreshScheduler instance;
+
+  private final Set<Runnable> pendingRefreshes;
+  private final AnimationTimer timer;
+  private boolean running;
+
+  private RefreshScheduler() {
+    this.pendingRefreshes = new LinkedHashSet<>();
+    this.timer = new AnimationTimer() {
+      @Override
+      public void handle(long now) {
+        runPendingRefreshes();
+      }
+    };
+  }
+
+  /**
+   * Gets the scheduler shared by the views.
+   *
+   * @return the instance of the scheduler
+   */
+  static RefreshScheduler getInstance() {
+    if (instance == null) {
+      instance = new RefreshScheduler();
+    }
+    return instance;
+  }
+
+  /**
+   * Marks a view as dirty: its refresh runs on the next pulse. The refresh is identified
+   * by the given instance, so the callers must keep the same instance between requests.
+   *
+   * @param refresh the refresh of the view
+   */
+  void markDirty(Runnable refresh) {
+    pendingRefreshes.add(refresh);
+    if (!running) {
+      running = true;
+      timer.start();
+    }
+  }
+
+  /**
+   * Runs the refreshes requested since the last pulse, in the order of their first request.
+   * A refresh requested while the others run waits for the next pulse.
+   */
+  private void runPendingRefreshes() {
+    List<Runnable> refreshes = new ArrayList<>(pendingRefreshes);
+    pendingRefreshes.clear();
+    for (Runnable refresh : refreshes) {
+      refresh.run();
+    }
+    if (pendingRefreshes.isEmpty()) {
+      running = false;
+      timer.stop();
+    }
+  }
+}
@@ -0,0 +1,63 @@
+package be.ac.ulb.infof307.g09.application.controllers.project;
+
+import be.ac.ulb.infof307.g09.application.models.Project;
+import be.ac.ulb.infof307.g09.application.models.StatisticsColumn;
+import be.ac.ulb.infof307.g09.application.utilities.CsvUtils;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import javafx.concurrent.Task;
+
+/**
+ * Background task writing the statistics of projects in a CSV file, row by row.
+ * A cancelled export removes the partially written file.
+ */
+public class StatisticsExportTask extends Task<Void> {
+  private final Path path;
+  private final List<Project> projects;
+  private final List<StatisticsColumn> columns;
+
+  /**
+   * Constructor of the export task. The projects are copied here, on the thread of the
+   * views, so that the background thread never reads the projects while they change.
+   *
+   * @param path     the path of the CSV file
+   * @param projects the projects to export
+   * @param columns  the columns to export
+   */
+  public StatisticsExportTask(Path path, List<Project> projects, List<StatisticsColumn> columns) {
+    this.path = path;
+    this.projects = new ArrayList<>(projects.size());
+    for (Project project : projects) {
+      this.projects.add(project.copy());
+    }
+    this.columns = new ArrayList<>(columns);
+  }
+
+  @Override
+  protected Void call() throws IOException {
+    int exportedProjects = 0;
+    try (Writer writer = Files.newBufferedWriter(this.path, StandardCharsets.UTF_8)) {
+      CsvUtils.writeRow(writer, StatisticsColumn.getHeaders(this.columns));
+      for (Project project : this.projects) {
+        if (isCancelled()) {
+          break;
+        }
+        int rowCount = StatisticsColumn.getRowCount(project, this.columns);
+        for (int index = 0; index < rowCount; index++) {
+          CsvUtils.writeRow(writer, StatisticsColumn.getRow(project, index, this.columns));
+        }
+        exportedProjects++;
+        updateProgress(exportedProjects, this.projects.size());
+      }
+    }
+    if (isCancelled()) {
+      Files.deleteIfExists(this.path);
+    }
+    return null;
+  }
+}
@@ -7,6 +7,7 @@ import be.ac.ulb.infof307.g09.application.models.handlers.Application;
 import be.ac.ulb.infof307.g09.application.utilities.ErrorMessagesUtils;
 import be.ac.ulb.infof307.g09.application.view.controllers.user.HomeViewController;
 import java.io.IOException;
+import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
@@ -64,8 +65,9 @@ public class HomeController {
       Parent root = loader.getRoot();
       stage.setScene(new Scene(root));
       stage.setTitle(APPLICATION_TITLE);
-      addTabs();
+      addTab(listProjectsController.getView(), TAB_HOME_TITLE, false);
       stage.show();
+      Platform.runLater(this::addTabs);
     } catch (IOException e) {
 
       HomeController.displayErrorAlert(e.getMessage(),
@@ -74,13 +76,15 @@ public class HomeController {
   }
 
   /**
-   * Add the tabs Home, profile and statistics to the tab pane.
+   * Add the tabs profile, statistics and calendar to the tab pane, after the home tab is
+   * shown, then prepares the views opened from the home tab.
    */
   private void addTabs() {
-    addTab(listProjectsController.getView(), TAB_HOME_TITLE, false);
     addTab(profileController.getView(), TAB_PROFILE_TITLE, false);
     addTab(dashboardController.getView(), TAB_STATISTICS_TITLE, false);
     addTab(calendarController.getView(), TAB_CALENDAR_TITLE, false);
+    ViewFactory.getInstance().prepare(ViewFactory.PROJECT_VIEW, ViewFactory.LIST_TASKS_VIEW,
+        ViewFactory.EDIT_TASK_VIEW, ViewFactory.NOTIFICATIONS_VIEW);
   }
 
   /**
@@ -2,16 +2,25 @@ package be.ac.ulb.infof307.g09.application.controllers.user;
 
 import be.ac.ulb.infof307.g09.application.controllers.collaborator.InvitationProjectController;
 import be.ac.ulb.infof307.g09.application.controllers.collaborator.NotificationsController;
+import be.ac.ulb.infof307.g09.application.models.Invitation;
 import be.ac.ulb.infof307.g09.application.models.Project;
+import be.ac.ulb.infof307.g09.application.models.State;
 import be.ac.ulb.infof307.g09.application.models.Task;
 import be.ac.ulb.infof307.g09.application.models.User;
 import be.ac.ulb.infof307.g09.application.models.handlers.Application;
+import be.ac.ulb.infof307.g09.application.models.handlers.ModelEvent;
 import be.ac.ulb.infof307.g09.application.utilities.ErrorMessagesUtils;
 import be.ac.ulb.infof307.g09.application.view.controllers.user.LoginViewController;
 import be.ac.ulb.infof307.g09.exceptions.ConnectionFailedException;
 import be.ac.ulb.infof307.g09.exceptions.DatabaseException;
+import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
@@ -25,11 +34,15 @@ import javafx.stage.Stage;
  */
 public class LoginController implements LoginViewController.Listener {
   private static final String APPLICATION_TITLE = "I(Should)PlanAll";
+  private static final String SNAPSHOT_DIRECTORY = "snapshots";
+  private static final long CHANGE_WATCHER_PERIOD_MILLIS = 5000;
 
   private final Stage stage;
 
   private LoginViewController viewController;
   private Application application;
+  private final Set<Integer> shownInvitationIds = new HashSet<>();
+  private final Set<String> shownAnswers = new HashSet<>();
   private static final String INVALID_CREDENTIALS = "Identifiants invalides";
 
   /**
@@ -51,6 +64,9 @@ public class LoginController implements LoginViewController.Listener {
       loader.load();
 
       this.application = new Application();
+      this.application.setSnapshotDirectory(new File(SNAPSHOT_DIRECTORY));
+      this.application.subscribe(this::onInvitationsChanged, Platform::runLater,
+          State.INVITATIONS_CHANGED);
 
       viewController = loader.getController();
       viewController.setListener(this);
@@ -76,49 +92,112 @@ public class LoginController implements LoginViewController.Listener {
   @Override
   public void connectUser(String username, String password) {
     try {
-      this.application.connect(username, password);
+      this.application.authenticate(username, password);
+      this.shownInvitationIds.clear();
+      this.shownAnswers.clear();
 
       HomeController home = new HomeController(this.stage, this.application);
       home.show();
 
+      this.application.loadProjects(Platform::runLater)
+          .whenComplete((loaded, error) -> onProjectsLoaded(error));
+    } catch (DatabaseException e) {
+      HomeController.displayErrorAlert(e.getMessage(),
+          ErrorMessagesUtils.ERROR_MESSAGE);
+    } catch (ConnectionFailedException e) {
+      HomeController.displayErrorAlert(e.getMessage(), ErrorMessagesUtils.CONNECTION_MSG_ERROR);
+    } catch (IllegalArgumentException e) {
+      viewController.setErrorLabelText(INVALID_CREDENTIALS);
+    }
+  }
+
+  /**
+   * Shows the notifications of the connected user once his projects are loaded.
+   *
+   * @param error the error which stopped the loading, an {@link IOException} if only the
+   *              snapshot of the session was not written, null if every project is loaded
+   */
+  private void onProjectsLoaded(Throwable error) {
+    if (error instanceof IOException) {
+      HomeController.displayErrorAlert(error.getMessage(), ErrorMessagesUtils.ERROR_SNAPSHOT);
+    } else if (error != null) {
+      boolean connectionFailed = error instanceof ConnectionFailedException;
+      HomeController.displayErrorAlert(error.getMessage(), connectionFailed
+          ? ErrorMessagesUtils.CONNECTION_MSG_ERROR : ErrorMessagesUtils.ERROR_MESSAGE);
+      return;
+    }
+    if (this.application.getUser() == null) {
+      return;
+    }
+    try {
       User user = this.application.getUser();
 
       User userWithUnreadNotifications = this.application.getUserWithUnreadNotifications(user);
       openInvitationProjectView(userWithUnreadNotifications);
 
 
-      List<Project> projectsWithInvitationsAccepted =
-          this.application.getProjectsWithInvitationsAccepted(user);
-
-      List<Project> projectsWithInvitationsRefused =
-          this.application.getProjectsWithInvitationsRefused(user);
-
-      List<Project> projectsInvitationsWaiting =
-          this.application.getProjectsWithInvitationsWaiting(user);
+      List<Invitation> invitations = this.application.getInvitationsSentBy(user);
+      for (Invitation invitation : invitations) {
+        if (invitation.getAnswer() != Invitation.Answer.WAITING) {
+          this.shownAnswers.add(getAnswerKey(invitation));
+        }
+      }
 
       List<Task> tasksCloseToDeadline =
           this.application.getUserTasksCloseToDeadline();
 
-      checkIfUserHasInvitationAnswered(user,
-          projectsWithInvitationsAccepted,
-          projectsWithInvitationsRefused,
-          projectsInvitationsWaiting,
-          tasksCloseToDeadline);
+      checkIfUserHasInvitationAnswered(user, invitations, tasksCloseToDeadline);
+
+      this.application.setDeadlineListener(
+          new NotificationsController(this.stage, this.application));
+
+      this.application.startChangeWatcher(Platform::runLater, CHANGE_WATCHER_PERIOD_MILLIS);
+
+    } catch (DatabaseException e) {
+      HomeController.displayErrorAlert(e.getMessage(),
+          ErrorMessagesUtils.ERROR_MESSAGE);
+    } catch (ConnectionFailedException e) {
+      HomeController.displayErrorAlert(e.getMessage(), ErrorMessagesUtils.CONNECTION_MSG_ERROR);
+    }
+  }
+
+  /**
+   * Shows the invitations received or answered in another session of the connected user,
+   * unless they were already shown.
+   *
+   * @param events the changes of the invitations
+   */
+  private void onInvitationsChanged(List<ModelEvent> events) {
+    User user = this.application.getUser();
+    if (user == null) {
+      return;
+    }
+    try {
+      openInvitationProjectView(this.application.getUserWithUnreadNotifications(user));
+
+      List<Invitation> answeredInvitations = new ArrayList<>();
+      for (Invitation invitation : this.application.getInvitationsSentBy(user)) {
+        if (invitation.getAnswer() != Invitation.Answer.WAITING && !invitation.isRead()
+            && this.shownAnswers.add(getAnswerKey(invitation))) {
+          answeredInvitations.add(invitation);
+        }
+      }
+      if (!answeredInvitations.isEmpty()) {
+        checkIfUserHasInvitationAnswered(user, answeredInvitations, Collections.emptyList());
+      }
 
     } catch (DatabaseException e) {
       HomeController.displayErrorAlert(e.getMessage(),
           ErrorMessagesUtils.ERROR_MESSAGE);
     } catch (ConnectionFailedException e) {
       HomeController.displayErrorAlert(e.getMessage(), ErrorMessagesUtils.CONNECTION_MSG_ERROR);
-    } catch (IllegalArgumentException e) {
-      viewController.setErrorLabelText(INVALID_CREDENTIALS);
     }
   }
 
   /**
    * Checks if the current user application has unread notifications collaboration first
    * with "checkIfUserHasUnreadNotifications" method.
-   * If he has, then opens the invitation project view.
+   * If he has, then opens the invitation project view with the invitations not shown yet.
    *
    * @param userWithUnreadNotifications the user to check if he
    *                                    has unread notifications collaborations
@@ -128,7 +207,8 @@ public class LoginController implements LoginViewController.Listener {
   private void openInvitationProjectView(User userWithUnreadNotifications)
           throws DatabaseException, ConnectionFailedException {
     List<Project> projectList =
-        this.application.getAllUnansweredProjects(userWithUnreadNotifications);
+        new ArrayList<>(this.application.getAllUnansweredProjects(userWithUnreadNotifications));
+    projectList.removeIf(project -> !this.shownInvitationIds.add(project.getId()));
 
     checkIfInvitationProjectViewCanPopUp(userWithUnreadNotifications, projectList);
   }
@@ -155,29 +235,31 @@ public class LoginController implements LoginViewController.Listener {
     }
   }
 
+  /**
+   * Returns the key of an answer to an invitation, to show it once.
+   *
+   * @param invitation the answered invitation
+   * @return the project, collaborator and answer of the invitation
+   */
+  private static String getAnswerKey(Invitation invitation) {
+    return invitation.getProjectId() + ":" + invitation.getCollaborator().getId()
+        + ":" + invitation.getAnswer();
+  }
+
   /**
    * Check if the user application has invitations answered.
    *
    * @param userWithUnreadAnsweredInvitations the user with unread answered invitations
-   * @param projectsAccepted the accepted projects
-   * @param projectsRefused the refused projects
-   * @param projectsWaiting the projects with no answers yet
+   * @param invitations the invitations accepted, refused or with no answers yet
    * @param tasksCloseToDeadline the list of task closed to the deadline
-   * @throws DatabaseException if an error occur during the fetching of the sql query
-   * @throws ConnectionFailedException If the connection to the database fails
    */
   private void checkIfUserHasInvitationAnswered(User userWithUnreadAnsweredInvitations,
-                                                List<Project> projectsAccepted,
-                                                List<Project> projectsRefused,
-                                                List<Project> projectsWaiting,
-                                                List<Task> tasksCloseToDeadline)
-          throws DatabaseException, ConnectionFailedException {
+                                                List<Invitation> invitations,
+                                                List<Task> tasksCloseToDeadline) {
     NotificationsController notificationsController =
         new NotificationsController(this.stage, this.application);
     boolean hasInvitationsNotifications = userWithUnreadAnsweredInvitations != null
-        && (projectsAccepted.size() > 0
-        || projectsRefused.size() > 0
-        || projectsWaiting.size() > 0);
+        && invitations.size() > 0;
     boolean hasTasksNotifications = tasksCloseToDeadline.size() > 0;
 
     if (hasTasksNotifications || hasInvitationsNotifications) {
@@ -185,8 +267,7 @@ public class LoginController implements LoginViewController.Listener {
     }
 
     if (hasInvitationsNotifications) {
-      notificationsController.addProjectsInvitations(projectsAccepted,
-          projectsRefused, projectsWaiting);
+      notificationsController.addProjectsInvitations(invitations);
     }
 
     if (hasTasksNotifications) {
@@ -0,0 +1,102 @@
+package be.ac.ulb.infof307.g09.application.controllers.user;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javafx.fxml.FXMLLoader;
+
+/**
+ * Loads the FXML views of the application. The views opened often are prepared on a
+ * background thread: a prepared view is handed out when it is requested, and another one
+ * is prepared for the next request. The nodes of a prepared view are not attached to a
+ * scene until they are handed out, so building them off the JavaFX thread is safe.
+ */
+public final class ViewFactory {
+  public static final String PROJECT_VIEW = "/views/project/Project.fxml";
+  public static final String LIST_TASKS_VIEW = "/views/project/ListTasks.fxml";
+  public static final String EDIT_TASK_VIEW = "/views/project/CreateTask.fxml";
+  public static final String NOTIFICATIONS_VIEW = "/views/collaborator/InvitationAnswered.fxml";
+
+  private static ViewFactory instance;
+
+  private final Map<String, Future<FXMLLoader>> preparedViews;
+  private final ExecutorService executor;
+
+  private ViewFactory() {
+    this.preparedViews = new ConcurrentHashMap<>();
+    this.executor = Executors.newSingleThreadExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "view-preparation");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Gets the factory shared by the controllers.
+   *
+   * @return the instance of the factory
+   */
+  public static synchronized ViewFactory getInstance() {
+    if (instance == null) {
+      instance = new ViewFactory();
+    }
+    return instance;
+  }
+
+  /**
+   * Prepares views on the background thread, so the next request of each of them does
+   * not parse its FXML file.
+   *
+   * @param paths the paths of the FXML files of the views
+   */
+  public void prepare(String... paths) {
+    for (String path : paths) {
+      this.preparedViews.computeIfAbsent(path,
+          key -> this.executor.submit(() -> createLoader(key)));
+    }
+  }
+
+  /**
+   * Loads a view. A prepared view is used when there is one, and then replaced by a new
+   * prepared view; the other views are loaded on the calling thread.
+   *
+   * @param path the path of the FXML file of the view
+   * @return the loader of the view, its root and controller are loaded
+   * @throws IOException if the FXML file cannot be loaded
+   */
+  public FXMLLoader load(String path) throws IOException {
+    Future<FXMLLoader> preparedView = this.preparedViews.remove(path);
+    if (preparedView == null) {
+      return createLoader(path);
+    }
+    prepare(path);
+    try {
+      return preparedView.get();
+    } catch (ExecutionException e) {
+      // The error is reported by loading the view again on the calling thread
+      return createLoader(path);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return createLoader(path);
+    }
+  }
+
+  /**
+   * Creates a loader for a view and loads it.
+   *
+   * @param path the path of the FXML file of the view
+   * @return the loaded loader
+   * @throws IOException if the FXML file cannot be loaded
+   */
+  private static FXMLLoader createLoader(String path) throws IOException {
+    URL location = ViewFactory.class.getResource(path);
+    FXMLLoader loader = new FXMLLoader(location);
+    loader.load();
+    return loader;
+  }
+}
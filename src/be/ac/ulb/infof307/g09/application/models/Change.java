@@ -0,0 +1,106 @@
+package be.ac.ulb.infof307.g09.application.models;
+
+/**
+ * Entry of the change log: an insertion, update or deletion of a row of the database.
+ * The sequence numbers of the entries strictly increase in the order of the changes.
+ */
+public class Change {
+  private final long sequence;
+  private final Entity entity;
+  private final int entityId;
+  private final Integer relatedId;
+  private final Operation operation;
+
+  /**
+   * Kind of row changed. Rows linking two entities are identified by the id of the first
+   * entity and the related id of the second one. Tasks also have a related id, the id of
+   * their project, so that a deleted task can still be traced to its project.
+   */
+  public enum Entity {
+    PROJECT,
+    TASK,
+    TAG,
+    PROJECT_TAG,
+    PROJECT_COLLABORATION,
+    COLLABORATOR_TASK
+  }
+
+  /**
+   * Operation done on the row.
+   */
+  public enum Operation {
+    INSERT,
+    UPDATE,
+    DELETE
+  }
+
+  /**
+   * Constructor of a change.
+   *
+   * @param changeSequence  the sequence number of the change
+   * @param changeEntity    the kind of row changed
+   * @param changeEntityId  the id of the row, or of the first entity of a link
+   * @param changeRelatedId the id of the second entity of a link or the project of a task,
+   *                        null for other rows
+   * @param changeOperation the operation done on the row
+   */
+  public Change(long changeSequence, Entity changeEntity, int changeEntityId,
+                Integer changeRelatedId, Operation changeOperation) {
+    this.sequence = changeSequence;
+    this.entity = changeEntity;
+    this.entityId = changeEntityId;
+    this.relatedId = changeRelatedId;
+    this.operation = changeOperation;
+  }
+
+  /**
+   * Returns the sequence number of the change.
+   *
+   * @return the sequence number
+   */
+  public long getSequence() {
+    return sequence;
+  }
+
+  /**
+   * Returns the kind of row changed.
+   *
+   * @return the entity
+   */
+  public Entity getEntity() {
+    return entity;
+  }
+
+  /**
+   * Returns the id of the row, or of the first entity of a link.
+   *
+   * @return the id of the entity
+   */
+  public int getEntityId() {
+    return entityId;
+  }
+
+  /**
+   * Returns the id of the second entity of a link, or the id of the project of a task.
+   *
+   * @return the related id, null if the row is neither a link nor a task
+   */
+  public Integer getRelatedId() {
+    return relatedId;
+  }
+
+  /**
+   * Returns the operation done on the row.
+   *
+   * @return the operation
+   */
+  public Operation getOperation() {
+    return operation;
+  }
+
+  @Override
+  public String toString() {
+    return sequence + " " + operation + " " + entity + " " + entityId
+        + (relatedId == null ? "" : "/" + relatedId);
+  }
+}
@@ -0,0 +1,104 @@
+package be.ac.ulb.infof307.g09.application.models;
+
+/**
+ * Invitation sent by the author of a project to a collaborator, as stored in the
+ * ProjectCollaboration table. Only the id of the project is kept, the project itself
+ * is found in the loaded projects of the author.
+ */
+public class Invitation {
+  private final int projectId;
+  private final User collaborator;
+  private final Answer answer;
+  private final boolean read;
+
+  /**
+   * Answer of the collaborator to the invitation.
+   */
+  public enum Answer {
+    WAITING(-1),
+    REFUSED(0),
+    ACCEPTED(1);
+
+    private final int value;
+
+    Answer(int answerValue) {
+      this.value = answerValue;
+    }
+
+    /**
+     * Returns the value of the answer in the Accepted column.
+     *
+     * @return the value of the answer
+     */
+    public int getValue() {
+      return this.value;
+    }
+
+    /**
+     * Returns the answer stored in the Accepted column.
+     *
+     * @param value the value of the column
+     * @return the answer, WAITING for an unknown value
+     */
+    public static Answer fromValue(int value) {
+      for (Answer answer : values()) {
+        if (answer.value == value) {
+          return answer;
+        }
+      }
+      return WAITING;
+    }
+  }
+
+  /**
+   * Constructor of an invitation.
+   *
+   * @param invitationProjectId    the id of the project
+   * @param invitationCollaborator the invited collaborator
+   * @param invitationAnswer       the answer of the collaborator
+   * @param invitationRead         true if the author has read the answer
+   */
+  public Invitation(int invitationProjectId, User invitationCollaborator,
+                    Answer invitationAnswer, boolean invitationRead) {
+    this.projectId = invitationProjectId;
+    this.collaborator = invitationCollaborator;
+    this.answer = invitationAnswer;
+    this.read = invitationRead;
+  }
+
+  /**
+   * Returns the id of the project.
+   *
+   * @return the id of the project
+   */
+  public int getProjectId() {
+    return this.projectId;
+  }
+
+  /**
+   * Returns the invited collaborator.
+   *
+   * @return the collaborator
+   */
+  public User getCollaborator() {
+    return this.collaborator;
+  }
+
+  /**
+   * Returns the answer of the collaborator.
+   *
+   * @return the answer
+   */
+  public Answer getAnswer() {
+    return this.answer;
+  }
+
+  /**
+   * Checks whether the author has read the answer.
+   *
+   * @return true if the answer is read
+   */
+  public boolean isRead() {
+    return this.read;
+  }
+}
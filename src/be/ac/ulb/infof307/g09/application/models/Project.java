@@ -4,7 +4,6 @@ import be.ac.ulb.infof307.g09.application.utilities.DateTimeUtils;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
 import javafx.util.Pair;
 
 /**
@@ -14,6 +13,7 @@ import javafx.util.Pair;
  * @author El Bakkali Soufian
  */
 public class Project implements Serializable {
+  private static final long serialVersionUID = -2167368417431867682L;
 
   public static final int MILLISECONDS_IN_DAY = (1000 * 60 * 60 * 24);
   private final int id;
@@ -29,7 +29,8 @@ public class Project implements Serializable {
   private List<Tag> tags;
   private List<User> collaborators;
   private List<Project> subProjects;
-  private static final String CSV_SEPARATOR = ";";
+  private transient TaskIntervalIndex taskIndex;
+  private static final int UNSAVED_ID = -1;
 
   /**
    * Constructor of a project.
@@ -151,13 +152,20 @@ public class Project implements Serializable {
    */
   public List<Project> getAllChildren() {
     List<Project> projects = new ArrayList<>();
+    collectChildren(projects);
+    return projects;
+  }
 
+  /**
+   * Adds all the children of the project to the given list, depth first.
+   *
+   * @param projects the list in which the children are added
+   */
+  private void collectChildren(List<Project> projects) {
     for (Project subProject : subProjects) {
       projects.add(subProject);
-      projects.addAll(subProject.getAllChildren());
+      subProject.collectChildren(projects);
     }
-
-    return projects;
   }
 
   /**
@@ -267,15 +275,20 @@ public class Project implements Serializable {
    * @return list of tasks ending in the next 24 hours.
    */
   public List<Task> getTasksCloseToDeadline() {
-    List<Task> tasksCloseToDeadline = new ArrayList<>();
     long current = DateTimeUtils.getCurrentTime();
-    for (Task task : tasks) {
-      long timeLeft = task.getEndDate() - current;
-      if (timeLeft < MILLISECONDS_IN_DAY) {
-        tasksCloseToDeadline.add(task);
-      }
+    return getTaskIndex().getTasksEndingBefore(current + MILLISECONDS_IN_DAY);
+  }
+
+  /**
+   * Returns the index of the project's tasks by date, built on first use.
+   *
+   * @return the index of the project's tasks
+   */
+  public TaskIntervalIndex getTaskIndex() {
+    if (this.taskIndex == null) {
+      this.taskIndex = new TaskIntervalIndex(this.tasks);
     }
-    return tasksCloseToDeadline;
+    return this.taskIndex;
   }
 
   /**
@@ -285,6 +298,7 @@ public class Project implements Serializable {
    */
   public void setTasks(List<Task> newTasks) {
     this.tasks = newTasks;
+    this.taskIndex = null;
   }
 
   /**
@@ -295,6 +309,9 @@ public class Project implements Serializable {
   public void addTask(Task task) {
     if (!this.tasks.contains(task)) {
       this.tasks.add(task);
+      if (this.taskIndex != null) {
+        this.taskIndex.add(task);
+      }
     }
   }
 
@@ -314,6 +331,9 @@ public class Project implements Serializable {
 
     if (foundIndex >= 0) {
       this.tasks.set(foundIndex, task);
+      if (this.taskIndex != null) {
+        this.taskIndex.add(task);
+      }
     }
   }
 
@@ -324,6 +344,9 @@ public class Project implements Serializable {
    */
   public void removeTask(Task task) {
     this.tasks.remove(task);
+    if (this.taskIndex != null) {
+      this.taskIndex.remove(task);
+    }
   }
 
   /**
@@ -344,15 +367,8 @@ public class Project implements Serializable {
    * @return amount of tasks completed.
    */
   public int getTasksCompleted() {
-    int tasksCompleted = 0;
     long currentTime = DateTimeUtils.getCurrentTime();
-
-    for (Task task : tasks) {
-      if (task.getEndDate() < currentTime) {
-        tasksCompleted++;
-      }
-    }
-    return tasksCompleted;
+    return getTaskIndex().countTasksEndingBefore(currentTime);
   }
 
   /**
@@ -490,21 +506,56 @@ public class Project implements Serializable {
   }
 
   /**
-   * Returns the data of the project formatted in the CSV format in a String.
+   * Returns a copy of the project and of its sub projects, with copies of their tasks,
+   * which later changes to this project do not affect. The copy keeps the parent of
+   * this project.
    *
-   * @return data of the project in a String
+   * @return the copy of the project tree
    */
-  public String toCsvFormat() {
-    StringBuilder data = new StringBuilder();
-    long initialDuration = TimeUnit.MILLISECONDS.toHours(this.getInitialDuration());
-    long currentDuration = TimeUnit.MILLISECONDS.toHours((this.getEndDate() - this.getStartDate()));
-    int tasksSize = this.getTasks().size();
-    data.append(this.getAuthor().getUsername()).append(CSV_SEPARATOR);
-    data.append(this.getTitle()).append(CSV_SEPARATOR);
-    data.append(initialDuration).append(CSV_SEPARATOR);
-    data.append(currentDuration).append(CSV_SEPARATOR);
-    data.append(tasksSize).append(CSV_SEPARATOR);
-    return data.toString();
+  public Project copyTree() {
+    return copyTree(this.parentProject);
+  }
+
+  /**
+   * Returns a copy of the project without its sub projects, with copies of its tasks,
+   * which later changes to this project do not affect. The copy keeps the parent of
+   * this project.
+   *
+   * @return the copy of the project
+   */
+  public Project copy() {
+    return copy(this.parentProject);
+  }
+
+  /**
+   * Returns a copy of the project without its sub projects under the given parent.
+   *
+   * @param parent the parent of the copy
+   * @return the copy of the project
+   */
+  private Project copy(Project parent) {
+    Project copy = new Project(this.id, this.title, this.description, this.startDate,
+        this.endDate, this.initialDuration, this.author, parent, this.color);
+    for (Task task : this.tasks) {
+      copy.tasks.add(task.copy());
+    }
+    copy.tags.addAll(this.tags);
+    copy.collaborators.addAll(this.collaborators);
+    return copy;
+  }
+
+  /**
+   * Returns a copy of the project and of its sub projects under the given parent.
+   *
+   * @param parent the parent of the copy
+   * @return the copy of the project tree
+   */
+  private Project copyTree(Project parent) {
+    Project copy = copy(parent);
+    for (Project subProject : this.subProjects) {
+      copy.subProjects.add(subProject.copyTree(copy));
+    }
+    return copy;
   }
 
   @Override
@@ -512,31 +563,51 @@ public class Project implements Serializable {
     return title;
   }
 
+  /**
+   * Two projects are equal when they share the same database id. Projects which are not
+   * persisted yet are only equal to themselves.
+   *
+   * @param object the object to compare with
+   * @return true if both objects represent the same persisted project, false otherwise
+   */
   @Override
   public boolean equals(Object object) {
-    if (object == null) {
-      return false;
-    }
     if (object == this) {
       return true;
     }
-    if (getClass() != object.getClass()) {
+    if (object == null || getClass() != object.getClass()) {
       return false;
     }
     Project other = (Project) object;
+    return this.id != UNSAVED_ID && this.id == other.id;
+  }
+
+  /**
+   * Compare every field of the project, its author and its parent chain.
+   *
+   * @param other the project to compare with
+   * @return true if both projects hold the same content, false otherwise
+   */
+  public boolean contentEquals(Project other) {
+    if (other == null) {
+      return false;
+    }
+    if (other == this) {
+      return true;
+    }
     boolean res = this.getId() == other.getId()
         && this.getTitle().equals(other.getTitle())
         && this.getDescription().equals(other.getDescription())
         && this.getStartDate() == other.getStartDate()
         && this.getEndDate() == other.getEndDate()
         && this.getInitialDuration() == other.getInitialDuration()
-        && this.getAuthor().equals(other.getAuthor())
+        && this.getAuthor().contentEquals(other.getAuthor())
         && this.getColor() == other.getColor();
 
     if (this.getParentProject() == null) {
       return res && this.getParentProject() == (other.getParentProject());
     } else {
-      return res && this.getParentProject().equals((other.getParentProject()));
+      return res && this.getParentProject().contentEquals((other.getParentProject()));
     }
   }
 
@@ -57,6 +57,16 @@ public enum State {
   /**
    * Indicates that a collaborator has left the collaboration.
    */
-  COLLABORATOR_REMOVED
+  COLLABORATOR_REMOVED,
+
+  /**
+   * Indicates that all the projects of the connected user are loaded.
+   */
+  PROJECTS_LOADED,
+
+  /**
+   * Indicates that the invitations sent or received by the connected user have changed.
+   */
+  INVITATIONS_CHANGED
 
 }
\ No newline at end of file
@@ -0,0 +1,206 @@
+package be.ac.ulb.infof307.g09.application.models;
+
+import be.ac.ulb.infof307.g09.application.utilities.DateTimeUtils;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The columns which can be exported in the statistics CSV file.
+ * Task columns produce one row per task instead of one row per project.
+ */
+public enum StatisticsColumn {
+  USERNAME("Username", false),
+
+  PROJECT_TITLE("Project title", false),
+
+  INITIAL_DURATION("Initial duration (hours)", false),
+
+  CURRENT_DURATION("Current duration (hours)", false),
+
+  TASKS("Tasks", false),
+
+  TASK_DESCRIPTION("Task description", true),
+
+  TASK_START_DATE("Task start date", true),
+
+  TASK_END_DATE("Task end date", true);
+
+  private final String header;
+  private final boolean taskColumn;
+
+  /**
+   * Constructor of a column.
+   *
+   * @param columnHeader the header of the column in the CSV file
+   * @param isTaskColumn true if the column describes a task
+   */
+  StatisticsColumn(String columnHeader, boolean isTaskColumn) {
+    this.header = columnHeader;
+    this.taskColumn = isTaskColumn;
+  }
+
+  /**
+   * Returns the header of the column.
+   *
+   * @return the header of the column
+   */
+  public String getHeader() {
+    return this.header;
+  }
+
+  /**
+   * Returns true if the column describes a task.
+   *
+   * @return true if the column describes a task
+   */
+  public boolean isTaskColumn() {
+    return this.taskColumn;
+  }
+
+  /**
+   * Returns the value of the column for a project or one of its tasks.
+   *
+   * @param project the project of the row
+   * @param task    the task of the row, null for a project row
+   * @return the value of the column, an empty string for a task column without task
+   */
+  public String getValue(Project project, Task task) {
+    String value = "";
+    switch (this) {
+      case USERNAME:
+        value = project.getAuthor().getUsername();
+        break;
+      case PROJECT_TITLE:
+        value = project.getTitle();
+        break;
+      case INITIAL_DURATION:
+        value = String.valueOf(TimeUnit.MILLISECONDS.toHours(project.getInitialDuration()));
+        break;
+      case CURRENT_DURATION:
+        value = String.valueOf(TimeUnit.MILLISECONDS.toHours(project.getCurrentDuration()));
+        break;
+      case TASKS:
+        value = String.valueOf(project.getTasks().size());
+        break;
+      case TASK_DESCRIPTION:
+        value = task == null ? "" : task.getDescription();
+        break;
+      case TASK_START_DATE:
+        value = task == null ? "" : DateTimeUtils.formatDateToString(task.getStartDate());
+        break;
+      case TASK_END_DATE:
+        value = task == null ? "" : DateTimeUtils.formatDateToString(task.getEndDate());
+        break;
+      default:
+        break;
+    }
+    return value;
+  }
+
+  /**
+   * Returns the columns exported by default, matching the project statistics.
+   *
+   * @return the default columns
+   */
+  public static List<StatisticsColumn> getDefaultColumns() {
+    return Arrays.asList(USERNAME, PROJECT_TITLE, INITIAL_DURATION, CURRENT_DURATION, TASKS);
+  }
+
+  /**
+   * Returns true if one of the columns describes a task.
+   *
+   * @param columns the columns
+   * @return true if one of the columns describes a task
+   */
+  public static boolean hasTaskColumn(List<StatisticsColumn> columns) {
+    for (StatisticsColumn column : columns) {
+      if (column.isTaskColumn()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns the rows of a project, one row per task when a task column is chosen.
+   * A project without task still produces one row.
+   *
+   * @param project the project
+   * @param columns the chosen columns
+   * @return the rows of the project
+   */
+  public static List<List<String>> getRows(Project project, List<StatisticsColumn> columns) {
+    int rowCount = getRowCount(project, columns);
+    List<List<String>> rows = new ArrayList<>(rowCount);
+    for (int index = 0; index < rowCount; index++) {
+      rows.add(getRow(project, index, columns));
+    }
+    return rows;
+  }
+
+  /**
+   * Returns the number of rows of a project, its number of tasks when a task column is
+   * chosen and the project has tasks, 1 otherwise.
+   *
+   * @param project the project
+   * @param columns the chosen columns
+   * @return the number of rows of the project
+   */
+  public static int getRowCount(Project project, List<StatisticsColumn> columns) {
+    if (hasTaskColumn(columns) && !project.getTasks().isEmpty()) {
+      return project.getTasks().size();
+    }
+    return 1;
+  }
+
+  /**
+   * Returns one row of a project, so that the rows can be written one by one.
+   *
+   * @param project the project
+   * @param index   the index of the row, lower than {@link #getRowCount(Project, List)}
+   * @param columns the chosen columns
+   * @return the values of the row
+   */
+  public static List<String> getRow(Project project, int index, List<StatisticsColumn> columns) {
+    Task task = hasTaskColumn(columns) && !project.getTasks().isEmpty()
+        ? project.getTasks().get(index) : null;
+    return getRow(project, task, columns);
+  }
+
+  /**
+   * Returns the headers of the columns.
+   *
+   * @param columns the chosen columns
+   * @return the headers
+   */
+  public static List<String> getHeaders(List<StatisticsColumn> columns) {
+    List<String> headers = new ArrayList<>(columns.size());
+    for (StatisticsColumn column : columns) {
+      headers.add(column.getHeader());
+    }
+    return headers;
+  }
+
+  /**
+   * Returns a single row.
+   *
+   * @param project the project of the row
+   * @param task    the task of the row, null for a project row
+   * @param columns the chosen columns
+   * @return the values of the row
+   */
+  private static List<String> getRow(Project project, Task task, List<StatisticsColumn> columns) {
+    List<String> row = new ArrayList<>(columns.size());
+    for (StatisticsColumn column : columns) {
+      row.add(column.getValue(project, task));
+    }
+    return row;
+  }
+
+  @Override
+  public String toString() {
+    return this.header;
+  }
+}
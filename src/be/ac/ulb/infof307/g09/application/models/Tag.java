@@ -9,7 +9,9 @@ import java.io.Serializable;
  * @author Pap Sanou
  */
 public class Tag implements Serializable {
+  private static final long serialVersionUID = 8764154521751754485L;
 
+  private static final int UNSAVED_ID = -1;
   private final int id;
   private final String description;
 
@@ -47,24 +49,41 @@ public class Tag implements Serializable {
     return this.description;
   }
 
+  /**
+   * Two tags are equal when they share the same database id. Tags which are not
+   * persisted yet are only equal to themselves.
+   *
+   * @param object the object to compare with
+   * @return true if both objects represent the same persisted tag, false otherwise
+   */
   @Override
   public boolean equals(Object object) {
-    if (object == null) {
-      return false;
-    }
     if (object == this) {
       return true;
     }
-    if (getClass() != object.getClass()) {
+    if (object == null || getClass() != object.getClass()) {
       return false;
     }
     Tag other = (Tag) object;
+    return this.id != UNSAVED_ID && this.id == other.id;
+  }
+
+  /**
+   * Compare the id and the description of the tag.
+   *
+   * @param other the tag to compare with
+   * @return true if both tags hold the same content, false otherwise
+   */
+  public boolean contentEquals(Tag other) {
+    if (other == null) {
+      return false;
+    }
     return this.getId() == (other.getId())
         && this.getDescription().equals((other.getDescription()));
   }
 
   @Override
   public int hashCode() {
-    return id * description.hashCode();
+    return id;
   }
 }
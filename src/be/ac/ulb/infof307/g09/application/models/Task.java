@@ -10,6 +10,8 @@ import java.util.List;
  * @author Pap Sanou
  */
 public class Task implements Serializable {
+  private static final long serialVersionUID = 8907402255270466355L;
+  private static final int UNSAVED_ID = -1;
   private final int id;
   private String description;
   private Long startDate;
@@ -135,6 +137,17 @@ public class Task implements Serializable {
     this.assignedUsers = newAssignedUsers;
   }
 
+  /**
+   * Returns a copy of the task, with its own list of assigned users.
+   *
+   * @return the copy of the task
+   */
+  public Task copy() {
+    Task copy = new Task(this.id, this.description, this.startDate, this.endDate, this.projectId);
+    copy.setAssignedUsers(new ArrayList<>(this.assignedUsers));
+    return copy;
+  }
+
   /**
    * Assign an user to the task.
    *
@@ -167,18 +180,35 @@ public class Task implements Serializable {
     return res;
   }
 
+  /**
+   * Two tasks are equal when they share the same database id. Tasks which are not
+   * persisted yet are only equal to themselves.
+   *
+   * @param object the object to compare with
+   * @return true if both objects represent the same persisted task, false otherwise
+   */
   @Override
   public boolean equals(Object object) {
-    if (object == null) {
-      return false;
-    }
     if (object == this) {
       return true;
     }
-    if (getClass() != object.getClass()) {
+    if (object == null || getClass() != object.getClass()) {
       return false;
     }
     Task other = (Task) object;
+    return this.id != UNSAVED_ID && this.id == other.id;
+  }
+
+  /**
+   * Compare the id, the description and the dates of the task.
+   *
+   * @param other the task to compare with
+   * @return true if both tasks hold the same content, false otherwise
+   */
+  public boolean contentEquals(Task other) {
+    if (other == null) {
+      return false;
+    }
     return this.getId() == (other.getId())
         && this.getDescription().equals(other.getDescription())
         && this.getStartDate().equals(other.getStartDate())
@@ -0,0 +1,308 @@
+package be.ac.ulb.infof307.g09.application.models;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Index of tasks answering date range queries without scanning every task. The tasks are
+ * kept in a balanced search tree (a treap) sorted by end date, where every node also stores
+ * the size of its subtree and the earliest start date of its subtree. Counting is done in
+ * logarithmic time and overlap queries skip every subtree starting after the window.
+ */
+public class TaskIntervalIndex {
+  private final Map<Integer, Node> nodes;
+  private final Random random;
+  private Node root;
+  private long nextOrder;
+
+  /**
+   * Creates an index containing the given tasks.
+   *
+   * @param tasks the tasks to index
+   */
+  public TaskIntervalIndex(Collection<Task> tasks) {
+    this.nodes = new HashMap<>();
+    this.random = new Random();
+    this.root = null;
+    this.nextOrder = 0;
+    for (Task task : tasks) {
+      add(task);
+    }
+  }
+
+  /**
+   * Adds a task to the index, or moves it if its dates changed since it was indexed.
+   *
+   * @param task the task to add
+   */
+  public void add(Task task) {
+    remove(task);
+    Node node = new Node(task, this.nextOrder++, this.random.nextInt());
+    this.nodes.put(task.getId(), node);
+    Node[] parts = split(this.root, node);
+    this.root = merge(merge(parts[0], node), parts[1]);
+  }
+
+  /**
+   * Removes a task from the index, does nothing if the task is not indexed.
+   *
+   * @param task the task to remove
+   */
+  public void remove(Task task) {
+    Node node = this.nodes.remove(task.getId());
+    if (node != null) {
+      this.root = delete(this.root, node);
+    }
+  }
+
+  /**
+   * Returns the number of indexed tasks.
+   *
+   * @return the number of indexed tasks
+   */
+  public int size() {
+    return this.nodes.size();
+  }
+
+  /**
+   * Returns the tasks ending strictly before the given time.
+   *
+   * @param time the time in epoch milli format
+   * @return the tasks ending before the time, sorted by end date
+   */
+  public List<Task> getTasksEndingBefore(long time) {
+    List<Task> tasks = new ArrayList<>();
+    collectEnding(this.root, Long.MIN_VALUE, time, tasks);
+    return tasks;
+  }
+
+  /**
+   * Returns the number of tasks ending strictly before the given time.
+   *
+   * @param time the time in epoch milli format
+   * @return the number of tasks ending before the time
+   */
+  public int countTasksEndingBefore(long time) {
+    int count = 0;
+    Node node = this.root;
+    while (node != null) {
+      if (node.endDate < time) {
+        count += size(node.left) + 1;
+        node = node.right;
+      } else {
+        node = node.left;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Returns the tasks ending in the given window.
+   *
+   * @param from the start of the window in epoch milli format, inclusive
+   * @param to   the end of the window in epoch milli format, exclusive
+   * @return the tasks ending in the window, sorted by end date
+   */
+  public List<Task> getTasksEndingBetween(long from, long to) {
+    List<Task> tasks = new ArrayList<>();
+    if (from < to) {
+      collectEnding(this.root, from, to, tasks);
+    }
+    return tasks;
+  }
+
+  /**
+   * Returns the tasks whose dates overlap the given window.
+   *
+   * @param from the start of the window in epoch milli format, inclusive
+   * @param to   the end of the window in epoch milli format, inclusive
+   * @return the tasks overlapping the window, sorted by end date
+   */
+  public List<Task> getTasksOverlapping(long from, long to) {
+    List<Task> tasks = new ArrayList<>();
+    if (from <= to) {
+      collectOverlapping(this.root, from, to, tasks);
+    }
+    return tasks;
+  }
+
+  /**
+   * Collects, in order, the tasks of a subtree ending in a window.
+   *
+   * @param node  the root of the subtree
+   * @param from  the start of the window, inclusive
+   * @param to    the end of the window, exclusive
+   * @param tasks the list receiving the tasks
+   */
+  private void collectEnding(Node node, long from, long to, List<Task> tasks) {
+    if (node == null) {
+      return;
+    }
+    if (node.endDate >= from) {
+      collectEnding(node.left, from, to, tasks);
+    }
+    if (node.endDate >= from && node.endDate < to) {
+      tasks.add(node.task);
+    }
+    if (node.endDate < to) {
+      collectEnding(node.right, from, to, tasks);
+    }
+  }
+
+  /**
+   * Collects, in order, the tasks of a subtree overlapping a window. A subtree whose
+   * earliest start date is after the window cannot contain any of them.
+   *
+   * @param node  the root of the subtree
+   * @param from  the start of the window, inclusive
+   * @param to    the end of the window, inclusive
+   * @param tasks the list receiving the tasks
+   */
+  private void collectOverlapping(Node node, long from, long to, List<Task> tasks) {
+    if (node == null || node.minStartDate > to) {
+      return;
+    }
+    if (node.endDate >= from) {
+      collectOverlapping(node.left, from, to, tasks);
+      if (node.startDate <= to) {
+        tasks.add(node.task);
+      }
+    }
+    collectOverlapping(node.right, from, to, tasks);
+  }
+
+  /**
+   * Splits a subtree into the nodes ordered before a key node and the others.
+   *
+   * @param node the root of the subtree
+   * @param key  the node to split at
+   * @return the roots of the nodes before the key and of the others
+   */
+  private static Node[] split(Node node, Node key) {
+    if (node == null) {
+      return new Node[] {null, null};
+    }
+    if (node.compareTo(key) < 0) {
+      Node[] parts = split(node.right, key);
+      node.right = parts[0];
+      node.update();
+      return new Node[] {node, parts[1]};
+    }
+    Node[] parts = split(node.left, key);
+    node.left = parts[1];
+    node.update();
+    return new Node[] {parts[0], node};
+  }
+
+  /**
+   * Merges two subtrees, every node of the first being ordered before those of the second.
+   *
+   * @param first  the root of the first subtree
+   * @param second the root of the second subtree
+   * @return the root of the merged subtree
+   */
+  private static Node merge(Node first, Node second) {
+    if (first == null) {
+      return second;
+    }
+    if (second == null) {
+      return first;
+    }
+    if (first.priority > second.priority) {
+      first.right = merge(first.right, second);
+      first.update();
+      return first;
+    }
+    second.left = merge(first, second.left);
+    second.update();
+    return second;
+  }
+
+  /**
+   * Deletes a node from a subtree.
+   *
+   * @param node   the root of the subtree
+   * @param target the node to delete
+   * @return the root of the subtree without the node
+   */
+  private static Node delete(Node node, Node target) {
+    if (node == null) {
+      return null;
+    }
+    if (node == target) {
+      return merge(node.left, node.right);
+    }
+    if (target.compareTo(node) < 0) {
+      node.left = delete(node.left, target);
+    } else {
+      node.right = delete(node.right, target);
+    }
+    node.update();
+    return node;
+  }
+
+  /**
+   * Returns the number of nodes of a subtree.
+   *
+   * @param node the root of the subtree
+   * @return the number of nodes, 0 for an empty subtree
+   */
+  private static int size(Node node) {
+    return node == null ? 0 : node.size;
+  }
+
+  /**
+   * Node of the tree. The dates are copied so that a task modified after being indexed
+   * can still be found and moved.
+   */
+  private static final class Node {
+    private final Task task;
+    private final long startDate;
+    private final long endDate;
+    private final long order;
+    private final int priority;
+    private Node left;
+    private Node right;
+    private int size;
+    private long minStartDate;
+
+    private Node(Task task, long order, int priority) {
+      this.task = task;
+      this.startDate = task.getStartDate();
+      this.endDate = task.getEndDate();
+      this.order = order;
+      this.priority = priority;
+      update();
+    }
+
+    /**
+     * Recomputes the size and the earliest start date of the subtree from its children.
+     */
+    private void update() {
+      this.size = 1 + TaskIntervalIndex.size(this.left) + TaskIntervalIndex.size(this.right);
+      this.minStartDate = this.startDate;
+      if (this.left != null) {
+        this.minStartDate = Math.min(this.minStartDate, this.left.minStartDate);
+      }
+      if (this.right != null) {
+        this.minStartDate = Math.min(this.minStartDate, this.right.minStartDate);
+      }
+    }
+
+    /**
+     * Compares the position of two nodes, by end date then by insertion order.
+     *
+     * @param other the other node
+     * @return a negative number, zero or a positive number if this node is before, at or after
+     *     the other
+     */
+    private int compareTo(Node other) {
+      int comparison = Long.compare(this.endDate, other.endDate);
+      return comparison != 0 ? comparison : Long.compare(this.order, other.order);
+    }
+  }
+}
@@ -1,8 +1,12 @@
 package be.ac.ulb.infof307.g09.application.models;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -13,7 +17,9 @@ import java.util.regex.Pattern;
  * @author El Bakkali Soufian
  */
 public class User implements Serializable {
+  private static final long serialVersionUID = 4772321449734156892L;
   private static final String VALID_EMAIL = "^[A-Z0-9._%+-]+@[A-Z0-9.-]+\\.[A-Z]{2,6}$";
+  private static final int UNSAVED_ID = -1;
   private final int id;
   private String username;
   private String email;
@@ -22,6 +28,8 @@ public class User implements Serializable {
   private String password;
   private List<Project> projectList;
   private final List<Project> authorProjects;
+  private transient Map<Integer, Project> projectIndex;
+  private transient TaskIntervalIndex assignedTaskIndex;
 
   /**
    * Creates a new user with the specified parameters.
@@ -43,6 +51,24 @@ public class User implements Serializable {
     this.password = userPassword;
     this.projectList = new ArrayList<>();
     this.authorProjects = new ArrayList<>();
+    this.projectIndex = new HashMap<>();
+  }
+
+  /**
+   * Reads a serialized user, then rebuilds the projects index which is not serialized.
+   *
+   * @param in the stream to read from
+   * @throws IOException            if the stream cannot be read
+   * @throws ClassNotFoundException if the class of a serialized object is not found
+   */
+  private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+    in.defaultReadObject();
+    this.projectIndex = new HashMap<>();
+    if (this.projectList != null) {
+      for (Project project : this.projectList) {
+        indexProject(project);
+      }
+    }
   }
 
   /**
@@ -154,40 +180,52 @@ public class User implements Serializable {
   }
 
   /**
-   * Gets a user project.
+   * Gets a user project, at any depth of the projects tree.
    *
    * @param projectToGet the project to get
    * @return the project if found, null otherwise
    */
   public Project getProject(Project projectToGet) {
-    Project foundProject;
-    for (Project parentProject : this.projectList) {
-      if (parentProject.equals(projectToGet)) {
-        return parentProject;
-      }
-      foundProject = findSubProject(parentProject, projectToGet);
-      if (foundProject != null) {
-        return foundProject;
-      }
-    }
-    return null;
+    return projectToGet == null ? null : getProjectById(projectToGet.getId());
   }
 
   /**
-   * Finds a subproject in project's tree structure.
+   * Gets a user project by its id, at any depth of the projects tree.
    *
-   * @param parentProject the parent project
-   * @param projectToFind the project to find
+   * @param projectId the id of the project to get
    * @return the project if found, null otherwise
    */
-  private Project findSubProject(Project parentProject, Project projectToFind) {
-    for (Project subProject : parentProject.getSubProjects()) {
-      if (subProject.equals(projectToFind)) {
-        return subProject;
+  public Project getProjectById(int projectId) {
+    return this.projectIndex.get(projectId);
+  }
+
+  /**
+   * Adds a project and all its sub projects to the projects index.
+   *
+   * @param project the root of the tree to index
+   */
+  private void indexProject(Project project) {
+    this.projectIndex.put(project.getId(), project);
+    for (Project subProject : project.getSubProjects()) {
+      indexProject(subProject);
+    }
+  }
+
+  /**
+   * Removes a project and all its sub projects from the projects index.
+   *
+   * @param project the root of the tree to remove from the index
+   */
+  private void unindexProject(Project project) {
+    this.projectIndex.remove(project.getId());
+    if (this.assignedTaskIndex != null) {
+      for (Task task : project.getTasks()) {
+        this.assignedTaskIndex.remove(task);
       }
-      return findSubProject(subProject, projectToFind);
     }
-    return null;
+    for (Project subProject : project.getSubProjects()) {
+      unindexProject(subProject);
+    }
   }
 
   /**
@@ -197,6 +235,34 @@ public class User implements Serializable {
    */
   public void setProjectList(List<Project> newProjectList) {
     this.projectList = newProjectList;
+    this.projectIndex.clear();
+    this.assignedTaskIndex = null;
+    if (newProjectList != null) {
+      for (Project project : newProjectList) {
+        indexProject(project);
+      }
+    }
+  }
+
+  /**
+   * Returns the index by date of the tasks assigned to the user, in every project of the
+   * projects tree. The index is built on first use.
+   *
+   * @return the index of the tasks assigned to the user
+   */
+  public TaskIntervalIndex getAssignedTaskIndex() {
+    if (this.assignedTaskIndex == null) {
+      List<Task> assignedTasks = new ArrayList<>();
+      for (Project project : this.projectIndex.values()) {
+        for (Task task : project.getTasks()) {
+          if (task.getAssignedUsers().contains(this)) {
+            assignedTasks.add(task);
+          }
+        }
+      }
+      this.assignedTaskIndex = new TaskIntervalIndex(assignedTasks);
+    }
+    return this.assignedTaskIndex;
   }
 
   /**
@@ -215,6 +281,7 @@ public class User implements Serializable {
    */
   public void addProjectList(Project project) {
     this.projectList.add(project);
+    indexProject(project);
   }
 
   /**
@@ -223,7 +290,11 @@ public class User implements Serializable {
    * @param project the project to remove
    */
   public void removeProjectList(Project project) {
-    projectList.remove(project);
+    Project indexedProject = getProject(project);
+    if (indexedProject != null) {
+      projectList.remove(indexedProject);
+      unindexProject(indexedProject);
+    }
   }
 
   /**
@@ -241,8 +312,39 @@ public class User implements Serializable {
    * @param subProject the sub project to remove
    */
   public void removeSubProject(Project subProject) {
-    int index = this.projectList.indexOf(subProject.getParentProject());
-    this.projectList.get(index).removeSubProject(subProject);
+    Project indexedSubProject = getProject(subProject);
+    if (indexedSubProject != null) {
+      Project parent = getProject(indexedSubProject.getParentProject());
+      if (parent != null) {
+        parent.removeSubProject(indexedSubProject);
+      }
+      unindexProject(indexedSubProject);
+    }
+  }
+
+  /**
+   * Attaches a sub project under its parent project, moving it away from its
+   * previous parent if it was already part of the projects tree.
+   *
+   * @param subProject the sub project to attach, its parent project must be set
+   */
+  public void addSubProject(Project subProject) {
+    Project parent = getProject(subProject.getParentProject());
+    if (parent != null) {
+      Project previous = getProject(subProject);
+      if (previous != null && previous.getParentProject() != null) {
+        Project previousParent = getProject(previous.getParentProject());
+        if (previousParent != null) {
+          previousParent.removeSubProject(previous);
+        }
+        unindexProject(previous);
+      }
+      subProject.setParentProject(parent);
+      parent.addSubProjects(subProject);
+      indexProject(subProject);
+    } else if (subProject.getParentProject() != null) {
+      subProject.getParentProject().addSubProjects(subProject);
+    }
   }
 
   /**
@@ -299,18 +401,35 @@ public class User implements Serializable {
     return this.username;
   }
 
+  /**
+   * Two users are equal when they share the same database id. Users which are not
+   * registered yet are only equal to themselves.
+   *
+   * @param object the object to compare with
+   * @return true if both objects represent the same registered user, false otherwise
+   */
   @Override
   public boolean equals(Object object) {
-    if (object == null) {
-      return false;
-    }
     if (object == this) {
       return true;
     }
-    if (getClass() != object.getClass()) {
+    if (object == null || getClass() != object.getClass()) {
       return false;
     }
     User other = (User) object;
+    return this.id != UNSAVED_ID && this.id == other.id;
+  }
+
+  /**
+   * Compare every field of the user, password included.
+   *
+   * @param other the user to compare with
+   * @return true if both users hold the same content, false otherwise
+   */
+  public boolean contentEquals(User other) {
+    if (other == null) {
+      return false;
+    }
     return this.getId() == other.getId()
         && this.getUsername().equals(other.getUsername())
         && this.getEmail().equals(other.getEmail())
@@ -321,7 +440,7 @@ public class User implements Serializable {
 
   @Override
   public int hashCode() {
-    return id * username.hashCode() * email.hashCode();
+    return id;
   }
 }
 
@@ -1,28 +1,46 @@
 package be.ac.ulb.infof307.g09.application.models.handlers;
 
+import be.ac.ulb.infof307.g09.application.models.Change;
 import be.ac.ulb.infof307.g09.application.models.Color;
+import be.ac.ulb.infof307.g09.application.models.Invitation;
 import be.ac.ulb.infof307.g09.application.models.Project;
 import be.ac.ulb.infof307.g09.application.models.State;
 import be.ac.ulb.infof307.g09.application.models.Tag;
 import be.ac.ulb.infof307.g09.application.models.Task;
 import be.ac.ulb.infof307.g09.application.models.User;
+import be.ac.ulb.infof307.g09.archive.ProjectDelta;
 import be.ac.ulb.infof307.g09.exceptions.ConnectionFailedException;
 import be.ac.ulb.infof307.g09.exceptions.DatabaseException;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Observable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import javafx.util.Pair;
 
 /**
  * Handles the application and keeps all user data up to date.
+ * Every change of the model is published as a {@link ModelEvent} on the event bus.
  */
-public class Application extends Observable {
+public class Application {
   private User user;
   private final Session session;
   private ProjectHandler projectHandler;
   private TaskHandler taskHandler;
   private TagHandler tagHandler;
   private CollaborationHandler collaborationHandler;
-  private State state;
+  private StatisticsHandler statisticsHandler;
+  private ChangeLogHandler changeLogHandler;
+  private ProjectExportHandler projectExportHandler;
+  private RemoteChangeHandler remoteChangeHandler;
+  private final EventBus eventBus;
+  private volatile boolean loadingProjects;
+  private volatile long loadedSequence;
+  private File snapshotDirectory;
 
   /**
    * Initialises the application. By default, the user is not connected.
@@ -33,25 +51,190 @@ public class Application extends Observable {
     this.taskHandler = null;
     this.taskHandler = null;
     this.collaborationHandler = null;
-    this.state = State.APPLICATION_CREATED;
+    this.changeLogHandler = new ChangeLogHandler();
     this.session = new Session();
+    this.eventBus = new EventBus();
+    this.snapshotDirectory = null;
   }
 
   /**
-   * Connects the user to the application and loads his projects.
+   * Sets the directory in which the loaded projects of each user are kept between sessions.
+   * Without directory, every project is loaded from the database at each connection.
+   *
+   * @param directory the directory of the session snapshots, null to disable them
+   */
+  public void setSnapshotDirectory(File directory) {
+    this.snapshotDirectory = directory;
+  }
+
+  /**
+   * Connects the user to the application and loads his projects on the calling thread.
    *
    * @param username the username of the user
    * @param password password of the user
    * @throws DatabaseException         if a problem occurs while fetching the user's projects.
    * @throws ConnectionFailedException If the connection to the database fails
+   * @throws UncheckedIOException      if the snapshot of the session cannot be written
    */
   public void connect(String username, String password)
       throws DatabaseException, ConnectionFailedException {
+    authenticate(username, password);
+    try {
+      loadProjects(this.user, Runnable::run);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    publish(State.PROJECTS_LOADED, this.user);
+  }
+
+  /**
+   * Connects the user to the application without loading his projects, which are loaded
+   * afterwards by {@link #loadProjects(Executor)}.
+   *
+   * @param username the username of the user
+   * @param password password of the user
+   * @throws DatabaseException         if a problem occurs while fetching the user.
+   * @throws ConnectionFailedException If the connection to the database fails
+   */
+  public void authenticate(String username, String password)
+      throws DatabaseException, ConnectionFailedException {
     session.connect(username, password);
     this.user = session.getUser();
     initHandlers();
   }
 
+  /**
+   * Loads the projects of the connected user on a background thread. Each parent project
+   * is added with its whole tree as soon as it is loaded and published as created, then
+   * {@link State#PROJECTS_LOADED} is published. The projects are added to the model through
+   * the given executor, so the model is only changed on the thread of the views.
+   * The loading fails with an {@link IOException} when every project is added but the
+   * snapshot of the session cannot be written.
+   *
+   * @param executor the executor adding the loaded projects to the model
+   * @return the loading, completed through the executor once every project is added
+   */
+  public CompletableFuture<Void> loadProjects(Executor executor) {
+    User loadingUser = this.user;
+    CompletableFuture<Void> loading = new CompletableFuture<>();
+    this.loadingProjects = true;
+    ExecutorService loader = Executors.newSingleThreadExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "project-loader");
+      thread.setDaemon(true);
+      return thread;
+    });
+    loader.execute(() -> {
+      try {
+        loadProjects(loadingUser, executor);
+        executor.execute(() -> finishLoading(loadingUser, loading, null));
+      } catch (DatabaseException | ConnectionFailedException | IOException e) {
+        executor.execute(() -> finishLoading(loadingUser, loading, e));
+      }
+    });
+    loader.shutdown();
+    return loading;
+  }
+
+  /**
+   * Checks whether the projects of the user are still being loaded.
+   *
+   * @return true while the projects are loaded in the background
+   */
+  public boolean isLoadingProjects() {
+    return this.loadingProjects;
+  }
+
+  /**
+   * Loads the authored then the collaborated projects of a user, one parent project at a time.
+   * The trees which did not change since the snapshot of the previous session are taken from
+   * the snapshot, the others are loaded from the database, then every tree is written
+   * to the snapshot of this session.
+   *
+   * @param loadingUser the user whose projects are loaded
+   * @param executor    the executor adding each loaded project to the model
+   * @throws DatabaseException         if a problem occurs while fetching the user's projects.
+   * @throws ConnectionFailedException If the connection to the database fails
+   * @throws IOException               if the snapshot of the session cannot be written
+   */
+  private void loadProjects(User loadingUser, Executor executor)
+      throws DatabaseException, ConnectionFailedException, IOException {
+    this.loadedSequence = this.changeLogHandler.getLastSequence();
+    SessionSnapshotHandler snapshotHandler =
+        new SessionSnapshotHandler(this.snapshotDirectory, loadingUser);
+    try {
+      snapshotHandler.open();
+      for (int id : session.getParentProjectIds(loadingUser)) {
+        Project project = loadProject(snapshotHandler, id);
+        executor.execute(() -> addLoadedProject(loadingUser, project, true));
+      }
+      for (int id : session.getCollaboratorProjectIds(loadingUser)) {
+        Project project = loadProject(snapshotHandler, id);
+        executor.execute(() -> addLoadedProject(loadingUser, project, false));
+      }
+      snapshotHandler.commitSnapshot();
+    } finally {
+      snapshotHandler.abandonSnapshot();
+    }
+  }
+
+  /**
+   * Loads a project tree from the previous snapshot if it did not change, from the database
+   * otherwise, and adds it to the new snapshot before it is handed to the model.
+   *
+   * @param snapshotHandler the snapshots of the user
+   * @param id              the id of the project
+   * @return the loaded project
+   * @throws DatabaseException         if a problem occurs while fetching the project.
+   * @throws ConnectionFailedException If the connection to the database fails
+   */
+  private Project loadProject(SessionSnapshotHandler snapshotHandler, int id)
+      throws DatabaseException, ConnectionFailedException {
+    Project project = snapshotHandler.getUnchangedProject(id);
+    if (project == null) {
+      project = session.loadProject(id);
+    }
+    snapshotHandler.addToSnapshot(project);
+    return project;
+  }
+
+  /**
+   * Adds a loaded project tree to the projects of the user, unless he disconnected meanwhile.
+   *
+   * @param loadingUser the user whose projects are loaded
+   * @param project     the loaded project
+   * @param authored    true if the user is the author of the project
+   */
+  private void addLoadedProject(User loadingUser, Project project, boolean authored) {
+    if (this.user != loadingUser) {
+      return;
+    }
+    if (authored) {
+      this.user.getAuthorProjects().add(project);
+    }
+    this.user.addProjectList(project);
+    this.taskHandler.trackProjectTasks(project);
+    publish(State.PROJECT_CREATED, project);
+  }
+
+  /**
+   * Ends the loading of the projects of a user.
+   *
+   * @param loadingUser the user whose projects are loaded
+   * @param loading     the loading to complete
+   * @param error       the error which stopped the loading, null if every project is loaded
+   */
+  private void finishLoading(User loadingUser, CompletableFuture<Void> loading, Exception error) {
+    if (this.user == loadingUser) {
+      this.loadingProjects = false;
+      publish(State.PROJECTS_LOADED, loadingUser);
+    }
+    if (error == null) {
+      loading.complete(null);
+    } else {
+      loading.completeExceptionally(error);
+    }
+  }
+
   /**
    * Register a new user to the application.
    *
@@ -67,21 +250,75 @@ public class Application extends Observable {
   }
 
   /**
-   * Initializes the sub facades.
+   * Initializes the sub facades. The change log is shared by every user, so its
+   * compaction is only restarted, and the watcher of a previous user is stopped.
    */
   private void initHandlers() {
+    if (this.remoteChangeHandler != null) {
+      this.remoteChangeHandler.stop();
+    }
     this.projectHandler = new ProjectHandler(user);
     this.taskHandler = new TaskHandler(user);
     this.tagHandler = new TagHandler(user);
     this.collaborationHandler = new CollaborationHandler(user);
+    this.statisticsHandler = new StatisticsHandler(user);
+    this.changeLogHandler.startCompaction();
+    this.projectExportHandler = new ProjectExportHandler(user);
+    this.remoteChangeHandler = new RemoteChangeHandler(user, taskHandler, this::publish);
   }
 
   /**
    * Disconnects a user.
    */
   public void disconnect() {
+    if (this.taskHandler != null) {
+      this.taskHandler.stopDeadlineScheduler();
+    }
+    this.changeLogHandler.stopCompaction();
+    if (this.remoteChangeHandler != null) {
+      this.remoteChangeHandler.stop();
+    }
     session.disconnect();
     this.user = null;
+    this.loadingProjects = false;
+  }
+
+  /**
+   * Starts watching the changes made to the projects of the user by other sessions on the
+   * same database, from the last change seen when the projects were loaded. The changes are
+   * applied to the model through the given executor and published like local changes.
+   * Between two polls, only the sequence number of the last change is read.
+   *
+   * @param executor     the executor applying the changes to the model
+   * @param periodMillis the delay between two polls, in milliseconds
+   */
+  public void startChangeWatcher(Executor executor, long periodMillis) {
+    this.remoteChangeHandler.start(this.loadedSequence, executor, periodMillis);
+  }
+
+  /**
+   * Returns the changes made in the database after a sequence number,
+   * to refresh incrementally what was loaded before it.
+   *
+   * @param sequence the sequence number of the last change already known
+   * @return the changes made after the sequence number, in order
+   * @throws DatabaseException         if a problem occurs while reading the change log
+   * @throws ConnectionFailedException If the connection to the database fails
+   */
+  public List<Change> getChangesSince(long sequence)
+      throws DatabaseException, ConnectionFailedException {
+    return this.changeLogHandler.getChangesSince(sequence);
+  }
+
+  /**
+   * Returns the sequence number of the last change made in the database.
+   *
+   * @return the sequence number of the last change, 0 if nothing changed
+   * @throws DatabaseException         if a problem occurs while reading the change log
+   * @throws ConnectionFailedException If the connection to the database fails
+   */
+  public long getLastChangeSequence() throws DatabaseException, ConnectionFailedException {
+    return this.changeLogHandler.getLastSequence();
   }
 
   /**
@@ -192,6 +429,22 @@ public class Application extends Observable {
     return user.getAuthorProjects();
   }
 
+  /**
+   * Returns the parent projects which the user is the author of,
+   * the ones which can be exported.
+   *
+   * @return List of projects
+   */
+  public List<Project> getExportableProjects() {
+    List<Project> exportableProjects = new ArrayList<>();
+    for (Project project : user.getProjectList()) {
+      if (user.equals(project.getAuthor())) {
+        exportableProjects.add(project);
+      }
+    }
+    return exportableProjects;
+  }
+
   /**
    * Check if the user exists by username.
    *
@@ -218,9 +471,117 @@ public class Application extends Observable {
     return this.session.checkIfEmailExists(email);
   }
 
+  /**
+   * Returns true if an imported project was created by the connected user, whatever its
+   * author's id in the exporting database.
+   *
+   * @param importedProject the imported project
+   * @return true if the author of the project is the connected user
+   */
+  public boolean isAuthoredByUser(Project importedProject) {
+    return this.projectHandler.isAuthoredByUser(importedProject);
+  }
+
+  /**
+   * Finds the projects of imported trees which already exist in the user's projects or in
+   * a tree imported before them.
+   *
+   * @param importedProjects the roots of the imported trees
+   * @return for each tree, in the same order, its conflicting projects, empty if the tree
+   *         can be imported
+   */
+  public List<List<Project>> findImportConflicts(List<Project> importedProjects) {
+    return this.projectHandler.findImportConflicts(importedProjects);
+  }
+
+  /**
+   * Imports a whole project tree, with its tasks and tags, in one transaction,
+   * inserts it in the list of projects and notifies the subscribers.
+   *
+   * @param importedProject the project to import
+   * @return the imported project
+   * @throws DatabaseException         if a problem occurs while importing the project,
+   *                                   nothing is imported in that case
+   * @throws ConnectionFailedException If the connection to the database fails
+   */
+  public Project importProject(Project importedProject)
+      throws DatabaseException, ConnectionFailedException {
+    Project createdProject = this.projectHandler.importProject(importedProject);
+    this.taskHandler.trackProjectTasks(createdProject);
+    publish(State.PROJECT_CREATED, createdProject);
+    return createdProject;
+  }
+
+  /**
+   * Imports a whole project tree like {@link #importProject(Project)}, and remembers the
+   * change sequence of the exporting database so that the next deltas of the tree can be
+   * applied on it.
+   *
+   * @param importedProject the project to import
+   * @param sequence        the change sequence of the exporting database
+   * @return the imported project
+   * @throws DatabaseException         if a problem occurs while importing the project
+   * @throws ConnectionFailedException If the connection to the database fails
+   */
+  public Project importProject(Project importedProject, long sequence)
+      throws DatabaseException, ConnectionFailedException {
+    Project createdProject = importProject(importedProject);
+    this.projectExportHandler.recordImport(importedProject, createdProject, sequence);
+    return createdProject;
+  }
+
+  /**
+   * Remembers the export of a project tree, the next exports of the tree being deltas
+   * since this one.
+   *
+   * @param root     the root of the exported tree
+   * @param sequence the change sequence read before the export
+   * @throws DatabaseException         if a problem occurs while saving the export
+   * @throws ConnectionFailedException If the connection to the database fails
+   */
+  public void recordProjectExport(Project root, long sequence)
+      throws DatabaseException, ConnectionFailedException {
+    this.projectExportHandler.recordExport(root, sequence);
+  }
+
+  /**
+   * Builds the delta of a project tree since its last export.
+   *
+   * @param root the root of the tree
+   * @return the delta of the tree, null if the tree was never exported
+   * @throws DatabaseException         if a problem occurs while reading the change log
+   * @throws ConnectionFailedException If the connection to the database fails
+   */
+  public ProjectDelta createProjectDelta(Project root)
+      throws DatabaseException, ConnectionFailedException {
+    return this.projectExportHandler.createDelta(root);
+  }
+
+  /**
+   * Applies the delta of a project tree on its imported copy, in one transaction, then
+   * replaces the copy in the list of projects and notifies the subscribers.
+   *
+   * @param delta    the delta to apply
+   * @param sequence the change sequence of the exporting database
+   * @return the updated root of the copy
+   * @throws DatabaseException         if the copy is not found, the delta does not follow its
+   *                                   last import or a problem occurs while applying it
+   * @throws ConnectionFailedException If the connection to the database fails
+   */
+  public Project applyProjectDelta(ProjectDelta delta, long sequence)
+      throws DatabaseException, ConnectionFailedException {
+    Project previousRoot = this.projectExportHandler.findDeltaRoot(delta);
+    Project updatedRoot = this.projectExportHandler.applyDelta(previousRoot, delta, sequence);
+    this.taskHandler.untrackProjectTasks(previousRoot);
+    publish(State.PROJECT_DELETED, previousRoot);
+    this.taskHandler.trackProjectTasks(updatedRoot);
+    publish(State.PROJECT_CREATED, updatedRoot);
+    return updatedRoot;
+  }
+
   /**
    * Calls the function in ProjectDatabase that inserts the project,
-   * inserts the project in the list of projects and notifies all the observers.
+   * inserts the project in the list of projects and notifies the subscribers.
    *
    * @param newProject   project to insert
    * @param isSubProject True if we want to insert a subproject, false for a parent project
@@ -232,8 +593,7 @@ public class Application extends Observable {
   public Project insertProject(Project newProject, boolean isSubProject)
       throws DatabaseException, ConnectionFailedException {
     Project createdProject = this.projectHandler.insertProject(newProject, isSubProject);
-    setState(State.PROJECT_CREATED);
-    notifyObservers(createdProject);
+    publish(State.PROJECT_CREATED, createdProject);
     return createdProject;
   }
 
@@ -244,8 +604,7 @@ public class Application extends Observable {
    */
   public void addCollaboratorProject(Project newProject) {
     this.collaborationHandler.addCollaboratorProject(newProject);
-    setState(State.PROJECT_CREATED);
-    notifyObservers(newProject);
+    publish(State.PROJECT_CREATED, newProject);
   }
 
   /**
@@ -259,8 +618,7 @@ public class Application extends Observable {
   public void removeCollaborationFromProject(Project project)
       throws DatabaseException, ConnectionFailedException {
     this.collaborationHandler.removeCollaborationFromProject(project);
-    setState(State.COLLABORATOR_REMOVED);
-    notifyObservers(project);
+    publish(State.COLLABORATOR_REMOVED, project);
   }
 
   /**
@@ -277,20 +635,6 @@ public class Application extends Observable {
     return this.collaborationHandler.getCollaboratorsInvitedByProject(project);
   }
 
-  /**
-   * Gets the collaborators by project that have not answered to the invitations yet.
-   *
-   * @param project the project to check if it has not been answered yet
-   * @return the list of users that have not answered the project yet
-   * @throws DatabaseException         If there is an error during the execution of the query
-   *                                   or during the extraction of the result.
-   * @throws ConnectionFailedException If the connection to the database fails
-   */
-  public List<User> getCollaboratorsByProjectWaiting(Project project)
-      throws DatabaseException, ConnectionFailedException {
-    return this.collaborationHandler.getCollaboratorsByProjectWaiting(project);
-  }
-
   /**
    * Gets the collaborators by project that have been refused.
    *
@@ -349,6 +693,20 @@ public class Application extends Observable {
     this.collaborationHandler.updateInvitationRead(project, collaborator);
   }
 
+  /**
+   * Deletes the refused invitations and marks the accepted ones as read, in one transaction.
+   *
+   * @param refusedInvitations  the refused invitations, as (project, collaborator) pairs
+   * @param acceptedInvitations the accepted invitations, as (project, collaborator) pairs
+   * @throws DatabaseException         if there is an error during the access to the database
+   * @throws ConnectionFailedException If the connection to the database fails
+   */
+  public void acknowledgeInvitations(List<Pair<Project, User>> refusedInvitations,
+                                     List<Pair<Project, User>> acceptedInvitations)
+      throws DatabaseException, ConnectionFailedException {
+    this.collaborationHandler.acknowledgeInvitations(refusedInvitations, acceptedInvitations);
+  }
+
   /**
    * Deletes the project from the application.
    *
@@ -360,8 +718,7 @@ public class Application extends Observable {
   public void deleteProject(Project projectToDelete)
       throws DatabaseException, ConnectionFailedException {
     this.projectHandler.deleteProject(projectToDelete);
-    setState(State.PROJECT_DELETED);
-    notifyObservers(projectToDelete);
+    publish(State.PROJECT_DELETED, projectToDelete);
   }
 
   /**
@@ -382,8 +739,7 @@ public class Application extends Observable {
       throws DatabaseException, ConnectionFailedException {
     this.projectHandler.updateProject(
         projectToModify, projectTitle, projectDescription, endDate, color);
-    setState(State.PROJECT_MODIFIED);
-    notifyObservers(projectToModify);
+    publish(State.PROJECT_MODIFIED, projectToModify);
   }
 
   /**
@@ -397,26 +753,126 @@ public class Application extends Observable {
   }
 
   /**
-   * Returns the state of the application.
+   * Subscribes to some types of changes of the model, delivered on the thread making the
+   * change.
+   *
+   * @param subscriber the subscriber
+   * @param types      the types of changes to receive
+   * @return the subscription, to cancel it
+   */
+  public EventBus.Subscription subscribe(EventBus.Subscriber subscriber, State... types) {
+    return this.eventBus.subscribe(subscriber, types);
+  }
+
+  /**
+   * Subscribes to some types of changes of the model, delivered in batches by an executor.
+   *
+   * @param subscriber the subscriber
+   * @param executor   the executor delivering the changes
+   * @param types      the types of changes to receive
+   * @return the subscription, to cancel it
+   */
+  public EventBus.Subscription subscribe(EventBus.Subscriber subscriber, Executor executor,
+                                         State... types) {
+    return this.eventBus.subscribe(subscriber, executor, types);
+  }
+
+  /**
+   * Updates the statistics with a change, then publishes it to the subscribers.
+   * The changes which do not come from the change watcher are recorded as local writes.
+   *
+   * @param type    the type of the change
+   * @param subject the project or task concerned by the change
+   */
+  private void publish(State type, Object subject) {
+    if (this.remoteChangeHandler != null) {
+      this.remoteChangeHandler.recordLocalChange();
+    }
+    if (this.statisticsHandler != null) {
+      this.statisticsHandler.update(type, subject);
+    }
+    this.eventBus.publish(new ModelEvent(type, subject));
+  }
+
+  /**
+   * Returns the sum of the current duration of all the user's projects.
+   *
+   * @return the sum of the current duration of all projects
+   */
+  public long getTotalTime() {
+    return this.statisticsHandler.getTotalTime();
+  }
+
+  /**
+   * Returns the sum of the time left to all the user's projects.
    *
-   * @return the state
+   * @return the sum of the time left to all projects
    */
-  public State getState() {
-    return state;
+  public long getTotalTimeLeft() {
+    return this.statisticsHandler.getTotalTimeLeft();
   }
 
   /**
-   * Sets the state of the application.
+   * Returns the amount of completed and remaining tasks across all the user's projects.
    *
-   * @param state the state to set
+   * @return a pair containing the amount of completed and remaining tasks
    */
-  public void setState(State state) {
-    setChanged();
-    this.state = state;
+  public Pair<Integer, Integer> getTotalTasksCount() {
+    return this.statisticsHandler.getTotalTasksCount();
   }
 
   /**
-   * Adds a new task to a project then notifies all the observers.
+   * Returns the amount of completed and remaining tasks of a project.
+   *
+   * @param project the project
+   * @return a pair containing the amount of completed and remaining tasks of the project
+   */
+  public Pair<Integer, Integer> getProjectTasksCount(Project project) {
+    return this.statisticsHandler.getProjectTasksCount(project);
+  }
+
+  /**
+   * Returns the sum of the current duration of a project and all its sub projects.
+   *
+   * @param project the project
+   * @return the current duration of the project subtree
+   */
+  public long getSubtreeDuration(Project project) {
+    return this.statisticsHandler.getSubtreeDuration(project);
+  }
+
+  /**
+   * Returns the sum of the initial duration of a project and all its sub projects.
+   *
+   * @param project the project
+   * @return the initial duration of the project subtree
+   */
+  public long getSubtreeInitialDuration(Project project) {
+    return this.statisticsHandler.getSubtreeInitialDuration(project);
+  }
+
+  /**
+   * Returns the sum of the time left to a project and all its sub projects.
+   *
+   * @param project the project
+   * @return the time left to the project subtree
+   */
+  public long getSubtreeTimeLeft(Project project) {
+    return this.statisticsHandler.getSubtreeTimeLeft(project);
+  }
+
+  /**
+   * Returns the amount of completed and remaining tasks of a project and all its sub projects.
+   *
+   * @param project the project
+   * @return a pair containing the amount of completed and remaining tasks of the subtree
+   */
+  public Pair<Integer, Integer> getSubtreeTasksCount(Project project) {
+    return this.statisticsHandler.getSubtreeTasksCount(project);
+  }
+
+  /**
+   * Adds a new task to a project then notifies the subscribers.
    *
    * @param project        the project
    * @param newDescription the task description
@@ -431,8 +887,7 @@ public class Application extends Observable {
       throws DatabaseException, ConnectionFailedException {
     Task createdTask =
         this.taskHandler.addTaskToProject(project, newDescription, startDateHour, endDateHour);
-    setState(State.TASK_CREATED);
-    notifyObservers(createdTask);
+    publish(State.TASK_CREATED, createdTask);
   }
 
   /**
@@ -451,8 +906,7 @@ public class Application extends Observable {
       throws DatabaseException, ConnectionFailedException {
     this.taskHandler.updateTaskInProject(
         project, taskToEdit, newDescription, startDateHour, endDateHour);
-    setState(State.TASK_MODIFIED);
-    notifyObservers(taskToEdit);
+    publish(State.TASK_MODIFIED, taskToEdit);
   }
 
   /**
@@ -466,10 +920,23 @@ public class Application extends Observable {
   public void handleAssignations(Task task, List<User> assignations)
       throws DatabaseException, ConnectionFailedException {
     this.taskHandler.handleAssignations(task, assignations);
+    if (this.remoteChangeHandler != null) {
+      this.remoteChangeHandler.recordLocalChange();
+    }
   }
 
   /**
-   * Removes the task from the project and notifies all the observers.
+   * Starts notifying the listener when a task assigned to the user enters its last 24 hours
+   * and when its deadline is reached.
+   *
+   * @param listener the listener notified of the deadlines
+   */
+  public void setDeadlineListener(DeadlineScheduler.Listener listener) {
+    this.taskHandler.startDeadlineScheduler(listener);
+  }
+
+  /**
+   * Removes the task from the project and notifies the subscribers.
    *
    * @param project Project
    * @param task    to be modified
@@ -480,8 +947,7 @@ public class Application extends Observable {
   public void removeTaskFromProject(Project project, Task task)
       throws DatabaseException, ConnectionFailedException {
     this.taskHandler.removeTaskFromProject(project, task);
-    setState(State.TASK_DELETED);
-    notifyObservers(task);
+    publish(State.TASK_DELETED, task);
   }
 
   /**
@@ -568,42 +1034,17 @@ public class Application extends Observable {
   }
 
   /**
-   * Gets the projects with refused invitations.
-   *
-   * @param sender the sender user who has sent the invitation
-   * @return all the projects that have been refused
-   * @throws DatabaseException         when something wrong happens during a database transaction
-   * @throws ConnectionFailedException If the connection to the database fails
-   */
-  public List<Project> getProjectsWithInvitationsRefused(User sender)
-      throws DatabaseException, ConnectionFailedException {
-    return this.collaborationHandler.getProjectsWithInvitationsRefused(sender);
-  }
-
-  /**
-   * Gets the projects with accepted invitations.
-   *
-   * @param sender the sender user who has sent the invitation
-   * @return all the projects that have been accepted
-   * @throws DatabaseException         when something wrong happens during a database transaction
-   * @throws ConnectionFailedException If the connection to the database fails
-   */
-  public List<Project> getProjectsWithInvitationsAccepted(User sender)
-      throws DatabaseException, ConnectionFailedException {
-    return this.collaborationHandler.getProjectsWithInvitationsAccepted(sender);
-  }
-
-  /**
-   * Gets the projects with waiting invitations.
+   * Gets the invitations sent by the user whose answer is still to be shown,
+   * for the projects of the user.
    *
-   * @param sender the sender user who has sent the invitation
-   * @return all the projects that are in waiting
+   * @param sender the sender user who has sent the invitations
+   * @return the waiting and refused invitations, and the accepted ones not read yet
    * @throws DatabaseException         when something wrong happens during a database transaction
    * @throws ConnectionFailedException If the connection to the database fails
    */
-  public List<Project> getProjectsWithInvitationsWaiting(User sender)
+  public List<Invitation> getInvitationsSentBy(User sender)
       throws DatabaseException, ConnectionFailedException {
-    return this.collaborationHandler.getProjectsWithInvitationsWaiting(sender);
+    return this.collaborationHandler.getInvitationsSentBy(sender);
   }
 
   /**
@@ -626,8 +1067,7 @@ public class Application extends Observable {
   public void addTagToProject(Project project, Tag tag)
       throws DatabaseException, ConnectionFailedException {
     this.tagHandler.addTagToProject(project, tag);
-    setState(State.TAG_CREATED);
-    notifyObservers(project);
+    publish(State.TAG_CREATED, project);
   }
 
   /**
@@ -654,8 +1094,7 @@ public class Application extends Observable {
   public void deleteTagFromProject(Project project, Tag tag)
       throws DatabaseException, ConnectionFailedException {
     this.tagHandler.deleteTagFromProject(project, tag);
-    setState(State.TAG_DELETED);
-    notifyObservers(project);
+    publish(State.TAG_DELETED, project);
   }
 
   /**
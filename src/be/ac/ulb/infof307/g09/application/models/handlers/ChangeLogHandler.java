@@ -0,0 +1,86 @@
+package be.ac.ulb.infof307.g09.application.models.handlers;
+
+import be.ac.ulb.infof307.g09.application.models.Change;
+import be.ac.ulb.infof307.g09.database.ChangeLogDatabase;
+import be.ac.ulb.infof307.g09.exceptions.ConnectionFailedException;
+import be.ac.ulb.infof307.g09.exceptions.DatabaseException;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sub Facade that reads the change log and compacts it in the background.
+ */
+class ChangeLogHandler {
+  private static final long COMPACTION_PERIOD_MINUTES = 30;
+
+  private final ChangeLogDatabase changeLogDatabase;
+  private ScheduledExecutorService compactionExecutor;
+
+  /**
+   * Initialises the change log facade.
+   */
+  ChangeLogHandler() {
+    this.changeLogDatabase = ChangeLogDatabase.getInstance();
+  }
+
+  /**
+   * Returns the changes made after a sequence number.
+   *
+   * @param sequence the sequence number of the last change already known
+   * @return the changes made after the sequence number, in order
+   * @throws DatabaseException         if a problem occurs while reading the log
+   * @throws ConnectionFailedException If the connection to the database fails
+   */
+  List<Change> getChangesSince(long sequence)
+      throws DatabaseException, ConnectionFailedException {
+    return changeLogDatabase.getChangesSince(sequence);
+  }
+
+  /**
+   * Returns the sequence number of the last change.
+   *
+   * @return the sequence number of the last change
+   * @throws DatabaseException         if a problem occurs while reading the log
+   * @throws ConnectionFailedException If the connection to the database fails
+   */
+  long getLastSequence() throws DatabaseException, ConnectionFailedException {
+    return changeLogDatabase.getLastSequence();
+  }
+
+  /**
+   * Starts compacting the log periodically on a daemon thread.
+   */
+  void startCompaction() {
+    stopCompaction();
+    this.compactionExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "change-log-compaction");
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.compactionExecutor.scheduleWithFixedDelay(this::compact, COMPACTION_PERIOD_MINUTES,
+        COMPACTION_PERIOD_MINUTES, TimeUnit.MINUTES);
+  }
+
+  /**
+   * Stops the periodic compaction.
+   */
+  void stopCompaction() {
+    if (this.compactionExecutor != null) {
+      this.compactionExecutor.shutdownNow();
+      this.compactionExecutor = null;
+    }
+  }
+
+  /**
+   * Compacts the whole log. A failed compaction is retried at the next period.
+   */
+  private void compact() {
+    try {
+      changeLogDatabase.compact(changeLogDatabase.getLastSequence());
+    } catch (DatabaseException | ConnectionFailedException e) {
+      // The log only grows until the next compaction.
+    }
+  }
+}
@@ -1,5 +1,6 @@
 package be.ac.ulb.infof307.g09.application.models.handlers;
 
+import be.ac.ulb.infof307.g09.application.models.Invitation;
 import be.ac.ulb.infof307.g09.application.models.Project;
 import be.ac.ulb.infof307.g09.application.models.User;
 import be.ac.ulb.infof307.g09.application.utilities.ErrorMessagesUtils;
@@ -9,6 +10,7 @@ import be.ac.ulb.infof307.g09.exceptions.ConnectionFailedException;
 import be.ac.ulb.infof307.g09.exceptions.DatabaseException;
 import java.util.ArrayList;
 import java.util.List;
+import javafx.util.Pair;
 
 /**
  * Sub Facade that handles the collaborations.
@@ -76,75 +78,23 @@ class CollaborationHandler {
 
 
   /**
-   * Gets the projects with refused invitations.
+   * Gets the invitations sent by the user whose answer is still to be shown,
+   * for the projects of the user.
    *
-   * @param sender the sender user who has sent the invitation
-   * @return all the projects that have been refused
+   * @param sender the sender user who has sent the invitations
+   * @return the waiting and refused invitations, and the accepted ones not read yet
    * @throws DatabaseException         when something wrong happens during a database transaction
    * @throws ConnectionFailedException If the connection to the database fails
    */
-  List<Project> getProjectsWithInvitationsRefused(User sender)
+  List<Invitation> getInvitationsSentBy(User sender)
       throws DatabaseException, ConnectionFailedException {
-
-    List<Project> projectsWithRefusedInvitation =
-        ProjectCollaborationDatabase.getInstance().getProjectsWithInvitationRefused(sender);
-    List<Project> projectsRefused = new ArrayList<>();
-    for (Project project : projectsWithRefusedInvitation) {
-      for (Project userProject : user.getProjectList()) {
-        if (userProject.equals(project)) {
-          projectsRefused.add(userProject);
-        }
+    List<Invitation> invitations = new ArrayList<>();
+    for (Invitation invitation : projectCollaborationDatabase.getInvitationsSentBy(sender)) {
+      if (user.getProjectById(invitation.getProjectId()) != null) {
+        invitations.add(invitation);
       }
     }
-    return projectsRefused;
-  }
-
-  /**
-   * Gets the projects with accepted invitations.
-   *
-   * @param sender the sender user who has sent the invitation
-   * @return all the projects that have been accepted
-   * @throws DatabaseException         when something wrong happens during a database transaction
-   * @throws ConnectionFailedException If the connection to the database fails
-   */
-  List<Project> getProjectsWithInvitationsAccepted(User sender)
-      throws DatabaseException, ConnectionFailedException {
-
-    List<Project> projectsWithAcceptedInvitation =
-        ProjectCollaborationDatabase.getInstance().getProjectsWithInvitationAccepted(sender);
-    List<Project> projectsAccepted = new ArrayList<>();
-    for (Project project : projectsWithAcceptedInvitation) {
-      for (Project userProject : user.getProjectList()) {
-        if (userProject.equals(project)) {
-          projectsAccepted.add(userProject);
-        }
-      }
-    }
-    return projectsAccepted;
-  }
-
-  /**
-   * Gets the projects with waiting invitations.
-   *
-   * @param sender the sender user who has sent the invitation
-   * @return all the projects that are in waiting
-   * @throws DatabaseException         when something wrong happens during a database transaction
-   * @throws ConnectionFailedException If the connection to the database fails
-   */
-  List<Project> getProjectsWithInvitationsWaiting(User sender)
-      throws DatabaseException, ConnectionFailedException {
-
-    List<Project> projectsWithInvitationWaiting =
-        ProjectCollaborationDatabase.getInstance().getProjectsWithInvitationWaiting(sender);
-    List<Project> projectsNotAccepted = new ArrayList<>();
-    for (Project project : projectsWithInvitationWaiting) {
-      for (Project userProject : user.getProjectList()) {
-        if (userProject.equals(project)) {
-          projectsNotAccepted.add(userProject);
-        }
-      }
-    }
-    return projectsNotAccepted;
+    return invitations;
   }
 
 
@@ -215,20 +165,6 @@ class CollaborationHandler {
     return projectCollaborationDatabase.getCollaboratorsInvitedByProject(project);
   }
 
-  /**
-   * Gets the collaborators by project that have not answered to the invitations yet.
-   *
-   * @param project the project to check if it has not been answered yet
-   * @return the list of users that have not answered the project yet
-   * @throws DatabaseException         If there is an error during the execution of the query
-   *                                   or during the extraction of the result.
-   * @throws ConnectionFailedException If the connection to the database fails
-   */
-  List<User> getCollaboratorsByProjectWaiting(Project project)
-      throws DatabaseException, ConnectionFailedException {
-    return projectCollaborationDatabase.getCollaboratorsByProjectWaiting(project);
-  }
-
   /**
    * Gets the collaborators by project that have been refused.
    *
@@ -287,6 +223,21 @@ class CollaborationHandler {
     this.projectCollaborationDatabase.updateInvitationRead(project, collaborator);
   }
 
+  /**
+   * Deletes the refused invitations and marks the accepted ones as read, in one transaction.
+   *
+   * @param refusedInvitations  the refused invitations, as (project, collaborator) pairs
+   * @param acceptedInvitations the accepted invitations, as (project, collaborator) pairs
+   * @throws DatabaseException         if there is an error during the access to the database
+   * @throws ConnectionFailedException If the connection to the database fails
+   */
+  void acknowledgeInvitations(List<Pair<Project, User>> refusedInvitations,
+                              List<Pair<Project, User>> acceptedInvitations)
+      throws DatabaseException, ConnectionFailedException {
+    this.projectCollaborationDatabase.acknowledgeInvitations(
+        refusedInvitations, acceptedInvitations);
+  }
+
   /**
    * Adds a project to the application without inserting it to the database.
    *
@@ -0,0 +1,251 @@
+package be.ac.ulb.infof307.g09.application.models.handlers;
+
+import be.ac.ulb.infof307.g09.application.models.Project;
+import be.ac.ulb.infof307.g09.application.models.Task;
+import be.ac.ulb.infof307.g09.application.utilities.DateTimeUtils;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hashed timer wheel firing an event when a task enters its last 24 hours and when its
+ * deadline is reached. Each tick only visits one bucket of the wheel.
+ */
+public class DeadlineScheduler {
+  private static final long DEFAULT_TICK_DURATION = TimeUnit.MINUTES.toMillis(1);
+  private static final int DEFAULT_WHEEL_SIZE = 1024;
+
+  private final long tickDuration;
+  private final List<Set<Timeout>> wheel;
+  private final Map<Integer, List<Timeout>> timeoutsByTask;
+  private int cursor;
+  private Listener listener;
+  private ScheduledExecutorService executor;
+
+  /**
+   * Listener notified by the scheduler, called from the scheduler thread.
+   */
+  public interface Listener {
+    /**
+     * Called when a task has less than 24 hours left.
+     *
+     * @param task the task close to its deadline
+     */
+    void deadlineApproaching(Task task);
+
+    /**
+     * Called when the deadline of a task is reached.
+     *
+     * @param task the task whose deadline is reached
+     */
+    void deadlineReached(Task task);
+  }
+
+  /**
+   * Creates a scheduler ticking every minute.
+   */
+  DeadlineScheduler() {
+    this(DEFAULT_TICK_DURATION, DEFAULT_WHEEL_SIZE);
+  }
+
+  /**
+   * Creates a scheduler with the given tick duration and number of buckets.
+   *
+   * @param tickDuration the duration of a tick in milliseconds
+   * @param wheelSize    the number of buckets of the wheel
+   */
+  DeadlineScheduler(long tickDuration, int wheelSize) {
+    this.tickDuration = tickDuration;
+    this.wheel = new ArrayList<>(wheelSize);
+    for (int i = 0; i < wheelSize; i++) {
+      this.wheel.add(new LinkedHashSet<>());
+    }
+    this.timeoutsByTask = new HashMap<>();
+    this.cursor = 0;
+  }
+
+  /**
+   * Sets the listener notified of the deadlines.
+   *
+   * @param newListener the listener
+   */
+  synchronized void setListener(Listener newListener) {
+    this.listener = newListener;
+  }
+
+  /**
+   * Starts ticking in a background thread, does nothing if already started.
+   */
+  synchronized void start() {
+    if (this.executor == null) {
+      this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "deadline-scheduler");
+        thread.setDaemon(true);
+        return thread;
+      });
+      this.executor.scheduleAtFixedRate(
+          this::tick, tickDuration, tickDuration, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /**
+   * Stops the background thread and forgets every pending deadline.
+   */
+  synchronized void stop() {
+    if (this.executor != null) {
+      this.executor.shutdownNow();
+      this.executor = null;
+    }
+    for (Set<Timeout> bucket : this.wheel) {
+      bucket.clear();
+    }
+    this.timeoutsByTask.clear();
+    this.listener = null;
+  }
+
+  /**
+   * Schedules the events of a task, replacing the ones previously scheduled for it.
+   * Events already in the past are not scheduled.
+   *
+   * @param task the task to schedule
+   */
+  synchronized void schedule(Task task) {
+    cancel(task);
+    long current = DateTimeUtils.getCurrentTime();
+    long endDate = task.getEndDate();
+    List<Timeout> timeouts = new ArrayList<>(2);
+    long approachingDate = endDate - Project.MILLISECONDS_IN_DAY;
+    if (approachingDate > current) {
+      timeouts.add(insert(task, approachingDate - current, false));
+    }
+    if (endDate > current) {
+      timeouts.add(insert(task, endDate - current, true));
+    }
+    if (!timeouts.isEmpty()) {
+      this.timeoutsByTask.put(task.getId(), timeouts);
+    }
+  }
+
+  /**
+   * Cancels the events of a task, does nothing if none is scheduled.
+   *
+   * @param task the task to cancel
+   */
+  synchronized void cancel(Task task) {
+    List<Timeout> timeouts = this.timeoutsByTask.remove(task.getId());
+    if (timeouts != null) {
+      for (Timeout timeout : timeouts) {
+        this.wheel.get(timeout.bucket).remove(timeout);
+      }
+    }
+  }
+
+  /**
+   * Returns the number of pending events.
+   *
+   * @return the number of pending events
+   */
+  synchronized int getPendingCount() {
+    int count = 0;
+    for (List<Timeout> timeouts : this.timeoutsByTask.values()) {
+      count += timeouts.size();
+    }
+    return count;
+  }
+
+  /**
+   * Places a timeout in the bucket reached after the given delay.
+   *
+   * @param task         the task of the timeout
+   * @param delay        the delay in milliseconds
+   * @param deadlineType true for the deadline itself, false for the 24 hours threshold
+   * @return the inserted timeout
+   */
+  private Timeout insert(Task task, long delay, boolean deadlineType) {
+    long ticks = Math.max(1, (delay + tickDuration - 1) / tickDuration);
+    int wheelSize = this.wheel.size();
+    int bucket = (int) ((this.cursor + ticks) % wheelSize);
+    Timeout timeout = new Timeout(task, bucket, (ticks - 1) / wheelSize, deadlineType);
+    this.wheel.get(bucket).add(timeout);
+    return timeout;
+  }
+
+  /**
+   * Advances the wheel by one bucket and fires the expired events of that bucket.
+   */
+  void tick() {
+    List<Timeout> expired = new ArrayList<>();
+    Listener currentListener;
+    synchronized (this) {
+      this.cursor = (this.cursor + 1) % this.wheel.size();
+      Iterator<Timeout> iterator = this.wheel.get(this.cursor).iterator();
+      while (iterator.hasNext()) {
+        Timeout timeout = iterator.next();
+        if (timeout.remainingRounds == 0) {
+          iterator.remove();
+          expired.add(timeout);
+          forget(timeout);
+        } else {
+          timeout.remainingRounds--;
+        }
+      }
+      currentListener = this.listener;
+    }
+    if (currentListener != null) {
+      for (Timeout timeout : expired) {
+        if (timeout.deadlineType) {
+          currentListener.deadlineReached(timeout.task);
+        } else {
+          currentListener.deadlineApproaching(timeout.task);
+        }
+      }
+    }
+  }
+
+  /**
+   * Removes an expired timeout from the timeouts of its task.
+   *
+   * @param timeout the expired timeout
+   */
+  private void forget(Timeout timeout) {
+    List<Timeout> timeouts = this.timeoutsByTask.get(timeout.task.getId());
+    if (timeouts != null) {
+      timeouts.remove(timeout);
+      if (timeouts.isEmpty()) {
+        this.timeoutsByTask.remove(timeout.task.getId());
+      }
+    }
+  }
+
+  /**
+   * An event waiting in a bucket of the wheel.
+   */
+  private static final class Timeout {
+    private final Task task;
+    private final int bucket;
+    private long remainingRounds;
+    private final boolean deadlineType;
+
+    /**
+     * Creates a timeout.
+     *
+     * @param task            the task of the timeout
+     * @param bucket          the bucket of the wheel holding the timeout
+     * @param remainingRounds the number of full turns of the wheel before firing
+     * @param deadlineType    true for the deadline itself, false for the 24 hours threshold
+     */
+    private Timeout(Task task, int bucket, long remainingRounds, boolean deadlineType) {
+      this.task = task;
+      this.bucket = bucket;
+      this.remainingRounds = remainingRounds;
+      this.deadlineType = deadlineType;
+    }
+  }
+}
@@ -0,0 +1,201 @@
+package be.ac.ulb.infof307.g09.application.models.handlers;
+
+import be.ac.ulb.infof307.g09.application.models.State;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Typed event bus of the application model. A subscriber only receives the types of
+ * events it subscribed to, on the executor of its choice. Events published while a
+ * delivery is pending are delivered together in one batch, where repeated occurrences of
+ * the same change are coalesced into the last one.
+ */
+public class EventBus {
+  private static final Executor SAME_THREAD = Runnable::run;
+
+  private final Map<State, List<Subscription>> subscriptions;
+
+  /**
+   * Receiver of the events of the bus.
+   */
+  public interface Subscriber {
+
+    /**
+     * Called with the events published since the previous call, in publication order.
+     *
+     * @param events the events, never empty
+     */
+    void onEvents(List<ModelEvent> events);
+  }
+
+  /**
+   * Subscription of a subscriber to some types of events.
+   */
+  public static final class Subscription {
+    private final Subscriber subscriber;
+    private final Executor executor;
+    private final Set<State> types;
+    private final Queue<ModelEvent> pendingEvents;
+    private final AtomicBoolean deliveryScheduled;
+    private final EventBus bus;
+    private volatile boolean cancelled;
+
+    /**
+     * Constructor of a subscription.
+     *
+     * @param subscriptionBus        the bus of the subscription
+     * @param subscriptionSubscriber the subscriber
+     * @param subscriptionExecutor   the executor delivering the events
+     * @param subscriptionTypes      the types of events delivered
+     */
+    private Subscription(EventBus subscriptionBus, Subscriber subscriptionSubscriber,
+                         Executor subscriptionExecutor, Set<State> subscriptionTypes) {
+      this.bus = subscriptionBus;
+      this.subscriber = subscriptionSubscriber;
+      this.executor = subscriptionExecutor;
+      this.types = subscriptionTypes;
+      this.pendingEvents = new ConcurrentLinkedQueue<>();
+      this.deliveryScheduled = new AtomicBoolean(false);
+      this.cancelled = false;
+    }
+
+    /**
+     * Stops the delivery of the events. The pending events are dropped.
+     */
+    public void cancel() {
+      this.cancelled = true;
+      this.pendingEvents.clear();
+      this.bus.unsubscribe(this);
+    }
+
+    /**
+     * Queues an event and schedules its delivery if none is pending.
+     *
+     * @param event the event to deliver
+     */
+    private void enqueue(ModelEvent event) {
+      this.pendingEvents.add(event);
+      if (this.deliveryScheduled.compareAndSet(false, true)) {
+        this.executor.execute(this::deliver);
+      }
+    }
+
+    /**
+     * Delivers all the queued events in one batch. Events queued during the delivery are
+     * delivered in a next batch.
+     */
+    private void deliver() {
+      do {
+        List<ModelEvent> batch = new ArrayList<>();
+        ModelEvent event = this.pendingEvents.poll();
+        while (event != null) {
+          batch.add(event);
+          event = this.pendingEvents.poll();
+        }
+        try {
+          if (!this.cancelled && !batch.isEmpty()) {
+            this.subscriber.onEvents(coalesce(batch));
+          }
+        } finally {
+          this.deliveryScheduled.set(false);
+        }
+      } while (!this.pendingEvents.isEmpty() && this.deliveryScheduled.compareAndSet(false, true));
+    }
+  }
+
+  /**
+   * Initialises an event bus without subscribers.
+   */
+  public EventBus() {
+    this.subscriptions = new EnumMap<>(State.class);
+    for (State type : State.values()) {
+      this.subscriptions.put(type, new CopyOnWriteArrayList<>());
+    }
+  }
+
+  /**
+   * Subscribes to some types of events, delivered on the publishing thread.
+   *
+   * @param subscriber the subscriber
+   * @param types      the types of events to receive
+   * @return the subscription
+   */
+  public Subscription subscribe(Subscriber subscriber, State... types) {
+    return subscribe(subscriber, SAME_THREAD, types);
+  }
+
+  /**
+   * Subscribes to some types of events, delivered by an executor. The events published
+   * before the executor runs a delivery are delivered together.
+   *
+   * @param subscriber the subscriber
+   * @param executor   the executor delivering the events, for example the UI thread
+   * @param types      the types of events to receive
+   * @return the subscription
+   */
+  public Subscription subscribe(Subscriber subscriber, Executor executor, State... types) {
+    Set<State> subscribedTypes = EnumSet.noneOf(State.class);
+    Collections.addAll(subscribedTypes, types);
+    Subscription subscription = new Subscription(this, subscriber, executor, subscribedTypes);
+    for (State type : subscribedTypes) {
+      this.subscriptions.get(type).add(subscription);
+    }
+    return subscription;
+  }
+
+  /**
+   * Removes a subscription from the bus.
+   *
+   * @param subscription the subscription to remove
+   */
+  private void unsubscribe(Subscription subscription) {
+    for (State type : subscription.types) {
+      this.subscriptions.get(type).remove(subscription);
+    }
+  }
+
+  /**
+   * Publishes an event to the subscribers of its type.
+   *
+   * @param event the event to publish
+   */
+  public void publish(ModelEvent event) {
+    for (Subscription subscription : this.subscriptions.get(event.getType())) {
+      subscription.enqueue(event);
+    }
+  }
+
+  /**
+   * Removes from a batch the events followed by a later occurrence of the same change.
+   *
+   * @param batch the events in publication order
+   * @return the remaining events in publication order
+   */
+  static List<ModelEvent> coalesce(List<ModelEvent> batch) {
+    if (batch.size() == 1) {
+      return batch;
+    }
+    Set<List<Object>> laterChanges = new HashSet<>();
+    List<ModelEvent> coalesced = new ArrayList<>(batch.size());
+    for (int i = batch.size() - 1; i >= 0; i--) {
+      ModelEvent event = batch.get(i);
+      List<Object> key = event.getChangeKey();
+      if (key == null || laterChanges.add(key)) {
+        coalesced.add(event);
+      }
+    }
+    Collections.reverse(coalesced);
+    return coalesced;
+  }
+}
@@ -0,0 +1,117 @@
+package be.ac.ulb.infof307.g09.application.models.handlers;
+
+import be.ac.ulb.infof307.g09.application.models.Project;
+import be.ac.ulb.infof307.g09.application.models.State;
+import be.ac.ulb.infof307.g09.application.models.Tag;
+import be.ac.ulb.infof307.g09.application.models.Task;
+import be.ac.ulb.infof307.g09.application.models.User;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Change of the application model published on the {@link EventBus}. The event carries its
+ * type, the changed project, task, tag or user, and the ids it affects, so that a subscriber
+ * does not have to read any shared state of the application.
+ */
+public final class ModelEvent {
+  public static final int NO_ID = -1;
+
+  private final State type;
+  private final Object subject;
+  private final int subjectId;
+  private final int projectId;
+
+  /**
+   * Constructor of an event.
+   *
+   * @param eventType    the type of the change
+   * @param eventSubject the changed project, task, tag or user
+   */
+  public ModelEvent(State eventType, Object eventSubject) {
+    this.type = eventType;
+    this.subject = eventSubject;
+    if (eventSubject instanceof Project) {
+      this.subjectId = ((Project) eventSubject).getId();
+      this.projectId = this.subjectId;
+    } else if (eventSubject instanceof Task) {
+      this.subjectId = ((Task) eventSubject).getId();
+      this.projectId = ((Task) eventSubject).getProjectId();
+    } else if (eventSubject instanceof Tag) {
+      this.subjectId = ((Tag) eventSubject).getId();
+      this.projectId = NO_ID;
+    } else if (eventSubject instanceof User) {
+      this.subjectId = ((User) eventSubject).getId();
+      this.projectId = NO_ID;
+    } else {
+      this.subjectId = NO_ID;
+      this.projectId = NO_ID;
+    }
+  }
+
+  /**
+   * Returns the type of the change.
+   *
+   * @return the type
+   */
+  public State getType() {
+    return type;
+  }
+
+  /**
+   * Returns the changed object.
+   *
+   * @return the changed project, task, tag or user
+   */
+  public Object getSubject() {
+    return subject;
+  }
+
+  /**
+   * Returns the changed object if it is of the given class.
+   *
+   * @param subjectClass the expected class of the changed object
+   * @param <T>          the expected type of the changed object
+   * @return the changed object, null if it is not of the given class
+   */
+  public <T> T getSubject(Class<T> subjectClass) {
+    return subjectClass.isInstance(subject) ? subjectClass.cast(subject) : null;
+  }
+
+  /**
+   * Returns the id of the changed object.
+   *
+   * @return the id, {@link #NO_ID} if the object has no id
+   */
+  public int getSubjectId() {
+    return subjectId;
+  }
+
+  /**
+   * Returns the id of the project affected by the change: the changed project itself or
+   * the project of the changed task.
+   *
+   * @return the id of the project, {@link #NO_ID} if no project is affected
+   */
+  public int getProjectId() {
+    return projectId;
+  }
+
+  /**
+   * Returns the key identifying the change, two events of the same key being two
+   * occurrences of the same change.
+   *
+   * @return the key of the change, null if the change cannot be identified
+   */
+  List<Object> getChangeKey() {
+    if (subject == null || subjectId == NO_ID) {
+      return null;
+    }
+    return Arrays.asList(type, subject.getClass(), subjectId);
+  }
+
+  @Override
+  public String toString() {
+    return type + "(" + (subject == null ? "" : subject.getClass().getSimpleName() + "#" + subjectId)
+        + ")";
+  }
+}
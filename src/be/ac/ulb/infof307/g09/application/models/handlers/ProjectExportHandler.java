@@ -0,0 +1,270 @@
+package be.ac.ulb.infof307.g09.application.models.handlers;
+
+import be.ac.ulb.infof307.g09.application.models.Change;
+import be.ac.ulb.infof307.g09.application.models.Project;
+import be.ac.ulb.infof307.g09.application.models.Tag;
+import be.ac.ulb.infof307.g09.application.models.Task;
+import be.ac.ulb.infof307.g09.application.models.User;
+import be.ac.ulb.infof307.g09.application.utilities.ErrorMessagesUtils;
+import be.ac.ulb.infof307.g09.archive.ProjectDelta;
+import be.ac.ulb.infof307.g09.database.ChangeLogDatabase;
+import be.ac.ulb.infof307.g09.database.ProjectDatabase;
+import be.ac.ulb.infof307.g09.database.ProjectExportDatabase;
+import be.ac.ulb.infof307.g09.database.ProjectImportDatabase;
+import be.ac.ulb.infof307.g09.exceptions.ConnectionFailedException;
+import be.ac.ulb.infof307.g09.exceptions.DatabaseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Sub Facade that builds the deltas of the exported projects trees from the change log,
+ * and applies the deltas of the imported ones. The projects of a delta carry their id in the
+ * exporting database, which the importing database maps to its own ids at each import.
+ */
+class ProjectExportHandler {
+  private final User user;
+  private final ProjectExportDatabase projectExportDatabase;
+  private final ProjectImportDatabase projectImportDatabase;
+  private final ProjectDatabase projectDatabase;
+  private final ChangeLogDatabase changeLogDatabase;
+
+  /**
+   * Initialises the project export facade with the given user.
+   *
+   * @param currentUser the user
+   */
+  ProjectExportHandler(User currentUser) {
+    this.user = currentUser;
+    this.projectExportDatabase = ProjectExportDatabase.getInstance();
+    this.projectImportDatabase = ProjectImportDatabase.getInstance();
+    this.projectDatabase = ProjectDatabase.getInstance();
+    this.changeLogDatabase = ChangeLogDatabase.getInstance();
+  }
+
+  /**
+   * Remembers the projects of an exported tree and the change sequence of the export.
+   *
+   * @param root     the root of the exported tree
+   * @param sequence the change sequence read before the export
+   * @throws DatabaseException         if a problem occurs while saving the export
+   * @throws ConnectionFailedException If the connection to the database fails
+   */
+  void recordExport(Project root, long sequence)
+      throws DatabaseException, ConnectionFailedException {
+    Map<Integer, String> titles = new HashMap<>();
+    for (Project project : root.getAllChildren()) {
+      titles.put(project.getId(), project.getTitle());
+    }
+    titles.put(root.getId(), root.getTitle());
+    projectExportDatabase.recordExport(root.getId(), titles, sequence);
+  }
+
+  /**
+   * Remembers the change sequence of the exporting database of an imported tree, and the
+   * id each imported project had in that database.
+   *
+   * @param source   the root of the tree read from the archive, with the exported ids
+   * @param root     the root of the imported tree
+   * @param sequence the change sequence of the exporting database
+   * @throws DatabaseException         if a problem occurs while saving the import
+   * @throws ConnectionFailedException If the connection to the database fails
+   */
+  void recordImport(Project source, Project root, long sequence)
+      throws DatabaseException, ConnectionFailedException {
+    Map<Integer, Integer> sourceIds = new HashMap<>();
+    mapSourceIds(source, root, sourceIds);
+    projectExportDatabase.recordImport(root.getId(), sourceIds, sequence);
+  }
+
+  /**
+   * Maps the ids of an imported tree to the ids of the tree read from the archive,
+   * the sub projects being imported in the same order.
+   *
+   * @param source    a project read from the archive
+   * @param imported  the imported copy of the project
+   * @param sourceIds the ids read from the archive by imported id
+   */
+  private void mapSourceIds(Project source, Project imported, Map<Integer, Integer> sourceIds) {
+    sourceIds.put(imported.getId(), source.getId());
+    for (int i = 0; i < source.getSubProjects().size(); i++) {
+      mapSourceIds(source.getSubProjects().get(i), imported.getSubProjects().get(i), sourceIds);
+    }
+  }
+
+  /**
+   * Builds the delta of a tree since its last export: the projects changed according to the
+   * change log, the projects created and the projects deleted since then.
+   *
+   * @param root the root of the tree
+   * @return the delta of the tree, null if the tree was never exported
+   * @throws DatabaseException         if a problem occurs while reading the change log
+   * @throws ConnectionFailedException If the connection to the database fails
+   */
+  ProjectDelta createDelta(Project root) throws DatabaseException, ConnectionFailedException {
+    long baseSequence = projectExportDatabase.getExportSequence(root.getId());
+    if (baseSequence == ProjectExportDatabase.NEVER) {
+      return null;
+    }
+    Set<Integer> exportedIds = projectExportDatabase.getExportedProjects(root.getId()).keySet();
+
+    Map<Integer, Project> projects = new LinkedHashMap<>();
+    projects.put(root.getId(), root);
+    for (Project project : root.getAllChildren()) {
+      projects.put(project.getId(), project);
+    }
+    Set<Integer> changedIds = findChangedProjects(
+        projects, changeLogDatabase.getChangesSince(baseSequence));
+
+    List<ProjectDelta.Entry> changed = new ArrayList<>();
+    collectChangedProjects(root, null, exportedIds, changedIds, changed);
+    List<Integer> deleted = new ArrayList<>();
+    for (int exportedId : exportedIds) {
+      if (!projects.containsKey(exportedId)) {
+        deleted.add(exportedId);
+      }
+    }
+    return new ProjectDelta(baseSequence, root.getId(), changed, deleted);
+  }
+
+  /**
+   * Finds the projects of a tree touched by changes of the log.
+   *
+   * @param projects the projects of the tree by id
+   * @param changes  the changes of the log
+   * @return the ids of the changed projects
+   */
+  private Set<Integer> findChangedProjects(Map<Integer, Project> projects, List<Change> changes) {
+    Map<Integer, Project> taskProjects = new HashMap<>();
+    Map<Integer, List<Project>> tagProjects = new HashMap<>();
+    for (Project project : projects.values()) {
+      for (Task task : project.getTasks()) {
+        taskProjects.put(task.getId(), project);
+      }
+      for (Tag tag : project.getTags()) {
+        tagProjects.computeIfAbsent(tag.getId(), id -> new ArrayList<>()).add(project);
+      }
+    }
+
+    Set<Integer> changedIds = new HashSet<>();
+    for (Change change : changes) {
+      switch (change.getEntity()) {
+        case PROJECT:
+        case PROJECT_TAG:
+          changedIds.add(change.getEntityId());
+          break;
+        case TASK:
+          if (change.getRelatedId() != null) {
+            changedIds.add(change.getRelatedId());
+          }
+          addProject(changedIds, taskProjects.get(change.getEntityId()));
+          break;
+        case COLLABORATOR_TASK:
+          addProject(changedIds, taskProjects.get(change.getEntityId()));
+          break;
+        case TAG:
+          for (Project project
+              : tagProjects.getOrDefault(change.getEntityId(), new ArrayList<>())) {
+            addProject(changedIds, project);
+          }
+          break;
+        default:
+          // The collaborators are not part of the delta.
+          break;
+      }
+    }
+    changedIds.retainAll(projects.keySet());
+    return changedIds;
+  }
+
+  /**
+   * Adds the id of a project to a set of ids if the project is known.
+   *
+   * @param ids     the set of ids
+   * @param project the project, may be null
+   */
+  private void addProject(Set<Integer> ids, Project project) {
+    if (project != null) {
+      ids.add(project.getId());
+    }
+  }
+
+  /**
+   * Adds the changed and new projects of a tree to the delta, each parent before its
+   * sub projects.
+   *
+   * @param project     the root of the tree
+   * @param parentId    the id of the parent of the root, null for the root of the export
+   * @param exportedIds the ids of the projects at the last export
+   * @param changedIds  the ids of the changed projects
+   * @param changed     the changed projects found so far
+   */
+  private void collectChangedProjects(Project project, Integer parentId, Set<Integer> exportedIds,
+                                      Set<Integer> changedIds, List<ProjectDelta.Entry> changed) {
+    boolean created = !exportedIds.contains(project.getId());
+    if (created || changedIds.contains(project.getId())) {
+      changed.add(new ProjectDelta.Entry(created, parentId, project));
+    }
+    for (Project subProject : project.getSubProjects()) {
+      collectChangedProjects(subProject, project.getId(), exportedIds, changedIds, changed);
+    }
+  }
+
+  /**
+   * Finds the local copy of the tree a delta applies on, among the user's parent projects
+   * imported from the root of the delta.
+   *
+   * @param delta the delta to apply
+   * @return the root of the local copy
+   * @throws DatabaseException         if no copy is found or the delta does not follow the
+   *                                   last import of the copy
+   * @throws ConnectionFailedException If the connection to the database fails
+   */
+  Project findDeltaRoot(ProjectDelta delta) throws DatabaseException, ConnectionFailedException {
+    boolean found = false;
+    for (int id : projectExportDatabase.getImportedRootIds(delta.getRootId())) {
+      Project project = user.getProjectById(id);
+      if (project == null || project.isSubProject() || !user.equals(project.getAuthor())) {
+        continue;
+      }
+      if (projectExportDatabase.getImportSequence(id) == delta.getBaseSequence()) {
+        return project;
+      }
+      found = true;
+    }
+    throw new DatabaseException(found ? ErrorMessagesUtils.ERROR_DELTA_BASE
+        : ErrorMessagesUtils.ERROR_DELTA_PROJECT_NOT_FOUND);
+  }
+
+  /**
+   * Applies a delta on the local copy of a tree in one transaction, then reloads the tree
+   * and replaces it in the list of projects and in the list of authored projects.
+   *
+   * @param root     the root of the local copy
+   * @param delta    the delta to apply
+   * @param sequence the change sequence of the exporting database
+   * @return the updated root of the local copy
+   * @throws DatabaseException         if a problem occurs while applying the delta,
+   *                                   nothing is changed in that case
+   * @throws ConnectionFailedException If the connection to the database fails
+   */
+  Project applyDelta(Project root, ProjectDelta delta, long sequence)
+      throws DatabaseException, ConnectionFailedException {
+    Map<Integer, Integer> localIds = projectExportDatabase.getImportedProjects(root.getId());
+    try {
+      projectImportDatabase.applyDelta(delta, localIds, root.getId(), user, sequence);
+    } catch (DatabaseException e) {
+      throw new DatabaseException(ErrorMessagesUtils.ERROR_APPLY_DELTA, e);
+    }
+    Project updatedRoot = projectDatabase.getProjectById(root.getId());
+    user.removeProjectList(root);
+    user.addProjectList(updatedRoot);
+    user.removeAuthorProjects(root);
+    user.getAuthorProjects().add(updatedRoot);
+    return updatedRoot;
+  }
+}
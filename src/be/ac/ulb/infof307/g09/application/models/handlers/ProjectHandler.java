@@ -5,11 +5,14 @@ import be.ac.ulb.infof307.g09.application.models.Project;
 import be.ac.ulb.infof307.g09.application.models.User;
 import be.ac.ulb.infof307.g09.application.utilities.ErrorMessagesUtils;
 import be.ac.ulb.infof307.g09.database.ProjectDatabase;
+import be.ac.ulb.infof307.g09.database.ProjectImportDatabase;
 import be.ac.ulb.infof307.g09.database.TagDatabase;
 import be.ac.ulb.infof307.g09.exceptions.ConnectionFailedException;
 import be.ac.ulb.infof307.g09.exceptions.DatabaseException;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import javafx.util.Pair;
 
 /**
@@ -18,8 +21,41 @@ import javafx.util.Pair;
 class ProjectHandler {
   private final User user;
   private final ProjectDatabase projectDatabase;
+  private final ProjectImportDatabase projectImportDatabase;
   private final TagDatabase tagDatabase;
 
+  /**
+   * Key identifying a project among the projects of the user: the username of its author
+   * and its title. The username is used rather than the id, as the ids of an archive come
+   * from the exporting database.
+   */
+  private static final class ProjectKey {
+    private final String author;
+    private final String title;
+
+    ProjectKey(Project project) {
+      this.author = project.getAuthor().getUsername();
+      this.title = project.getTitle();
+    }
+
+    @Override
+    public boolean equals(Object object) {
+      if (object == this) {
+        return true;
+      }
+      if (!(object instanceof ProjectKey)) {
+        return false;
+      }
+      ProjectKey other = (ProjectKey) object;
+      return this.author.equals(other.author) && this.title.equals(other.title);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * this.author.hashCode() + this.title.hashCode();
+    }
+  }
+
   /**
    * Initialises the project facade with the given user.
    *
@@ -28,6 +64,7 @@ class ProjectHandler {
   ProjectHandler(User currentUser) {
     this.user = currentUser;
     this.projectDatabase = ProjectDatabase.getInstance();
+    this.projectImportDatabase = ProjectImportDatabase.getInstance();
     this.tagDatabase = TagDatabase.getInstance();
   }
 
@@ -55,6 +92,100 @@ class ProjectHandler {
     }
   }
 
+  /**
+   * Returns true if an imported project was created by the user. The usernames are compared,
+   * as they are unique while the ids of an archive come from the exporting database.
+   *
+   * @param importedProject the imported project
+   * @return true if the author of the project is the user
+   */
+  boolean isAuthoredByUser(Project importedProject) {
+    return this.user.getUsername().equals(importedProject.getAuthor().getUsername());
+  }
+
+  /**
+   * Finds the projects of imported trees which already exist, a project existing if one with
+   * the same author and title exists. The user's projects are indexed once for the whole
+   * import, then each tree is checked in one pass. A tree of the user without conflict is
+   * added to the index, as it will be imported, so the later trees are checked against it.
+   *
+   * @param importedProjects the roots of the imported trees
+   * @return for each tree, in the same order, the projects of the tree which already exist,
+   *         empty if the tree can be imported
+   */
+  List<List<Project>> findImportConflicts(List<Project> importedProjects) {
+    Set<ProjectKey> existingProjects = new HashSet<>();
+    for (Project project : getUserProjects()) {
+      existingProjects.add(new ProjectKey(project));
+    }
+    List<List<Project>> conflictsByProject = new ArrayList<>(importedProjects.size());
+    for (Project importedProject : importedProjects) {
+      List<Project> conflicts = new ArrayList<>();
+      collectImportConflicts(importedProject, existingProjects, conflicts);
+      if (conflicts.isEmpty() && isAuthoredByUser(importedProject)) {
+        indexTree(importedProject, existingProjects);
+      }
+      conflictsByProject.add(conflicts);
+    }
+    return conflictsByProject;
+  }
+
+  /**
+   * Adds the projects of a tree to the index of the user's projects.
+   *
+   * @param project          the root of the tree to add
+   * @param existingProjects the index of the user's projects
+   */
+  private void indexTree(Project project, Set<ProjectKey> existingProjects) {
+    existingProjects.add(new ProjectKey(project));
+    for (Project subProject : project.getSubProjects()) {
+      indexTree(subProject, existingProjects);
+    }
+  }
+
+  /**
+   * Adds the projects of a tree which exist in the index to the conflicts.
+   *
+   * @param project          the root of the tree to check
+   * @param existingProjects the index of the user's projects
+   * @param conflicts        the conflicts found so far
+   */
+  private void collectImportConflicts(Project project, Set<ProjectKey> existingProjects,
+                                      List<Project> conflicts) {
+    if (existingProjects.contains(new ProjectKey(project))) {
+      conflicts.add(project);
+    }
+    for (Project subProject : project.getSubProjects()) {
+      collectImportConflicts(subProject, existingProjects, conflicts);
+    }
+  }
+
+  /**
+   * Imports a whole project tree in one transaction and inserts it in the list of projects.
+   * The project is imported as a sub project if it has a parent.
+   *
+   * @param importedProject the project to import
+   * @return the imported project
+   * @throws DatabaseException         if a problem occurs while importing the project,
+   *                                   nothing is imported in that case
+   * @throws ConnectionFailedException If the connection to the database fails
+   */
+  Project importProject(Project importedProject)
+      throws DatabaseException, ConnectionFailedException {
+    Project createdProject;
+    try {
+      createdProject = projectImportDatabase.importProject(importedProject, user);
+    } catch (DatabaseException e) {
+      throw new DatabaseException(ErrorMessagesUtils.ERROR_INSERT_PROJECT, e);
+    }
+    if (createdProject.getParentProject() != null) {
+      user.addSubProject(createdProject);
+    } else {
+      user.addProjectList(createdProject);
+    }
+    return createdProject;
+  }
+
   /**
    * Calls the function in ProjectDatabase that inserts the project,
    * inserts the project in the list of projects and notifies all the observers.
@@ -72,7 +203,7 @@ class ProjectHandler {
     try {
       if (isSubProject) {
         createdProject = projectDatabase.insertSubProject(newProject);
-        newProject.getParentProject().addSubProjects(createdProject);
+        user.addSubProject(createdProject);
       } else {
         createdProject = projectDatabase.insertProject(newProject);
         user.addProjectList(createdProject);
@@ -98,7 +229,7 @@ class ProjectHandler {
       projectDatabase.delete(projectToDelete.getId());
 
       if (!projectToDelete.isSubProject()) {
-        user.getProjectList().remove(projectToDelete);
+        user.removeProjectList(projectToDelete);
         if (user.isAuthor(projectToDelete)) {
           user.removeAuthorProjects(projectToDelete);
         }
@@ -170,14 +301,11 @@ class ProjectHandler {
    */
   private void updateUserProjects(Project projectToModify, String projectTitle,
                                   String projectDescription, long endDate, Color color) {
-    this.user.getProject(projectToModify).updateProject(
-        projectTitle, projectDescription, endDate, color);
+    Project project = this.user.getProject(projectToModify);
+    project.updateProject(projectTitle, projectDescription, endDate, color);
 
-    for (Project project : this.user.getProjectList()) {
-      if (project.getParentProject() != null
-          && project.getParentProject().getId() == projectToModify.getId()) {
-        project.setParentProject(projectToModify);
-      }
+    for (Project subProject : project.getSubProjects()) {
+      subProject.setParentProject(project);
     }
   }
 
@@ -0,0 +1,626 @@
+package be.ac.ulb.infof307.g09.application.models.handlers;
+
+import be.ac.ulb.infof307.g09.application.models.Change;
+import be.ac.ulb.infof307.g09.application.models.Invitation;
+import be.ac.ulb.infof307.g09.application.models.Project;
+import be.ac.ulb.infof307.g09.application.models.State;
+import be.ac.ulb.infof307.g09.application.models.Task;
+import be.ac.ulb.infof307.g09.application.models.User;
+import be.ac.ulb.infof307.g09.database.ChangeLogDatabase;
+import be.ac.ulb.infof307.g09.database.CollaboratorTaskDatabase;
+import be.ac.ulb.infof307.g09.database.ProjectCollaborationDatabase;
+import be.ac.ulb.infof307.g09.database.ProjectDatabase;
+import be.ac.ulb.infof307.g09.database.TaskDatabase;
+import be.ac.ulb.infof307.g09.exceptions.ConnectionFailedException;
+import be.ac.ulb.infof307.g09.exceptions.DatabaseException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * Sub Facade that watches the change log for the changes made by other sessions on the
+ * same database and applies them to the projects of the user.
+ * Each poll only reads the sequence number of the last change. When it moved, the changes
+ * are filtered through the executor against the projects and tasks in the model, and only
+ * the remaining rows are read on the watcher thread. A batch is dropped, and read again
+ * at the next poll, when the model was written by this session while its rows were read.
+ */
+class RemoteChangeHandler {
+  private final User user;
+  private final TaskHandler taskHandler;
+  private final BiConsumer<State, Object> publisher;
+  private final ChangeLogDatabase changeLogDatabase;
+  private final ProjectDatabase projectDatabase;
+  private final TaskDatabase taskDatabase;
+  private final CollaboratorTaskDatabase collaboratorTaskDatabase;
+  private final ProjectCollaborationDatabase projectCollaborationDatabase;
+  private ScheduledExecutorService watcherExecutor;
+  private Executor executor;
+  private volatile boolean watching;
+  private volatile boolean pending;
+  private volatile long lastSequence;
+  private volatile long localWrites;
+  private volatile Map<String, Invitation.Answer> answers;
+  private boolean applying;
+
+  /**
+   * Initialises the watcher of the changes made to the projects of the given user.
+   *
+   * @param user        the user
+   * @param taskHandler the task facade tracking the tasks assigned to the user
+   * @param publisher   the publisher of the applied changes
+   */
+  RemoteChangeHandler(User user, TaskHandler taskHandler, BiConsumer<State, Object> publisher) {
+    this.user = user;
+    this.taskHandler = taskHandler;
+    this.publisher = publisher;
+    this.changeLogDatabase = ChangeLogDatabase.getInstance();
+    this.projectDatabase = ProjectDatabase.getInstance();
+    this.taskDatabase = TaskDatabase.getInstance();
+    this.collaboratorTaskDatabase = CollaboratorTaskDatabase.getInstance();
+    this.projectCollaborationDatabase = ProjectCollaborationDatabase.getInstance();
+  }
+
+  /**
+   * Starts polling the change log periodically on a daemon thread.
+   *
+   * @param sequence     the sequence number of the last change already in the model
+   * @param executor     the executor owning the model
+   * @param periodMillis the delay between two polls, in milliseconds
+   */
+  void start(long sequence, Executor executor, long periodMillis) {
+    stop();
+    this.lastSequence = sequence;
+    this.executor = executor;
+    this.pending = false;
+    this.answers = null;
+    this.watching = true;
+    this.watcherExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "change-watcher");
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.watcherExecutor.scheduleWithFixedDelay(this::poll, periodMillis,
+        periodMillis, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Stops polling the change log. The changes already read are not applied.
+   */
+  void stop() {
+    this.watching = false;
+    if (this.watcherExecutor != null) {
+      this.watcherExecutor.shutdownNow();
+      this.watcherExecutor = null;
+    }
+  }
+
+  /**
+   * Records a write of this session to the model, so that the rows read before it are
+   * not applied over it. The writes made while applying remote changes are not counted.
+   */
+  void recordLocalChange() {
+    if (!this.applying) {
+      this.localWrites++;
+    }
+  }
+
+  /**
+   * Reads the changes made since the last applied batch and hands them to the executor.
+   * Nothing is read while a batch is being filtered or applied. A failed poll is retried
+   * at the next period.
+   */
+  private void poll() {
+    if (this.pending) {
+      return;
+    }
+    try {
+      if (this.answers == null) {
+        this.answers = readAnswers();
+      }
+      long sequence = changeLogDatabase.getLastSequence();
+      if (sequence == this.lastSequence) {
+        return;
+      }
+      List<Change> changes = changeLogDatabase.getChangesSince(this.lastSequence);
+      for (Change change : changes) {
+        sequence = Math.max(sequence, change.getSequence());
+      }
+      long batchSequence = sequence;
+      this.pending = true;
+      executor.execute(() -> select(changes, batchSequence));
+    } catch (DatabaseException | ConnectionFailedException e) {
+      // The same changes are read again at the next poll.
+    }
+  }
+
+  /**
+   * Keeps the changes of the projects and tasks in the model, of the new projects and
+   * tasks which may belong to it, and of the invitations of the user, then reads their
+   * rows on the watcher thread.
+   *
+   * @param changes  the changes read from the log
+   * @param sequence the sequence number of the last change
+   */
+  private void select(List<Change> changes, long sequence) {
+    if (!this.watching) {
+      return;
+    }
+    RemoteChanges remoteChanges = createChanges(sequence);
+    Set<Integer> knownTaskIds = null;
+    for (Change change : changes) {
+      int id = change.getEntityId();
+      Integer relatedId = change.getRelatedId();
+      switch (change.getEntity()) {
+        case PROJECT:
+          if (user.getProjectById(id) != null) {
+            remoteChanges.projectIds.add(id);
+          } else if (change.getOperation() != Change.Operation.DELETE) {
+            remoteChanges.newProjectIds.add(id);
+          }
+          break;
+        case PROJECT_TAG:
+          if (user.getProjectById(id) != null) {
+            remoteChanges.projectIds.add(id);
+          }
+          break;
+        case PROJECT_COLLABORATION:
+          if (relatedId != null && relatedId == user.getId()) {
+            remoteChanges.collaborationIds.add(id);
+            remoteChanges.invitationsChanged |= change.getOperation() == Change.Operation.INSERT;
+          } else if (user.getProjectById(id) != null) {
+            remoteChanges.projectIds.add(id);
+            remoteChanges.answered |= change.getOperation() == Change.Operation.UPDATE
+                && user.isAuthor(user.getProjectById(id));
+          }
+          break;
+        case TASK:
+          if (relatedId != null && (user.getProjectById(relatedId) != null
+              || remoteChanges.newProjectIds.contains(relatedId))) {
+            remoteChanges.taskIds.add(id);
+            remoteChanges.taskProjectIds.put(id, relatedId);
+          }
+          break;
+        case COLLABORATOR_TASK:
+          if (knownTaskIds == null) {
+            knownTaskIds = new HashSet<>();
+            collectTaskIds(user.getProjectList(), knownTaskIds);
+          }
+          if (knownTaskIds.contains(id)) {
+            remoteChanges.taskIds.add(id);
+          }
+          break;
+        default:
+          break;
+      }
+    }
+    if (remoteChanges.projectIds.isEmpty() && remoteChanges.newProjectIds.isEmpty()
+        && remoteChanges.collaborationIds.isEmpty() && remoteChanges.taskIds.isEmpty()
+        && !remoteChanges.answered && !remoteChanges.invitationsChanged) {
+      this.lastSequence = sequence;
+      this.pending = false;
+      return;
+    }
+    if (!remoteChanges.newProjectIds.isEmpty()) {
+      collectProjectIds(user.getProjectList(), remoteChanges.knownProjectIds);
+    }
+    watcherExecutor.execute(() -> fetch(remoteChanges));
+  }
+
+  /**
+   * Reads the rows of a batch on the watcher thread, then hands them to the executor.
+   *
+   * @param remoteChanges the selected changes
+   */
+  private void fetch(RemoteChanges remoteChanges) {
+    try {
+      readChanges(remoteChanges);
+      executor.execute(() -> applyChanges(remoteChanges));
+    } catch (DatabaseException | ConnectionFailedException e) {
+      // The same changes are read again at the next poll.
+      this.pending = false;
+    }
+  }
+
+  /**
+   * Reads the current state of the selected rows. A new project is only read when it is
+   * a parent project of the user or when its parent is read or in the model, and a new
+   * task when its project is. The invitations changed when the user is invited to a
+   * project, or when the answer to an invitation sent by the user changed.
+   *
+   * @param remoteChanges the selected changes, filled with the rows read
+   * @throws DatabaseException         if a problem occurs while reading the rows
+   * @throws ConnectionFailedException If the connection to the database fails
+   */
+  private void readChanges(RemoteChanges remoteChanges)
+      throws DatabaseException, ConnectionFailedException {
+    Set<Integer> projectIds = new TreeSet<>(remoteChanges.projectIds);
+    Set<Integer> rootIds = null;
+    for (int id : remoteChanges.newProjectIds) {
+      Integer parentId = projectDatabase.getParentProjectId(id);
+      if (parentId == null) {
+        if (rootIds == null) {
+          rootIds = new HashSet<>(projectDatabase.getParentProjectIdsByAuthor(user.getUsername()));
+        }
+        if (!rootIds.contains(id)) {
+          continue;
+        }
+      } else if (!remoteChanges.knownProjectIds.contains(parentId)
+          && !projectIds.contains(parentId)) {
+        continue;
+      }
+      projectIds.add(id);
+      remoteChanges.parentIds.put(id, parentId);
+    }
+
+    for (int id : projectIds) {
+      remoteChanges.projects.put(id, projectDatabase.getProjectNode(id));
+    }
+    if (!remoteChanges.collaborationIds.isEmpty()) {
+      Set<Integer> acceptedIds =
+          new HashSet<>(projectCollaborationDatabase.getProjectIdsByCollaborator(user));
+      for (int id : remoteChanges.collaborationIds) {
+        remoteChanges.collaborations.put(id,
+            acceptedIds.contains(id) ? projectDatabase.getProjectTree(id) : null);
+      }
+    }
+    if (remoteChanges.answered) {
+      Map<String, Invitation.Answer> previousAnswers = this.answers;
+      remoteChanges.answers = readAnswers();
+      for (Map.Entry<String, Invitation.Answer> entry : remoteChanges.answers.entrySet()) {
+        if (entry.getValue() != Invitation.Answer.WAITING
+            && entry.getValue() != previousAnswers.get(entry.getKey())) {
+          remoteChanges.invitationsChanged = true;
+        }
+      }
+    }
+    for (int id : remoteChanges.taskIds) {
+      Integer projectId = remoteChanges.taskProjectIds.get(id);
+      if (projectId != null && remoteChanges.newProjectIds.contains(projectId)
+          && !projectIds.contains(projectId)) {
+        continue;
+      }
+      Task task = taskDatabase.getTaskById(id);
+      if (task != null) {
+        task.setAssignedUsers(collaboratorTaskDatabase.getAssignedCollaboratorsToTask(task));
+      }
+      remoteChanges.tasks.put(id, task);
+    }
+  }
+
+  /**
+   * Reads the answers to the invitations sent by the user which are still to be shown.
+   *
+   * @return the answers, by project and collaborator
+   * @throws DatabaseException         if a problem occurs while reading the invitations
+   * @throws ConnectionFailedException If the connection to the database fails
+   */
+  private Map<String, Invitation.Answer> readAnswers()
+      throws DatabaseException, ConnectionFailedException {
+    Map<String, Invitation.Answer> invitationAnswers = new HashMap<>();
+    for (Invitation invitation : projectCollaborationDatabase.getInvitationsSentBy(user)) {
+      invitationAnswers.put(invitation.getProjectId() + ":" + invitation.getCollaborator().getId(),
+          invitation.getAnswer());
+    }
+    return invitationAnswers;
+  }
+
+  /**
+   * Creates an empty batch of changes, selected after the writes of this session so far.
+   *
+   * @param sequence the sequence number of the last change of the batch
+   * @return the batch
+   */
+  RemoteChanges createChanges(long sequence) {
+    return new RemoteChanges(sequence, this.localWrites);
+  }
+
+  /**
+   * Applies a batch read by the watcher, unless this session wrote to the model since
+   * the batch was selected: its rows may then predate that write, so the batch is read
+   * again at the next poll.
+   *
+   * @param remoteChanges the changed rows
+   */
+  void applyChanges(RemoteChanges remoteChanges) {
+    try {
+      if (!this.watching || remoteChanges.localWrites != this.localWrites) {
+        return;
+      }
+      apply(remoteChanges);
+      if (remoteChanges.answers != null) {
+        this.answers = remoteChanges.answers;
+      }
+      this.lastSequence = remoteChanges.sequence;
+    } finally {
+      this.pending = false;
+    }
+  }
+
+  /**
+   * Applies the changed rows to the model, then publishes every change which was not
+   * already in the model.
+   *
+   * @param remoteChanges the changed rows
+   */
+  void apply(RemoteChanges remoteChanges) {
+    this.applying = true;
+    try {
+      for (Map.Entry<Integer, Project> entry : remoteChanges.collaborations.entrySet()) {
+        applyCollaboration(entry.getKey(), entry.getValue());
+      }
+      for (Map.Entry<Integer, Project> entry : remoteChanges.projects.entrySet()) {
+        if (entry.getValue() == null) {
+          applyDeletedProject(entry.getKey());
+        } else {
+          applyProject(entry.getValue(), remoteChanges.parentIds.get(entry.getKey()));
+        }
+      }
+      for (Map.Entry<Integer, Task> entry : remoteChanges.tasks.entrySet()) {
+        if (entry.getValue() == null) {
+          applyDeletedTask(entry.getKey(), remoteChanges.taskProjectIds.get(entry.getKey()));
+        } else {
+          applyTask(entry.getValue());
+        }
+      }
+      if (remoteChanges.invitationsChanged) {
+        publisher.accept(State.INVITATIONS_CHANGED, user);
+      }
+    } finally {
+      this.applying = false;
+    }
+  }
+
+  /**
+   * Adds a project the user now collaborates on, or removes a project he left.
+   *
+   * @param id   the id of the project
+   * @param tree the whole project if the user collaborates on it, null otherwise
+   */
+  private void applyCollaboration(int id, Project tree) {
+    Project existing = user.getProjectById(id);
+    if (tree != null && existing == null) {
+      user.addProjectList(tree);
+      taskHandler.trackProjectTasks(tree);
+      publisher.accept(State.PROJECT_CREATED, tree);
+    } else if (tree == null && existing != null && !existing.isSubProject()
+        && !user.isAuthor(existing)) {
+      taskHandler.untrackProjectTasks(existing);
+      user.removeProjectList(existing);
+      existing.removeCollaborator(user);
+      publisher.accept(State.COLLABORATOR_REMOVED, existing);
+    }
+  }
+
+  /**
+   * Removes a deleted project from the projects of the user.
+   *
+   * @param id the id of the deleted project
+   */
+  private void applyDeletedProject(int id) {
+    Project existing = user.getProjectById(id);
+    if (existing == null) {
+      return;
+    }
+    taskHandler.untrackProjectTasks(existing);
+    if (!existing.isSubProject()) {
+      user.removeProjectList(existing);
+      user.removeAuthorProjects(existing);
+    } else {
+      user.removeSubProject(existing);
+    }
+    publisher.accept(State.PROJECT_DELETED, existing);
+  }
+
+  /**
+   * Adds a new project to the projects of the user, or updates the fields, tags and
+   * collaborators of a known project. The collaborators are shared by a whole tree,
+   * so they are only taken from the parent projects.
+   *
+   * @param project  the project read from the database, without parent, tasks nor sub projects
+   * @param parentId the id of its parent, null for a parent project
+   */
+  private void applyProject(Project project, Integer parentId) {
+    Project existing = user.getProjectById(project.getId());
+    if (existing == null) {
+      Project parent = parentId == null ? null : user.getProjectById(parentId);
+      if (parent != null) {
+        project.setParentProject(parent);
+        user.addSubProject(project);
+        publisher.accept(State.PROJECT_CREATED, project);
+      } else if (parentId == null && user.equals(project.getAuthor())) {
+        user.getAuthorProjects().add(project);
+        user.addProjectList(project);
+        publisher.accept(State.PROJECT_CREATED, project);
+      }
+      return;
+    }
+
+    boolean modified = false;
+    if (!existing.getTitle().equals(project.getTitle())
+        || !existing.getDescription().equals(project.getDescription())
+        || existing.getEndDate() != project.getEndDate()
+        || existing.getColor() != project.getColor()) {
+      existing.updateProject(project.getTitle(), project.getDescription(),
+          project.getEndDate(), project.getColor());
+      modified = true;
+    }
+    if (!new HashSet<>(existing.getTags()).equals(new HashSet<>(project.getTags()))) {
+      existing.setTags(project.getTags());
+      modified = true;
+    }
+    if (!existing.isSubProject() && !new HashSet<>(existing.getCollaborators())
+        .equals(new HashSet<>(project.getCollaborators()))) {
+      existing.setCollaborators(project.getCollaborators());
+      modified = true;
+    }
+    if (modified) {
+      publisher.accept(State.PROJECT_MODIFIED, existing);
+    }
+  }
+
+  /**
+   * Removes a deleted task from its project.
+   *
+   * @param id        the id of the deleted task
+   * @param projectId the id of its project, null if unknown
+   */
+  private void applyDeletedTask(int id, Integer projectId) {
+    Project project = projectId == null ? null : user.getProjectById(projectId);
+    Task existing = project == null ? null : findTask(project, id);
+    if (existing != null) {
+      project.removeTask(existing);
+      taskHandler.untrackAssignedTask(existing);
+      publisher.accept(State.TASK_DELETED, existing);
+    }
+  }
+
+  /**
+   * Adds a new task to its project, or updates the fields and assignations of a known task.
+   *
+   * @param task the task read from the database, with its assigned users
+   */
+  private void applyTask(Task task) {
+    Project project = user.getProjectById(task.getProjectId());
+    if (project == null) {
+      return;
+    }
+    Task existing = findTask(project, task.getId());
+    if (existing == null) {
+      project.addTask(task);
+      taskHandler.updateTaskTracking(task);
+      publisher.accept(State.TASK_CREATED, task);
+    } else if (!existing.contentEquals(task)
+        || !new HashSet<>(existing.getAssignedUsers())
+        .equals(new HashSet<>(task.getAssignedUsers()))) {
+      existing.setDescription(task.getDescription());
+      existing.setStartDate(task.getStartDate());
+      existing.setEndDate(task.getEndDate());
+      existing.setAssignedUsers(task.getAssignedUsers());
+      project.updateTask(existing);
+      taskHandler.updateTaskTracking(existing);
+      publisher.accept(State.TASK_MODIFIED, existing);
+    }
+  }
+
+  /**
+   * Finds a task of a project by its id.
+   *
+   * @param project the project
+   * @param id      the id of the task
+   * @return the task, null if the project has no such task
+   */
+  private static Task findTask(Project project, int id) {
+    for (Task task : project.getTasks()) {
+      if (task.getId() == id) {
+        return task;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Collects the ids of some projects and of their sub projects.
+   *
+   * @param projects   the projects
+   * @param projectIds the collected ids
+   */
+  private static void collectProjectIds(List<Project> projects, Set<Integer> projectIds) {
+    for (Project project : projects) {
+      projectIds.add(project.getId());
+      collectProjectIds(project.getSubProjects(), projectIds);
+    }
+  }
+
+  /**
+   * Collects the ids of the tasks of some projects and of their sub projects.
+   *
+   * @param projects the projects
+   * @param taskIds  the collected ids
+   */
+  private static void collectTaskIds(List<Project> projects, Set<Integer> taskIds) {
+    for (Project project : projects) {
+      for (Task task : project.getTasks()) {
+        taskIds.add(task.getId());
+      }
+      collectTaskIds(project.getSubProjects(), taskIds);
+    }
+  }
+
+  /**
+   * Batch of changes made since the last applied batch: the ids selected against the
+   * model, then the rows read for them, in the order of their ids. A null row stands
+   * for a deleted row.
+   */
+  static class RemoteChanges {
+    private final long sequence;
+    private final long localWrites;
+    private final Set<Integer> projectIds = new TreeSet<>();
+    private final Set<Integer> newProjectIds = new TreeSet<>();
+    private final Set<Integer> knownProjectIds = new HashSet<>();
+    private final Set<Integer> collaborationIds = new TreeSet<>();
+    private final Set<Integer> taskIds = new TreeSet<>();
+    private final Map<Integer, Project> collaborations = new TreeMap<>();
+    private final Map<Integer, Project> projects = new TreeMap<>();
+    private final Map<Integer, Integer> parentIds = new HashMap<>();
+    private final Map<Integer, Task> tasks = new TreeMap<>();
+    private final Map<Integer, Integer> taskProjectIds = new HashMap<>();
+    private Map<String, Invitation.Answer> answers;
+    private boolean answered;
+    private boolean invitationsChanged;
+
+    /**
+     * Initialises an empty batch.
+     *
+     * @param batchSequence    the sequence number of the last change of the batch
+     * @param batchLocalWrites the number of writes of this session when it was selected
+     */
+    private RemoteChanges(long batchSequence, long batchLocalWrites) {
+      this.sequence = batchSequence;
+      this.localWrites = batchLocalWrites;
+    }
+
+    /**
+     * Adds the row of a project.
+     *
+     * @param id       the id of the project
+     * @param project  the project without parent, tasks nor sub projects, null if deleted
+     * @param parentId the id of its parent, null for a parent project
+     */
+    void putProject(int id, Project project, Integer parentId) {
+      this.projects.put(id, project);
+      this.parentIds.put(id, parentId);
+    }
+
+    /**
+     * Adds the row of a collaboration of the user.
+     *
+     * @param id   the id of the project
+     * @param tree the whole project if the user collaborates on it, null otherwise
+     */
+    void putCollaboration(int id, Project tree) {
+      this.collaborations.put(id, tree);
+    }
+
+    /**
+     * Adds the row of a task.
+     *
+     * @param id        the id of the task
+     * @param task      the task with its assigned users, null if deleted
+     * @param projectId the id of its project
+     */
+    void putTask(int id, Task task, Integer projectId) {
+      this.tasks.put(id, task);
+      this.taskProjectIds.put(id, projectId);
+    }
+  }
+}
@@ -1,5 +1,6 @@
 package be.ac.ulb.infof307.g09.application.models.handlers;
 
+import be.ac.ulb.infof307.g09.application.models.Project;
 import be.ac.ulb.infof307.g09.application.models.User;
 import be.ac.ulb.infof307.g09.application.utilities.ErrorMessagesUtils;
 import be.ac.ulb.infof307.g09.database.ProjectCollaborationDatabase;
@@ -7,6 +8,7 @@ import be.ac.ulb.infof307.g09.database.ProjectDatabase;
 import be.ac.ulb.infof307.g09.database.UserDatabase;
 import be.ac.ulb.infof307.g09.exceptions.ConnectionFailedException;
 import be.ac.ulb.infof307.g09.exceptions.DatabaseException;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -29,11 +31,11 @@ class Session {
   }
 
   /**
-   * Connects the user to the application and loads his projects.
+   * Connects the user to the application, without loading his projects.
    *
    * @param username the username of the user
    * @param password password of the user
-   * @throws DatabaseException         if a problem occurs while fetching the user's projects.
+   * @throws DatabaseException         if a problem occurs while fetching the user.
    * @throws ConnectionFailedException If the connection to the database fails
    */
   void connect(String username, String password)
@@ -41,14 +43,51 @@ class Session {
     this.user = userDatabase.getUser(username, password);
 
     if (user != null) {
-      user.setProjectList(projectDatabase.getAllParentProjectsByAuthor(user.getUsername()));
-      user.getAuthorProjects().addAll(user.getProjectList());
-      user.getProjectList().addAll(projectCollaborationDatabase.getProjectsByCollaborator(user));
+      user.setProjectList(new ArrayList<>());
     } else {
       throw new IllegalArgumentException(ErrorMessagesUtils.ERROR_MESSAGE);
     }
   }
 
+  /**
+   * Returns the ids of the parent projects of the user, to load them one by one.
+   *
+   * @param author the user whose projects are loaded
+   * @return the ids of the parent projects of the user
+   * @throws DatabaseException         if a problem occurs while fetching the ids.
+   * @throws ConnectionFailedException If the connection to the database fails
+   */
+  List<Integer> getParentProjectIds(User author)
+      throws DatabaseException, ConnectionFailedException {
+    return projectDatabase.getParentProjectIdsByAuthor(author.getUsername());
+  }
+
+  /**
+   * Loads a project with its tasks, tags, collaborators and sub projects.
+   *
+   * @param id the id of the project
+   * @return the loaded project
+   * @throws DatabaseException         if a problem occurs while fetching the project.
+   * @throws ConnectionFailedException If the connection to the database fails
+   */
+  Project loadProject(int id) throws DatabaseException, ConnectionFailedException {
+    return projectDatabase.getProjectById(id);
+  }
+
+  /**
+   * Returns the ids of the projects in which the user is a collaborator,
+   * to load them one by one.
+   *
+   * @param collaborator the user whose projects are loaded
+   * @return the ids of the projects of the collaborator
+   * @throws DatabaseException         if a problem occurs while fetching the ids.
+   * @throws ConnectionFailedException If the connection to the database fails
+   */
+  List<Integer> getCollaboratorProjectIds(User collaborator)
+      throws DatabaseException, ConnectionFailedException {
+    return projectCollaborationDatabase.getProjectIdsByCollaborator(collaborator);
+  }
+
   /**
    * Register a new user to the application.
    *
@@ -0,0 +1,262 @@
+package be.ac.ulb.infof307.g09.application.models.handlers;
+
+import be.ac.ulb.infof307.g09.application.models.Change;
+import be.ac.ulb.infof307.g09.application.models.Project;
+import be.ac.ulb.infof307.g09.application.models.Tag;
+import be.ac.ulb.infof307.g09.application.models.Task;
+import be.ac.ulb.infof307.g09.application.models.User;
+import be.ac.ulb.infof307.g09.archive.ProjectArchive;
+import be.ac.ulb.infof307.g09.archive.SessionSnapshot;
+import be.ac.ulb.infof307.g09.database.ChangeLogDatabase;
+import be.ac.ulb.infof307.g09.database.ProjectDatabase;
+import be.ac.ulb.infof307.g09.exceptions.ConnectionFailedException;
+import be.ac.ulb.infof307.g09.exceptions.DatabaseException;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Sub Facade that keeps the projects trees of a user in a snapshot on disk, so that the
+ * trees which did not change since the last session are not loaded from the database again.
+ * A tree is changed when the change log holds a change of one of its projects, tasks, tags,
+ * collaborations or assignments made after the sequence stamped on the snapshot. A snapshot
+ * written from another database is ignored.
+ */
+class SessionSnapshotHandler {
+  private final File snapshotFile;
+  private final ChangeLogDatabase changeLogDatabase;
+  private final ProjectDatabase projectDatabase;
+  private final Map<Integer, Project> unchangedProjects;
+  private SessionSnapshot snapshot;
+  private String databaseId;
+
+  /**
+   * Initialises the snapshot facade of a user.
+   *
+   * @param directory the directory of the snapshots, null to load every project
+   *                  from the database
+   * @param user      the user whose projects are loaded
+   */
+  SessionSnapshotHandler(File directory, User user) {
+    this.snapshotFile = directory == null ? null : SessionSnapshot.getFile(directory, user.getId());
+    this.changeLogDatabase = ChangeLogDatabase.getInstance();
+    this.projectDatabase = ProjectDatabase.getInstance();
+    this.unchangedProjects = new HashMap<>();
+    this.snapshot = null;
+  }
+
+  /**
+   * Reads the previous snapshot, keeps its unchanged trees and starts writing the new one.
+   * A missing, unreadable or stale snapshot, or one written from another database, is ignored:
+   * every project is then loaded.
+   *
+   * @throws DatabaseException         if a problem occurs while reading the change log
+   * @throws ConnectionFailedException If the connection to the database fails
+   */
+  void open() throws DatabaseException, ConnectionFailedException {
+    if (this.snapshotFile == null) {
+      return;
+    }
+    this.databaseId = changeLogDatabase.getDatabaseId();
+    if (this.databaseId == null) {
+      return;
+    }
+    long sequence = changeLogDatabase.getLastSequence();
+    ProjectArchive previous = readSnapshot();
+    // A sequence ahead of the database means the database was restored from an older copy.
+    if (previous != null && previous.getSequence() <= sequence) {
+      keepUnchangedProjects(previous);
+    }
+    try {
+      this.snapshot = new SessionSnapshot(this.snapshotFile, this.databaseId, sequence);
+    } catch (IOException e) {
+      this.snapshot = null;
+    }
+  }
+
+  /**
+   * Returns a parent project of the previous snapshot which did not change since then.
+   *
+   * @param id the id of the parent project
+   * @return the project with its whole tree, null if it must be loaded from the database
+   */
+  Project getUnchangedProject(int id) {
+    return this.unchangedProjects.get(id);
+  }
+
+  /**
+   * Adds a parent project to the new snapshot. A project collaborated without its parent
+   * is left out and loaded from the database at each session.
+   *
+   * @param project the loaded project
+   */
+  void addToSnapshot(Project project) {
+    if (this.snapshot == null || project.getParentProject() != null) {
+      return;
+    }
+    try {
+      this.snapshot.add(project);
+    } catch (IOException e) {
+      abandonSnapshot();
+    }
+  }
+
+  /**
+   * Replaces the previous snapshot with the new one once every project is added.
+   * When it cannot be replaced, the previous snapshot is kept.
+   *
+   * @throws IOException if the new snapshot cannot be written or moved
+   */
+  void commitSnapshot() throws IOException {
+    if (this.snapshot == null) {
+      return;
+    }
+    try {
+      this.snapshot.commit();
+    } finally {
+      abandonSnapshot();
+    }
+  }
+
+  /**
+   * Stops writing the new snapshot, the previous one is kept if the new one is not committed.
+   */
+  void abandonSnapshot() {
+    if (this.snapshot == null) {
+      return;
+    }
+    try {
+      this.snapshot.close();
+    } catch (IOException e) {
+      // The temporary file is overwritten by the next snapshot.
+    }
+    this.snapshot = null;
+  }
+
+  /**
+   * Reads the previous snapshot.
+   *
+   * @return the previous snapshot, null if there is none or if it cannot be read
+   */
+  private ProjectArchive readSnapshot() {
+    if (!this.snapshotFile.isFile()) {
+      return null;
+    }
+    try {
+      return SessionSnapshot.read(this.snapshotFile, this.databaseId);
+    } catch (IOException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Keeps the trees of the previous snapshot not touched by the changes made since it.
+   *
+   * @param previous the previous snapshot
+   * @throws DatabaseException         if a problem occurs while reading the change log
+   * @throws ConnectionFailedException If the connection to the database fails
+   */
+  private void keepUnchangedProjects(ProjectArchive previous)
+      throws DatabaseException, ConnectionFailedException {
+    Map<Integer, Integer> projectRoots = new HashMap<>();
+    Map<Integer, Integer> taskRoots = new HashMap<>();
+    Map<Integer, Set<Integer>> tagRoots = new HashMap<>();
+    for (Project root : previous.getProjects()) {
+      indexProject(root, root, projectRoots, taskRoots, tagRoots);
+      for (Project child : root.getAllChildren()) {
+        indexProject(root, child, projectRoots, taskRoots, tagRoots);
+      }
+    }
+
+    Set<Integer> changedRoots = new HashSet<>();
+    Set<Integer> changedProjectIds = new HashSet<>();
+    for (Change change : changeLogDatabase.getChangesSince(previous.getSequence())) {
+      switch (change.getEntity()) {
+        case PROJECT:
+        case PROJECT_TAG:
+        case PROJECT_COLLABORATION:
+          changedProjectIds.add(change.getEntityId());
+          break;
+        case TASK:
+          if (change.getRelatedId() != null) {
+            changedProjectIds.add(change.getRelatedId());
+          }
+          break;
+        case COLLABORATOR_TASK:
+          // An assignment to a newer task comes with the insertion of the task.
+          Integer taskRoot = taskRoots.get(change.getEntityId());
+          if (taskRoot != null) {
+            changedRoots.add(taskRoot);
+          }
+          break;
+        case TAG:
+          changedRoots.addAll(
+              tagRoots.getOrDefault(change.getEntityId(), Collections.emptySet()));
+          break;
+        default:
+          break;
+      }
+    }
+    addChangedRoots(changedProjectIds, projectRoots, changedRoots);
+
+    for (Project root : previous.getProjects()) {
+      if (!changedRoots.contains(root.getId())) {
+        this.unchangedProjects.put(root.getId(), root);
+      }
+    }
+  }
+
+  /**
+   * Indexes a project of a tree of the snapshot with its tasks and tags.
+   *
+   * @param root         the parent project of the tree
+   * @param project      the project to index
+   * @param projectRoots the root of each project
+   * @param taskRoots    the root of each task
+   * @param tagRoots     the roots of the trees using each tag
+   */
+  private void indexProject(Project root, Project project, Map<Integer, Integer> projectRoots,
+                            Map<Integer, Integer> taskRoots, Map<Integer, Set<Integer>> tagRoots) {
+    projectRoots.put(project.getId(), root.getId());
+    for (Task task : project.getTasks()) {
+      taskRoots.put(task.getId(), root.getId());
+    }
+    for (Tag tag : project.getTags()) {
+      tagRoots.computeIfAbsent(tag.getId(), id -> new HashSet<>()).add(root.getId());
+    }
+  }
+
+  /**
+   * Marks the trees of changed projects as changed. The projects missing from the snapshot are
+   * looked up together in the database, they are new projects or deleted projects which were
+   * never in the snapshot.
+   *
+   * @param projectIds   the ids of the changed projects
+   * @param projectRoots the root of each project of the snapshot
+   * @param changedRoots the roots of the changed trees
+   * @throws DatabaseException         if a problem occurs while looking up the projects
+   * @throws ConnectionFailedException If the connection to the database fails
+   */
+  private void addChangedRoots(Set<Integer> projectIds, Map<Integer, Integer> projectRoots,
+                               Set<Integer> changedRoots)
+      throws DatabaseException, ConnectionFailedException {
+    List<Integer> unknownIds = new ArrayList<>();
+    for (int projectId : projectIds) {
+      Integer rootId = projectRoots.get(projectId);
+      if (rootId != null) {
+        changedRoots.add(rootId);
+      } else {
+        unknownIds.add(projectId);
+      }
+    }
+    if (!unknownIds.isEmpty()) {
+      changedRoots.addAll(projectDatabase.getRootProjectIds(unknownIds).values());
+    }
+  }
+}
@@ -0,0 +1,479 @@
+package be.ac.ulb.infof307.g09.application.models.handlers;
+
+import be.ac.ulb.infof307.g09.application.models.Project;
+import be.ac.ulb.infof307.g09.application.models.State;
+import be.ac.ulb.infof307.g09.application.models.Task;
+import be.ac.ulb.infof307.g09.application.models.User;
+import be.ac.ulb.infof307.g09.application.utilities.DateTimeUtils;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import javafx.util.Pair;
+
+/**
+ * Sub Facade that keeps the statistics of the user's projects up to date.
+ * Tasks become completed and projects run out of time as time passes: they wait in sets
+ * sorted by end date and are rolled over the next time the statistics are read.
+ * The time left is the sum of the end dates of the projects not ended yet, minus the current
+ * time for each of them, so it needs no update as time passes.
+ * Each project also keeps the sums of its whole subtree, updated along the path to the root.
+ */
+class StatisticsHandler {
+  private static final int NO_PARENT = -1;
+  private final User user;
+  private final Map<Integer, ProjectTotals> totalsByProject;
+  private final Map<Integer, TrackedTask> trackedTasks;
+  private final NavigableSet<TrackedTask> pendingTasks;
+  private final NavigableSet<ProjectTotals> pendingProjects;
+  private long totalDuration;
+  private int totalTasks;
+  private int totalCompletedTasks;
+  private long totalPendingEndDates;
+  private int totalPendingProjects;
+
+  /**
+   * Initialises the statistics with the projects of the given user.
+   *
+   * @param user the user
+   */
+  StatisticsHandler(User user) {
+    this.user = user;
+    this.totalsByProject = new HashMap<>();
+    this.trackedTasks = new HashMap<>();
+    this.pendingTasks = new TreeSet<>(Comparator.<TrackedTask>comparingLong(task -> task.endDate)
+        .thenComparingInt(task -> task.taskId));
+    this.pendingProjects = new TreeSet<>(
+        Comparator.<ProjectTotals>comparingLong(totals -> totals.endDate)
+            .thenComparingInt(totals -> totals.projectId));
+    for (Project project : user.getProjectList()) {
+      addProject(project, DateTimeUtils.getCurrentTime());
+    }
+  }
+
+  /**
+   * Updates the statistics after an event of the application.
+   *
+   * @param state the state of the application
+   * @param arg   the project or task concerned by the event
+   */
+  void update(State state, Object arg) {
+    long current = DateTimeUtils.getCurrentTime();
+    switch (state) {
+      case PROJECT_CREATED:
+        addProject((Project) arg, current);
+        break;
+      case PROJECT_MODIFIED:
+        Project modifiedProject = this.user.getProject((Project) arg);
+        updateProjectDurations(modifiedProject != null ? modifiedProject : (Project) arg, current);
+        break;
+      case PROJECT_DELETED:
+      case COLLABORATOR_REMOVED:
+        removeProject((Project) arg);
+        break;
+      case TASK_CREATED:
+      case TASK_MODIFIED:
+        addTask((Task) arg, current);
+        break;
+      case TASK_DELETED:
+        removeTask((Task) arg);
+        break;
+      default:
+        break;
+    }
+  }
+
+  /**
+   * Returns the sum of the current duration of all projects.
+   *
+   * @return the sum of the current duration of all projects
+   */
+  long getTotalTime() {
+    return this.totalDuration;
+  }
+
+  /**
+   * Returns the sum of the time left to all projects.
+   *
+   * @return the sum of the time left to all projects
+   */
+  long getTotalTimeLeft() {
+    long current = DateTimeUtils.getCurrentTime();
+    rollOver(current);
+    return this.totalPendingEndDates - this.totalPendingProjects * current;
+  }
+
+  /**
+   * Returns the sum of the time left to a project and all its sub projects.
+   *
+   * @param project the project
+   * @return the time left to the project subtree
+   */
+  long getSubtreeTimeLeft(Project project) {
+    long current = DateTimeUtils.getCurrentTime();
+    rollOver(current);
+    ProjectTotals totals = this.totalsByProject.get(project.getId());
+    if (totals == null) {
+      return 0;
+    }
+    return totals.subtreePendingEndDates - totals.subtreePendingProjects * current;
+  }
+
+  /**
+   * Returns the amount of completed and remaining tasks across all projects.
+   *
+   * @return a pair containing the amount of completed and remaining tasks
+   */
+  Pair<Integer, Integer> getTotalTasksCount() {
+    rollOver(DateTimeUtils.getCurrentTime());
+    return new Pair<>(this.totalCompletedTasks, this.totalTasks - this.totalCompletedTasks);
+  }
+
+  /**
+   * Returns the amount of completed and remaining tasks of a project.
+   *
+   * @param project the project
+   * @return a pair containing the amount of completed and remaining tasks of the project
+   */
+  Pair<Integer, Integer> getProjectTasksCount(Project project) {
+    rollOver(DateTimeUtils.getCurrentTime());
+    ProjectTotals totals = this.totalsByProject.get(project.getId());
+    if (totals == null) {
+      return new Pair<>(0, 0);
+    }
+    return new Pair<>(totals.completedTasks, totals.taskIds.size() - totals.completedTasks);
+  }
+
+  /**
+   * Returns the sum of the current duration of a project and all its sub projects.
+   *
+   * @param project the project
+   * @return the current duration of the project subtree
+   */
+  long getSubtreeDuration(Project project) {
+    ProjectTotals totals = this.totalsByProject.get(project.getId());
+    return totals == null ? 0 : totals.subtreeDuration;
+  }
+
+  /**
+   * Returns the sum of the initial duration of a project and all its sub projects.
+   *
+   * @param project the project
+   * @return the initial duration of the project subtree
+   */
+  long getSubtreeInitialDuration(Project project) {
+    ProjectTotals totals = this.totalsByProject.get(project.getId());
+    return totals == null ? 0 : totals.subtreeInitialDuration;
+  }
+
+  /**
+   * Returns the amount of completed and remaining tasks of a project and all its sub projects.
+   *
+   * @param project the project
+   * @return a pair containing the amount of completed and remaining tasks of the subtree
+   */
+  Pair<Integer, Integer> getSubtreeTasksCount(Project project) {
+    rollOver(DateTimeUtils.getCurrentTime());
+    ProjectTotals totals = this.totalsByProject.get(project.getId());
+    if (totals == null) {
+      return new Pair<>(0, 0);
+    }
+    return new Pair<>(totals.subtreeCompletedTasks,
+        totals.subtreeTasks - totals.subtreeCompletedTasks);
+  }
+
+  /**
+   * Adds a project, its tasks and its sub projects to the statistics.
+   *
+   * @param project the project to add
+   * @param current the current time in epoch milli format
+   */
+  private void addProject(Project project, long current) {
+    removeProject(project);
+    int parentId = project.getParentProject() == null
+        ? NO_PARENT : project.getParentProject().getId();
+    ProjectTotals totals =
+        new ProjectTotals(project.getId(), parentId, project.getInitialDuration());
+    this.totalsByProject.put(project.getId(), totals);
+    totals.duration = project.getCurrentDuration();
+    this.totalDuration += totals.duration;
+    propagate(project.getId(), totals.duration, totals.initialDuration, 0, 0);
+    startTimeLeft(totals, project.getEndDate(), current);
+    for (Task task : project.getTasks()) {
+      addTask(task, current);
+    }
+    for (Project subProject : project.getSubProjects()) {
+      addProject(subProject, current);
+    }
+  }
+
+  /**
+   * Refreshes the duration and the time left of a project and its sub projects.
+   *
+   * @param project the modified project
+   * @param current the current time in epoch milli format
+   */
+  private void updateProjectDurations(Project project, long current) {
+    ProjectTotals totals = this.totalsByProject.get(project.getId());
+    if (totals != null) {
+      long durationDelta = project.getCurrentDuration() - totals.duration;
+      this.totalDuration += durationDelta;
+      totals.duration = project.getCurrentDuration();
+      propagate(project.getId(), durationDelta, 0, 0, 0);
+      stopTimeLeft(totals);
+      startTimeLeft(totals, project.getEndDate(), current);
+    }
+    for (Project subProject : project.getSubProjects()) {
+      updateProjectDurations(subProject, current);
+    }
+  }
+
+  /**
+   * Counts the time left to a project until its end date, if it is not ended yet.
+   *
+   * @param totals  the totals of the project
+   * @param endDate the end date of the project
+   * @param current the current time in epoch milli format
+   */
+  private void startTimeLeft(ProjectTotals totals, long endDate, long current) {
+    totals.endDate = endDate;
+    if (endDate >= current) {
+      totals.pending = true;
+      this.pendingProjects.add(totals);
+      this.totalPendingEndDates += endDate;
+      this.totalPendingProjects++;
+      propagateTimeLeft(totals.projectId, endDate, 1);
+    }
+  }
+
+  /**
+   * Stops counting the time left to a project.
+   *
+   * @param totals the totals of the project
+   */
+  private void stopTimeLeft(ProjectTotals totals) {
+    if (totals.pending) {
+      this.pendingProjects.remove(totals);
+      endTimeLeft(totals);
+    }
+  }
+
+  /**
+   * Removes a project which is no longer pending from the sums of the time left.
+   *
+   * @param totals the totals of the project
+   */
+  private void endTimeLeft(ProjectTotals totals) {
+    totals.pending = false;
+    this.totalPendingEndDates -= totals.endDate;
+    this.totalPendingProjects--;
+    propagateTimeLeft(totals.projectId, -totals.endDate, -1);
+  }
+
+  /**
+   * Removes a project, its tasks and its sub projects from the statistics.
+   *
+   * @param project the project to remove
+   */
+  private void removeProject(Project project) {
+    for (Project subProject : project.getSubProjects()) {
+      removeProject(subProject);
+    }
+    ProjectTotals totals = this.totalsByProject.get(project.getId());
+    if (totals != null) {
+      this.totalDuration -= totals.duration;
+      this.totalTasks -= totals.taskIds.size();
+      this.totalCompletedTasks -= totals.completedTasks;
+      propagate(project.getId(), -totals.duration, -totals.initialDuration,
+          -totals.taskIds.size(), -totals.completedTasks);
+      stopTimeLeft(totals);
+      for (Integer taskId : totals.taskIds) {
+        this.pendingTasks.remove(this.trackedTasks.remove(taskId));
+      }
+      this.totalsByProject.remove(project.getId());
+    }
+  }
+
+  /**
+   * Adds a task to the statistics of its project, or updates it if already tracked.
+   *
+   * @param task    the task to add
+   * @param current the current time in epoch milli format
+   */
+  private void addTask(Task task, long current) {
+    removeTask(task);
+    ProjectTotals totals = this.totalsByProject.get(task.getProjectId());
+    if (totals != null) {
+      TrackedTask trackedTask =
+          new TrackedTask(task.getId(), task.getProjectId(), task.getEndDate());
+      this.trackedTasks.put(task.getId(), trackedTask);
+      totals.taskIds.add(task.getId());
+      this.totalTasks++;
+      propagate(task.getProjectId(), 0, 0, 1, 0);
+      if (trackedTask.endDate < current) {
+        complete(trackedTask, totals);
+      } else {
+        this.pendingTasks.add(trackedTask);
+      }
+    }
+  }
+
+  /**
+   * Removes a task from the statistics, does nothing if the task is not tracked.
+   *
+   * @param task the task to remove
+   */
+  private void removeTask(Task task) {
+    TrackedTask trackedTask = this.trackedTasks.remove(task.getId());
+    if (trackedTask != null) {
+      ProjectTotals totals = this.totalsByProject.get(trackedTask.projectId);
+      totals.taskIds.remove(task.getId());
+      this.totalTasks--;
+      if (trackedTask.completed) {
+        totals.completedTasks--;
+        this.totalCompletedTasks--;
+      }
+      propagate(trackedTask.projectId, 0, 0, -1, trackedTask.completed ? -1 : 0);
+      if (!trackedTask.completed) {
+        this.pendingTasks.remove(trackedTask);
+      }
+    }
+  }
+
+  /**
+   * Marks as completed every pending task ending before the given time, and as ended every
+   * pending project ending before it.
+   *
+   * @param current the current time in epoch milli format
+   */
+  private void rollOver(long current) {
+    while (!this.pendingTasks.isEmpty() && this.pendingTasks.first().endDate < current) {
+      TrackedTask trackedTask = this.pendingTasks.pollFirst();
+      complete(trackedTask, this.totalsByProject.get(trackedTask.projectId));
+    }
+    while (!this.pendingProjects.isEmpty() && this.pendingProjects.first().endDate < current) {
+      endTimeLeft(this.pendingProjects.pollFirst());
+    }
+  }
+
+  /**
+   * Marks a task as completed.
+   *
+   * @param trackedTask the task
+   * @param totals      the totals of the project of the task
+   */
+  private void complete(TrackedTask trackedTask, ProjectTotals totals) {
+    trackedTask.completed = true;
+    totals.completedTasks++;
+    this.totalCompletedTasks++;
+    propagate(trackedTask.projectId, 0, 0, 0, 1);
+  }
+
+  /**
+   * Applies a change to the subtree sums of a project and of all its ancestors.
+   *
+   * @param projectId            the id of the changed project
+   * @param durationDelta        the change of the current duration
+   * @param initialDurationDelta the change of the initial duration
+   * @param tasksDelta           the change of the amount of tasks
+   * @param completedTasksDelta  the change of the amount of completed tasks
+   */
+  private void propagate(int projectId, long durationDelta, long initialDurationDelta,
+                         int tasksDelta, int completedTasksDelta) {
+    ProjectTotals totals = this.totalsByProject.get(projectId);
+    while (totals != null) {
+      totals.subtreeDuration += durationDelta;
+      totals.subtreeInitialDuration += initialDurationDelta;
+      totals.subtreeTasks += tasksDelta;
+      totals.subtreeCompletedTasks += completedTasksDelta;
+      totals = this.totalsByProject.get(totals.parentId);
+    }
+  }
+
+  /**
+   * Applies a change to the time left sums of a project and of all its ancestors.
+   *
+   * @param projectId          the id of the changed project
+   * @param endDatesDelta      the change of the sum of the end dates of the pending projects
+   * @param pendingCountDelta  the change of the amount of pending projects
+   */
+  private void propagateTimeLeft(int projectId, long endDatesDelta, int pendingCountDelta) {
+    ProjectTotals totals = this.totalsByProject.get(projectId);
+    while (totals != null) {
+      totals.subtreePendingEndDates += endDatesDelta;
+      totals.subtreePendingProjects += pendingCountDelta;
+      totals = this.totalsByProject.get(totals.parentId);
+    }
+  }
+
+  /**
+   * The totals of a project.
+   */
+  private static final class ProjectTotals {
+    private final int projectId;
+    private final int parentId;
+    private final long initialDuration;
+    private long duration;
+    private int completedTasks;
+    private final Set<Integer> taskIds;
+    private long subtreeDuration;
+    private long subtreeInitialDuration;
+    private int subtreeTasks;
+    private int subtreeCompletedTasks;
+    private long endDate;
+    private boolean pending;
+    private long subtreePendingEndDates;
+    private int subtreePendingProjects;
+
+    /**
+     * Creates the totals of a project without tasks nor sub projects.
+     *
+     * @param projectId       the id of the project
+     * @param parentId        the id of the parent project, NO_PARENT for a root project
+     * @param initialDuration the initial duration of the project
+     */
+    private ProjectTotals(int projectId, int parentId, long initialDuration) {
+      this.projectId = projectId;
+      this.parentId = parentId;
+      this.initialDuration = initialDuration;
+      this.duration = 0;
+      this.completedTasks = 0;
+      this.taskIds = new HashSet<>();
+      this.subtreeDuration = 0;
+      this.subtreeInitialDuration = 0;
+      this.subtreeTasks = 0;
+      this.subtreeCompletedTasks = 0;
+      this.endDate = 0;
+      this.pending = false;
+      this.subtreePendingEndDates = 0;
+      this.subtreePendingProjects = 0;
+    }
+  }
+
+  /**
+   * A task counted in the statistics.
+   */
+  private static final class TrackedTask {
+    private final int taskId;
+    private final int projectId;
+    private final long endDate;
+    private boolean completed;
+
+    /**
+     * Creates a task which is not completed yet.
+     *
+     * @param taskId    the id of the task
+     * @param projectId the id of the project of the task
+     * @param endDate   the end date of the task
+     */
+    private TrackedTask(int taskId, int projectId, long endDate) {
+      this.taskId = taskId;
+      this.projectId = projectId;
+      this.endDate = endDate;
+      this.completed = false;
+    }
+  }
+}
@@ -3,6 +3,7 @@ package be.ac.ulb.infof307.g09.application.models.handlers;
 import be.ac.ulb.infof307.g09.application.models.Project;
 import be.ac.ulb.infof307.g09.application.models.Task;
 import be.ac.ulb.infof307.g09.application.models.User;
+import be.ac.ulb.infof307.g09.application.utilities.DateTimeUtils;
 import be.ac.ulb.infof307.g09.application.utilities.ErrorMessagesUtils;
 import be.ac.ulb.infof307.g09.database.CollaboratorTaskDatabase;
 import be.ac.ulb.infof307.g09.database.TaskDatabase;
@@ -10,7 +11,9 @@ import be.ac.ulb.infof307.g09.exceptions.ConnectionFailedException;
 import be.ac.ulb.infof307.g09.exceptions.DatabaseException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Sub Facade that handles the tasks.
@@ -19,6 +22,7 @@ public class TaskHandler {
   private final User user;
   private final TaskDatabase taskDatabase;
   private final CollaboratorTaskDatabase collaboratorTaskDatabase;
+  private final DeadlineScheduler deadlineScheduler;
 
   /**
    * Initialises the task facade with the given user.
@@ -29,6 +33,7 @@ public class TaskHandler {
     this.user = user;
     this.taskDatabase = TaskDatabase.getInstance();
     this.collaboratorTaskDatabase = CollaboratorTaskDatabase.getInstance();
+    this.deadlineScheduler = new DeadlineScheduler();
   }
 
   /**
@@ -71,16 +76,18 @@ public class TaskHandler {
       throws DatabaseException, ConnectionFailedException {
     List<User> usersToAdd = new ArrayList<>();
     List<User> usersToRemove = new ArrayList<>();
+    Set<User> assignedUsers = new HashSet<>(task.getAssignedUsers());
+    Set<User> newAssignations = new HashSet<>(assignations);
 
     for (User userToAssign : assignations) {
-      if (!task.getAssignedUsers().contains(userToAssign)) {
+      if (!assignedUsers.contains(userToAssign)) {
         this.collaboratorTaskDatabase.insertCollaboratorTask(userToAssign, task);
         usersToAdd.add(userToAssign);
       }
     }
 
     for (User assignedUser : task.getAssignedUsers()) {
-      if (!assignations.contains(assignedUser)) {
+      if (!newAssignations.contains(assignedUser)) {
         this.collaboratorTaskDatabase.deleteCollaboratorTask(assignedUser, task);
         usersToRemove.add(assignedUser);
       }
@@ -88,6 +95,12 @@ public class TaskHandler {
 
     usersToAdd.forEach(task::addAssignedUser);
     usersToRemove.forEach(task::removeAssignedUser);
+
+    if (usersToAdd.contains(user)) {
+      trackAssignedTask(task);
+    } else if (usersToRemove.contains(user)) {
+      untrackAssignedTask(task);
+    }
   }
 
   /**
@@ -111,6 +124,9 @@ public class TaskHandler {
       taskToEdit.setStartDate(startDateHour);
       taskToEdit.setEndDate(endDateHour);
       project.updateTask(taskToEdit);
+      if (taskToEdit.getAssignedUsers().contains(user)) {
+        trackAssignedTask(taskToEdit);
+      }
     } catch (DatabaseException e) {
       throw new DatabaseException(ErrorMessagesUtils.ERROR_MESSAGE, e);
     }
@@ -130,6 +146,7 @@ public class TaskHandler {
     try {
       this.taskDatabase.deleteTask(task.getId());
       project.removeTask(task);
+      untrackAssignedTask(task);
     } catch (DatabaseException e) {
       throw new DatabaseException(ErrorMessagesUtils.ERROR_MESSAGE, e);
     }
@@ -141,15 +158,92 @@ public class TaskHandler {
    * @return the list of user's tasks that will end in less than 24 hours
    */
   List<Task> getUserTasksCloseToDeadline() {
-    List<Task> tasksAssignedToUser = new ArrayList<>();
-    for (Project project : user.getProjectList()) {
-      for (Task task : project.getTasksCloseToDeadline()) {
-        if (task.getAssignedUsers().contains(user)) {
-          tasksAssignedToUser.add(task);
-        }
+    long current = DateTimeUtils.getCurrentTime();
+    return user.getAssignedTaskIndex()
+        .getTasksEndingBefore(current + Project.MILLISECONDS_IN_DAY);
+  }
+
+  /**
+   * Tracks the tasks of an imported project tree which are assigned to the user.
+   *
+   * @param project the root of the imported tree
+   */
+  void trackProjectTasks(Project project) {
+    for (Task task : project.getTasks()) {
+      if (task.getAssignedUsers().contains(user)) {
+        trackAssignedTask(task);
       }
     }
-    return tasksAssignedToUser;
+    for (Project subProject : project.getSubProjects()) {
+      trackProjectTasks(subProject);
+    }
   }
 
+  /**
+   * Stops tracking the tasks of a project tree which is removed from the projects.
+   *
+   * @param project the root of the removed tree
+   */
+  void untrackProjectTasks(Project project) {
+    for (Task task : project.getTasks()) {
+      untrackAssignedTask(task);
+    }
+    for (Project subProject : project.getSubProjects()) {
+      untrackProjectTasks(subProject);
+    }
+  }
+
+  /**
+   * Tracks a task if it is assigned to the user, stops tracking it otherwise.
+   *
+   * @param task the task whose assignations changed
+   */
+  void updateTaskTracking(Task task) {
+    if (task.getAssignedUsers().contains(user)) {
+      trackAssignedTask(task);
+    } else {
+      untrackAssignedTask(task);
+    }
+  }
+
+  /**
+   * Adds a task assigned to the user to the user's index and schedules its deadline.
+   *
+   * @param task the task assigned to the user
+   */
+  private void trackAssignedTask(Task task) {
+    user.getAssignedTaskIndex().add(task);
+    this.deadlineScheduler.schedule(task);
+  }
+
+  /**
+   * Removes a task from the user's index and cancels its deadline.
+   *
+   * @param task the task no longer assigned to the user
+   */
+  void untrackAssignedTask(Task task) {
+    user.getAssignedTaskIndex().remove(task);
+    this.deadlineScheduler.cancel(task);
+  }
+
+  /**
+   * Schedules the deadlines of the tasks assigned to the user and starts the scheduler.
+   *
+   * @param listener the listener notified of the deadlines
+   */
+  void startDeadlineScheduler(DeadlineScheduler.Listener listener) {
+    this.deadlineScheduler.setListener(listener);
+    long current = DateTimeUtils.getCurrentTime();
+    for (Task task : user.getAssignedTaskIndex().getTasksEndingBetween(current, Long.MAX_VALUE)) {
+      this.deadlineScheduler.schedule(task);
+    }
+    this.deadlineScheduler.start();
+  }
+
+  /**
+   * Stops the deadline scheduler.
+   */
+  void stopDeadlineScheduler() {
+    this.deadlineScheduler.stop();
+  }
 }
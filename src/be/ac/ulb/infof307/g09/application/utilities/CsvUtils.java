@@ -0,0 +1,65 @@
+package be.ac.ulb.infof307.g09.application.utilities;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * Utility class for writing CSV files.
+ */
+public final class CsvUtils {
+
+  public static final char SEPARATOR = ';';
+  private static final char QUOTE = '"';
+  private static final String NEWLINE = System.getProperty("line.separator");
+
+  private CsvUtils(){}
+
+  /**
+   * Escapes a field, quoting it when it contains a separator, a quote or a line break.
+   *
+   * @param field the field to escape
+   * @return the escaped field, an empty string for a null field
+   */
+  public static String escapeField(String field) {
+    if (field == null) {
+      return "";
+    }
+    boolean needsQuotes = false;
+    for (int i = 0; i < field.length() && !needsQuotes; i++) {
+      char character = field.charAt(i);
+      needsQuotes = character == SEPARATOR || character == QUOTE
+          || character == '\n' || character == '\r';
+    }
+    if (!needsQuotes) {
+      return field;
+    }
+    StringBuilder escaped = new StringBuilder(field.length() + 2);
+    escaped.append(QUOTE);
+    for (int i = 0; i < field.length(); i++) {
+      char character = field.charAt(i);
+      if (character == QUOTE) {
+        escaped.append(QUOTE);
+      }
+      escaped.append(character);
+    }
+    return escaped.append(QUOTE).toString();
+  }
+
+  /**
+   * Writes a row of escaped fields followed by a line break.
+   *
+   * @param writer the writer to write to
+   * @param fields the fields of the row
+   * @throws IOException if the row cannot be written
+   */
+  public static void writeRow(Writer writer, List<String> fields) throws IOException {
+    for (int i = 0; i < fields.size(); i++) {
+      if (i > 0) {
+        writer.write(SEPARATOR);
+      }
+      writer.write(escapeField(fields.get(i)));
+    }
+    writer.write(NEWLINE);
+  }
+}
@@ -39,4 +39,16 @@ public final class ErrorMessagesUtils {
 
   public static final String ERROR_INSERT_PROJECT =
           "Incapable d'ajouter le projet actuellement.";
+
+  public static final String ERROR_APPLY_DELTA =
+          "Incapable d'appliquer les changements au projet actuellement.";
+
+  public static final String ERROR_DELTA_PROJECT_NOT_FOUND =
+          "Le projet modifié par ces changements n'a pas été importé.";
+
+  public static final String ERROR_DELTA_BASE =
+          "Ces changements ne suivent pas la dernière version importée du projet.";
+
+  public static final String ERROR_SNAPSHOT =
+          "Incapable d'enregistrer les projets pour accélérer la prochaine connexion.";
 }
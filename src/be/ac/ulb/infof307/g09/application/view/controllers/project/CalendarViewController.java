@@ -1,10 +1,10 @@
 package be.ac.ulb.infof307.g09.application.view.controllers.project;
 
 import be.ac.ulb.infof307.g09.application.models.Project;
-import be.ac.ulb.infof307.g09.application.models.Task;
 import com.calendarfx.model.Calendar;
 import com.calendarfx.model.CalendarSource;
 import com.calendarfx.view.MonthView;
+import java.time.YearMonth;
 import java.util.List;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
@@ -35,6 +35,15 @@ public class CalendarViewController {
     this.dateLabel.setText(yearMonth);
   }
 
+  /**
+   * Returns the month shown on the calendar.
+   *
+   * @return the visible month
+   */
+  public YearMonth getVisibleMonth() {
+    return this.calendarView.getYearMonth();
+  }
+
   /**
    * Adds the tasks of the selected projects on the calendar.
    *
@@ -78,6 +87,7 @@ public class CalendarViewController {
   private void showNextMonth() {
     this.calendarView.goForward();
     this.updateCurrentDateLabel();
+    this.listener.visibleMonthChanged(this.getVisibleMonth());
   }
 
   /**
@@ -87,6 +97,7 @@ public class CalendarViewController {
   private void showPreviousMonth() {
     this.calendarView.goBack();
     this.updateCurrentDateLabel();
+    this.listener.visibleMonthChanged(this.getVisibleMonth());
   }
 
   /**
@@ -96,6 +107,7 @@ public class CalendarViewController {
   private void todayActionButton() {
     this.calendarView.goToday();
     this.updateCurrentDateLabel();
+    this.listener.visibleMonthChanged(this.getVisibleMonth());
   }
 
   /**
@@ -147,23 +159,6 @@ public class CalendarViewController {
     this.resetCalendarView();
   }
 
-  /**
-   * Adds task to calendar if its project is selected.
-   *
-   * @param task the new task
-   */
-  public void taskModified(Task task) {
-    ObservableList<Project> selectedProjects =
-        this.projectCheckComboBox.getCheckModel().getCheckedItems();
-    int taskProjectId = task.getProjectId();
-    for (Project selectedProject : selectedProjects) {
-      if (selectedProject.getId() == taskProjectId) {
-        this.resetCalendarView();
-        this.initializeCalendar(selectedProjects);
-      }
-    }
-  }
-
   /**
    * Listener interface to communicate with higher controller.
    */
@@ -175,12 +170,20 @@ public class CalendarViewController {
     void initialiseCheckComboBox();
 
     /**
-     * Returns the calendar of the project's tasks.
+     * Returns the calendar of the project's tasks. The calendar is kept up to date with the
+     * changes of the tasks, so the same instance is returned until the project is removed.
      *
      * @param project the project
      * @return Calendar with tasks
      */
     Calendar getCalendar(Project project);
 
+    /**
+     * Called when the calendar shows another month, to load the tasks around it.
+     *
+     * @param month the visible month
+     */
+    void visibleMonthChanged(YearMonth month);
+
   }
 }
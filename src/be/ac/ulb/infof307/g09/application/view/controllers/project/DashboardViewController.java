@@ -3,20 +3,27 @@ package be.ac.ulb.infof307.g09.application.view.controllers.project;
 import be.ac.ulb.infof307.g09.application.controllers.user.HomeController;
 import be.ac.ulb.infof307.g09.application.models.Color;
 import be.ac.ulb.infof307.g09.application.models.Project;
+import be.ac.ulb.infof307.g09.application.models.StatisticsColumn;
 import be.ac.ulb.infof307.g09.application.utilities.DateTimeUtils;
 import java.io.File;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
+import javafx.beans.property.ReadOnlyDoubleProperty;
 import javafx.fxml.FXML;
 import javafx.geometry.Side;
 import javafx.scene.chart.BarChart;
 import javafx.scene.chart.PieChart;
 import javafx.scene.chart.XYChart;
+import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
 import javafx.scene.control.ComboBox;
 import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
 import javafx.stage.DirectoryChooser;
 import javafx.stage.Stage;
 import javafx.util.Pair;
+import org.controlsfx.control.CheckComboBox;
 
 
 /**
@@ -28,10 +35,14 @@ public class DashboardViewController {
   public static final int NEGATIVE_VALUE = -1;
   private Listener listener;
   private static final String EXPORTING_ERROR_MESSAGE = "Aucun projet sélectionné !";
+  private static final String NO_COLUMN_ERROR_MESSAGE = "Aucune colonne sélectionnée !";
 
   @FXML
   private ComboBox<Project> projectComboBox;
 
+  @FXML
+  private CheckBox includeSubProjectsCheckBox;
+
   @FXML
   private Label projectLabel;
 
@@ -47,6 +58,28 @@ public class DashboardViewController {
   @FXML
   private PieChart taskPieChart;
 
+  @FXML
+  private CheckComboBox<StatisticsColumn> exportColumnsCheckComboBox;
+
+  @FXML
+  private ProgressBar exportProgressBar;
+
+  @FXML
+  private Button cancelExportButton;
+  @FXML
+  private Label loadingLabel;
+
+  /**
+   * Fills the export columns once all the fxml are loaded, the project statistics are checked.
+   */
+  @FXML
+  private void initialize() {
+    this.exportColumnsCheckComboBox.getItems().addAll(StatisticsColumn.values());
+    for (StatisticsColumn column : StatisticsColumn.getDefaultColumns()) {
+      this.exportColumnsCheckComboBox.getCheckModel().check(column);
+    }
+  }
+
   /**
    * This method is attached to the export button in dashboard tab.
    * Opens a new directory chooser for the user to select the directory where
@@ -57,17 +90,58 @@ public class DashboardViewController {
   @FXML
   private void exportButtonPressed() {
     Project selectedProject = projectComboBox.getValue();
+    List<StatisticsColumn> columns =
+        new ArrayList<>(this.exportColumnsCheckComboBox.getCheckModel().getCheckedItems());
     if (selectedProject == null) {
       HomeController.displayErrorAlert(null, EXPORTING_ERROR_MESSAGE);
+    } else if (columns.isEmpty()) {
+      HomeController.displayErrorAlert(null, NO_COLUMN_ERROR_MESSAGE);
     } else {
       DirectoryChooser dirChooser = new DirectoryChooser();
       File selectedPath = dirChooser.showDialog(this.listener.getStage());
       if (selectedPath != null) {
-        this.listener.exportStatistics(selectedPath.getAbsolutePath(), selectedProject);
+        this.listener.exportStatistics(selectedPath.getAbsolutePath(), selectedProject, columns);
       }
     }
   }
 
+  /**
+   * This method is attached to the cancel button shown during an export.
+   */
+  @FXML
+  private void cancelExportButtonPressed() {
+    this.listener.cancelExport();
+  }
+
+  /**
+   * Shows the progress of the running export.
+   *
+   * @param progress the progress of the export, between 0 and 1
+   */
+  public void showExportProgress(ReadOnlyDoubleProperty progress) {
+    this.exportProgressBar.progressProperty().bind(progress);
+    this.exportProgressBar.setVisible(true);
+    this.cancelExportButton.setVisible(true);
+  }
+
+  /**
+   * Hides the progress of the export once it is over.
+   */
+  public void hideExportProgress() {
+    this.exportProgressBar.progressProperty().unbind();
+    this.exportProgressBar.setVisible(false);
+    this.cancelExportButton.setVisible(false);
+  }
+
+  /**
+   * Shows or hides the placeholder telling that the statistics are still incomplete.
+   *
+   * @param loading true while the projects are loaded
+   */
+  public void setLoading(boolean loading) {
+    this.loadingLabel.setVisible(loading);
+  }
+
   /**
    * Set project name into label.
    *
@@ -209,13 +283,14 @@ public class DashboardViewController {
   public void openAllProjectsStats() {
     setProjectLabel(ALL_PROJECTS);
     long totalTime = this.listener.getTotalTime();
+    long totalTimeLeft = this.listener.getTotalTimeLeft();
     Pair<Integer, Integer> tasks = this.listener.getTotalTasksCount();
     int tasksDone = tasks.getKey();
     int tasksLeft = tasks.getValue();
     int totalTasks = tasksLeft + tasksDone;
     this.setTasksLabel(Integer.toString(totalTasks));
     this.elapsedTimeBarChart.getData().clear();
-    setBarChart(0, totalTime, 0);
+    setBarChart(0, totalTime, totalTimeLeft);
     this.setEstimatedTimeLabel(DateTimeUtils.formatTime(totalTime));
     if (totalTasks == 0) {
       this.taskPieChart.getData().clear();
@@ -230,13 +305,14 @@ public class DashboardViewController {
    * @param project the title of the project
    */
   public void openProjectStats(Project project) {
-    long initialDuration = project.getInitialDuration();
-    long durationTime = project.getCurrentDuration();
-    long timeLeft = project.getTimeLeft();
+    boolean includeSubProjects = this.includeSubProjectsCheckBox.isSelected();
+    long initialDuration = this.listener.getProjectInitialDuration(project, includeSubProjects);
+    long durationTime = this.listener.getProjectDuration(project, includeSubProjects);
+    long timeLeft = this.listener.getProjectTimeLeft(project, includeSubProjects);
 
     this.elapsedTimeBarChart.getData().clear();
     setBarChart(initialDuration, durationTime, timeLeft);
-    Pair<Integer, Integer> tasks = project.getCompletedTasksCount();
+    Pair<Integer, Integer> tasks = this.listener.getProjectTasksCount(project, includeSubProjects);
     int tasksDone = tasks.getKey();
     int tasksLeft = tasks.getValue();
     int totalTasks = tasksLeft + tasksDone;
@@ -297,6 +373,13 @@ public class DashboardViewController {
      */
     long getTotalTime();
 
+    /**
+     * Returns the sum of the time left to all projects.
+     *
+     * @return the sum of the time left to all projects
+     */
+    long getTotalTimeLeft();
+
     /**
      * Passes the Stage to the viewController(for the directory selection window).
      *
@@ -312,8 +395,14 @@ public class DashboardViewController {
      *
      * @param path    the absolute path to the directory for the new csv file
      * @param project project
+     * @param columns the columns to export
      */
-    void exportStatistics(String path, Project project);
+    void exportStatistics(String path, Project project, List<StatisticsColumn> columns);
+
+    /**
+     * Cancels the running export, the partially written file is removed.
+     */
+    void cancelExport();
 
     /**
      * Returns the amount of tasks the user has across all projects.
@@ -322,6 +411,42 @@ public class DashboardViewController {
      */
     Pair<Integer, Integer> getTotalTasksCount();
 
+    /**
+     * Returns the amount of tasks of a project.
+     *
+     * @param project            the project
+     * @param includeSubProjects true to count the tasks of all the sub projects too
+     * @return a pair of integers containing the amount of tasks done and tasks left/ongoing.
+     */
+    Pair<Integer, Integer> getProjectTasksCount(Project project, boolean includeSubProjects);
+
+    /**
+     * Returns the current duration of a project.
+     *
+     * @param project            the project
+     * @param includeSubProjects true to add the duration of all the sub projects
+     * @return the current duration
+     */
+    long getProjectDuration(Project project, boolean includeSubProjects);
+
+    /**
+     * Returns the time left to a project.
+     *
+     * @param project            the project
+     * @param includeSubProjects true to add the time left to all the sub projects
+     * @return the time left
+     */
+    long getProjectTimeLeft(Project project, boolean includeSubProjects);
+
+    /**
+     * Returns the initial duration of a project.
+     *
+     * @param project            the project
+     * @param includeSubProjects true to add the initial duration of all the sub projects
+     * @return the initial duration
+     */
+    long getProjectInitialDuration(Project project, boolean includeSubProjects);
+
     /**
      * Reloads the combobox containing the projects.
      */
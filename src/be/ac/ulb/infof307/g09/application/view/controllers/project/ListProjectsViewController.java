@@ -3,11 +3,18 @@ package be.ac.ulb.infof307.g09.application.view.controllers.project;
 import be.ac.ulb.infof307.g09.application.controllers.user.HomeController;
 import be.ac.ulb.infof307.g09.application.models.Project;
 import java.io.File;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import javafx.beans.property.ReadOnlyDoubleProperty;
+import javafx.collections.ObservableList;
+import javafx.event.Event;
 import javafx.fxml.FXML;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
 import javafx.scene.control.ButtonType;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
 import javafx.scene.control.TreeItem;
 import javafx.scene.control.TreeView;
 import javafx.scene.text.Text;
@@ -32,8 +39,13 @@ public class ListProjectsViewController {
   private static final String CONFIRMATION_TITLE = "Confirmation";
   private static final String CONFIRMATION_MESSAGE =
           "Êtes-vous sûr de vouloir quitter la collaboration ?";
+  private static final String EXPORT_ALL_TITLE = "Exporter tous les projets";
+  private static final String EXPORT_ALL_MESSAGE =
+          "Exporter tous vos projets dans une seule archive ?\n"
+          + "Sinon, une archive est créée pour chaque projet.";
 
   private Listener listener;
+  private final Map<Integer, ProjectTreeItem> treeItems = new HashMap<>();
 
   @FXML
   private Text projectDescriptionText;
@@ -49,41 +61,90 @@ public class ListProjectsViewController {
   private Button projectCollaboratorsButton;
   @FXML
   private TreeView<Project> treeProjects;
+  @FXML
+  private ProgressBar exportProgressBar;
+  @FXML
+  private Button cancelExportButton;
+  @FXML
+  private Label loadingLabel;
 
   /**
-   * Adds the subprojects into the tree view.
+   * Initialises the treeView with the projects that have no parent. The items of the
+   * subprojects are only created when their parent is expanded.
    *
-   * @param treeItem The treeItem that corresponds to the parent project
-   * @param project  The parent project
+   * @param projectsList the project list that will initialise the treeView
    */
-  public void addSubProjects(TreeItem<Project> treeItem, Project project) {
+  public void initialiseTree(List<Project> projectsList) {
+    TreeItem<Project> root = new TreeItem<>();
+    this.treeItems.clear();
+    this.treeProjects.setRoot(root);
 
-    List<Project> list = project.getSubProjects();
+    for (Project project : projectsList) {
+      this.treeProjects.getRoot().getChildren().add(new ProjectTreeItem(project));
+    }
+    this.treeProjects.setShowRoot(false);
+  }
 
-    if (!list.isEmpty()) {
-      for (Project subProject : list) {
-        TreeItem<Project> tmp = new TreeItem<>(subProject);
-        treeItem.getChildren().add(tmp);
-        addSubProjects(tmp, subProject);
+  /**
+   * Adds a new project to the tree, under its parent. Nothing is created when the children
+   * of the parent are not loaded yet: the project is loaded with them.
+   *
+   * @param project the new project
+   */
+  public void addProjectItem(Project project) {
+    removeProjectItem(project);
+    Project parent = project.getParentProject();
+    if (parent == null) {
+      this.treeProjects.getRoot().getChildren().add(new ProjectTreeItem(project));
+      return;
+    }
+    ProjectTreeItem parentItem = this.treeItems.get(parent.getId());
+    if (parentItem != null) {
+      if (parentItem.childrenLoaded) {
+        parentItem.getChildren().add(new ProjectTreeItem(project));
       }
+      parentItem.refresh();
     }
   }
 
   /**
-   * Initialises the treeView with the projects that have no parent.
+   * Redraws the item of a modified project, if it is loaded. When the project was
+   * replaced by another instance, the children of the item are reloaded.
    *
-   * @param projectsList the project list that will initialise the treeView
+   * @param project the modified project
    */
-  public void initialiseTree(List<Project> projectsList) {
-    TreeItem<Project> root = new TreeItem<>();
-    this.treeProjects.setRoot(root);
+  public void updateProjectItem(Project project) {
+    ProjectTreeItem item = this.treeItems.get(project.getId());
+    if (item == null) {
+      return;
+    }
+    if (item.getValue() == project) {
+      item.refresh();
+    } else {
+      item.unloadChildren();
+      item.setValue(project);
+    }
+  }
 
-    for (Project project : projectsList) {
-      TreeItem<Project> tmp = new TreeItem<>(project);
-      this.treeProjects.getRoot().getChildren().add(tmp);
-      addSubProjects(tmp, project);
+  /**
+   * Removes the item of a project and of its loaded subprojects from the tree.
+   *
+   * @param project the removed project
+   */
+  public void removeProjectItem(Project project) {
+    ProjectTreeItem item = this.treeItems.get(project.getId());
+    if (item == null) {
+      return;
+    }
+    item.unloadChildren();
+    this.treeItems.remove(project.getId());
+    TreeItem<Project> parentItem = item.getParent();
+    if (parentItem != null) {
+      parentItem.getChildren().remove(item);
+      if (parentItem instanceof ProjectTreeItem) {
+        ((ProjectTreeItem) parentItem).refresh();
+      }
     }
-    this.treeProjects.setShowRoot(false);
   }
 
   /**
@@ -112,7 +173,6 @@ public class ListProjectsViewController {
   public void deleteButtonAction() {
     TreeItem<Project> treeItem = getSelectedProject();
     if (treeItem != null) {
-      this.treeProjects.getRoot().getChildren().remove(treeItem);
       this.listener.deleteProject(treeItem.getValue());
     }
 
@@ -222,6 +282,82 @@ public class ListProjectsViewController {
     }
   }
 
+  /**
+   * Exports the changes of a project since its last export.
+   */
+  @FXML
+  private void exportChangesButtonAction() {
+    TreeItem<Project> treeItem = getSelectedProject();
+    if (treeItem != null) {
+      if (treeItem.getValue().isSubProject()) {
+        HomeController.displayErrorAlert(ERROR_EXPORT_HEADER_TEXT,
+            ERROR_EXPORT_MESSAGE_TEXT);
+      } else {
+        DirectoryChooser dirChooser = new DirectoryChooser();
+        File selectedPath = dirChooser.showDialog(this.listener.getStage());
+        if (selectedPath != null) {
+          this.listener.exportProjectDelta(selectedPath, treeItem.getValue());
+        }
+      }
+    }
+  }
+
+  /**
+   * Exports all the projects of the user, in one archive or in one archive per project.
+   */
+  @FXML
+  private void exportAllButtonAction() {
+    DirectoryChooser dirChooser = new DirectoryChooser();
+    File selectedPath = dirChooser.showDialog(this.listener.getStage());
+    if (selectedPath != null) {
+      Alert alert = new Alert(Alert.AlertType.CONFIRMATION, "", ButtonType.YES, ButtonType.NO);
+      alert.setTitle(EXPORT_ALL_TITLE);
+      alert.setHeaderText(EXPORT_ALL_MESSAGE);
+      alert.showAndWait();
+      if (alert.getResult() != null) {
+        this.listener.exportAllProjects(selectedPath, alert.getResult() == ButtonType.YES);
+      }
+    }
+  }
+
+  /**
+   * Cancels the export of all the projects.
+   */
+  @FXML
+  private void cancelExportButtonAction() {
+    this.listener.cancelExport();
+    hideExportProgress();
+  }
+
+  /**
+   * Shows the progress of the export of all the projects.
+   *
+   * @param progress the progress of the export, between 0 and 1
+   */
+  public void showExportProgress(ReadOnlyDoubleProperty progress) {
+    this.exportProgressBar.progressProperty().bind(progress);
+    this.exportProgressBar.setVisible(true);
+    this.cancelExportButton.setVisible(true);
+  }
+
+  /**
+   * Hides the progress of the export once it is over.
+   */
+  public void hideExportProgress() {
+    this.exportProgressBar.progressProperty().unbind();
+    this.exportProgressBar.setVisible(false);
+    this.cancelExportButton.setVisible(false);
+  }
+
+  /**
+   * Shows or hides the placeholder telling that the projects are still being loaded.
+   *
+   * @param loading true while the projects are loaded
+   */
+  public void setLoading(boolean loading) {
+    this.loadingLabel.setVisible(loading);
+  }
+
   /**
    * Import a project.
    */
@@ -312,6 +448,63 @@ public class ListProjectsViewController {
     this.listener = listener;
   }
 
+  /**
+   * Item of a project whose children are created on the first access, when the item is
+   * expanded. The expand arrow is given by the subprojects of the project, already loaded
+   * with it.
+   */
+  private final class ProjectTreeItem extends TreeItem<Project> {
+    private boolean childrenLoaded;
+
+    /**
+     * Creates the item of a project, without its children.
+     *
+     * @param project the project of the item
+     */
+    private ProjectTreeItem(Project project) {
+      super(project);
+      treeItems.put(project.getId(), this);
+    }
+
+    @Override
+    public boolean isLeaf() {
+      return childrenLoaded ? super.getChildren().isEmpty()
+          : getValue().getSubProjects().isEmpty();
+    }
+
+    @Override
+    public ObservableList<TreeItem<Project>> getChildren() {
+      if (!childrenLoaded) {
+        childrenLoaded = true;
+        for (Project subProject : getValue().getSubProjects()) {
+          super.getChildren().add(new ProjectTreeItem(subProject));
+        }
+      }
+      return super.getChildren();
+    }
+
+    /**
+     * Forgets the loaded children of the item, they are created again on the next access.
+     */
+    private void unloadChildren() {
+      if (childrenLoaded) {
+        for (TreeItem<Project> child : super.getChildren()) {
+          ((ProjectTreeItem) child).unloadChildren();
+          treeItems.remove(child.getValue().getId());
+        }
+        super.getChildren().clear();
+        childrenLoaded = false;
+      }
+    }
+
+    /**
+     * Redraws the cell of the item, after its project or its subprojects changed.
+     */
+    private void refresh() {
+      Event.fireEvent(this, new TreeModificationEvent<>(valueChangedEvent(), this, getValue()));
+    }
+  }
+
   /**
    * Listener interface to communicate with higher controller.
    */
@@ -381,6 +574,28 @@ public class ListProjectsViewController {
      */
     void exportProject(File path, Project project);
 
+    /**
+     * Export the changes of a project since its last export to a .tar.gz file.
+     *
+     * @param path the selected path
+     * @param project project whose changes are exported
+     */
+    void exportProjectDelta(File path, Project project);
+
+    /**
+     * Export all the projects of the user in the background.
+     *
+     * @param directory     the selected directory
+     * @param singleArchive true to export all the projects in one .tar.gz file,
+     *                      false to create one .tar.gz file per project
+     */
+    void exportAllProjects(File directory, boolean singleArchive);
+
+    /**
+     * Cancel the current export of all the projects.
+     */
+    void cancelExport();
+
     /**
      * Get the stage.
      *
@@ -0,0 +1,206 @@
+package be.ac.ulb.infof307.g09.archive;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.LongConsumer;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Output stream compressing its data with gzip on several threads.
+ *
+ * <p>The data is cut in blocks, each block is compressed as a complete gzip member by the
+ * executor and the members are written in order. Concatenated members form a valid gzip
+ * stream, read by {@link java.util.zip.GZIPInputStream} as a single one. The number of blocks
+ * waiting to be written is bounded, so the memory used does not grow with the data.
+ */
+public class ParallelGzipOutputStream extends OutputStream {
+  public static final int DEFAULT_BLOCK_SIZE = 128 * 1024;
+
+  private final OutputStream out;
+  private final ExecutorService executor;
+  private final int blockSize;
+  private final int maxPendingBlocks;
+  private final LongConsumer listener;
+  private final Deque<PendingBlock> pendingBlocks;
+  private byte[] block;
+  private int blockLength;
+  private long bytesWritten;
+  private boolean memberWritten;
+  private boolean finished;
+
+  /**
+   * Block waiting for its compression to be written.
+   */
+  private static class PendingBlock {
+    private final Future<byte[]> compressed;
+    private final int length;
+
+    PendingBlock(Future<byte[]> compressed, int length) {
+      this.compressed = compressed;
+      this.length = length;
+    }
+  }
+
+  /**
+   * Creates a stream with the default block size and two pending blocks per available core.
+   *
+   * @param output   the stream to write the compressed data to
+   * @param executor the executor compressing the blocks
+   */
+  public ParallelGzipOutputStream(OutputStream output, ExecutorService executor) {
+    this(output, executor, DEFAULT_BLOCK_SIZE,
+        2 * Runtime.getRuntime().availableProcessors(), null);
+  }
+
+  /**
+   * Creates a stream.
+   *
+   * @param output           the stream to write the compressed data to
+   * @param executor         the executor compressing the blocks
+   * @param blockSize        the size of the uncompressed blocks
+   * @param maxPendingBlocks the number of blocks which can wait to be written
+   * @param listener         called with the number of uncompressed bytes written so far
+   *                         each time a block is written, may be null
+   */
+  public ParallelGzipOutputStream(OutputStream output, ExecutorService executor, int blockSize,
+                                  int maxPendingBlocks, LongConsumer listener) {
+    if (blockSize <= 0 || maxPendingBlocks <= 0) {
+      throw new IllegalArgumentException("The block size and the pending blocks must be positive");
+    }
+    this.out = output;
+    this.executor = executor;
+    this.blockSize = blockSize;
+    this.maxPendingBlocks = maxPendingBlocks;
+    this.listener = listener;
+    this.pendingBlocks = new ArrayDeque<>();
+    this.block = new byte[blockSize];
+    this.blockLength = 0;
+    this.bytesWritten = 0;
+    this.memberWritten = false;
+    this.finished = false;
+  }
+
+  @Override
+  public void write(int value) throws IOException {
+    write(new byte[] {(byte) value}, 0, 1);
+  }
+
+  @Override
+  public void write(byte[] bytes, int offset, int length) throws IOException {
+    if (this.finished) {
+      throw new IOException("The stream is already finished");
+    }
+    int written = 0;
+    while (written < length) {
+      int copied = Math.min(length - written, this.blockSize - this.blockLength);
+      System.arraycopy(bytes, offset + written, this.block, this.blockLength, copied);
+      this.blockLength += copied;
+      written += copied;
+      if (this.blockLength == this.blockSize) {
+        submitBlock();
+      }
+    }
+  }
+
+  /**
+   * Compresses the data written so far and writes it, without ending the stream.
+   *
+   * @throws IOException if the data cannot be compressed or written
+   */
+  @Override
+  public void flush() throws IOException {
+    if (this.blockLength > 0) {
+      submitBlock();
+    }
+    writePendingBlocks(0);
+    this.out.flush();
+  }
+
+  /**
+   * Writes all the data without closing the underlying stream.
+   *
+   * @throws IOException if the data cannot be compressed or written
+   */
+  public void finish() throws IOException {
+    if (!this.finished) {
+      if (this.blockLength > 0 || (!this.memberWritten && this.pendingBlocks.isEmpty())) {
+        submitBlock();
+      }
+      writePendingBlocks(0);
+      this.out.flush();
+      this.finished = true;
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      finish();
+    } finally {
+      this.out.close();
+    }
+  }
+
+  /**
+   * Gives the current block to the executor and writes the oldest blocks if too many wait.
+   *
+   * @throws IOException if a block cannot be compressed or written
+   */
+  private void submitBlock() throws IOException {
+    final byte[] data = this.block;
+    final int length = this.blockLength;
+    this.pendingBlocks.add(new PendingBlock(
+        this.executor.submit(() -> compress(data, length)), length));
+    this.block = new byte[this.blockSize];
+    this.blockLength = 0;
+    writePendingBlocks(this.maxPendingBlocks);
+  }
+
+  /**
+   * Writes the compressed blocks in order until at most the given number of blocks wait.
+   *
+   * @param remainingBlocks the number of blocks which can stay pending
+   * @throws IOException if a block cannot be compressed or written
+   */
+  private void writePendingBlocks(int remainingBlocks) throws IOException {
+    while (this.pendingBlocks.size() > remainingBlocks) {
+      PendingBlock pendingBlock = this.pendingBlocks.poll();
+      try {
+        this.out.write(pendingBlock.compressed.get());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted while compressing");
+      } catch (ExecutionException e) {
+        throw new IOException("The compression of a block failed", e.getCause());
+      }
+      this.memberWritten = true;
+      this.bytesWritten += pendingBlock.length;
+      if (this.listener != null) {
+        this.listener.accept(this.bytesWritten);
+      }
+    }
+  }
+
+  /**
+   * Compresses a block as a complete gzip member.
+   *
+   * @param data   the block
+   * @param length the length of the data in the block
+   * @return the gzip member
+   * @throws IOException if the block cannot be compressed
+   */
+  private static byte[] compress(byte[] data, int length) throws IOException {
+    ByteArrayOutputStream compressed = new ByteArrayOutputStream(length / 2 + 32);
+    try (GZIPOutputStream gzipOut = new GZIPOutputStream(compressed)) {
+      gzipOut.write(data, 0, length);
+    }
+    return compressed.toByteArray();
+  }
+}
@@ -0,0 +1,76 @@
+package be.ac.ulb.infof307.g09.archive;
+
+import be.ac.ulb.infof307.g09.application.models.Project;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Content of a project archive: either whole projects trees or the delta of a tree,
+ * with the change sequence of the exporting database at the time of the export.
+ */
+public class ProjectArchive {
+  private final long sequence;
+  private final List<Project> projects;
+  private final ProjectDelta delta;
+
+  /**
+   * Constructor of an archive holding whole projects trees.
+   *
+   * @param archiveSequence the change sequence at the time of the export, 0 if unknown
+   * @param archiveProjects the projects trees
+   */
+  public ProjectArchive(long archiveSequence, List<Project> archiveProjects) {
+    this.sequence = archiveSequence;
+    this.projects = new ArrayList<>(archiveProjects);
+    this.delta = null;
+  }
+
+  /**
+   * Constructor of an archive holding the delta of a tree.
+   *
+   * @param archiveSequence the change sequence at the time of the export
+   * @param archiveDelta    the delta of the tree
+   */
+  public ProjectArchive(long archiveSequence, ProjectDelta archiveDelta) {
+    this.sequence = archiveSequence;
+    this.projects = new ArrayList<>();
+    this.delta = archiveDelta;
+  }
+
+  /**
+   * Returns the change sequence of the exporting database at the time of the export.
+   *
+   * @return the sequence, 0 if unknown
+   */
+  public long getSequence() {
+    return sequence;
+  }
+
+  /**
+   * Checks if the archive holds a delta.
+   *
+   * @return true for a delta, false for whole projects trees
+   */
+  public boolean isDelta() {
+    return delta != null;
+  }
+
+  /**
+   * Returns the projects trees of the archive.
+   *
+   * @return the projects, empty for a delta
+   */
+  public List<Project> getProjects() {
+    return Collections.unmodifiableList(projects);
+  }
+
+  /**
+   * Returns the delta of the archive.
+   *
+   * @return the delta, null for whole projects trees
+   */
+  public ProjectDelta getDelta() {
+    return delta;
+  }
+}
@@ -0,0 +1,34 @@
+package be.ac.ulb.infof307.g09.archive;
+
+/**
+ * Constants of the project archive format.
+ *
+ * <p>An archive starts with the magic number and the version of the format. Since
+ * {@link #VERSION_2}, the header goes on with the kind of the archive and the change sequence
+ * of the exporting database. A {@link #KIND_FULL} archive holds projects trees, each one
+ * preceded by {@link #PROJECT_MARKER}, and ends with {@link #END_MARKER}. A
+ * {@link #KIND_DELTA} archive holds the base sequence, the id of the root, the changed
+ * projects without their sub projects, each preceded by a flag telling if it is new and by
+ * the id of its parent, and the ids of the deleted projects, then ends with
+ * {@link #END_MARKER}. The ids of a delta are those of the exporting database. Integers are
+ * written as variable length quantities. Strings and users are interned: the first
+ * occurrence is written inline after a zero reference, the next ones only write the index of
+ * the first occurrence plus one. Passwords are never written.
+ */
+public final class ProjectArchiveFormat {
+
+  public static final int MAGIC = 0x59535041;
+  public static final int VERSION_1 = 1;
+  public static final int VERSION_2 = 2;
+  public static final int CURRENT_VERSION = VERSION_2;
+  public static final int KIND_FULL = 0;
+  public static final int KIND_DELTA = 1;
+  public static final String FILE_EXTENSION = ".yspa";
+  static final int PROJECT_MARKER = 1;
+  static final int END_MARKER = 0;
+  static final int NEW_ENTRY = 0;
+  static final int NULL_VALUE = 0;
+  static final int PRESENT_VALUE = 1;
+
+  private ProjectArchiveFormat(){}
+}
@@ -0,0 +1,356 @@
+package be.ac.ulb.infof307.g09.archive;
+
+import be.ac.ulb.infof307.g09.application.models.Color;
+import be.ac.ulb.infof307.g09.application.models.Project;
+import be.ac.ulb.infof307.g09.application.models.Tag;
+import be.ac.ulb.infof307.g09.application.models.Task;
+import be.ac.ulb.infof307.g09.application.models.User;
+import be.ac.ulb.infof307.g09.exceptions.ArchiveFormatException;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads projects trees written in the project archive format, streaming them from the input.
+ */
+public class ProjectArchiveReader {
+  private static final int MAGIC_LENGTH = 4;
+  private static final int READ_CHUNK_SIZE = 8192;
+  private static final String NO_PASSWORD = "";
+
+  private final DataInputStream in;
+  private final int version;
+  private final int kind;
+  private final long sequence;
+  private final List<String> strings;
+  private final List<User> users;
+  private boolean ended;
+
+  /**
+   * Creates a reader and reads the header of the archive.
+   *
+   * @param input the stream to read from, it is not closed by the reader
+   * @throws IOException if the header cannot be read or the version is not supported
+   */
+  public ProjectArchiveReader(InputStream input) throws IOException {
+    this.in = new DataInputStream(new BufferedInputStream(input));
+    this.strings = new ArrayList<>();
+    this.users = new ArrayList<>();
+    this.ended = false;
+    if (this.in.readInt() != ProjectArchiveFormat.MAGIC) {
+      throw new ArchiveFormatException("Not a project archive");
+    }
+    this.version = (int) readVarLong();
+    if (this.version < ProjectArchiveFormat.VERSION_1
+        || this.version > ProjectArchiveFormat.CURRENT_VERSION) {
+      throw new ArchiveFormatException("Unsupported archive version " + this.version);
+    }
+    if (this.version == ProjectArchiveFormat.VERSION_1) {
+      this.kind = ProjectArchiveFormat.KIND_FULL;
+      this.sequence = 0;
+    } else {
+      this.kind = (int) readVarLong();
+      if (this.kind != ProjectArchiveFormat.KIND_FULL
+          && this.kind != ProjectArchiveFormat.KIND_DELTA) {
+        throw new ArchiveFormatException("Unknown archive kind " + this.kind);
+      }
+      this.sequence = readVarLong();
+    }
+  }
+
+  /**
+   * Checks if a stream starts with the magic number of the archive format.
+   * The stream is reset to its position before the check.
+   *
+   * @param input the stream to check, it must support mark and reset
+   * @return true if the stream starts with a project archive header
+   * @throws IOException if the stream cannot be read
+   */
+  public static boolean isProjectArchive(InputStream input) throws IOException {
+    input.mark(MAGIC_LENGTH);
+    int magic = 0;
+    int read = 0;
+    int value;
+    while (read < MAGIC_LENGTH && (value = input.read()) >= 0) {
+      magic = (magic << 8) | value;
+      read++;
+    }
+    input.reset();
+    return read == MAGIC_LENGTH && magic == ProjectArchiveFormat.MAGIC;
+  }
+
+  /**
+   * Returns the version of the format used by the archive.
+   *
+   * @return the version of the archive
+   */
+  public int getVersion() {
+    return this.version;
+  }
+
+  /**
+   * Returns the kind of the archive.
+   *
+   * @return {@link ProjectArchiveFormat#KIND_FULL} or {@link ProjectArchiveFormat#KIND_DELTA}
+   */
+  public int getKind() {
+    return this.kind;
+  }
+
+  /**
+   * Returns the change sequence of the exporting database at the time of the export.
+   *
+   * @return the sequence, 0 for archives written without sequence
+   */
+  public long getSequence() {
+    return this.sequence;
+  }
+
+  /**
+   * Reads the next project of the archive, with its whole tree.
+   *
+   * @return the next project, null at the end of the archive
+   * @throws IOException if the project cannot be read
+   */
+  public Project readProject() throws IOException {
+    if (this.kind != ProjectArchiveFormat.KIND_FULL) {
+      throw new ArchiveFormatException("The archive holds a delta");
+    }
+    if (this.ended) {
+      return null;
+    }
+    long marker = readVarLong();
+    if (marker == ProjectArchiveFormat.END_MARKER) {
+      this.ended = true;
+      return null;
+    } else if (marker != ProjectArchiveFormat.PROJECT_MARKER) {
+      throw new ArchiveFormatException("Unexpected marker " + marker);
+    }
+    return readProjectTree(null);
+  }
+
+  /**
+   * Reads the delta held by the archive.
+   *
+   * @return the delta
+   * @throws IOException if the delta cannot be read or the archive holds projects trees
+   */
+  public ProjectDelta readDelta() throws IOException {
+    if (this.kind != ProjectArchiveFormat.KIND_DELTA) {
+      throw new ArchiveFormatException("The archive does not hold a delta");
+    }
+    if (this.ended) {
+      throw new ArchiveFormatException("The delta is already read");
+    }
+    long baseSequence = readVarLong();
+    int rootId = (int) readVarLong();
+    int changedCount = readCount();
+    List<ProjectDelta.Entry> changed = new ArrayList<>();
+    for (int i = 0; i < changedCount; i++) {
+      boolean created = readFlag();
+      Integer parentId = readFlag() ? (int) readVarLong() : null;
+      changed.add(new ProjectDelta.Entry(created, parentId, readProjectNode(null)));
+    }
+    int deletedCount = readCount();
+    List<Integer> deleted = new ArrayList<>();
+    for (int i = 0; i < deletedCount; i++) {
+      deleted.add((int) readVarLong());
+    }
+    long marker = readVarLong();
+    if (marker != ProjectArchiveFormat.END_MARKER) {
+      throw new ArchiveFormatException("Unexpected marker " + marker);
+    }
+    this.ended = true;
+    return new ProjectDelta(baseSequence, rootId, changed, deleted);
+  }
+
+  /**
+   * Reads a project and, recursively, its sub projects.
+   *
+   * @param parent the parent of the project, null for the root of the tree
+   * @return the project
+   * @throws IOException if the project cannot be read
+   */
+  private Project readProjectTree(Project parent) throws IOException {
+    Project project = readProjectNode(parent);
+    project.setCollaborators(readUsers());
+
+    int subProjectsCount = readCount();
+    List<Project> subProjects = new ArrayList<>();
+    for (int i = 0; i < subProjectsCount; i++) {
+      subProjects.add(readProjectTree(project));
+    }
+    project.setSubProjects(subProjects);
+    return project;
+  }
+
+  /**
+   * Reads a project with its tags and tasks, without its collaborators and sub projects.
+   *
+   * @param parent the parent of the project, null for the root of the tree
+   * @return the project
+   * @throws IOException if the project cannot be read
+   */
+  private Project readProjectNode(Project parent) throws IOException {
+    int id = (int) readVarLong();
+    String title = readString();
+    String description = readString();
+    long startDate = this.in.readLong();
+    long endDate = startDate + readVarLong();
+    long initialDuration = readVarLong();
+    User author = readUser();
+    Color color = Color.fromInteger((int) readVarLong());
+    Project project = new Project(id, title, description, startDate, endDate,
+        initialDuration, author, parent, color);
+
+    int tagsCount = readCount();
+    List<Tag> tags = new ArrayList<>();
+    for (int i = 0; i < tagsCount; i++) {
+      tags.add(new Tag((int) readVarLong(), readString()));
+    }
+    project.setTags(tags);
+
+    int tasksCount = readCount();
+    List<Task> tasks = new ArrayList<>();
+    for (int i = 0; i < tasksCount; i++) {
+      int taskId = (int) readVarLong();
+      String taskDescription = readString();
+      long taskStartDate = this.in.readLong();
+      long taskEndDate = taskStartDate + readVarLong();
+      Task task = new Task(taskId, taskDescription, taskStartDate, taskEndDate, id);
+      task.setAssignedUsers(readUsers());
+      tasks.add(task);
+    }
+    project.setTasks(tasks);
+    return project;
+  }
+
+  /**
+   * Reads a list of users.
+   *
+   * @return the users
+   * @throws IOException if the users cannot be read
+   */
+  private List<User> readUsers() throws IOException {
+    int count = readCount();
+    List<User> userList = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      userList.add(readUser());
+    }
+    return userList;
+  }
+
+  /**
+   * Reads a user written inline or as a reference.
+   *
+   * @return the user
+   * @throws IOException if the user cannot be read
+   */
+  private User readUser() throws IOException {
+    int reference = readCount();
+    if (reference != ProjectArchiveFormat.NEW_ENTRY) {
+      if (reference > this.users.size()) {
+        throw new ArchiveFormatException("Unknown user reference " + reference);
+      }
+      return this.users.get(reference - 1);
+    }
+    int id = (int) readVarLong();
+    User user = new User(id, readString(), readString(), readString(), readString(), NO_PASSWORD);
+    this.users.add(user);
+    return user;
+  }
+
+  /**
+   * Reads a string written inline or as a reference.
+   *
+   * @return the string
+   * @throws IOException if the string cannot be read
+   */
+  private String readString() throws IOException {
+    int reference = readCount();
+    if (reference != ProjectArchiveFormat.NEW_ENTRY) {
+      if (reference > this.strings.size()) {
+        throw new ArchiveFormatException("Unknown string reference " + reference);
+      }
+      return this.strings.get(reference - 1);
+    }
+    String string = new String(readBytes(readCount()), StandardCharsets.UTF_8);
+    this.strings.add(string);
+    return string;
+  }
+
+  /**
+   * Reads bytes in bounded chunks, so that a corrupted length fails at the end of the
+   * stream instead of allocating the whole length at once.
+   *
+   * @param length the number of bytes to read
+   * @return the bytes
+   * @throws IOException if the bytes cannot be read
+   */
+  private byte[] readBytes(int length) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(Math.min(length, READ_CHUNK_SIZE));
+    byte[] chunk = new byte[Math.min(length, READ_CHUNK_SIZE)];
+    int remaining = length;
+    while (remaining > 0) {
+      int chunkLength = Math.min(remaining, chunk.length);
+      this.in.readFully(chunk, 0, chunkLength);
+      bytes.write(chunk, 0, chunkLength);
+      remaining -= chunkLength;
+    }
+    return bytes.toByteArray();
+  }
+
+  /**
+   * Reads a flag telling if a value is present.
+   *
+   * @return true if the value is present
+   * @throws IOException if the flag cannot be read or is invalid
+   */
+  private boolean readFlag() throws IOException {
+    long flag = readVarLong();
+    if (flag != ProjectArchiveFormat.NULL_VALUE && flag != ProjectArchiveFormat.PRESENT_VALUE) {
+      throw new ArchiveFormatException("Invalid flag " + flag);
+    }
+    return flag == ProjectArchiveFormat.PRESENT_VALUE;
+  }
+
+  /**
+   * Reads a number which must be a valid size or reference.
+   *
+   * @return the number
+   * @throws IOException if the number cannot be read or is negative
+   */
+  private int readCount() throws IOException {
+    long count = readVarLong();
+    if (count < 0 || count > Integer.MAX_VALUE) {
+      throw new ArchiveFormatException("Invalid count " + count);
+    }
+    return (int) count;
+  }
+
+  /**
+   * Reads a number written with 7 bits per byte and zigzag encoded.
+   *
+   * @return the number
+   * @throws IOException if the number cannot be read
+   */
+  private long readVarLong() throws IOException {
+    long result = 0;
+    int shift = 0;
+    int value;
+    do {
+      if (shift > 63) {
+        throw new ArchiveFormatException("Malformed number");
+      }
+      value = this.in.readUnsignedByte();
+      result |= (long) (value & 0x7F) << shift;
+      shift += 7;
+    } while ((value & 0x80) != 0);
+    return (result >>> 1) ^ -(result & 1);
+  }
+}
@@ -0,0 +1,501 @@
+package be.ac.ulb.infof307.g09.archive;
+
+import be.ac.ulb.infof307.g09.application.models.Project;
+import be.ac.ulb.infof307.g09.exceptions.ArchiveFormatException;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.ObjectInputStream;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.BooleanSupplier;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+
+/**
+ * Utility class to export and import projects as tar.gz files without intermediate files.
+ * The tar.gz file holds entries written in the project archive format, either whole
+ * projects trees or the delta of a tree since its last export. An export of several
+ * projects may hold one entry per project.
+ */
+public final class ProjectArchiveUtils {
+  public static final String TAR_GZ_EXTENSION = ".tar.gz";
+
+  private ProjectArchiveUtils(){}
+
+  /**
+   * Listener of the progress of an export.
+   */
+  public interface ProgressListener {
+
+    /**
+     * Called when a part of the export is done.
+     *
+     * @param workDone  the work done so far
+     * @param totalWork the total work to do
+     */
+    void progressUpdated(long workDone, long totalWork);
+  }
+
+  /**
+   * Exports projects in a tar.gz file.
+   *
+   * @param destination the tar.gz file to create
+   * @param name        the name of the entry, without extension
+   * @param projects    the projects to export
+   * @throws IOException if the file cannot be written
+   */
+  public static void exportProjects(File destination, String name, List<Project> projects)
+      throws IOException {
+    try (OutputStream fileOut = new FileOutputStream(destination)) {
+      writeTarGz(fileOut, name, projects);
+    }
+  }
+
+  /**
+   * Exports projects in a tar.gz file, with the change sequence of the database so that
+   * the next exports of the projects can be deltas.
+   *
+   * @param destination the tar.gz file to create
+   * @param name        the name of the entry, without extension
+   * @param projects    the projects to export
+   * @param sequence    the change sequence of the database before reading the projects
+   * @throws IOException if the file cannot be written
+   */
+  public static void exportProjects(File destination, String name, List<Project> projects,
+                                    long sequence) throws IOException {
+    try (OutputStream fileOut = new FileOutputStream(destination)) {
+      writeTarGz(fileOut, name, projects, sequence);
+    }
+  }
+
+  /**
+   * Exports the delta of a projects tree in a tar.gz file.
+   *
+   * @param destination the tar.gz file to create
+   * @param name        the name of the entry, without extension
+   * @param delta       the delta to export
+   * @param sequence    the change sequence of the database before reading the delta
+   * @throws IOException if the file cannot be written
+   */
+  public static void exportDelta(File destination, String name, ProjectDelta delta,
+                                 long sequence) throws IOException {
+    try (OutputStream fileOut = new FileOutputStream(destination)) {
+      writeDeltaTarGz(fileOut, name, delta, sequence);
+    }
+  }
+
+  /**
+   * Exports projects in a tar.gz file, encoding and compressing it on several threads.
+   *
+   * @param destination the tar.gz file to create
+   * @param name        the name of the entries, without extension
+   * @param projects    the projects to export
+   * @param executor    the executor encoding and compressing the file
+   * @param listener    the listener of the progress of the export, may be null
+   * @param cancelled   checked between two projects, the export stops when it returns true
+   * @throws IOException if the file cannot be written or the export is cancelled
+   */
+  public static void exportProjects(File destination, String name, List<Project> projects,
+                                    ExecutorService executor, ProgressListener listener,
+                                    BooleanSupplier cancelled) throws IOException {
+    try (OutputStream fileOut = new FileOutputStream(destination)) {
+      writeTarGz(fileOut, name, projects, executor, listener, cancelled);
+    }
+  }
+
+  /**
+   * Writes projects in a tar.gz stream.
+   *
+   * @param output   the stream to write to, it is not closed
+   * @param name     the name of the entry, without extension
+   * @param projects the projects to write
+   * @throws IOException if the stream cannot be written
+   */
+  public static void writeTarGz(OutputStream output, String name, List<Project> projects)
+      throws IOException {
+    writeTarGz(output, name, projects, 0);
+  }
+
+  /**
+   * Writes projects in a tar.gz stream, with the change sequence of the database.
+   *
+   * @param output   the stream to write to, it is not closed
+   * @param name     the name of the entry, without extension
+   * @param projects the projects to write
+   * @param sequence the change sequence of the database before reading the projects
+   * @throws IOException if the stream cannot be written
+   */
+  public static void writeTarGz(OutputStream output, String name, List<Project> projects,
+                                long sequence) throws IOException {
+    writeGzip(output, name, encodeProjects(projects, sequence));
+  }
+
+  /**
+   * Writes the delta of a projects tree in a tar.gz stream.
+   *
+   * @param output   the stream to write to, it is not closed
+   * @param name     the name of the entry, without extension
+   * @param delta    the delta to write
+   * @param sequence the change sequence of the database before reading the delta
+   * @throws IOException if the stream cannot be written
+   */
+  public static void writeDeltaTarGz(OutputStream output, String name, ProjectDelta delta,
+                                     long sequence) throws IOException {
+    writeGzip(output, name, content -> {
+      ProjectArchiveWriter writer =
+          new ProjectArchiveWriter(content, ProjectArchiveFormat.KIND_DELTA, sequence);
+      writer.writeDelta(delta);
+      writer.finish();
+    });
+  }
+
+  /**
+   * Writes the tar entry holding an encoded archive in a gzip stream.
+   *
+   * @param output  the stream to write to, it is not closed
+   * @param name    the name of the entry, without extension
+   * @param content the encoder of the archive
+   * @throws IOException if the stream cannot be written
+   */
+  private static void writeGzip(OutputStream output, String name, EntryEncoder content)
+      throws IOException {
+    GZIPOutputStream gzipOut = new GZIPOutputStream(new BufferedOutputStream(output));
+    writeTar(gzipOut, name, content);
+    gzipOut.finish();
+    gzipOut.flush();
+  }
+
+  /**
+   * Writes projects in a tar.gz stream, one entry per project. The sizes of the entries
+   * are counted by the executor, a few projects ahead of the one being written, and the
+   * blocks of the stream are compressed in parallel by the same executor. The projects
+   * are streamed to the output, no encoded project is held in memory.
+   *
+   * @param output    the stream to write to, it is not closed
+   * @param name      the name of the entries, without extension
+   * @param projects  the projects to write
+   * @param executor  the executor encoding and compressing the stream
+   * @param listener  the listener of the progress, in projects written, may be null
+   * @param cancelled checked between two projects, the export stops when it returns true
+   * @throws IOException if the stream cannot be written or the export is cancelled
+   */
+  public static void writeTarGz(OutputStream output, String name, List<Project> projects,
+                                ExecutorService executor, ProgressListener listener,
+                                BooleanSupplier cancelled) throws IOException {
+    int maxPendingProjects = 2 * Runtime.getRuntime().availableProcessors();
+    ParallelGzipOutputStream gzipOut =
+        new ParallelGzipOutputStream(new BufferedOutputStream(output), executor);
+    TarArchiveOutputStream tarOut = createTar(gzipOut);
+    if (projects.isEmpty()) {
+      writeEntry(tarOut, name, encodeProjects(projects, 0));
+    }
+
+    Deque<Future<Long>> pendingSizes = new ArrayDeque<>();
+    int submittedProjects = 0;
+    for (int writtenProjects = 0; writtenProjects < projects.size(); writtenProjects++) {
+      while (submittedProjects < projects.size()
+          && pendingSizes.size() < maxPendingProjects) {
+        EntryEncoder project =
+            encodeProjects(Collections.singletonList(projects.get(submittedProjects++)), 0);
+        pendingSizes.add(executor.submit(() -> countBytes(project)));
+      }
+      if (cancelled.getAsBoolean()) {
+        throw new InterruptedIOException("The export was cancelled");
+      }
+      String entryName = projects.size() == 1 ? name : name + "_" + (writtenProjects + 1);
+      writeEntry(tarOut, entryName, getEntrySize(pendingSizes.poll()),
+          encodeProjects(Collections.singletonList(projects.get(writtenProjects)), 0));
+      if (listener != null) {
+        listener.progressUpdated(writtenProjects + 1, projects.size());
+      }
+    }
+    tarOut.finish();
+    gzipOut.finish();
+  }
+
+  /**
+   * Waits for the count of the bytes of an entry.
+   *
+   * @param counting the count submitted to the executor
+   * @return the size of the entry
+   * @throws IOException if the encoding failed or the wait is interrupted
+   */
+  private static long getEntrySize(Future<Long> counting) throws IOException {
+    try {
+      return counting.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while encoding");
+    } catch (ExecutionException e) {
+      throw new IOException("The encoding of a project failed", e.getCause());
+    }
+  }
+
+  /**
+   * Returns the encoder of an archive holding projects.
+   *
+   * @param projects the projects to encode
+   * @param sequence the change sequence of the database, 0 if unknown
+   * @return the encoder of the projects
+   */
+  private static EntryEncoder encodeProjects(List<Project> projects, long sequence) {
+    return content -> {
+      ProjectArchiveWriter writer =
+          new ProjectArchiveWriter(content, ProjectArchiveFormat.KIND_FULL, sequence);
+      for (Project project : projects) {
+        writer.writeProject(project);
+      }
+      writer.finish();
+    };
+  }
+
+  /**
+   * Counts the bytes of an entry by encoding it without keeping the bytes.
+   *
+   * @param content the encoder of the entry
+   * @return the size of the entry
+   * @throws IOException if the entry cannot be encoded
+   */
+  private static long countBytes(EntryEncoder content) throws IOException {
+    CountingOutputStream counter = new CountingOutputStream();
+    content.encode(counter);
+    return counter.getCount();
+  }
+
+  /**
+   * Writes the tar entry holding the encoded projects in a compression stream.
+   *
+   * @param compressedOut the compression stream, it is not closed
+   * @param name          the name of the entry, without extension
+   * @param content       the encoder of the archive
+   * @throws IOException if the stream cannot be written
+   */
+  private static void writeTar(OutputStream compressedOut, String name,
+                               EntryEncoder content) throws IOException {
+    TarArchiveOutputStream tarOut = createTar(compressedOut);
+    writeEntry(tarOut, name, content);
+    tarOut.finish();
+  }
+
+  /**
+   * Creates the tar stream written in a compression stream.
+   *
+   * @param compressedOut the compression stream
+   * @return the tar stream
+   */
+  private static TarArchiveOutputStream createTar(OutputStream compressedOut) {
+    TarArchiveOutputStream tarOut = new TarArchiveOutputStream(compressedOut);
+    tarOut.setLongFileMode(TarArchiveOutputStream.LONGFILE_POSIX);
+    return tarOut;
+  }
+
+  /**
+   * Writes a tar entry holding an archive, whose size is counted first.
+   *
+   * @param tarOut  the tar stream
+   * @param name    the name of the entry, without extension
+   * @param content the encoder of the archive
+   * @throws IOException if the stream cannot be written
+   */
+  private static void writeEntry(TarArchiveOutputStream tarOut, String name,
+                                 EntryEncoder content) throws IOException {
+    writeEntry(tarOut, name, countBytes(content), content);
+  }
+
+  /**
+   * Writes a tar entry holding an archive, streaming it to the tar stream. The tar stream
+   * fails if the encoder does not write exactly the given size.
+   *
+   * @param tarOut  the tar stream
+   * @param name    the name of the entry, without extension
+   * @param size    the size of the entry
+   * @param content the encoder of the archive
+   * @throws IOException if the stream cannot be written
+   */
+  private static void writeEntry(TarArchiveOutputStream tarOut, String name, long size,
+                                 EntryEncoder content) throws IOException {
+    TarArchiveEntry entry = new TarArchiveEntry(name + ProjectArchiveFormat.FILE_EXTENSION);
+    entry.setSize(size);
+    tarOut.putArchiveEntry(entry);
+    content.encode(tarOut);
+    tarOut.closeArchiveEntry();
+  }
+
+  /**
+   * Encoder of the content of a tar entry. The header of an entry needs its size, so an
+   * entry is encoded twice: once to count its bytes, then to stream it to the tar stream.
+   */
+  private interface EntryEncoder {
+
+    /**
+     * Encodes the content of the entry.
+     *
+     * @param output the stream to write to, it must not be closed
+     * @throws IOException if the content cannot be written
+     */
+    void encode(OutputStream output) throws IOException;
+  }
+
+  /**
+   * Stream discarding the bytes written to it, only counting them.
+   */
+  private static final class CountingOutputStream extends OutputStream {
+    private long count;
+
+    @Override
+    public void write(int b) {
+      this.count++;
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) {
+      this.count += length;
+    }
+
+    /**
+     * Returns the number of bytes written.
+     *
+     * @return the number of bytes written
+     */
+    long getCount() {
+      return this.count;
+    }
+  }
+
+  /**
+   * Imports the projects of a tar.gz file.
+   *
+   * @param source the tar.gz file to read
+   * @return the projects of the file
+   * @throws IOException            if the file cannot be read
+   * @throws ClassNotFoundException if the class of a serialized object is not found
+   */
+  public static List<Project> importProjects(File source)
+      throws IOException, ClassNotFoundException {
+    try (InputStream fileIn = new FileInputStream(source)) {
+      return readTarGz(fileIn);
+    }
+  }
+
+  /**
+   * Imports the content of a tar.gz file, either projects trees or a delta.
+   *
+   * @param source the tar.gz file to read
+   * @return the content of the file
+   * @throws IOException            if the file cannot be read
+   * @throws ClassNotFoundException if the class of a serialized object is not found
+   */
+  public static ProjectArchive importArchive(File source)
+      throws IOException, ClassNotFoundException {
+    try (InputStream fileIn = new FileInputStream(source)) {
+      return readArchive(fileIn);
+    }
+  }
+
+  /**
+   * Reads the projects of the files of a tar.gz stream, straight from the
+   * compressed stream. Files exported before the project archive format are
+   * read with the Java serialization.
+   *
+   * @param input the stream to read, it is not closed
+   * @return the projects of the stream
+   * @throws IOException            if the stream cannot be read, holds no file or holds a delta
+   * @throws ClassNotFoundException if the class of a serialized object is not found
+   */
+  public static List<Project> readTarGz(InputStream input)
+      throws IOException, ClassNotFoundException {
+    ProjectArchive archive = readArchive(input);
+    if (archive.isDelta()) {
+      throw new ArchiveFormatException("The archive holds a delta");
+    }
+    return archive.getProjects();
+  }
+
+  /**
+   * Reads the content of the files of a tar.gz stream, straight from the compressed
+   * stream: a delta, or the projects of every file. Files exported before the project
+   * archive format are read with the Java serialization.
+   *
+   * @param input the stream to read, it is not closed
+   * @return the content of the stream
+   * @throws IOException            if the stream cannot be read, holds no file or mixes
+   *                                a delta with other files
+   * @throws ClassNotFoundException if the class of a serialized object is not found
+   */
+  public static ProjectArchive readArchive(InputStream input)
+      throws IOException, ClassNotFoundException {
+    TarArchiveInputStream tarIn = new TarArchiveInputStream(
+        new GZIPInputStream(new BufferedInputStream(input)));
+    if (!nextFile(tarIn)) {
+      throw new ArchiveFormatException("The archive does not contain any file");
+    }
+
+    InputStream entryIn = new BufferedInputStream(tarIn);
+    if (!ProjectArchiveReader.isProjectArchive(entryIn)) {
+      return new ProjectArchive(0, Collections.singletonList(
+          (Project) new ObjectInputStream(entryIn).readObject()));
+    }
+    ProjectArchiveReader reader = new ProjectArchiveReader(entryIn);
+    if (reader.getKind() == ProjectArchiveFormat.KIND_DELTA) {
+      return new ProjectArchive(reader.getSequence(), reader.readDelta());
+    }
+    long sequence = reader.getSequence();
+    List<Project> projects = new ArrayList<>();
+    readProjects(reader, projects);
+    while (nextFile(tarIn)) {
+      reader = new ProjectArchiveReader(tarIn);
+      if (reader.getKind() != ProjectArchiveFormat.KIND_FULL) {
+        throw new ArchiveFormatException("The archive mixes projects and a delta");
+      }
+      readProjects(reader, projects);
+    }
+    return new ProjectArchive(sequence, projects);
+  }
+
+  /**
+   * Moves a tar stream to its next file, skipping the directories.
+   *
+   * @param tarIn the tar stream
+   * @return true if the stream is on a file, false if there is no file left
+   * @throws IOException if the stream cannot be read
+   */
+  private static boolean nextFile(TarArchiveInputStream tarIn) throws IOException {
+    TarArchiveEntry entry = tarIn.getNextTarEntry();
+    while (entry != null && !entry.isFile()) {
+      entry = tarIn.getNextTarEntry();
+    }
+    return entry != null;
+  }
+
+  /**
+   * Reads all the projects of an archive.
+   *
+   * @param reader   the reader of the archive
+   * @param projects the list the projects are added to
+   * @throws IOException if the archive cannot be read
+   */
+  private static void readProjects(ProjectArchiveReader reader, List<Project> projects)
+      throws IOException {
+    Project project = reader.readProject();
+    while (project != null) {
+      projects.add(project);
+      project = reader.readProject();
+    }
+  }
+}
@@ -0,0 +1,255 @@
+package be.ac.ulb.infof307.g09.archive;
+
+import be.ac.ulb.infof307.g09.application.models.Project;
+import be.ac.ulb.infof307.g09.application.models.Tag;
+import be.ac.ulb.infof307.g09.application.models.Task;
+import be.ac.ulb.infof307.g09.application.models.User;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes projects trees in the project archive format, streaming them to the output.
+ */
+public class ProjectArchiveWriter {
+  private final DataOutputStream out;
+  private final int kind;
+  private final Map<String, Integer> strings;
+  private final Map<Integer, Integer> users;
+  private boolean finished;
+  private boolean deltaWritten;
+
+  /**
+   * Creates a writer of projects trees and writes the header of the archive,
+   * without change sequence.
+   *
+   * @param output the stream to write to, it is not closed by the writer
+   * @throws IOException if the header cannot be written
+   */
+  public ProjectArchiveWriter(OutputStream output) throws IOException {
+    this(output, ProjectArchiveFormat.KIND_FULL, 0);
+  }
+
+  /**
+   * Creates a writer and writes the header of the archive.
+   *
+   * @param output   the stream to write to, it is not closed by the writer
+   * @param kind     the kind of the archive, {@link ProjectArchiveFormat#KIND_FULL} or
+   *                 {@link ProjectArchiveFormat#KIND_DELTA}
+   * @param sequence the change sequence of the database at the time of the export
+   * @throws IOException if the header cannot be written
+   */
+  public ProjectArchiveWriter(OutputStream output, int kind, long sequence) throws IOException {
+    if (kind != ProjectArchiveFormat.KIND_FULL && kind != ProjectArchiveFormat.KIND_DELTA) {
+      throw new IllegalArgumentException("Unknown archive kind " + kind);
+    }
+    this.out = new DataOutputStream(new BufferedOutputStream(output));
+    this.kind = kind;
+    this.strings = new HashMap<>();
+    this.users = new HashMap<>();
+    this.finished = false;
+    this.deltaWritten = false;
+    this.out.writeInt(ProjectArchiveFormat.MAGIC);
+    writeVarLong(ProjectArchiveFormat.CURRENT_VERSION);
+    writeVarLong(kind);
+    writeVarLong(sequence);
+  }
+
+  /**
+   * Writes a project with its tasks, tags, collaborators and sub projects.
+   * The parent of the project is not written, it is imported as a parent project.
+   *
+   * @param project the project to write
+   * @throws IOException if the project cannot be written
+   */
+  public void writeProject(Project project) throws IOException {
+    if (this.finished) {
+      throw new IllegalStateException("The archive is already finished");
+    }
+    if (this.kind != ProjectArchiveFormat.KIND_FULL) {
+      throw new IllegalStateException("A delta archive cannot hold projects trees");
+    }
+    writeVarLong(ProjectArchiveFormat.PROJECT_MARKER);
+    writeProjectTree(project);
+  }
+
+  /**
+   * Writes the delta of a projects tree. A delta archive holds a single delta.
+   *
+   * @param delta the delta to write
+   * @throws IOException if the delta cannot be written
+   */
+  public void writeDelta(ProjectDelta delta) throws IOException {
+    if (this.finished) {
+      throw new IllegalStateException("The archive is already finished");
+    }
+    if (this.kind != ProjectArchiveFormat.KIND_DELTA || this.deltaWritten) {
+      throw new IllegalStateException("The archive cannot hold another delta");
+    }
+    writeVarLong(delta.getBaseSequence());
+    writeVarLong(delta.getRootId());
+    writeVarLong(delta.getChangedProjects().size());
+    for (ProjectDelta.Entry entry : delta.getChangedProjects()) {
+      writeVarLong(entry.isCreated() ? ProjectArchiveFormat.PRESENT_VALUE
+          : ProjectArchiveFormat.NULL_VALUE);
+      writeNullableId(entry.getParentId());
+      writeProjectNode(entry.getProject());
+    }
+    writeVarLong(delta.getDeletedIds().size());
+    for (int id : delta.getDeletedIds()) {
+      writeVarLong(id);
+    }
+    this.deltaWritten = true;
+  }
+
+  /**
+   * Writes the end of the archive and flushes it. The underlying stream is left open.
+   *
+   * @throws IOException if the end of the archive cannot be written
+   */
+  public void finish() throws IOException {
+    if (!this.finished) {
+      writeVarLong(ProjectArchiveFormat.END_MARKER);
+      this.out.flush();
+      this.finished = true;
+    }
+  }
+
+  /**
+   * Writes a project and, recursively, its sub projects.
+   *
+   * @param project the project to write
+   * @throws IOException if the project cannot be written
+   */
+  private void writeProjectTree(Project project) throws IOException {
+    writeProjectNode(project);
+    writeUsers(project.getCollaborators());
+
+    writeVarLong(project.getSubProjects().size());
+    for (Project subProject : project.getSubProjects()) {
+      writeProjectTree(subProject);
+    }
+  }
+
+  /**
+   * Writes a project with its tags and tasks, without its collaborators and sub projects.
+   *
+   * @param project the project to write
+   * @throws IOException if the project cannot be written
+   */
+  private void writeProjectNode(Project project) throws IOException {
+    writeVarLong(project.getId());
+    writeString(project.getTitle());
+    writeString(project.getDescription());
+    this.out.writeLong(project.getStartDate());
+    writeVarLong(project.getEndDate() - project.getStartDate());
+    writeVarLong(project.getInitialDuration());
+    writeUser(project.getAuthor());
+    writeVarLong(project.getColorCode());
+
+    writeVarLong(project.getTags().size());
+    for (Tag tag : project.getTags()) {
+      writeVarLong(tag.getId());
+      writeString(tag.getDescription());
+    }
+
+    writeVarLong(project.getTasks().size());
+    for (Task task : project.getTasks()) {
+      writeVarLong(task.getId());
+      writeString(task.getDescription());
+      this.out.writeLong(task.getStartDate());
+      writeVarLong(task.getEndDate() - task.getStartDate());
+      writeUsers(task.getAssignedUsers());
+    }
+  }
+
+  /**
+   * Writes a list of users.
+   *
+   * @param userList the users to write
+   * @throws IOException if the users cannot be written
+   */
+  private void writeUsers(List<User> userList) throws IOException {
+    writeVarLong(userList.size());
+    for (User user : userList) {
+      writeUser(user);
+    }
+  }
+
+  /**
+   * Writes a user inline the first time, then as a reference.
+   *
+   * @param user the user to write
+   * @throws IOException if the user cannot be written
+   */
+  private void writeUser(User user) throws IOException {
+    Integer index = this.users.get(user.getId());
+    if (index != null) {
+      writeVarLong(index + 1L);
+    } else {
+      this.users.put(user.getId(), this.users.size());
+      writeVarLong(ProjectArchiveFormat.NEW_ENTRY);
+      writeVarLong(user.getId());
+      writeString(user.getUsername());
+      writeString(user.getEmail());
+      writeString(user.getLastName());
+      writeString(user.getFirstName());
+    }
+  }
+
+  /**
+   * Writes a string inline the first time, then as a reference.
+   *
+   * @param value the string to write, null is written as an empty string
+   * @throws IOException if the string cannot be written
+   */
+  private void writeString(String value) throws IOException {
+    String string = value == null ? "" : value;
+    Integer index = this.strings.get(string);
+    if (index != null) {
+      writeVarLong(index + 1L);
+    } else {
+      this.strings.put(string, this.strings.size());
+      writeVarLong(ProjectArchiveFormat.NEW_ENTRY);
+      byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+      writeVarLong(bytes.length);
+      this.out.write(bytes);
+    }
+  }
+
+  /**
+   * Writes an id which may be null, preceded by a flag telling if it is present.
+   *
+   * @param value the id to write, may be null
+   * @throws IOException if the id cannot be written
+   */
+  private void writeNullableId(Integer value) throws IOException {
+    if (value == null) {
+      writeVarLong(ProjectArchiveFormat.NULL_VALUE);
+    } else {
+      writeVarLong(ProjectArchiveFormat.PRESENT_VALUE);
+      writeVarLong(value);
+    }
+  }
+
+  /**
+   * Writes a number zigzag encoded, so that small negative numbers stay short, then with
+   * 7 bits per byte, the high bit telling if a byte follows.
+   *
+   * @param value the number to write
+   * @throws IOException if the number cannot be written
+   */
+  private void writeVarLong(long value) throws IOException {
+    long remaining = (value << 1) ^ (value >> 63);
+    while ((remaining & ~0x7FL) != 0) {
+      this.out.writeByte((int) ((remaining & 0x7F) | 0x80));
+      remaining >>>= 7;
+    }
+    this.out.writeByte((int) remaining);
+  }
+}
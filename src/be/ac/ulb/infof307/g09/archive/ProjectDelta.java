@@ -0,0 +1,128 @@
+package be.ac.ulb.infof307.g09.archive;
+
+import be.ac.ulb.infof307.g09.application.models.Project;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Changes of a project tree since its last export. The projects are identified by their id
+ * in the exporting database, which the importing database maps to its own ids.
+ * A changed project holds its own tasks and tags, but not its sub projects.
+ */
+public class ProjectDelta {
+  private final long baseSequence;
+  private final int rootId;
+  private final List<Entry> changedProjects;
+  private final List<Integer> deletedIds;
+
+  /**
+   * Project changed since the last export.
+   */
+  public static class Entry {
+    private final boolean created;
+    private final Integer parentId;
+    private final Project project;
+
+    /**
+     * Constructor of a changed project.
+     *
+     * @param entryCreated  true if the project was created since the last export
+     * @param entryParentId the id of its parent, null for the root of the tree
+     * @param entryProject  the project with its tasks and tags
+     */
+    public Entry(boolean entryCreated, Integer entryParentId, Project entryProject) {
+      this.created = entryCreated;
+      this.parentId = entryParentId;
+      this.project = entryProject;
+    }
+
+    /**
+     * Checks if the project was created since the last export.
+     *
+     * @return true for a new project
+     */
+    public boolean isCreated() {
+      return created;
+    }
+
+    /**
+     * Returns the id of the parent of the project in the exporting database.
+     *
+     * @return the id of the parent, null for the root of the tree
+     */
+    public Integer getParentId() {
+      return parentId;
+    }
+
+    /**
+     * Returns the project with its tasks and tags, with its id in the exporting database.
+     *
+     * @return the project
+     */
+    public Project getProject() {
+      return project;
+    }
+  }
+
+  /**
+   * Constructor of a delta.
+   *
+   * @param deltaBaseSequence the change sequence of the export the delta applies on
+   * @param deltaRootId       the id of the root of the tree in the exporting database
+   * @param changed           the changed projects, each parent before its sub projects
+   * @param deleted           the ids of the deleted projects in the exporting database
+   */
+  public ProjectDelta(long deltaBaseSequence, int deltaRootId, List<Entry> changed,
+                      List<Integer> deleted) {
+    this.baseSequence = deltaBaseSequence;
+    this.rootId = deltaRootId;
+    this.changedProjects = new ArrayList<>(changed);
+    this.deletedIds = new ArrayList<>(deleted);
+  }
+
+  /**
+   * Returns the change sequence of the export the delta applies on.
+   *
+   * @return the base sequence
+   */
+  public long getBaseSequence() {
+    return baseSequence;
+  }
+
+  /**
+   * Returns the id of the root of the tree in the exporting database.
+   *
+   * @return the id of the root
+   */
+  public int getRootId() {
+    return rootId;
+  }
+
+  /**
+   * Returns the changed projects, each parent before its sub projects.
+   *
+   * @return the changed projects
+   */
+  public List<Entry> getChangedProjects() {
+    return Collections.unmodifiableList(changedProjects);
+  }
+
+  /**
+   * Returns the ids of the deleted projects in the exporting database.
+   *
+   * @return the ids of the deleted projects
+   */
+  public List<Integer> getDeletedIds() {
+    return Collections.unmodifiableList(deletedIds);
+  }
+
+  /**
+   * Checks if nothing changed.
+   *
+   * @return true if no project changed nor was deleted
+   */
+  public boolean isEmpty() {
+    return changedProjects.isEmpty() && deletedIds.isEmpty();
+  }
+}
@@ -0,0 +1,142 @@
+package be.ac.ulb.infof307.g09.archive;
+
+import be.ac.ulb.infof307.g09.application.models.Project;
+import be.ac.ulb.infof307.g09.exceptions.ArchiveFormatException;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Snapshot of the projects trees loaded for a user, kept on disk to be reused at the next
+ * login. A snapshot starts with the identifier of the database it was loaded from, followed
+ * by an uncompressed project archive stamped with the change sequence of the database at the
+ * time the projects were loaded. It is read as a stream, so that no file stays open or mapped
+ * once read. A new snapshot is written next to the previous one, which is only replaced once
+ * the new one is committed.
+ */
+public final class SessionSnapshot implements Closeable {
+  private static final int MAGIC = 0x59535353;
+  private static final String FILE_PREFIX = "session-";
+  private static final String FILE_EXTENSION = ".snapshot";
+  private static final String TEMPORARY_EXTENSION = ".tmp";
+
+  private final File file;
+  private final File temporaryFile;
+  private final OutputStream output;
+  private final ProjectArchiveWriter writer;
+  private boolean committed;
+
+  /**
+   * Starts writing a snapshot.
+   *
+   * @param snapshotFile the file of the snapshot
+   * @param databaseId   the identifier of the database the projects are loaded from
+   * @param sequence     the change sequence of the database when the projects are loaded
+   * @throws IOException if the snapshot cannot be created
+   */
+  public SessionSnapshot(File snapshotFile, String databaseId, long sequence)
+      throws IOException {
+    File directory = snapshotFile.getAbsoluteFile().getParentFile();
+    if (!directory.isDirectory() && !directory.mkdirs()) {
+      throw new IOException("Cannot create the directory " + directory);
+    }
+    this.file = snapshotFile;
+    this.temporaryFile = new File(directory, snapshotFile.getName() + TEMPORARY_EXTENSION);
+    this.output = new FileOutputStream(this.temporaryFile);
+    DataOutputStream header = new DataOutputStream(this.output);
+    header.writeInt(MAGIC);
+    header.writeUTF(databaseId);
+    this.writer = new ProjectArchiveWriter(this.output, ProjectArchiveFormat.KIND_FULL, sequence);
+    this.committed = false;
+  }
+
+  /**
+   * Returns the file of the snapshot of a user.
+   *
+   * @param directory the directory of the snapshots
+   * @param userId    the id of the user
+   * @return the file of the snapshot
+   */
+  public static File getFile(File directory, int userId) {
+    return new File(directory, FILE_PREFIX + userId + FILE_EXTENSION);
+  }
+
+  /**
+   * Adds a parent project with its whole tree to the snapshot.
+   *
+   * @param project the project to add
+   * @throws IOException if the project cannot be written
+   */
+  public void add(Project project) throws IOException {
+    this.writer.writeProject(project);
+  }
+
+  /**
+   * Ends the snapshot and replaces the previous snapshot with it.
+   *
+   * @throws IOException if the snapshot cannot be written or moved
+   */
+  public void commit() throws IOException {
+    this.writer.finish();
+    this.output.close();
+    try {
+      Files.move(this.temporaryFile.toPath(), this.file.toPath(),
+          StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (AtomicMoveNotSupportedException e) {
+      Files.move(this.temporaryFile.toPath(), this.file.toPath(),
+          StandardCopyOption.REPLACE_EXISTING);
+    }
+    this.committed = true;
+  }
+
+  /**
+   * Removes the snapshot being written if it was not committed, the previous one is kept.
+   *
+   * @throws IOException if the snapshot cannot be removed
+   */
+  @Override
+  public void close() throws IOException {
+    if (!this.committed) {
+      this.output.close();
+      Files.deleteIfExists(this.temporaryFile.toPath());
+    }
+  }
+
+  /**
+   * Reads a snapshot written from a database.
+   *
+   * @param snapshotFile the file of the snapshot
+   * @param databaseId   the identifier of the database the projects are loaded from
+   * @return the projects trees of the snapshot, with its change sequence
+   * @throws IOException if the file does not exist, is not a valid snapshot or was written
+   *                     from another database
+   */
+  public static ProjectArchive read(File snapshotFile, String databaseId) throws IOException {
+    try (InputStream input = Files.newInputStream(snapshotFile.toPath())) {
+      DataInputStream header = new DataInputStream(input);
+      if (header.readInt() != MAGIC) {
+        throw new ArchiveFormatException("Not a session snapshot");
+      }
+      if (!header.readUTF().equals(databaseId)) {
+        throw new ArchiveFormatException("The snapshot was written from another database");
+      }
+      ProjectArchiveReader reader = new ProjectArchiveReader(input);
+      List<Project> projects = new ArrayList<>();
+      for (Project project = reader.readProject(); project != null;
+           project = reader.readProject()) {
+        projects.add(project);
+      }
+      return new ProjectArchive(reader.getSequence(), projects);
+    }
+  }
+}
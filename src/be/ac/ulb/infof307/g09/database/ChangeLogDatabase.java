@@ -0,0 +1,153 @@
+package be.ac.ulb.infof307.g09.database;
+
+import be.ac.ulb.infof307.g09.application.models.Change;
+import be.ac.ulb.infof307.g09.exceptions.ConnectionFailedException;
+import be.ac.ulb.infof307.g09.exceptions.DatabaseException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The class is used to read the ChangeLog table, filled by triggers on every insertion,
+ * update and deletion of the Project, Task, Tag, ProjectTag, ProjectCollaboration and
+ * CollaboratorTask tables.
+ */
+public final class ChangeLogDatabase extends Database {
+
+  private static final long NO_CHANGE = 0;
+  private static ChangeLogDatabase instance;
+
+  private ChangeLogDatabase() {}
+
+  /**
+   * Returns the singleton instance.
+   *
+   * @return The singleton instance.
+   */
+  public static ChangeLogDatabase getInstance() {
+    if (instance == null) {
+      instance = new ChangeLogDatabase();
+    }
+    return instance;
+  }
+
+  /**
+   * Get the changes made after a sequence number, in the order they were made.
+   *
+   * @param sequence the sequence number of the last change already known, 0 for all changes
+   * @return the changes made after the sequence number
+   * @throws DatabaseException when something wrong happens during a database transaction
+   * @throws ConnectionFailedException If the connection to the database fails
+   */
+  public List<Change> getChangesSince(long sequence)
+      throws DatabaseException, ConnectionFailedException {
+    List<Change> changes = new ArrayList<>();
+
+    String sql = "SELECT * FROM ChangeLog WHERE Seq > ? ORDER BY Seq";
+    try (Connection conn = connect();
+         PreparedStatement preparedStatement = conn.prepareStatement(sql)) {
+
+      preparedStatement.setLong(1, sequence);
+      try (ResultSet resultSet = preparedStatement.executeQuery()) {
+        while (resultSet.next()) {
+          int relatedId = resultSet.getInt("RelatedId");
+          changes.add(new Change(
+              resultSet.getLong("Seq"),
+              Change.Entity.valueOf(resultSet.getString("Entity")),
+              resultSet.getInt("EntityId"),
+              resultSet.wasNull() ? null : relatedId,
+              Change.Operation.valueOf(resultSet.getString("Operation"))));
+        }
+      }
+    } catch (SQLException e) {
+      throwException(e);
+    } catch (ClassNotFoundException e) {
+      throwConnectionException(e);
+    }
+    return changes;
+  }
+
+  /**
+   * Get the sequence number of the last change.
+   *
+   * @return the sequence number of the last change, 0 if nothing changed
+   * @throws DatabaseException when something wrong happens during a database transaction
+   * @throws ConnectionFailedException If the connection to the database fails
+   */
+  public long getLastSequence() throws DatabaseException, ConnectionFailedException {
+    long sequence = NO_CHANGE;
+
+    String sql = "SELECT seq FROM sqlite_sequence WHERE name = 'ChangeLog'";
+    try (Connection conn = connect();
+         PreparedStatement preparedStatement = conn.prepareStatement(sql);
+         ResultSet resultSet = preparedStatement.executeQuery()) {
+      if (resultSet.next()) {
+        sequence = resultSet.getLong("seq");
+      }
+    } catch (SQLException e) {
+      throwException(e);
+    } catch (ClassNotFoundException e) {
+      throwConnectionException(e);
+    }
+    return sequence;
+  }
+
+  /**
+   * Get the identifier of the database, drawn at random when the change log is created.
+   * Two databases never share it, even when the sequence numbers of their changes overlap.
+   *
+   * @return the identifier of the database, null if the schema was not updated
+   * @throws DatabaseException when something wrong happens during a database transaction
+   * @throws ConnectionFailedException If the connection to the database fails
+   */
+  public String getDatabaseId() throws DatabaseException, ConnectionFailedException {
+    String databaseId = null;
+
+    String sql = "SELECT Uuid FROM DatabaseIdentity WHERE Id = 1";
+    try (Connection conn = connect();
+         PreparedStatement preparedStatement = conn.prepareStatement(sql);
+         ResultSet resultSet = preparedStatement.executeQuery()) {
+      if (resultSet.next()) {
+        databaseId = resultSet.getString("Uuid");
+      }
+    } catch (SQLException e) {
+      throwException(e);
+    } catch (ClassNotFoundException e) {
+      throwConnectionException(e);
+    }
+    return databaseId;
+  }
+
+  /**
+   * Compacts the log by removing the changes of a row followed by a later change of the
+   * same row, up to a sequence number. Reading the changes after any sequence number
+   * still gives the last operation done on each changed row.
+   *
+   * @param sequence the sequence number up to which the log is compacted
+   * @return the number of removed changes
+   * @throws DatabaseException when something wrong happens during a database transaction
+   * @throws ConnectionFailedException If the connection to the database fails
+   */
+  public int compact(long sequence) throws DatabaseException, ConnectionFailedException {
+    int removedChanges = 0;
+
+    String sql = "DELETE FROM ChangeLog WHERE Seq <= ? AND EXISTS ("
+        + "SELECT 1 FROM ChangeLog AS Later WHERE Later.Entity = ChangeLog.Entity "
+        + "AND Later.EntityId = ChangeLog.EntityId AND Later.RelatedId IS ChangeLog.RelatedId "
+        + "AND Later.Seq > ChangeLog.Seq)";
+    try (Connection conn = connect();
+         PreparedStatement preparedStatement = conn.prepareStatement(sql)) {
+
+      preparedStatement.setLong(1, sequence);
+      removedChanges = preparedStatement.executeUpdate();
+    } catch (SQLException e) {
+      throwException(e);
+    } catch (ClassNotFoundException e) {
+      throwConnectionException(e);
+    }
+    return removedChanges;
+  }
+}
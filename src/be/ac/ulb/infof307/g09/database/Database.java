@@ -33,6 +33,8 @@ abstract class Database {
   private static String databasePath = "DataBase.db";
   protected static final String DRIVER = "org.sqlite.JDBC";
   private static final int NONEXISTENT_ROW = -1;
+  private static final String DATABASE_SCRIPT = "resources/database/database.sql";
+  private static final String CHANGE_LOG_SCRIPT = "resources/database/changelog.sql";
   private static File database = new File(databasePath);
 
 
@@ -135,9 +137,39 @@ abstract class Database {
       if (!databaseCreated) {
         throw new IOException("Cannot create file");
       }
+    } catch (IOException e) {
+      throwException(e);
+    }
+    executeSqlScript(startPath, DATABASE_SCRIPT);
+    updateDatabaseSchema(startPath);
+  }
 
+  /**
+   * Adds the tables and triggers added since the creation of an existing database.
+   * The script only creates what does not exist yet.
+   *
+   * @param startPath beginning of the path
+   * @throws DatabaseException         if a problem occurs during the access to the database
+   * @throws ConnectionFailedException If the connection to the database fails
+   */
+  public static void updateDatabaseSchema(String startPath)
+          throws ConnectionFailedException, DatabaseException {
+    executeSqlScript(startPath, CHANGE_LOG_SCRIPT);
+  }
+
+  /**
+   * Executes the statements of a SQL script, each statement ending a line with a semicolon.
+   *
+   * @param startPath beginning of the path
+   * @param script    the path of the script from the resources
+   * @throws DatabaseException         if a problem occurs during the access to the database
+   * @throws ConnectionFailedException If the connection to the database fails
+   */
+  private static void executeSqlScript(String startPath, String script)
+          throws ConnectionFailedException, DatabaseException {
+    try {
       URL databaseResource = Objects.requireNonNull(Paths.get(
-          startPath + "resources/database/database.sql").toUri().toURL());
+          startPath + script).toUri().toURL());
       String decodedPath = URLDecoder.decode(databaseResource.getPath(), "UTF-8");
 
       try (BufferedReader in = new BufferedReader(new FileReader(decodedPath))) {
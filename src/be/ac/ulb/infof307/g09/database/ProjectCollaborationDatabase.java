@@ -1,5 +1,6 @@
 package be.ac.ulb.infof307.g09.database;
 
+import be.ac.ulb.infof307.g09.application.models.Invitation;
 import be.ac.ulb.infof307.g09.application.models.Project;
 import be.ac.ulb.infof307.g09.application.models.Task;
 import be.ac.ulb.infof307.g09.application.models.User;
@@ -11,6 +12,7 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
+import javafx.util.Pair;
 
 /**
  * This class enables the retrieval of project collaborations information.
@@ -23,6 +25,7 @@ public final class ProjectCollaborationDatabase extends Database {
 
   private static final int PENDING_ANSWER = -1;
   private static final int UNREAD_INVITATION = 0;
+  private static final String NO_PASSWORD = "";
 
   public static final String SELECT_COLLABORATORS_QUERY =
       "SELECT * FROM User JOIN ProjectCollaboration ON User.Id = ProjectCollaboration.UserId ";
@@ -163,65 +166,67 @@ public final class ProjectCollaborationDatabase extends Database {
   }
 
   /**
-   * Gets the collaborators by project that have not answered to the invitations yet.
+   * Retrieves all the projects of a collaborator.
    *
-   * @param project the project to check if it has not been answered yet
-   * @return the list of users that have not answered the project yet
+   * @param collaborator The given collaborator (as an existing user).
+   * @return All the projects of a collaborator.
    * @throws DatabaseException         If there is an error during the execution of the query
    *                                   or during the extraction of the result.
    * @throws ConnectionFailedException If the connection to the database fails
    */
-  public List<User> getCollaboratorsByProjectWaiting(Project project)
+  public List<Project> getProjectsByCollaborator(User collaborator)
       throws DatabaseException, ConnectionFailedException {
 
-    List<User> userList = null;
+    List<Project> projectList = null;
 
-    String sql = SELECT_COLLABORATORS_QUERY
-        + "WHERE ProjectId = ? AND Accepted = -1";
+    String sql = SELECT_PROJECT_OF_COLLABORATOR_QUERY
+        + "WHERE UserId = ? AND Accepted = 1 ";
 
     try (Connection conn = connect();
          PreparedStatement preparedStatement = conn.prepareStatement(sql)) {
-      preparedStatement.setInt(1, project.getId());
+      preparedStatement.setInt(1, collaborator.getId());
       try (ResultSet rs = preparedStatement.executeQuery()) {
-        userList = extractUsersFromResultSet(rs);
+        projectList = extractProjectsFromResultSet(rs);
       }
     } catch (SQLException e) {
       throwException(e);
     } catch (ClassNotFoundException e) {
       throwConnectionException(e);
     }
-    return userList;
+    return projectList;
   }
 
   /**
-   * Retrieves all the projects of a collaborator.
+   * Retrieves the ids of the projects of a collaborator, without loading the projects.
    *
    * @param collaborator The given collaborator (as an existing user).
-   * @return All the projects of a collaborator.
+   * @return The ids of the projects in which the collaborator accepted to take part.
    * @throws DatabaseException         If there is an error during the execution of the query
    *                                   or during the extraction of the result.
    * @throws ConnectionFailedException If the connection to the database fails
    */
-  public List<Project> getProjectsByCollaborator(User collaborator)
+  public List<Integer> getProjectIdsByCollaborator(User collaborator)
       throws DatabaseException, ConnectionFailedException {
 
-    List<Project> projectList = null;
+    List<Integer> ids = new ArrayList<>();
 
-    String sql = SELECT_PROJECT_OF_COLLABORATOR_QUERY
-        + "WHERE UserId = ? AND Accepted = 1 ";
+    String sql = "SELECT ProjectId FROM ProjectCollaboration "
+        + "WHERE UserId = ? AND Accepted = 1 ORDER BY ProjectId";
 
     try (Connection conn = connect();
          PreparedStatement preparedStatement = conn.prepareStatement(sql)) {
       preparedStatement.setInt(1, collaborator.getId());
       try (ResultSet rs = preparedStatement.executeQuery()) {
-        projectList = extractProjectsFromResultSet(rs);
+        while (rs.next()) {
+          ids.add(rs.getInt("ProjectId"));
+        }
       }
     } catch (SQLException e) {
       throwException(e);
     } catch (ClassNotFoundException e) {
       throwConnectionException(e);
     }
-    return projectList;
+    return ids;
   }
 
   /**
@@ -539,89 +544,51 @@ public final class ProjectCollaborationDatabase extends Database {
   }
 
   /**
-   * Gets the projects that have been accepted and that the sender
-   * has not read his invitations sent to his collaborators yet.
+   * Gets in one query the invitations sent by the author of the projects whose answer
+   * is still to be shown: the waiting and refused ones, and the accepted ones not read yet.
    *
    * @param sender the sender who has sent the invitations.
-   * @return the list of projects that have been accepted
-   * @throws DatabaseException         If the resultSet does not contain one user
-   *                                   or if there is an error during the access to the database.
+   * @return the invitations, ordered by project and collaborator
+   * @throws DatabaseException         If there is an error during the access to the database.
    * @throws ConnectionFailedException If the connection to the database fails
    */
-  public List<Project> getProjectsWithInvitationAccepted(User sender)
+  public List<Invitation> getInvitationsSentBy(User sender)
       throws DatabaseException, ConnectionFailedException {
-    String sql = "SELECT * FROM Project "
-        + "JOIN ProjectCollaboration ON Project.Id = ProjectCollaboration.ProjectId "
-        + "WHERE Accepted = 1 AND InvitationRead = 0 AND Author = ? "
-        + "GROUP BY ProjectId";
-
-    return getProjectsWithInvitations(sender, sql);
-  }
+    List<Invitation> invitations = new ArrayList<>();
 
-  /**
-   * Gets the projects with invitations.
-   *
-   * @param sender the sender who has sent the invitations
-   * @param sql    the sql query to execute
-   * @return the list of projects that have invitations
-   * @throws DatabaseException         If the resultSet does not contain one user
-   *                                   or if there is an error during the access to the database.
-   * @throws ConnectionFailedException If the connection to the database fails
-   */
-  private List<Project> getProjectsWithInvitations(User sender, String sql)
-      throws DatabaseException, ConnectionFailedException {
-    List<Project> projectList = null;
+    String sql = "SELECT ProjectCollaboration.ProjectId, ProjectCollaboration.UserId, "
+        + "User.Username, User.Email, User.LastName, User.FirstName, Accepted, InvitationRead "
+        + "FROM ProjectCollaboration "
+        + "JOIN Project ON Project.Id = ProjectCollaboration.ProjectId "
+        + "JOIN User ON User.Id = ProjectCollaboration.UserId "
+        + "WHERE Project.Author = ? AND (Accepted <> 1 OR InvitationRead = 0) "
+        + "ORDER BY ProjectCollaboration.ProjectId, ProjectCollaboration.UserId";
 
     try (Connection conn = connect();
          PreparedStatement preparedStatement = conn.prepareStatement(sql)) {
       preparedStatement.setString(1, sender.getUsername());
       try (ResultSet rs = preparedStatement.executeQuery()) {
-        projectList = extractProjectsFromResultSet(rs);
+        while (rs.next()) {
+          User collaborator = new User(
+              rs.getInt("UserId"),
+              rs.getString("Username"),
+              rs.getString("Email"),
+              rs.getString("LastName"),
+              rs.getString("FirstName"),
+              NO_PASSWORD);
+          invitations.add(new Invitation(
+              rs.getInt("ProjectId"),
+              collaborator,
+              Invitation.Answer.fromValue(rs.getInt("Accepted")),
+              rs.getInt("InvitationRead") != UNREAD_INVITATION));
+        }
       }
-    } catch (SQLException | DatabaseException e) {
+    } catch (SQLException e) {
       throwException(e);
     } catch (ClassNotFoundException e) {
       throwConnectionException(e);
     }
-    return projectList;
-  }
-
-  /**
-   * Gets the projects with invitations refused.
-   *
-   * @param sender the sender who has sent the invitations
-   * @return the list of projects with invitations refused
-   * @throws DatabaseException         If the resultSet does not contain one user
-   *                                   or if there is an error during the access to the database.
-   * @throws ConnectionFailedException If the connection to the database fails
-   */
-  public List<Project> getProjectsWithInvitationRefused(User sender)
-      throws DatabaseException, ConnectionFailedException {
-    String sql = "SELECT * FROM Project "
-        + "JOIN ProjectCollaboration ON Project.Id = ProjectCollaboration.ProjectId "
-        + "WHERE Accepted = 0 AND InvitationRead = 0 AND Author = ? "
-        + "GROUP BY ProjectId";
-
-    return getProjectsWithInvitations(sender, sql);
-  }
-
-  /**
-   * Gets the projects with invitations that have not been answered yet.
-   *
-   * @param sender the sender who has sent the invitations
-   * @return the list of projects that have not been answered yet
-   * @throws DatabaseException         If the resultSet does not contain one user
-   *                                   or if there is an error during the access to the database.
-   * @throws ConnectionFailedException If the connection to the database fails
-   */
-  public List<Project> getProjectsWithInvitationWaiting(User sender)
-      throws DatabaseException, ConnectionFailedException {
-    String sql = "SELECT * FROM Project "
-        + "JOIN ProjectCollaboration ON Project.Id = ProjectCollaboration.ProjectId "
-        + "WHERE Accepted = -1 AND Author = ? "
-        + "GROUP BY ProjectId";
-
-    return getProjectsWithInvitations(sender, sql);
+    return invitations;
   }
 
   /**
@@ -690,4 +657,62 @@ public final class ProjectCollaborationDatabase extends Database {
     executeUpdate(sql, param);
   }
 
+  /**
+   * Acknowledges the answers read by the sender of the invitations in one transaction:
+   * the rows of the refused invitations are deleted and the accepted invitations are
+   * marked as read, with one batched statement each.
+   *
+   * @param refusedInvitations  the refused invitations, as (project, collaborator) pairs
+   * @param acceptedInvitations the accepted invitations, as (project, collaborator) pairs
+   * @throws DatabaseException         If there is an error during the access to the database,
+   *                                   nothing is acknowledged in that case
+   * @throws ConnectionFailedException If the connection to the database fails
+   */
+  public void acknowledgeInvitations(List<Pair<Project, User>> refusedInvitations,
+                                     List<Pair<Project, User>> acceptedInvitations)
+      throws DatabaseException, ConnectionFailedException {
+    String deleteSql = "DELETE FROM ProjectCollaboration "
+        + "WHERE ProjectId = ? AND UserId = ? AND Accepted = 0";
+    String updateSql = "UPDATE ProjectCollaboration "
+        + "SET InvitationRead = 1 "
+        + "WHERE ProjectId = ? AND UserId = ? AND Accepted = 1";
+
+    try (Connection conn = connect()) {
+      conn.setAutoCommit(false);
+      try (PreparedStatement deleteStatement = conn.prepareStatement(deleteSql);
+           PreparedStatement updateStatement = conn.prepareStatement(updateSql)) {
+        executeBatch(deleteStatement, refusedInvitations);
+        executeBatch(updateStatement, acceptedInvitations);
+        conn.commit();
+      } catch (SQLException e) {
+        conn.rollback();
+        throw e;
+      }
+    } catch (SQLException e) {
+      throwException(e);
+    } catch (ClassNotFoundException e) {
+      throwConnectionException(e);
+    }
+  }
+
+  /**
+   * Executes a statement on a project and a collaborator once for each pair, as a batch.
+   *
+   * @param statement   the statement whose parameters are the project id then the user id
+   * @param invitations the (project, collaborator) pairs
+   * @throws SQLException if the batch fails
+   */
+  private void executeBatch(PreparedStatement statement, List<Pair<Project, User>> invitations)
+      throws SQLException {
+    if (invitations.isEmpty()) {
+      return;
+    }
+    for (Pair<Project, User> invitation : invitations) {
+      statement.setInt(1, invitation.getKey().getId());
+      statement.setInt(2, invitation.getValue().getId());
+      statement.addBatch();
+    }
+    statement.executeBatch();
+  }
+
 }
@@ -12,7 +12,10 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import javafx.util.Pair;
 
 /**
@@ -26,6 +29,7 @@ public final class ProjectDatabase extends Database {
   public static final String INSERT_PROJECT_QUERY = "INSERT INTO "
       + "Project(Title,Description,StartDate,EndDate,InitialDuration,Author,ParentProject,Color)"
       + " VALUES(?,?,?,?,?,?,?,?)";
+  private static final int ROOT_IDS_CHUNK_SIZE = 500;
   private static ProjectDatabase instance;
 
   private ProjectDatabase() {
@@ -169,6 +173,187 @@ public final class ProjectDatabase extends Database {
     return list;
   }
 
+  /**
+   * Get the ids of the parent projects of the author, without loading the projects.
+   *
+   * @param author The author of the projects
+   * @return The ids of the parent projects of the author, in the order of their creation
+   * @throws DatabaseException throws when something wrong happens during a database transaction
+   * @throws ConnectionFailedException If the connection to the database fails
+   */
+  public List<Integer> getParentProjectIdsByAuthor(String author)
+      throws DatabaseException, ConnectionFailedException {
+    String sql = "SELECT Id "
+        + "FROM Project WHERE Author = ? AND ParentProject IS NULL ORDER BY Id";
+
+    List<Integer> ids = new ArrayList<>();
+
+    try (Connection conn = connect();
+         PreparedStatement preparedStatement = conn.prepareStatement(sql)) {
+
+      preparedStatement.setString(1, author);
+      try (ResultSet resultSet = preparedStatement.executeQuery()) {
+        while (resultSet.next()) {
+          ids.add(resultSet.getInt("Id"));
+        }
+      }
+    } catch (SQLException e) {
+      throwException(e);
+    } catch (ClassNotFoundException e) {
+      throwConnectionException(e);
+    }
+
+    return ids;
+  }
+
+  /**
+   * Get a project with its tags and collaborators, without its parent, tasks and sub projects.
+   *
+   * @param id The id of the project
+   * @return The project, null if it does not exist
+   * @throws DatabaseException throws when something wrong happens during a database transaction
+   * @throws ConnectionFailedException If the connection to the database fails
+   */
+  public Project getProjectNode(int id) throws DatabaseException, ConnectionFailedException {
+    Project project = getDetachedProject(id);
+    if (project != null) {
+      project.setTags(this.getTagsOfProject(project));
+      project.setCollaborators(
+          ProjectCollaborationDatabase.getInstance().getCollaboratorsOfProjects(project));
+    }
+    return project;
+  }
+
+  /**
+   * Get a project with its tasks, tags, collaborators and sub projects, without its parent.
+   *
+   * @param id The id of the project
+   * @return The project, null if it does not exist
+   * @throws DatabaseException throws when something wrong happens during a database transaction
+   * @throws ConnectionFailedException If the connection to the database fails
+   */
+  public Project getProjectTree(int id) throws DatabaseException, ConnectionFailedException {
+    Project project = getDetachedProject(id);
+    if (project != null) {
+      initProject(project);
+    }
+    return project;
+  }
+
+  /**
+   * Get the id of the parent of a project.
+   *
+   * @param id The id of the project
+   * @return The id of the parent, null for a parent project or a project which does not exist
+   * @throws DatabaseException throws when something wrong happens during a database transaction
+   * @throws ConnectionFailedException If the connection to the database fails
+   */
+  public Integer getParentProjectId(int id) throws DatabaseException, ConnectionFailedException {
+    String sql = "SELECT ParentProject FROM Project WHERE Id = ?";
+
+    Integer parentId = null;
+
+    try (Connection conn = connect();
+         PreparedStatement preparedStatement = conn.prepareStatement(sql)) {
+
+      preparedStatement.setInt(1, id);
+      try (ResultSet resultSet = preparedStatement.executeQuery()) {
+        if (resultSet.next() && resultSet.getString("ParentProject") != null) {
+          parentId = resultSet.getInt("ParentProject");
+        }
+      }
+    } catch (SQLException e) {
+      throwException(e);
+    } catch (ClassNotFoundException e) {
+      throwConnectionException(e);
+    }
+
+    return parentId;
+  }
+
+  /**
+   * Reads the row of a project, without loading its parent.
+   *
+   * @param id The id of the project
+   * @return The project without parent nor content, null if it does not exist
+   * @throws DatabaseException throws when something wrong happens during a database transaction
+   * @throws ConnectionFailedException If the connection to the database fails
+   */
+  private Project getDetachedProject(int id) throws DatabaseException, ConnectionFailedException {
+    String sql = "SELECT * FROM Project WHERE Id = ?";
+
+    Project project = null;
+
+    try (Connection conn = connect();
+         PreparedStatement preparedStatement = conn.prepareStatement(sql)) {
+
+      preparedStatement.setInt(1, id);
+      try (ResultSet resultSet = preparedStatement.executeQuery()) {
+        if (resultSet.next()) {
+          project = new Project(
+              resultSet.getInt("Id"),
+              resultSet.getString("Title"),
+              resultSet.getString("Description"),
+              resultSet.getLong("StartDate"),
+              resultSet.getLong("EndDate"),
+              resultSet.getLong("InitialDuration"),
+              UserDatabase.getInstance().getByUsername(resultSet.getString("Author")),
+              null,
+              Color.fromInteger(resultSet.getInt("Color")));
+        }
+      }
+    } catch (SQLException e) {
+      throwException(e);
+    } catch (ClassNotFoundException e) {
+      throwConnectionException(e);
+    }
+
+    return project;
+  }
+
+  /**
+   * Get the ids of the parent projects at the root of the trees of several projects, by chunks
+   * of {@link #ROOT_IDS_CHUNK_SIZE} to stay under the parameters limit of SQLite.
+   *
+   * @param ids The ids of the projects
+   * @return The id of the root of the tree of each project, the id itself for a parent
+   *     project, the projects which do not exist are left out
+   * @throws DatabaseException throws when something wrong happens during a database transaction
+   * @throws ConnectionFailedException If the connection to the database fails
+   */
+  public Map<Integer, Integer> getRootProjectIds(List<Integer> ids)
+      throws DatabaseException, ConnectionFailedException {
+    Map<Integer, Integer> rootIds = new HashMap<>();
+
+    try (Connection conn = connect()) {
+      for (int start = 0; start < ids.size(); start += ROOT_IDS_CHUNK_SIZE) {
+        List<Integer> chunk = ids.subList(start, Math.min(start + ROOT_IDS_CHUNK_SIZE, ids.size()));
+        String sql = "WITH RECURSIVE Ancestor(ProjectId, Id, ParentProject) AS ("
+            + "SELECT Id, Id, ParentProject FROM Project WHERE Id IN ("
+            + String.join(",", Collections.nCopies(chunk.size(), "?")) + ") "
+            + "UNION ALL SELECT Ancestor.ProjectId, Project.Id, Project.ParentProject FROM Project "
+            + "JOIN Ancestor ON Project.Id = Ancestor.ParentProject) "
+            + "SELECT ProjectId, Id FROM Ancestor WHERE ParentProject IS NULL";
+        try (PreparedStatement preparedStatement = conn.prepareStatement(sql)) {
+          for (int i = 0; i < chunk.size(); i++) {
+            preparedStatement.setInt(i + 1, chunk.get(i));
+          }
+          try (ResultSet resultSet = preparedStatement.executeQuery()) {
+            while (resultSet.next()) {
+              rootIds.put(resultSet.getInt("ProjectId"), resultSet.getInt("Id"));
+            }
+          }
+        }
+      }
+    } catch (SQLException e) {
+      throwException(e);
+    } catch (ClassNotFoundException e) {
+      throwConnectionException(e);
+    }
+
+    return rootIds;
+  }
+
   /**
    * Returns the subprojects of a certain project.
    *
@@ -0,0 +1,270 @@
+package be.ac.ulb.infof307.g09.database;
+
+import be.ac.ulb.infof307.g09.exceptions.ConnectionFailedException;
+import be.ac.ulb.infof307.g09.exceptions.DatabaseException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The class is used to remember the exports and imports of projects trees, so that only
+ * the changes made since the last export need to be exported again.
+ * An export remembers the projects of the tree with their titles and the change sequence
+ * at that time, an import remembers the change sequence of the exporting database and the
+ * id each imported project had in it.
+ */
+public final class ProjectExportDatabase extends Database {
+
+  public static final long NEVER = -1;
+  static final String RECORD_IMPORT_QUERY =
+      "INSERT OR REPLACE INTO ProjectImport(RootId, Sequence) VALUES(?, ?)";
+  static final String RECORD_SOURCE_QUERY =
+      "INSERT OR REPLACE INTO ProjectImportSource(ProjectId, RootId, SourceId) VALUES(?, ?, ?)";
+  private static ProjectExportDatabase instance;
+
+  private ProjectExportDatabase() {}
+
+  /**
+   * Returns the singleton instance.
+   *
+   * @return The singleton instance.
+   */
+  public static ProjectExportDatabase getInstance() {
+    if (instance == null) {
+      instance = new ProjectExportDatabase();
+    }
+    return instance;
+  }
+
+  /**
+   * Get the projects of a tree at its last export.
+   *
+   * @param rootId the id of the root of the tree
+   * @return the titles of the exported projects by id, empty if the tree was never exported
+   * @throws DatabaseException when something wrong happens during a database transaction
+   * @throws ConnectionFailedException If the connection to the database fails
+   */
+  public Map<Integer, String> getExportedProjects(int rootId)
+      throws DatabaseException, ConnectionFailedException {
+    Map<Integer, String> titles = new HashMap<>();
+
+    String sql = "SELECT ProjectId, Title FROM ProjectExport WHERE RootId = ?";
+    try (Connection conn = connect();
+         PreparedStatement preparedStatement = conn.prepareStatement(sql)) {
+
+      preparedStatement.setInt(1, rootId);
+      try (ResultSet resultSet = preparedStatement.executeQuery()) {
+        while (resultSet.next()) {
+          titles.put(resultSet.getInt("ProjectId"), resultSet.getString("Title"));
+        }
+      }
+    } catch (SQLException e) {
+      throwException(e);
+    } catch (ClassNotFoundException e) {
+      throwConnectionException(e);
+    }
+    return titles;
+  }
+
+  /**
+   * Get the ids of the roots of the trees imported from a root of an exporting database.
+   *
+   * @param sourceRootId the id of the root in the exporting database
+   * @return the ids of the local roots
+   * @throws DatabaseException when something wrong happens during a database transaction
+   * @throws ConnectionFailedException If the connection to the database fails
+   */
+  public List<Integer> getImportedRootIds(int sourceRootId)
+      throws DatabaseException, ConnectionFailedException {
+    List<Integer> rootIds = new ArrayList<>();
+
+    String sql = "SELECT RootId FROM ProjectImportSource WHERE SourceId = ? AND ProjectId = RootId";
+    try (Connection conn = connect();
+         PreparedStatement preparedStatement = conn.prepareStatement(sql)) {
+
+      preparedStatement.setInt(1, sourceRootId);
+      try (ResultSet resultSet = preparedStatement.executeQuery()) {
+        while (resultSet.next()) {
+          rootIds.add(resultSet.getInt("RootId"));
+        }
+      }
+    } catch (SQLException e) {
+      throwException(e);
+    } catch (ClassNotFoundException e) {
+      throwConnectionException(e);
+    }
+    return rootIds;
+  }
+
+  /**
+   * Get the projects of an imported tree by their id in the exporting database.
+   *
+   * @param rootId the id of the local root of the tree
+   * @return the local ids of the projects by id in the exporting database
+   * @throws DatabaseException when something wrong happens during a database transaction
+   * @throws ConnectionFailedException If the connection to the database fails
+   */
+  public Map<Integer, Integer> getImportedProjects(int rootId)
+      throws DatabaseException, ConnectionFailedException {
+    Map<Integer, Integer> localIds = new HashMap<>();
+
+    String sql = "SELECT ProjectId, SourceId FROM ProjectImportSource WHERE RootId = ?";
+    try (Connection conn = connect();
+         PreparedStatement preparedStatement = conn.prepareStatement(sql)) {
+
+      preparedStatement.setInt(1, rootId);
+      try (ResultSet resultSet = preparedStatement.executeQuery()) {
+        while (resultSet.next()) {
+          localIds.put(resultSet.getInt("SourceId"), resultSet.getInt("ProjectId"));
+        }
+      }
+    } catch (SQLException e) {
+      throwException(e);
+    } catch (ClassNotFoundException e) {
+      throwConnectionException(e);
+    }
+    return localIds;
+  }
+
+  /**
+   * Get the change sequence at the last export of a tree.
+   *
+   * @param rootId the id of the root of the tree
+   * @return the sequence of the last export, {@link #NEVER} if the tree was never exported
+   * @throws DatabaseException when something wrong happens during a database transaction
+   * @throws ConnectionFailedException If the connection to the database fails
+   */
+  public long getExportSequence(int rootId) throws DatabaseException, ConnectionFailedException {
+    return getSequence("SELECT MAX(Sequence) FROM ProjectExport WHERE RootId = ?", rootId);
+  }
+
+  /**
+   * Get the change sequence of the exporting database at the last import of a tree.
+   *
+   * @param rootId the id of the root of the imported tree
+   * @return the sequence of the last import, {@link #NEVER} if no sequence is known
+   * @throws DatabaseException when something wrong happens during a database transaction
+   * @throws ConnectionFailedException If the connection to the database fails
+   */
+  public long getImportSequence(int rootId) throws DatabaseException, ConnectionFailedException {
+    return getSequence("SELECT Sequence FROM ProjectImport WHERE RootId = ?", rootId);
+  }
+
+  /**
+   * Reads the sequence selected by a query on the id of a root.
+   *
+   * @param sql    the query selecting the sequence
+   * @param rootId the id of the root of the tree
+   * @return the sequence, {@link #NEVER} if there is none
+   * @throws DatabaseException when something wrong happens during a database transaction
+   * @throws ConnectionFailedException If the connection to the database fails
+   */
+  private long getSequence(String sql, int rootId)
+      throws DatabaseException, ConnectionFailedException {
+    long sequence = NEVER;
+
+    try (Connection conn = connect();
+         PreparedStatement preparedStatement = conn.prepareStatement(sql)) {
+
+      preparedStatement.setInt(1, rootId);
+      try (ResultSet resultSet = preparedStatement.executeQuery()) {
+        if (resultSet.next()) {
+          long value = resultSet.getLong(1);
+          if (!resultSet.wasNull()) {
+            sequence = value;
+          }
+        }
+      }
+    } catch (SQLException e) {
+      throwException(e);
+    } catch (ClassNotFoundException e) {
+      throwConnectionException(e);
+    }
+    return sequence;
+  }
+
+  /**
+   * Remembers the export of a tree, replacing the previous one.
+   *
+   * @param rootId   the id of the root of the tree
+   * @param titles   the titles of the exported projects by id
+   * @param sequence the change sequence at the time of the export
+   * @throws DatabaseException when something wrong happens during a database transaction,
+   *                           the previous export is kept in that case
+   * @throws ConnectionFailedException If the connection to the database fails
+   */
+  public void recordExport(int rootId, Map<Integer, String> titles, long sequence)
+      throws DatabaseException, ConnectionFailedException {
+    String deleteSql = "DELETE FROM ProjectExport WHERE RootId = ?";
+    String insertSql =
+        "INSERT INTO ProjectExport(RootId, ProjectId, Title, Sequence) VALUES(?, ?, ?, ?)";
+    try (Connection conn = connect()) {
+      conn.setAutoCommit(false);
+      try (PreparedStatement deleteStatement = conn.prepareStatement(deleteSql);
+           PreparedStatement insertStatement = conn.prepareStatement(insertSql)) {
+        deleteStatement.setInt(1, rootId);
+        deleteStatement.executeUpdate();
+        for (Map.Entry<Integer, String> title : titles.entrySet()) {
+          insertStatement.setInt(1, rootId);
+          insertStatement.setInt(2, title.getKey());
+          insertStatement.setString(3, title.getValue());
+          insertStatement.setLong(4, sequence);
+          insertStatement.addBatch();
+        }
+        insertStatement.executeBatch();
+        conn.commit();
+      } catch (SQLException e) {
+        conn.rollback();
+        throw e;
+      }
+    } catch (SQLException e) {
+      throwException(e);
+    } catch (ClassNotFoundException e) {
+      throwConnectionException(e);
+    }
+  }
+
+  /**
+   * Remembers the change sequence of the exporting database at the import of a tree,
+   * and the id each imported project had in that database.
+   *
+   * @param rootId    the id of the root of the imported tree
+   * @param sourceIds the ids of the projects in the exporting database by local id
+   * @param sequence  the change sequence of the exporting database
+   * @throws DatabaseException when something wrong happens during a database transaction,
+   *                           nothing is remembered in that case
+   * @throws ConnectionFailedException If the connection to the database fails
+   */
+  public void recordImport(int rootId, Map<Integer, Integer> sourceIds, long sequence)
+      throws DatabaseException, ConnectionFailedException {
+    try (Connection conn = connect()) {
+      conn.setAutoCommit(false);
+      try (PreparedStatement importStatement = conn.prepareStatement(RECORD_IMPORT_QUERY);
+           PreparedStatement sourceStatement = conn.prepareStatement(RECORD_SOURCE_QUERY)) {
+        importStatement.setInt(1, rootId);
+        importStatement.setLong(2, sequence);
+        importStatement.executeUpdate();
+        for (Map.Entry<Integer, Integer> sourceId : sourceIds.entrySet()) {
+          sourceStatement.setInt(1, sourceId.getKey());
+          sourceStatement.setInt(2, rootId);
+          sourceStatement.setInt(3, sourceId.getValue());
+          sourceStatement.addBatch();
+        }
+        sourceStatement.executeBatch();
+        conn.commit();
+      } catch (SQLException e) {
+        conn.rollback();
+        throw e;
+      }
+    } catch (SQLException e) {
+      throwException(e);
+    } catch (ClassNotFoundException e) {
+      throwConnectionException(e);
+    }
+  }
+}
@@ -0,0 +1,551 @@
+package be.ac.ulb.infof307.g09.database;
+
+import be.ac.ulb.infof307.g09.application.models.Project;
+import be.ac.ulb.infof307.g09.application.models.Tag;
+import be.ac.ulb.infof307.g09.application.models.Task;
+import be.ac.ulb.infof307.g09.application.models.User;
+import be.ac.ulb.infof307.g09.archive.ProjectDelta;
+import be.ac.ulb.infof307.g09.exceptions.ConnectionFailedException;
+import be.ac.ulb.infof307.g09.exceptions.DatabaseException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * The class is used to import a whole project tree, or the changes of a tree, at once.
+ * Everything is inserted with one connection, in batches, inside a single transaction
+ * which is rolled back if any insertion fails.
+ */
+public final class ProjectImportDatabase extends Database {
+
+  private static final int BATCH_SIZE = 500;
+  private static final String INSERT_TASK_QUERY =
+      "INSERT INTO Task(Description,StartDate,EndDate,ProjectId) VALUES(?,?,?,?)";
+  private static final String INSERT_COLLABORATOR_TASK_QUERY =
+      "INSERT INTO CollaboratorTask(UserId, TaskId) VALUES(?, ?)";
+  private static final String INSERT_PROJECT_TAG_QUERY =
+      "INSERT INTO ProjectTag(ProjectId,TagId) VALUES(?,?)";
+  private static final String INSERT_TAG_QUERY = "INSERT INTO Tag(Description) VALUES(?)";
+  private static final String SELECT_TAGS_QUERY = "SELECT * FROM Tag WHERE Description IN (";
+  private static final String UPDATE_PROJECT_QUERY = "UPDATE Project SET Title = ?, "
+      + "Description = ?, StartDate = ?, EndDate = ?, InitialDuration = ?, Color = ? "
+      + "WHERE Id = ?";
+  private static final String DELETE_PROJECT_QUERY = "DELETE FROM Project WHERE Id = ?";
+  private static final String SELECT_TASKS_QUERY =
+      "SELECT Id, Description, StartDate, EndDate FROM Task WHERE ProjectId = ?";
+  private static final String DELETE_TASK_QUERY = "DELETE FROM Task WHERE Id = ?";
+  private static final String DELETE_PROJECT_TAGS_QUERY =
+      "DELETE FROM ProjectTag WHERE ProjectId = ?";
+  private static ProjectImportDatabase instance;
+
+  private ProjectImportDatabase() {}
+
+  /**
+   * Returns the singleton instance.
+   *
+   * @return The singleton instance.
+   */
+  public static ProjectImportDatabase getInstance() {
+    if (instance == null) {
+      instance = new ProjectImportDatabase();
+    }
+    return instance;
+  }
+
+  /**
+   * Identifies a task of a project by its description and dates, as the ids of a delta come
+   * from the exporting database.
+   */
+  private static final class TaskKey {
+    private final String description;
+    private final long startDate;
+    private final long endDate;
+
+    TaskKey(String description, long startDate, long endDate) {
+      this.description = description;
+      this.startDate = startDate;
+      this.endDate = endDate;
+    }
+
+    TaskKey(Task task) {
+      this(task.getDescription(), task.getStartDate(), task.getEndDate());
+    }
+
+    @Override
+    public boolean equals(Object object) {
+      if (object == this) {
+        return true;
+      }
+      if (!(object instanceof TaskKey)) {
+        return false;
+      }
+      TaskKey other = (TaskKey) object;
+      return this.description.equals(other.description) && this.startDate == other.startDate
+          && this.endDate == other.endDate;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(this.description, this.startDate, this.endDate);
+    }
+  }
+
+  /**
+   * Statements reused during the import of a project tree.
+   */
+  private static class ImportStatements implements AutoCloseable {
+    private final PreparedStatement project;
+    private final PreparedStatement task;
+    private final PreparedStatement collaboratorTask;
+    private final PreparedStatement projectTag;
+
+    ImportStatements(Connection conn) throws SQLException {
+      this.project = conn.prepareStatement(ProjectDatabase.INSERT_PROJECT_QUERY);
+      this.task = conn.prepareStatement(INSERT_TASK_QUERY);
+      this.collaboratorTask = conn.prepareStatement(INSERT_COLLABORATOR_TASK_QUERY);
+      this.projectTag = conn.prepareStatement(INSERT_PROJECT_TAG_QUERY);
+    }
+
+    @Override
+    public void close() throws SQLException {
+      this.project.close();
+      this.task.close();
+      this.collaboratorTask.close();
+      this.projectTag.close();
+    }
+  }
+
+  /**
+   * Imports a project with its tasks, tags and sub projects. The tasks are assigned to
+   * the author, and the tags which do not exist yet are created.
+   *
+   * @param project the project to import, its ids are ignored
+   * @param author  the user importing the project
+   * @return the imported project, with the ids given by the database
+   * @throws DatabaseException when something wrong happens during a database transaction,
+   *                           nothing is imported in that case
+   * @throws ConnectionFailedException If the connection to the database fails
+   */
+  public Project importProject(Project project, User author)
+      throws DatabaseException, ConnectionFailedException {
+    Project importedProject = null;
+
+    try (Connection conn = connect()) {
+      conn.setAutoCommit(false);
+      try (ImportStatements statements = new ImportStatements(conn)) {
+        Map<String, Tag> tags = resolveTags(conn, collectTagDescriptions(project));
+        importedProject = insertProjectTree(
+            statements, project, project.getParentProject(), author, tags);
+        conn.commit();
+      } catch (SQLException | RuntimeException e) {
+        conn.rollback();
+        throw e;
+      }
+    } catch (SQLException e) {
+      throwException(e);
+    } catch (ClassNotFoundException e) {
+      throwConnectionException(e);
+    }
+    return importedProject;
+  }
+
+  /**
+   * Applies the changes of a tree exported from another database on the local copy of the
+   * tree. The deleted projects are deleted with their sub projects, the changed projects are
+   * updated and get their tags replaced, and the new projects are inserted under their
+   * parent. The tasks of a changed project found unchanged are kept with their assignments,
+   * the others are replaced by the tasks of the delta, assigned to the author. The id of the
+   * new projects and the change sequence of the exporting database are remembered for the
+   * next changes.
+   *
+   * @param delta    the changes of the tree
+   * @param localIds the ids of the projects of the local copy by id in the exporting database
+   * @param rootId   the id of the root of the local copy
+   * @param author   the user importing the changes
+   * @param sequence the change sequence of the exporting database at the time of the export
+   * @throws DatabaseException when something wrong happens during a database transaction or a
+   *                           project of the delta is not found, nothing is changed in that case
+   * @throws ConnectionFailedException If the connection to the database fails
+   */
+  public void applyDelta(ProjectDelta delta, Map<Integer, Integer> localIds, int rootId,
+                         User author, long sequence)
+      throws DatabaseException, ConnectionFailedException {
+    try (Connection conn = connect()) {
+      conn.setAutoCommit(false);
+      try (ImportStatements statements = new ImportStatements(conn);
+           PreparedStatement updateProject = conn.prepareStatement(UPDATE_PROJECT_QUERY);
+           PreparedStatement deleteProject = conn.prepareStatement(DELETE_PROJECT_QUERY);
+           PreparedStatement selectTasks = conn.prepareStatement(SELECT_TASKS_QUERY);
+           PreparedStatement deleteTask = conn.prepareStatement(DELETE_TASK_QUERY);
+           PreparedStatement deleteTags = conn.prepareStatement(DELETE_PROJECT_TAGS_QUERY);
+           PreparedStatement recordImport =
+               conn.prepareStatement(ProjectExportDatabase.RECORD_IMPORT_QUERY);
+           PreparedStatement recordSource =
+               conn.prepareStatement(ProjectExportDatabase.RECORD_SOURCE_QUERY)) {
+        Map<Integer, Integer> ids = new HashMap<>(localIds);
+        for (int sourceId : delta.getDeletedIds()) {
+          Integer id = ids.remove(sourceId);
+          if (id != null) {
+            deleteProject.setInt(1, id);
+            deleteProject.addBatch();
+          }
+        }
+        deleteProject.executeBatch();
+
+        Set<String> descriptions = new LinkedHashSet<>();
+        for (ProjectDelta.Entry entry : delta.getChangedProjects()) {
+          for (Tag tag : entry.getProject().getTags()) {
+            descriptions.add(tag.getDescription());
+          }
+        }
+        Map<String, Tag> tags = resolveTags(conn, descriptions);
+
+        for (ProjectDelta.Entry entry : delta.getChangedProjects()) {
+          Project project = entry.getProject();
+          int id;
+          List<Task> newTasks;
+          if (!entry.isCreated()) {
+            id = findLocalId(ids, project.getId());
+            updateProject.setString(1, project.getTitle());
+            updateProject.setString(2, project.getDescription());
+            updateProject.setLong(3, project.getStartDate());
+            updateProject.setLong(4, project.getEndDate());
+            updateProject.setLong(5, project.getInitialDuration());
+            updateProject.setInt(6, project.getColorCode());
+            updateProject.setInt(7, id);
+            updateProject.executeUpdate();
+            deleteTags.setInt(1, id);
+            deleteTags.executeUpdate();
+            newTasks = keepUnchangedTasks(selectTasks, deleteTask, id, project.getTasks());
+          } else {
+            id = insertProjectRow(statements, project,
+                findLocalId(ids, entry.getParentId()), author);
+            ids.put(project.getId(), id);
+            recordSource.setInt(1, id);
+            recordSource.setInt(2, rootId);
+            recordSource.setInt(3, project.getId());
+            recordSource.addBatch();
+            newTasks = project.getTasks();
+          }
+
+          Project localProject = new Project(id, project.getTitle(), project.getDescription(),
+              project.getStartDate(), project.getEndDate(), project.getInitialDuration(), author,
+              null, project.getColor());
+          insertTasks(statements, localProject, newTasks, author);
+          insertTags(statements, localProject, project.getTags(), tags);
+        }
+        recordSource.executeBatch();
+
+        recordImport.setInt(1, rootId);
+        recordImport.setLong(2, sequence);
+        recordImport.executeUpdate();
+        conn.commit();
+      } catch (SQLException | RuntimeException e) {
+        conn.rollback();
+        throw e;
+      }
+    } catch (SQLException e) {
+      throwException(e);
+    } catch (ClassNotFoundException e) {
+      throwConnectionException(e);
+    }
+  }
+
+  /**
+   * Finds the local id of a project of a delta.
+   *
+   * @param ids      the ids of the local projects by id in the exporting database
+   * @param sourceId the id of the project in the exporting database
+   * @return the id of the local project
+   * @throws SQLException if the project is not in the local copy
+   */
+  private int findLocalId(Map<Integer, Integer> ids, Integer sourceId) throws SQLException {
+    Integer id = sourceId == null ? null : ids.get(sourceId);
+    if (id == null) {
+      throw new SQLException("Project not found in the local copy: " + sourceId);
+    }
+    return id;
+  }
+
+  /**
+   * Keeps the tasks of a local project which are unchanged in the delta, with their
+   * assignments, and deletes the others in one batch.
+   *
+   * @param selectTasks the statement selecting the tasks of a project
+   * @param deleteTask  the statement deleting a task
+   * @param projectId   the id of the local project
+   * @param tasks       the tasks of the project in the delta
+   * @return the tasks of the delta which are not in the local project, to insert
+   * @throws SQLException if a query fails
+   */
+  private List<Task> keepUnchangedTasks(PreparedStatement selectTasks,
+                                        PreparedStatement deleteTask, int projectId,
+                                        List<Task> tasks) throws SQLException {
+    Map<TaskKey, Integer> unmatchedCounts = new HashMap<>();
+    for (Task task : tasks) {
+      unmatchedCounts.merge(new TaskKey(task), 1, Integer::sum);
+    }
+    Map<TaskKey, Integer> keptCounts = new HashMap<>();
+    selectTasks.setInt(1, projectId);
+    try (ResultSet resultSet = selectTasks.executeQuery()) {
+      while (resultSet.next()) {
+        TaskKey key = new TaskKey(resultSet.getString("Description"),
+            resultSet.getLong("StartDate"), resultSet.getLong("EndDate"));
+        if (unmatchedCounts.getOrDefault(key, 0) > 0) {
+          unmatchedCounts.merge(key, -1, Integer::sum);
+          keptCounts.merge(key, 1, Integer::sum);
+        } else {
+          deleteTask.setInt(1, resultSet.getInt("Id"));
+          deleteTask.addBatch();
+        }
+      }
+    }
+    deleteTask.executeBatch();
+
+    List<Task> missingTasks = new ArrayList<>();
+    for (Task task : tasks) {
+      TaskKey key = new TaskKey(task);
+      if (keptCounts.getOrDefault(key, 0) > 0) {
+        keptCounts.merge(key, -1, Integer::sum);
+      } else {
+        missingTasks.add(task);
+      }
+    }
+    return missingTasks;
+  }
+
+  /**
+   * Collects the descriptions of the tags of a project tree.
+   *
+   * @param project the root of the tree
+   * @return the distinct descriptions of the tags
+   */
+  private Set<String> collectTagDescriptions(Project project) {
+    Set<String> descriptions = new LinkedHashSet<>();
+    for (Tag tag : project.getTags()) {
+      descriptions.add(tag.getDescription());
+    }
+    for (Project subProject : project.getSubProjects()) {
+      descriptions.addAll(collectTagDescriptions(subProject));
+    }
+    return descriptions;
+  }
+
+  /**
+   * Finds the tags of the given descriptions, creating the missing ones.
+   *
+   * @param conn         the connection of the import
+   * @param descriptions the descriptions of the tags
+   * @return the tags by description
+   * @throws SQLException if a query fails
+   */
+  private Map<String, Tag> resolveTags(Connection conn, Set<String> descriptions)
+      throws SQLException {
+    Map<String, Tag> tags = findTags(conn, descriptions);
+    List<String> missingDescriptions = new ArrayList<>();
+    for (String description : descriptions) {
+      if (!tags.containsKey(description)) {
+        missingDescriptions.add(description);
+      }
+    }
+    if (!missingDescriptions.isEmpty()) {
+      try (PreparedStatement preparedStatement = conn.prepareStatement(INSERT_TAG_QUERY)) {
+        for (String description : missingDescriptions) {
+          preparedStatement.setString(1, description);
+          preparedStatement.addBatch();
+        }
+        preparedStatement.executeBatch();
+      }
+      tags.putAll(findTags(conn, new LinkedHashSet<>(missingDescriptions)));
+    }
+    return tags;
+  }
+
+  /**
+   * Finds the existing tags of the given descriptions, by chunks of {@link #BATCH_SIZE}
+   * to stay under the parameters limit of SQLite.
+   *
+   * @param conn         the connection of the import
+   * @param descriptions the descriptions of the tags
+   * @return the existing tags by description
+   * @throws SQLException if a query fails
+   */
+  private Map<String, Tag> findTags(Connection conn, Set<String> descriptions)
+      throws SQLException {
+    Map<String, Tag> tags = new HashMap<>();
+    List<String> remaining = new ArrayList<>(descriptions);
+    for (int start = 0; start < remaining.size(); start += BATCH_SIZE) {
+      List<String> chunk = remaining.subList(start, Math.min(start + BATCH_SIZE, remaining.size()));
+      String sql = SELECT_TAGS_QUERY + String.join(",", Collections.nCopies(chunk.size(), "?"))
+          + ")";
+      try (PreparedStatement preparedStatement = conn.prepareStatement(sql)) {
+        for (int i = 0; i < chunk.size(); i++) {
+          preparedStatement.setString(i + 1, chunk.get(i));
+        }
+        try (ResultSet resultSet = preparedStatement.executeQuery()) {
+          while (resultSet.next()) {
+            Tag tag = new Tag(resultSet.getInt("Id"), resultSet.getString("Description"));
+            tags.put(tag.getDescription(), tag);
+          }
+        }
+      }
+    }
+    return tags;
+  }
+
+  /**
+   * Inserts a project, its tasks, its tags and, recursively, its sub projects.
+   *
+   * @param statements the statements of the import
+   * @param project    the project to insert
+   * @param parent     the inserted parent of the project, null for a parent project
+   * @param author     the author of the project
+   * @param tags       the tags by description
+   * @return the inserted project
+   * @throws SQLException if an insertion fails
+   */
+  private Project insertProjectTree(ImportStatements statements, Project project, Project parent,
+                                    User author, Map<String, Tag> tags) throws SQLException {
+    int id = insertProjectRow(statements, project, parent == null ? null : parent.getId(), author);
+    Project insertedProject = new Project(id, project.getTitle(), project.getDescription(),
+        project.getStartDate(), project.getEndDate(), project.getInitialDuration(), author,
+        parent, project.getColor());
+    insertedProject.setTasks(insertTasks(statements, insertedProject, project.getTasks(), author));
+    insertedProject.setTags(insertTags(statements, insertedProject, project.getTags(), tags));
+
+    List<Project> subProjects = new ArrayList<>();
+    for (Project subProject : project.getSubProjects()) {
+      subProjects.add(insertProjectTree(statements, subProject, insertedProject, author, tags));
+    }
+    insertedProject.setSubProjects(subProjects);
+    return insertedProject;
+  }
+
+  /**
+   * Inserts the row of a project, without its tasks and tags.
+   *
+   * @param statements the statements of the import
+   * @param project    the project to insert
+   * @param parentId   the id of the inserted parent of the project, null for a parent project
+   * @param author     the author of the project
+   * @return the id of the inserted project
+   * @throws SQLException if the insertion fails
+   */
+  private int insertProjectRow(ImportStatements statements, Project project, Integer parentId,
+                               User author) throws SQLException {
+    PreparedStatement projectStatement = statements.project;
+    projectStatement.setString(1, project.getTitle());
+    projectStatement.setString(2, project.getDescription());
+    projectStatement.setLong(3, project.getStartDate());
+    projectStatement.setLong(4, project.getEndDate());
+    projectStatement.setLong(5, project.getInitialDuration());
+    projectStatement.setString(6, author.getUsername());
+    if (parentId == null) {
+      projectStatement.setNull(7, Types.INTEGER);
+    } else {
+      projectStatement.setInt(7, parentId);
+    }
+    projectStatement.setInt(8, project.getColorCode());
+    projectStatement.executeUpdate();
+    return getLastInsertRowId(projectStatement.getConnection());
+  }
+
+  /**
+   * Inserts the tasks of a project in batches and assigns them to the author.
+   * The transaction prevents any other insertion in the Task table, so the ids of a batch
+   * are the consecutive ids ending with the last inserted one.
+   *
+   * @param statements the statements of the import
+   * @param project    the inserted project
+   * @param tasks      the tasks to insert
+   * @param author     the user to assign the tasks to
+   * @return the inserted tasks
+   * @throws SQLException if an insertion fails
+   */
+  private List<Task> insertTasks(ImportStatements statements, Project project, List<Task> tasks,
+                                 User author) throws SQLException {
+    List<Task> insertedTasks = new ArrayList<>(tasks.size());
+    for (int start = 0; start < tasks.size(); start += BATCH_SIZE) {
+      List<Task> batch = tasks.subList(start, Math.min(start + BATCH_SIZE, tasks.size()));
+      for (Task task : batch) {
+        statements.task.setString(1, task.getDescription());
+        statements.task.setLong(2, task.getStartDate());
+        statements.task.setLong(3, task.getEndDate());
+        statements.task.setInt(4, project.getId());
+        statements.task.addBatch();
+      }
+      statements.task.executeBatch();
+
+      int firstId = getLastInsertRowId(statements.task.getConnection()) - batch.size() + 1;
+      for (int i = 0; i < batch.size(); i++) {
+        Task task = batch.get(i);
+        Task insertedTask = new Task(firstId + i, task.getDescription(), task.getStartDate(),
+            task.getEndDate(), project.getId());
+        insertedTask.addAssignedUser(author);
+        insertedTasks.add(insertedTask);
+        statements.collaboratorTask.setInt(1, author.getId());
+        statements.collaboratorTask.setInt(2, insertedTask.getId());
+        statements.collaboratorTask.addBatch();
+      }
+      statements.collaboratorTask.executeBatch();
+    }
+    return insertedTasks;
+  }
+
+  /**
+   * Links the tags to a project in one batch.
+   *
+   * @param statements  the statements of the import
+   * @param project     the inserted project
+   * @param projectTags the tags of the imported project
+   * @param tags        the tags by description
+   * @return the tags of the inserted project
+   * @throws SQLException if an insertion fails
+   */
+  private List<Tag> insertTags(ImportStatements statements, Project project,
+                               List<Tag> projectTags, Map<String, Tag> tags) throws SQLException {
+    List<Tag> insertedTags = new ArrayList<>(projectTags.size());
+    Set<Tag> linkedTags = new LinkedHashSet<>();
+    for (Tag projectTag : projectTags) {
+      Tag tag = tags.get(projectTag.getDescription());
+      if (linkedTags.add(tag)) {
+        statements.projectTag.setInt(1, project.getId());
+        statements.projectTag.setInt(2, tag.getId());
+        statements.projectTag.addBatch();
+        insertedTags.add(tag);
+      }
+    }
+    if (!insertedTags.isEmpty()) {
+      statements.projectTag.executeBatch();
+    }
+    return insertedTags;
+  }
+
+  /**
+   * Returns the id of the last row inserted with the connection.
+   *
+   * @param conn the connection of the import
+   * @return the id of the last inserted row
+   * @throws SQLException if the query fails
+   */
+  private int getLastInsertRowId(Connection conn) throws SQLException {
+    try (Statement statement = conn.createStatement();
+         ResultSet resultSet = statement.executeQuery("SELECT last_insert_rowid()")) {
+      if (!resultSet.next()) {
+        throw new SQLException("Last inserted row not found");
+      }
+      return resultSet.getInt(1);
+    }
+  }
+}
@@ -70,6 +70,37 @@ public final class TaskDatabase extends Database {
     return task;
   }
 
+  /**
+   * Get a task from "Task" table database by its id, without its assigned users.
+   *
+   * @param id id of the task
+   * @return the task, null if it does not exist
+   * @throws DatabaseException when something wrong happens during a database transaction
+   * @throws ConnectionFailedException If the connection to the database fails
+   */
+  public Task getTaskById(int id) throws DatabaseException, ConnectionFailedException {
+    Task task = null;
+
+    String sql = "SELECT * FROM Task WHERE Id = ?";
+    try (Connection conn = connect();
+         PreparedStatement preparedStatement = conn.prepareStatement(sql)) {
+
+      preparedStatement.setInt(1, id);
+      try (ResultSet rs = preparedStatement.executeQuery()) {
+        if (rs.next()) {
+          task = new Task(rs.getInt("Id"), rs.getString("Description"),
+              rs.getLong("StartDate"), rs.getLong("EndDate"),
+              rs.getInt("ProjectId"));
+        }
+      }
+    } catch (SQLException e) {
+      throwException(e);
+    } catch (ClassNotFoundException e) {
+      throwConnectionException(e);
+    }
+    return task;
+  }
+
   /**
    * Get tasks from "Task" table database by a project Id.
    *
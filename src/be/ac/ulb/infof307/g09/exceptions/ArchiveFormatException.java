@@ -0,0 +1,18 @@
+package be.ac.ulb.infof307.g09.exceptions;
+
+import java.io.IOException;
+
+/**
+ * Exception class used when a project archive is malformed or has an unsupported version.
+ */
+public class ArchiveFormatException extends IOException {
+
+  /**
+   * Creates a new archive format exception with only a message.
+   *
+   * @param message The error message that the exception keeps
+   */
+  public ArchiveFormatException(String message) {
+    super(message);
+  }
+}
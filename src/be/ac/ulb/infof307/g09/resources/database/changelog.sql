@@ -0,0 +1,50 @@
+CREATE TABLE IF NOT EXISTS "ChangeLog" (
+	"Seq"	INTEGER NOT NULL PRIMARY KEY AUTOINCREMENT UNIQUE,
+	"Entity"	TEXT NOT NULL,
+	"EntityId"	INTEGER NOT NULL,
+	"RelatedId"	INTEGER,
+	"Operation"	TEXT NOT NULL
+);
+CREATE INDEX IF NOT EXISTS "ChangeLogEntity" ON "ChangeLog"("Entity","EntityId","RelatedId");
+CREATE TRIGGER IF NOT EXISTS "ProjectInsertLog" AFTER INSERT ON "Project" BEGIN INSERT INTO "ChangeLog"("Entity","EntityId","RelatedId","Operation") VALUES('PROJECT', NEW."Id", NULL, 'INSERT'); END;
+CREATE TRIGGER IF NOT EXISTS "ProjectUpdateLog" AFTER UPDATE ON "Project" BEGIN INSERT INTO "ChangeLog"("Entity","EntityId","RelatedId","Operation") VALUES('PROJECT', NEW."Id", NULL, 'UPDATE'); END;
+CREATE TRIGGER IF NOT EXISTS "ProjectDeleteLog" AFTER DELETE ON "Project" BEGIN INSERT INTO "ChangeLog"("Entity","EntityId","RelatedId","Operation") VALUES('PROJECT', OLD."Id", NULL, 'DELETE'); END;
+CREATE TRIGGER IF NOT EXISTS "TaskInsertLog" AFTER INSERT ON "Task" BEGIN INSERT INTO "ChangeLog"("Entity","EntityId","RelatedId","Operation") VALUES('TASK', NEW."Id", NEW."ProjectId", 'INSERT'); END;
+CREATE TRIGGER IF NOT EXISTS "TaskUpdateLog" AFTER UPDATE ON "Task" BEGIN INSERT INTO "ChangeLog"("Entity","EntityId","RelatedId","Operation") VALUES('TASK', NEW."Id", NEW."ProjectId", 'UPDATE'); END;
+CREATE TRIGGER IF NOT EXISTS "TaskDeleteLog" AFTER DELETE ON "Task" BEGIN INSERT INTO "ChangeLog"("Entity","EntityId","RelatedId","Operation") VALUES('TASK', OLD."Id", OLD."ProjectId", 'DELETE'); END;
+CREATE TRIGGER IF NOT EXISTS "TagInsertLog" AFTER INSERT ON "Tag" BEGIN INSERT INTO "ChangeLog"("Entity","EntityId","RelatedId","Operation") VALUES('TAG', NEW."Id", NULL, 'INSERT'); END;
+CREATE TRIGGER IF NOT EXISTS "TagUpdateLog" AFTER UPDATE ON "Tag" BEGIN INSERT INTO "ChangeLog"("Entity","EntityId","RelatedId","Operation") VALUES('TAG', NEW."Id", NULL, 'UPDATE'); END;
+CREATE TRIGGER IF NOT EXISTS "TagDeleteLog" AFTER DELETE ON "Tag" BEGIN INSERT INTO "ChangeLog"("Entity","EntityId","RelatedId","Operation") VALUES('TAG', OLD."Id", NULL, 'DELETE'); END;
+CREATE TRIGGER IF NOT EXISTS "ProjectTagInsertLog" AFTER INSERT ON "ProjectTag" BEGIN INSERT INTO "ChangeLog"("Entity","EntityId","RelatedId","Operation") VALUES('PROJECT_TAG', NEW."ProjectId", NEW."TagId", 'INSERT'); END;
+CREATE TRIGGER IF NOT EXISTS "ProjectTagDeleteLog" AFTER DELETE ON "ProjectTag" BEGIN INSERT INTO "ChangeLog"("Entity","EntityId","RelatedId","Operation") VALUES('PROJECT_TAG', OLD."ProjectId", OLD."TagId", 'DELETE'); END;
+CREATE TRIGGER IF NOT EXISTS "ProjectCollaborationInsertLog" AFTER INSERT ON "ProjectCollaboration" BEGIN INSERT INTO "ChangeLog"("Entity","EntityId","RelatedId","Operation") VALUES('PROJECT_COLLABORATION', NEW."ProjectId", NEW."UserId", 'INSERT'); END;
+CREATE TRIGGER IF NOT EXISTS "ProjectCollaborationUpdateLog" AFTER UPDATE ON "ProjectCollaboration" BEGIN INSERT INTO "ChangeLog"("Entity","EntityId","RelatedId","Operation") VALUES('PROJECT_COLLABORATION', NEW."ProjectId", NEW."UserId", 'UPDATE'); END;
+CREATE TRIGGER IF NOT EXISTS "ProjectCollaborationDeleteLog" AFTER DELETE ON "ProjectCollaboration" BEGIN INSERT INTO "ChangeLog"("Entity","EntityId","RelatedId","Operation") VALUES('PROJECT_COLLABORATION', OLD."ProjectId", OLD."UserId", 'DELETE'); END;
+CREATE TRIGGER IF NOT EXISTS "CollaboratorTaskInsertLog" AFTER INSERT ON "CollaboratorTask" BEGIN INSERT INTO "ChangeLog"("Entity","EntityId","RelatedId","Operation") VALUES('COLLABORATOR_TASK', NEW."TaskId", NEW."UserId", 'INSERT'); END;
+CREATE TRIGGER IF NOT EXISTS "CollaboratorTaskDeleteLog" AFTER DELETE ON "CollaboratorTask" BEGIN INSERT INTO "ChangeLog"("Entity","EntityId","RelatedId","Operation") VALUES('COLLABORATOR_TASK', OLD."TaskId", OLD."UserId", 'DELETE'); END;
+CREATE TABLE IF NOT EXISTS "ProjectExport" (
+	"RootId"	INTEGER NOT NULL,
+	"ProjectId"	INTEGER NOT NULL,
+	"Title"	TEXT NOT NULL,
+	"Sequence"	INTEGER NOT NULL,
+	FOREIGN KEY("RootId") REFERENCES "Project"("Id") ON DELETE CASCADE,
+	PRIMARY KEY("RootId","ProjectId")
+);
+CREATE TABLE IF NOT EXISTS "ProjectImport" (
+	"RootId"	INTEGER NOT NULL PRIMARY KEY,
+	"Sequence"	INTEGER NOT NULL,
+	FOREIGN KEY("RootId") REFERENCES "Project"("Id") ON DELETE CASCADE
+);
+CREATE TABLE IF NOT EXISTS "ProjectImportSource" (
+	"ProjectId"	INTEGER NOT NULL PRIMARY KEY,
+	"RootId"	INTEGER NOT NULL,
+	"SourceId"	INTEGER NOT NULL,
+	FOREIGN KEY("ProjectId") REFERENCES "Project"("Id") ON DELETE CASCADE,
+	FOREIGN KEY("RootId") REFERENCES "Project"("Id") ON DELETE CASCADE
+);
+CREATE INDEX IF NOT EXISTS "ProjectImportSourceId" ON "ProjectImportSource"("SourceId","RootId");
+CREATE TABLE IF NOT EXISTS "DatabaseIdentity" (
+	"Id"	INTEGER NOT NULL PRIMARY KEY CHECK("Id" = 1),
+	"Uuid"	TEXT NOT NULL
+);
+INSERT OR IGNORE INTO "DatabaseIdentity"("Id","Uuid") VALUES(1, lower(hex(randomblob(16))));
\ No newline at end of file
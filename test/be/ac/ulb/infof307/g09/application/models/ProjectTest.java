@@ -7,7 +7,6 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.*;
@@ -289,17 +288,29 @@ class ProjectTest {
   @Test
   void testUpdateProject() {
     PARENT_PROJECT.updateProject(SUB_TITLE, SUB_DESCRIPTION, SUB_END_DATE, SUB_COLOR);
-    assertEquals(PARENT_PROJECT, new Project(PARENT_PROJECT_ID, SUB_TITLE, SUB_DESCRIPTION, PARENT_START_DATE, SUB_END_DATE, PARENT_INITIAL_DURATION, USER_TEST, null, SUB_COLOR));
+    assertTrue(PARENT_PROJECT.contentEquals(new Project(PARENT_PROJECT_ID, SUB_TITLE, SUB_DESCRIPTION, PARENT_START_DATE, SUB_END_DATE, PARENT_INITIAL_DURATION, USER_TEST, null, SUB_COLOR)));
     PARENT_PROJECT.updateProject(PARENT_TITLE, PARENT_DESCRIPTION, PARENT_END_DATE, PARENT_COLOR);
   }
 
   @Test
-  void testToCsvFormat() {
-    String expectedString = USERNAME + ";" +
-        PARENT_TITLE + ";" +
-        TimeUnit.MILLISECONDS.toHours(PARENT_INITIAL_DURATION) + ";" +
-        TimeUnit.MILLISECONDS.toHours(PARENT_INITIAL_DURATION) + ";" + 0 + ";";
-    assertEquals(PARENT_PROJECT.toCsvFormat(), expectedString);
+  void testCopyTree() {
+    Project project = new Project(PARENT_PROJECT_ID, PARENT_TITLE, PARENT_DESCRIPTION, PARENT_START_DATE,
+        PARENT_END_DATE, PARENT_INITIAL_DURATION, USER_TEST, null, PARENT_COLOR);
+    Project subProject = new Project(SUB_PROJECT_ID, SUB_TITLE, SUB_DESCRIPTION, PARENT_START_DATE,
+        SUB_END_DATE, PARENT_INITIAL_DURATION, USER_TEST, project, SUB_COLOR);
+    project.addSubProjects(subProject);
+    Task task = new Task(1, "task", PARENT_START_DATE, SUB_END_DATE, SUB_PROJECT_ID);
+    subProject.addTask(task);
+
+    Project copy = project.copyTree();
+    task.setDescription("modified");
+    project.addSubProjects(new Project(SUB_PROJECT_ID + 1, SUB_TITLE, SUB_DESCRIPTION, PARENT_START_DATE,
+        SUB_END_DATE, PARENT_INITIAL_DURATION, USER_TEST, project, SUB_COLOR));
+
+    assertTrue(copy.contentEquals(project));
+    assertEquals(1, copy.getSubProjects().size());
+    assertSame(copy, copy.getSubProjects().get(0).getParentProject());
+    assertEquals("task", copy.getSubProjects().get(0).getTasks().get(0).getDescription());
   }
 
   @Test
@@ -347,6 +358,21 @@ class ProjectTest {
     assertEquals(SUB_PROJECT, tmp);
   }
 
+  @Test
+  void testContentEqualsSameParametersSubProject() {
+    Project tmp = new Project(SUB_PROJECT_ID, SUB_TITLE, SUB_DESCRIPTION,
+        SUB_START_DATE, SUB_END_DATE, SUB_INITIAL_DURATION, USER_TEST, PARENT_PROJECT, SUB_COLOR);
+    assertTrue(SUB_PROJECT.contentEquals(tmp));
+  }
+
+  @Test
+  void testContentEqualsDifferentTitle() {
+    Project tmp = new Project(PARENT_PROJECT_ID, SUB_TITLE, PARENT_DESCRIPTION,
+        PARENT_START_DATE, PARENT_END_DATE, PARENT_INITIAL_DURATION, USER_TEST, null, PARENT_COLOR);
+    assertEquals(PARENT_PROJECT, tmp);
+    assertFalse(PARENT_PROJECT.contentEquals(tmp));
+  }
+
   @Test
   void testSetGetCollaborators() {
     ArrayList<User> users = new ArrayList<>();
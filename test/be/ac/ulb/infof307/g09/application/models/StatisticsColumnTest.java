@@ -0,0 +1,70 @@
+package be.ac.ulb.infof307.g09.application.models;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatisticsColumnTest {
+  private static final long HOURS = TimeUnit.HOURS.toMillis(1);
+  private static final User USER_TEST = new User(1, "JohnDoe", "john@doe.com", "Doe", "John", "password");
+
+  private Project createProject() {
+    Project project = new Project(1, "Project", "", 0, 5 * HOURS, 3 * HOURS,
+        USER_TEST, null, Color.BLUE);
+    project.addTask(new Task(1, "first", 0L, HOURS, 1));
+    project.addTask(new Task(2, "second", HOURS, 2 * HOURS, 1));
+    return project;
+  }
+
+  @Test
+  void testGetHeaders() {
+    assertEquals(Arrays.asList("Username", "Project title", "Initial duration (hours)",
+        "Current duration (hours)", "Tasks"),
+        StatisticsColumn.getHeaders(StatisticsColumn.getDefaultColumns()));
+  }
+
+  @Test
+  void testGetRowsProjectColumns() {
+    List<List<String>> rows =
+        StatisticsColumn.getRows(createProject(), StatisticsColumn.getDefaultColumns());
+    assertEquals(Collections.singletonList(Arrays.asList("JohnDoe", "Project", "3", "5", "2")), rows);
+  }
+
+  @Test
+  void testGetRowsTaskColumns() {
+    List<StatisticsColumn> columns =
+        Arrays.asList(StatisticsColumn.PROJECT_TITLE, StatisticsColumn.TASK_DESCRIPTION);
+    List<List<String>> rows = StatisticsColumn.getRows(createProject(), columns);
+    assertEquals(Arrays.asList(Arrays.asList("Project", "first"), Arrays.asList("Project", "second")),
+        rows);
+  }
+
+  @Test
+  void testGetRowsTaskColumnsWithoutTasks() {
+    Project project = new Project(2, "Empty", "", 0, HOURS, HOURS, USER_TEST, null, Color.BLUE);
+    List<StatisticsColumn> columns =
+        Arrays.asList(StatisticsColumn.PROJECT_TITLE, StatisticsColumn.TASK_DESCRIPTION);
+    assertEquals(Collections.singletonList(Arrays.asList("Empty", "")),
+        StatisticsColumn.getRows(project, columns));
+  }
+
+  @Test
+  void testGetRowCount() {
+    List<StatisticsColumn> columns =
+        Arrays.asList(StatisticsColumn.PROJECT_TITLE, StatisticsColumn.TASK_DESCRIPTION);
+    assertEquals(2, StatisticsColumn.getRowCount(createProject(), columns));
+    assertEquals(1, StatisticsColumn.getRowCount(createProject(), StatisticsColumn.getDefaultColumns()));
+    assertEquals(Arrays.asList("Project", "second"), StatisticsColumn.getRow(createProject(), 1, columns));
+  }
+
+  @Test
+  void testHasTaskColumn() {
+    assertFalse(StatisticsColumn.hasTaskColumn(StatisticsColumn.getDefaultColumns()));
+    assertTrue(StatisticsColumn.hasTaskColumn(Collections.singletonList(StatisticsColumn.TASK_END_DATE)));
+  }
+}
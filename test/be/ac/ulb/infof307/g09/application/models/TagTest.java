@@ -45,6 +45,22 @@ class TagTest {
     assertEquals(TAG, tmp);
   }
 
+  @Test
+  void testEqualsSameIdDifferentDescription() {
+    Tag tmp = new Tag(TAG_ID, FALSE_TAG_DESCRIPTION);
+    assertEquals(TAG, tmp);
+  }
+
+  @Test
+  void testContentEqualsSameParameters() {
+    assertTrue(TAG.contentEquals(new Tag(TAG_ID, TAG_DESCRIPTION)));
+  }
+
+  @Test
+  void testContentEqualsSameIdDifferentDescription() {
+    assertFalse(TAG.contentEquals(new Tag(TAG_ID, FALSE_TAG_DESCRIPTION)));
+  }
+
   @Test
   void testToString() {
     assertEquals(TAG.toString(), TAG_DESCRIPTION);
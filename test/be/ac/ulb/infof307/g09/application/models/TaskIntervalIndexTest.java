@@ -0,0 +1,125 @@
+package be.ac.ulb.infof307.g09.application.models;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskIntervalIndexTest {
+  private static final int PROJECT_ID = 1;
+  private static final Task SHORT_TASK = new Task(1, "short", 100L, 200L, PROJECT_ID);
+  private static final Task LONG_TASK = new Task(2, "long", 0L, 1000L, PROJECT_ID);
+  private static final Task LATE_TASK = new Task(3, "late", 500L, 600L, PROJECT_ID);
+
+  private TaskIntervalIndex createIndex() {
+    return new TaskIntervalIndex(Arrays.asList(SHORT_TASK, LONG_TASK, LATE_TASK));
+  }
+
+  @Test
+  void testSize() {
+    assertEquals(3, createIndex().size());
+  }
+
+  @Test
+  void testGetTasksEndingBefore() {
+    assertEquals(Arrays.asList(SHORT_TASK, LATE_TASK), createIndex().getTasksEndingBefore(1000L));
+  }
+
+  @Test
+  void testGetTasksEndingBeforeEmpty() {
+    assertTrue(createIndex().getTasksEndingBefore(200L).isEmpty());
+  }
+
+  @Test
+  void testCountTasksEndingBefore() {
+    assertEquals(3, createIndex().countTasksEndingBefore(1001L));
+  }
+
+  @Test
+  void testGetTasksEndingBetween() {
+    assertEquals(Collections.singletonList(LATE_TASK),
+        createIndex().getTasksEndingBetween(201L, 1000L));
+  }
+
+  @Test
+  void testGetTasksOverlapping() {
+    assertEquals(Arrays.asList(SHORT_TASK, LONG_TASK),
+        createIndex().getTasksOverlapping(150L, 400L));
+  }
+
+  @Test
+  void testGetTasksOverlappingLongTaskOnly() {
+    assertEquals(Collections.singletonList(LONG_TASK),
+        createIndex().getTasksOverlapping(700L, 800L));
+  }
+
+  @Test
+  void testGetTasksOverlappingInvalidWindow() {
+    assertTrue(createIndex().getTasksOverlapping(800L, 700L).isEmpty());
+  }
+
+  @Test
+  void testRemove() {
+    TaskIntervalIndex index = createIndex();
+    index.remove(LATE_TASK);
+    assertEquals(2, index.size());
+    assertEquals(Collections.singletonList(SHORT_TASK), index.getTasksEndingBefore(1000L));
+  }
+
+  @Test
+  void testRemoveLongestTask() {
+    TaskIntervalIndex index = createIndex();
+    index.remove(LONG_TASK);
+    assertTrue(index.getTasksOverlapping(700L, 800L).isEmpty());
+    assertEquals(Collections.singletonList(SHORT_TASK), index.getTasksOverlapping(150L, 400L));
+    assertEquals(2, index.countTasksEndingBefore(1001L));
+  }
+
+  @Test
+  void testManyTasks() {
+    List<Task> tasks = new ArrayList<>();
+    for (int i = 0; i < 500; i++) {
+      tasks.add(new Task(i, "task", i * 7L % 300, i * 7L % 300 + i % 50, PROJECT_ID));
+    }
+    TaskIntervalIndex index = new TaskIntervalIndex(tasks);
+    for (int i = 0; i < 500; i += 3) {
+      index.remove(tasks.get(i));
+    }
+    for (long time = 0; time < 400; time += 13) {
+      int count = 0;
+      int overlapping = 0;
+      for (int i = 0; i < 500; i++) {
+        Task task = tasks.get(i);
+        if (i % 3 != 0 && task.getEndDate() < time) {
+          count++;
+        }
+        if (i % 3 != 0 && task.getStartDate() <= time + 20 && task.getEndDate() >= time) {
+          overlapping++;
+        }
+      }
+      assertEquals(count, index.countTasksEndingBefore(time));
+      assertEquals(count, index.getTasksEndingBefore(time).size());
+      assertEquals(overlapping, index.getTasksOverlapping(time, time + 20).size());
+    }
+  }
+
+  @Test
+  void testRemoveNotIndexedNoError() {
+    TaskIntervalIndex index = createIndex();
+    index.remove(new Task(4, "other", 0L, 10L, PROJECT_ID));
+    assertEquals(3, index.size());
+  }
+
+  @Test
+  void testAddMovesModifiedTask() {
+    TaskIntervalIndex index = createIndex();
+    Task modified = new Task(SHORT_TASK.getId(), "short", 100L, 2000L, PROJECT_ID);
+    index.add(modified);
+    assertEquals(3, index.size());
+    assertEquals(Collections.singletonList(LATE_TASK), index.getTasksEndingBefore(1000L));
+  }
+}
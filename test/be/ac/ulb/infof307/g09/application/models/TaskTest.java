@@ -51,6 +51,19 @@ class TaskTest {
     assertEquals(TASK, tmp);
   }
 
+  @Test
+  void testContentEqualsNewObjectSame() {
+    Task tmp = new Task(TASK_ID, DESCRIPTION, START_DATE, END_DATE, PROJECT_ID);
+    assertTrue(TASK.contentEquals(tmp));
+  }
+
+  @Test
+  void testContentEqualsDifferentDescription() {
+    Task tmp = new Task(TASK_ID, "", START_DATE, END_DATE, PROJECT_ID);
+    assertEquals(TASK, tmp);
+    assertFalse(TASK.contentEquals(tmp));
+  }
+
   @Test
   void testSetGetProjectId() {
     TASK.setProjectId(3);
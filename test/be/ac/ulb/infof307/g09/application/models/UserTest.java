@@ -127,7 +127,26 @@ class UserTest {
   @Test
   void testEqualsNewObjectDifferent() {
     User tmp = new User(USER_ID, NONEXISTENT_USERNAME, VALID_EMAIL, LAST_NAME, FIRST_NAME, PASSWORD);
-    assertNotEquals(USER_TEST, tmp);
+    assertEquals(USER_TEST, tmp);
+  }
+
+  @Test
+  void testEqualsUnsavedUsers() {
+    User unsaved = new User(-1, USERNAME, VALID_EMAIL, LAST_NAME, FIRST_NAME, PASSWORD);
+    assertEquals(unsaved, unsaved);
+    assertNotEquals(unsaved, new User(-1, USERNAME, VALID_EMAIL, LAST_NAME, FIRST_NAME, PASSWORD));
+  }
+
+  @Test
+  void testContentEqualsNewObjectSame() {
+    User tmp = new User(USER_ID, USERNAME, VALID_EMAIL, LAST_NAME, FIRST_NAME, PASSWORD);
+    assertTrue(USER_TEST.contentEquals(tmp));
+  }
+
+  @Test
+  void testContentEqualsNewObjectDifferent() {
+    User tmp = new User(USER_ID, NONEXISTENT_USERNAME, VALID_EMAIL, LAST_NAME, FIRST_NAME, PASSWORD);
+    assertFalse(USER_TEST.contentEquals(tmp));
   }
 
   @Test
@@ -277,6 +296,40 @@ class UserTest {
     USER_TEST.setProjectList(new ArrayList<>());
   }
 
+  @Test
+  void testGetProjectByIdSubSubProject() {
+    SUB_PROJECT.addSubProjects(SUB_SUB_PROJECT);
+    PROJECT_TEST.addSubProjects(SUB_PROJECT);
+    USER_TEST.addProjectList(PROJECT_TEST);
+    assertEquals(SUB_SUB_PROJECT, USER_TEST.getProjectById(SUB_SUB_PROJECT_ID));
+    USER_TEST.setProjectList(new ArrayList<>());
+    PROJECT_TEST.setSubProjects(new ArrayList<>());
+    SUB_PROJECT.setSubProjects(new ArrayList<>());
+  }
+
+  @Test
+  void testRemoveSubProjectRemovesDescendants() {
+    SUB_PROJECT.addSubProjects(SUB_SUB_PROJECT);
+    PROJECT_TEST.addSubProjects(SUB_PROJECT);
+    USER_TEST.addProjectList(PROJECT_TEST);
+    USER_TEST.removeSubProject(SUB_PROJECT);
+    assertNull(USER_TEST.getProject(SUB_PROJECT));
+    assertNull(USER_TEST.getProject(SUB_SUB_PROJECT));
+    USER_TEST.setProjectList(new ArrayList<>());
+    PROJECT_TEST.setSubProjects(new ArrayList<>());
+    SUB_PROJECT.setSubProjects(new ArrayList<>());
+  }
+
+  @Test
+  void testAddSubProject() {
+    USER_TEST.addProjectList(PROJECT_TEST);
+    USER_TEST.addSubProject(SUB_PROJECT);
+    assertEquals(SUB_PROJECT, USER_TEST.getProject(SUB_PROJECT));
+    assertTrue(PROJECT_TEST.getSubProjects().contains(SUB_PROJECT));
+    USER_TEST.setProjectList(new ArrayList<>());
+    PROJECT_TEST.setSubProjects(new ArrayList<>());
+  }
+
   @Test
   void testIsUserInvalidFalse() {
     assertFalse(USER_TEST.isUserInvalid(PASSWORD));
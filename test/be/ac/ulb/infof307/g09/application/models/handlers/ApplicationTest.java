@@ -131,24 +131,6 @@ class ApplicationTest {
     assertEquals(userProjects, application.getUserParentProjects());
   }
 
-  @Test
-  void testGetCollaboratorsByProjectWaiting()
-      throws DatabaseException, ConnectionFailedException {
-    Application application = new Application();
-    User user = new User(-1, TEST_USER, FIRST_EMAIL_FR, UNORIGINAL_LAST_NAME,
-        UNORIGINAL_FIRST_NAME, UNORIGINAL_PASSWORD);
-    application.register(user);
-
-    Project project = new Project(PARENT_PROJECT_ID, PARENT_TITLE, PARENT_DESCRIPTION,
-        PARENT_START_DATE, PARENT_END_DATE, PARENT_INITIAL_DURATION, user, null, PARENT_COLOR);
-    project = ProjectDatabase.getInstance().insertProject(project);
-
-    db.insertProjectCollaboratorRow(project, collaborator1);
-
-    List<User> userList = application.getCollaboratorsByProjectWaiting(project);
-    assertTrue(userList.contains(collaborator1));
-  }
-
   @Test
   void testGetCollaboratorsInvitedByProject()
       throws DatabaseException, ConnectionFailedException {
@@ -459,14 +441,22 @@ class ApplicationTest {
   }
 
   @Test
-  void testSetGetState() throws DatabaseException, ConnectionFailedException {
+  void testChangesPublished() throws DatabaseException, ConnectionFailedException {
     Application application = new Application();
     User user = new User(USER_ID, USERNAME, EMAIL, LAST_NAME, FIRST_NAME, PASSWORD);
     application.register(user);
     application.connect(user.getUsername(), user.getPassword());
+    List<ModelEvent> events = new ArrayList<>();
+    application.subscribe(events::addAll, State.PROJECT_CREATED, State.PROJECT_MODIFIED);
 
-    application.setState(State.PROJECT_MODIFIED);
-    assertEquals(application.getState(), State.PROJECT_MODIFIED);
+    Project project = application.insertProject(new Project(PARENT_PROJECT_ID, PARENT_TITLE, PARENT_DESCRIPTION,
+        PARENT_START_DATE, PARENT_END_DATE, PARENT_INITIAL_DURATION, user, null, PARENT_COLOR), false);
+    application.updateProject(project, SUB_TITLE, SUB_DESCRIPTION, SUB_END_DATE, SUB_COLOR);
+
+    assertEquals(2, events.size());
+    assertEquals(State.PROJECT_CREATED, events.get(0).getType());
+    assertEquals(State.PROJECT_MODIFIED, events.get(1).getType());
+    assertEquals(project.getId(), events.get(1).getProjectId());
   }
 
   @Test
@@ -1050,74 +1040,6 @@ class ApplicationTest {
     assertEquals(application.getCollaboratorsByProject(projectTest), users);
   }
 
-  @Test
-  void testGetProjectsWithInvitationsRefused() throws DatabaseException, ConnectionFailedException {
-    Application application = new Application();
-
-    User user = new User(USER_ID, USERNAME, EMAIL, LAST_NAME, FIRST_NAME, PASSWORD);
-
-    User collaborator = new User(COLLABORATOR_USER_ID, COLLABORATOR_USERNAME, COLLABORATOR_EMAIL,
-        COLLABORATOR_LAST_NAME, COLLABORATOR_FIRST_NAME, COLLABORATOR_PASSWORD);
-
-    Project projectTest = new Project(PARENT_PROJECT_ID, PARENT_TITLE, PARENT_DESCRIPTION,
-        PARENT_START_DATE, PARENT_END_DATE, PARENT_INITIAL_DURATION, user, null, PARENT_COLOR);
-
-    application.register(user);
-    application.register(collaborator);
-    application.connect(user.getUsername(), user.getPassword());
-
-    application.insertProject(projectTest, false);
-    application.insertProjectCollaboratorRow(projectTest, collaborator);
-    application.updateAcceptedColumn(projectTest.getId(), collaborator, 0);
-    List<Project> listProjects = application.getProjectsWithInvitationsRefused(user);
-    assertTrue(listProjects.contains(projectTest));
-  }
-
-  @Test
-  void testGetProjectsWithInvitationsAccepted() throws DatabaseException, ConnectionFailedException {
-    Application application = new Application();
-
-    User user = new User(USER_ID, USERNAME, EMAIL, LAST_NAME, FIRST_NAME, PASSWORD);
-
-    User collaborator = new User(COLLABORATOR_USER_ID, COLLABORATOR_USERNAME, COLLABORATOR_EMAIL,
-        COLLABORATOR_LAST_NAME, COLLABORATOR_FIRST_NAME, COLLABORATOR_PASSWORD);
-
-    Project projectTest = new Project(PARENT_PROJECT_ID, PARENT_TITLE, PARENT_DESCRIPTION,
-        PARENT_START_DATE, PARENT_END_DATE, PARENT_INITIAL_DURATION, user, null, PARENT_COLOR);
-
-    application.register(user);
-    application.register(collaborator);
-    application.connect(user.getUsername(), user.getPassword());
-
-    application.insertProject(projectTest, false);
-    application.insertProjectCollaboratorRow(projectTest, collaborator);
-    application.updateAcceptedColumn(projectTest.getId(), collaborator, 1);
-    List<Project> listProjects = application.getProjectsWithInvitationsAccepted(user);
-    assertTrue(listProjects.contains(projectTest));
-  }
-
-  @Test
-  void testGetProjectsWithInvitationsWaiting() throws DatabaseException, ConnectionFailedException {
-    Application application = new Application();
-
-    User user = new User(USER_ID, USERNAME, EMAIL, LAST_NAME, FIRST_NAME, PASSWORD);
-
-    User collaborator = new User(COLLABORATOR_USER_ID, COLLABORATOR_USERNAME, COLLABORATOR_EMAIL,
-        COLLABORATOR_LAST_NAME, COLLABORATOR_FIRST_NAME, COLLABORATOR_PASSWORD);
-
-    Project projectTest = new Project(PARENT_PROJECT_ID, PARENT_TITLE, PARENT_DESCRIPTION,
-        PARENT_START_DATE, PARENT_END_DATE, PARENT_INITIAL_DURATION, user, null, PARENT_COLOR);
-
-    application.register(user);
-    application.register(collaborator);
-    application.connect(user.getUsername(), user.getPassword());
-
-    application.insertProject(projectTest, false);
-    application.insertProjectCollaboratorRow(projectTest, collaborator);
-    List<Project> listProjects = application.getProjectsWithInvitationsWaiting(user);
-    assertTrue(listProjects.contains(projectTest));
-  }
-
   @Test
   void testLoadUsersFromDatabase() throws DatabaseException, ConnectionFailedException {
     Application application = new Application();
@@ -0,0 +1,111 @@
+package be.ac.ulb.infof307.g09.application.models.handlers;
+
+import be.ac.ulb.infof307.g09.application.models.Project;
+import be.ac.ulb.infof307.g09.application.models.Task;
+import be.ac.ulb.infof307.g09.application.utilities.DateTimeUtils;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeadlineSchedulerTest {
+  private static final long TICK_DURATION = 60 * 1000;
+  private static final int WHEEL_SIZE = 4;
+  private static final int PROJECT_ID = 1;
+
+  private final List<Task> approachingTasks = new ArrayList<>();
+  private final List<Task> reachedTasks = new ArrayList<>();
+
+  private DeadlineScheduler createScheduler() {
+    DeadlineScheduler scheduler = new DeadlineScheduler(TICK_DURATION, WHEEL_SIZE);
+    scheduler.setListener(new DeadlineScheduler.Listener() {
+      @Override
+      public void deadlineApproaching(Task task) {
+        approachingTasks.add(task);
+      }
+
+      @Override
+      public void deadlineReached(Task task) {
+        reachedTasks.add(task);
+      }
+    });
+    return scheduler;
+  }
+
+  private Task createTaskEndingIn(int id, long delay) {
+    long current = DateTimeUtils.getCurrentTime();
+    return new Task(id, "task", current, current + delay, PROJECT_ID);
+  }
+
+  @Test
+  void testDeadlineReached() {
+    DeadlineScheduler scheduler = createScheduler();
+    Task task = createTaskEndingIn(1, TICK_DURATION + TICK_DURATION / 2);
+    scheduler.schedule(task);
+    assertEquals(1, scheduler.getPendingCount());
+    scheduler.tick();
+    assertTrue(reachedTasks.isEmpty());
+    scheduler.tick();
+    assertEquals(1, reachedTasks.size());
+    assertEquals(task, reachedTasks.get(0));
+    assertEquals(0, scheduler.getPendingCount());
+  }
+
+  @Test
+  void testDeadlineReachedAfterSeveralRounds() {
+    DeadlineScheduler scheduler = createScheduler();
+    scheduler.schedule(createTaskEndingIn(1, (WHEEL_SIZE * 2 + 1) * TICK_DURATION - 1000));
+    for (int i = 0; i < WHEEL_SIZE * 2; i++) {
+      scheduler.tick();
+    }
+    assertTrue(reachedTasks.isEmpty());
+    scheduler.tick();
+    assertEquals(1, reachedTasks.size());
+  }
+
+  @Test
+  void testDeadlineApproaching() {
+    DeadlineScheduler scheduler = createScheduler();
+    Task task = createTaskEndingIn(1, Project.MILLISECONDS_IN_DAY + TICK_DURATION / 2);
+    scheduler.schedule(task);
+    assertEquals(2, scheduler.getPendingCount());
+    scheduler.tick();
+    assertEquals(1, approachingTasks.size());
+    assertTrue(reachedTasks.isEmpty());
+    assertEquals(1, scheduler.getPendingCount());
+  }
+
+  @Test
+  void testPastDeadlineNotScheduled() {
+    DeadlineScheduler scheduler = createScheduler();
+    scheduler.schedule(createTaskEndingIn(1, -TICK_DURATION));
+    assertEquals(0, scheduler.getPendingCount());
+  }
+
+  @Test
+  void testCancel() {
+    DeadlineScheduler scheduler = createScheduler();
+    Task task = createTaskEndingIn(1, TICK_DURATION / 2);
+    scheduler.schedule(task);
+    scheduler.cancel(task);
+    scheduler.tick();
+    assertTrue(reachedTasks.isEmpty());
+    assertEquals(0, scheduler.getPendingCount());
+  }
+
+  @Test
+  void testScheduleReplacesPreviousDeadline() {
+    DeadlineScheduler scheduler = createScheduler();
+    Task task = createTaskEndingIn(1, TICK_DURATION / 2);
+    scheduler.schedule(task);
+    task.setEndDate(task.getEndDate() + TICK_DURATION);
+    scheduler.schedule(task);
+    assertEquals(1, scheduler.getPendingCount());
+    scheduler.tick();
+    assertTrue(reachedTasks.isEmpty());
+    scheduler.tick();
+    assertEquals(1, reachedTasks.size());
+  }
+}
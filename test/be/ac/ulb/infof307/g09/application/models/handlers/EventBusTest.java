@@ -0,0 +1,107 @@
+package be.ac.ulb.infof307.g09.application.models.handlers;
+
+import be.ac.ulb.infof307.g09.application.models.Color;
+import be.ac.ulb.infof307.g09.application.models.Project;
+import be.ac.ulb.infof307.g09.application.models.State;
+import be.ac.ulb.infof307.g09.application.models.Task;
+import be.ac.ulb.infof307.g09.application.models.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventBusTest {
+  private static final long START_DATE = 1639047600000L; //9-12-2021 12:00
+  private static final long END_DATE = 1639306800000L; //12-12-2021 12:00
+
+  private EventBus eventBus;
+  private Project project;
+  private Task task;
+  private List<Runnable> queuedDeliveries;
+
+  @BeforeEach
+  void setUp() {
+    eventBus = new EventBus();
+    User user = new User(1, "JohnDoe", "john@doe.com", "Doe", "John", "password");
+    project = new Project(1, "Project", "", START_DATE, END_DATE, END_DATE - START_DATE,
+        user, null, Color.BLUE);
+    task = new Task(2, "Task", START_DATE, END_DATE, 1);
+    queuedDeliveries = new ArrayList<>();
+  }
+
+  @Test
+  void testOnlySubscribedTypesDelivered() {
+    List<ModelEvent> events = new ArrayList<>();
+    eventBus.subscribe(events::addAll, State.TASK_CREATED);
+
+    eventBus.publish(new ModelEvent(State.PROJECT_CREATED, project));
+    eventBus.publish(new ModelEvent(State.TASK_CREATED, task));
+
+    assertEquals(1, events.size());
+    assertSame(task, events.get(0).getSubject(Task.class));
+    assertNull(events.get(0).getSubject(Project.class));
+    assertEquals(2, events.get(0).getSubjectId());
+    assertEquals(1, events.get(0).getProjectId());
+  }
+
+  @Test
+  void testBurstDeliveredInOneBatch() {
+    List<List<ModelEvent>> batches = new ArrayList<>();
+    eventBus.subscribe(batches::add, queuedDeliveries::add,
+        State.PROJECT_MODIFIED, State.TASK_MODIFIED);
+
+    eventBus.publish(new ModelEvent(State.PROJECT_MODIFIED, project));
+    eventBus.publish(new ModelEvent(State.TASK_MODIFIED, task));
+    eventBus.publish(new ModelEvent(State.PROJECT_MODIFIED, project));
+    assertTrue(batches.isEmpty());
+    assertEquals(1, queuedDeliveries.size());
+    queuedDeliveries.get(0).run();
+
+    assertEquals(1, batches.size());
+    assertEquals(2, batches.get(0).size());
+    assertEquals(State.TASK_MODIFIED, batches.get(0).get(0).getType());
+    assertEquals(State.PROJECT_MODIFIED, batches.get(0).get(1).getType());
+  }
+
+  @Test
+  void testDifferentChangesNotCoalesced() {
+    List<ModelEvent> events = new ArrayList<>();
+    eventBus.subscribe(events::addAll, queuedDeliveries::add,
+        State.PROJECT_DELETED, State.PROJECT_CREATED);
+
+    eventBus.publish(new ModelEvent(State.PROJECT_DELETED, project));
+    eventBus.publish(new ModelEvent(State.PROJECT_CREATED, project));
+    queuedDeliveries.get(0).run();
+
+    assertEquals(2, events.size());
+    assertEquals(State.PROJECT_DELETED, events.get(0).getType());
+  }
+
+  @Test
+  void testNextBurstScheduledAfterDelivery() {
+    List<List<ModelEvent>> batches = new ArrayList<>();
+    eventBus.subscribe(batches::add, queuedDeliveries::add, State.TASK_CREATED);
+
+    eventBus.publish(new ModelEvent(State.TASK_CREATED, task));
+    queuedDeliveries.get(0).run();
+    eventBus.publish(new ModelEvent(State.TASK_CREATED, task));
+
+    assertEquals(2, queuedDeliveries.size());
+    queuedDeliveries.get(1).run();
+    assertEquals(2, batches.size());
+  }
+
+  @Test
+  void testCancel() {
+    List<ModelEvent> events = new ArrayList<>();
+    EventBus.Subscription subscription = eventBus.subscribe(events::addAll, State.TASK_DELETED);
+
+    subscription.cancel();
+    eventBus.publish(new ModelEvent(State.TASK_DELETED, task));
+
+    assertTrue(events.isEmpty());
+  }
+}
@@ -0,0 +1,119 @@
+package be.ac.ulb.infof307.g09.application.models.handlers;
+
+import be.ac.ulb.infof307.g09.application.models.Color;
+import be.ac.ulb.infof307.g09.application.models.Project;
+import be.ac.ulb.infof307.g09.application.models.User;
+import be.ac.ulb.infof307.g09.archive.ProjectArchiveUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProjectHandlerTest {
+  private static final long START_DATE = 1639047600000L; //9-12-2021 12:00
+  private static final long END_DATE = 1639306800000L; //12-12-2021 12:00
+
+  private User user;
+  private ProjectHandler projectHandler;
+
+  private Project createProject(int id, String title, User author, Project parent) {
+    return new Project(id, title, "", START_DATE, END_DATE, END_DATE - START_DATE,
+        author, parent, Color.BLUE);
+  }
+
+  private List<Project> findImportConflicts(Project imported) {
+    return projectHandler.findImportConflicts(Collections.singletonList(imported)).get(0);
+  }
+
+  @BeforeEach
+  void setUp() {
+    user = new User(1, "JohnDoe", "john@doe.com", "Doe", "John", "password");
+    Project project = createProject(1, "Project", user, null);
+    project.addSubProjects(createProject(2, "Sub project", user, project));
+    user.setProjectList(new ArrayList<>(Collections.singletonList(project)));
+    projectHandler = new ProjectHandler(user);
+  }
+
+  @Test
+  void testNoImportConflict() {
+    Project imported = createProject(-1, "New project", user, null);
+    imported.addSubProjects(createProject(-1, "New sub project", user, imported));
+
+    assertTrue(findImportConflicts(imported).isEmpty());
+  }
+
+  @Test
+  void testImportConflictsInTree() {
+    Project imported = createProject(-1, "New project", user, null);
+    Project conflictingSubProject = createProject(-1, "Sub project", user, imported);
+    Project conflictingSubSubProject = createProject(-1, "Project", user, conflictingSubProject);
+    conflictingSubProject.addSubProjects(conflictingSubSubProject);
+    imported.addSubProjects(conflictingSubProject);
+
+    assertEquals(Arrays.asList(conflictingSubProject, conflictingSubSubProject),
+        findImportConflicts(imported));
+  }
+
+  @Test
+  void testSameTitleOtherAuthorNoConflict() {
+    User otherUser = new User(2, "JaneDoe", "jane@doe.com", "Doe", "Jane", "password");
+    Project imported = createProject(-1, "Project", otherUser, null);
+
+    assertTrue(findImportConflicts(imported).isEmpty());
+  }
+
+  @Test
+  void testImportedAuthorWithOtherId() throws IOException, ClassNotFoundException {
+    User exportedAuthor = new User(7, user.getUsername(), user.getEmail(), user.getLastName(),
+        user.getFirstName(), user.getPassword());
+    Project exported = createProject(3, "Project", exportedAuthor, null);
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    ProjectArchiveUtils.writeTarGz(output, "3_Project", Collections.singletonList(exported));
+    Project imported =
+        ProjectArchiveUtils.readTarGz(new ByteArrayInputStream(output.toByteArray())).get(0);
+
+    assertEquals(7, imported.getAuthor().getId());
+    assertTrue(projectHandler.isAuthoredByUser(imported));
+    assertEquals(Collections.singletonList(imported), findImportConflicts(imported));
+  }
+
+  @Test
+  void testImportedOtherAuthorWithSameId() {
+    User otherUser = new User(user.getId(), "JaneDoe", "jane@doe.com", "Doe", "Jane", "password");
+    Project imported = createProject(-1, "Project", otherUser, null);
+
+    assertFalse(projectHandler.isAuthoredByUser(imported));
+    assertTrue(findImportConflicts(imported).isEmpty());
+  }
+
+  @Test
+  void testImportConflictsBetweenImportedTrees() {
+    Project first = createProject(-1, "New project", user, null);
+    Project second = createProject(-1, "Other project", user, null);
+    Project conflictingSubProject = createProject(-1, "New project", user, second);
+    second.addSubProjects(conflictingSubProject);
+    Project third = createProject(-1, "Other project", user, null);
+
+    assertEquals(Arrays.asList(Collections.emptyList(),
+        Collections.singletonList(conflictingSubProject), Collections.emptyList()),
+        projectHandler.findImportConflicts(Arrays.asList(first, second, third)));
+  }
+
+  @Test
+  void testOtherAuthorTreeNotIndexed() {
+    User otherUser = new User(2, "JaneDoe", "jane@doe.com", "Doe", "Jane", "password");
+    Project first = createProject(-1, "New project", otherUser, null);
+    Project second = createProject(-1, "New project", otherUser, null);
+
+    assertEquals(Arrays.asList(Collections.emptyList(), Collections.emptyList()),
+        projectHandler.findImportConflicts(Arrays.asList(first, second)));
+  }
+}
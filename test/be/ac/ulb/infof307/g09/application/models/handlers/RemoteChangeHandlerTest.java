@@ -0,0 +1,174 @@
+package be.ac.ulb.infof307.g09.application.models.handlers;
+
+import be.ac.ulb.infof307.g09.application.models.Color;
+import be.ac.ulb.infof307.g09.application.models.Project;
+import be.ac.ulb.infof307.g09.application.models.State;
+import be.ac.ulb.infof307.g09.application.models.Task;
+import be.ac.ulb.infof307.g09.application.models.User;
+import be.ac.ulb.infof307.g09.application.utilities.DateTimeUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RemoteChangeHandlerTest {
+  private static final int HOUR = 60 * 60 * 1000;
+  private static final int PROJECT_ID = 1;
+  private static final int SUB_PROJECT_ID = 2;
+  private static final int SHARED_PROJECT_ID = 3;
+
+  private User user;
+  private User author;
+  private Project project;
+  private Project subProject;
+  private Project sharedProject;
+  private Task task;
+  private long current;
+  private List<State> published;
+  private List<Object> subjects;
+  private RemoteChangeHandler remoteChangeHandler;
+
+  @BeforeEach
+  void setUp() {
+    current = DateTimeUtils.getCurrentTime();
+    user = new User(1, "JohnDoe", "john@doe.com", "Doe", "John", "password");
+    author = new User(2, "JaneDoe", "jane@doe.com", "Doe", "Jane", "password");
+    project = createProject(PROJECT_ID, "Project", user, null);
+    subProject = createProject(SUB_PROJECT_ID, "Sub project", user, project);
+    project.addSubProjects(subProject);
+    task = new Task(1, "task", current, current + HOUR, PROJECT_ID);
+    project.addTask(task);
+    sharedProject = createProject(SHARED_PROJECT_ID, "Shared project", author, null);
+    sharedProject.setCollaborators(new ArrayList<>(Collections.singletonList(user)));
+    user.getAuthorProjects().add(project);
+    user.setProjectList(new ArrayList<>(Arrays.asList(project, sharedProject)));
+
+    published = new ArrayList<>();
+    subjects = new ArrayList<>();
+    remoteChangeHandler = new RemoteChangeHandler(user, new TaskHandler(user), (type, subject) -> {
+      published.add(type);
+      subjects.add(subject);
+    });
+  }
+
+  private Project createProject(int id, String title, User projectAuthor, Project parent) {
+    return new Project(id, title, "", current, current + 10 * HOUR, 10 * HOUR,
+        projectAuthor, parent, Color.BLUE);
+  }
+
+  @Test
+  void testTaskCreated() {
+    RemoteChangeHandler.RemoteChanges changes = remoteChangeHandler.createChanges(1);
+    Task created = new Task(2, "created", current, current + HOUR, SUB_PROJECT_ID);
+    changes.putTask(2, created, SUB_PROJECT_ID);
+    remoteChangeHandler.apply(changes);
+    assertEquals(Collections.singletonList(State.TASK_CREATED), published);
+    assertTrue(subProject.getTasks().contains(created));
+  }
+
+  @Test
+  void testTaskModified() {
+    RemoteChangeHandler.RemoteChanges changes = remoteChangeHandler.createChanges(1);
+    changes.putTask(1, new Task(1, "modified", current, current + 2 * HOUR, PROJECT_ID),
+        PROJECT_ID);
+    remoteChangeHandler.apply(changes);
+    assertEquals(Collections.singletonList(State.TASK_MODIFIED), published);
+    assertSame(task, subjects.get(0));
+    assertEquals("modified", task.getDescription());
+    assertEquals(current + 2 * HOUR, (long) task.getEndDate());
+  }
+
+  @Test
+  void testTaskUnchanged() {
+    RemoteChangeHandler.RemoteChanges changes = remoteChangeHandler.createChanges(1);
+    changes.putTask(1, new Task(1, "task", current, current + HOUR, PROJECT_ID), PROJECT_ID);
+    remoteChangeHandler.apply(changes);
+    assertTrue(published.isEmpty());
+  }
+
+  @Test
+  void testTaskDeleted() {
+    RemoteChangeHandler.RemoteChanges changes = remoteChangeHandler.createChanges(1);
+    changes.putTask(1, null, PROJECT_ID);
+    remoteChangeHandler.apply(changes);
+    assertEquals(Collections.singletonList(State.TASK_DELETED), published);
+    assertFalse(project.getTasks().contains(task));
+  }
+
+  @Test
+  void testSubProjectCreated() {
+    RemoteChangeHandler.RemoteChanges changes = remoteChangeHandler.createChanges(1);
+    Project created = createProject(4, "Created", user, null);
+    changes.putProject(4, created, SUB_PROJECT_ID);
+    remoteChangeHandler.apply(changes);
+    assertEquals(Collections.singletonList(State.PROJECT_CREATED), published);
+    assertSame(created, user.getProjectById(4));
+    assertTrue(subProject.getSubProjects().contains(created));
+  }
+
+  @Test
+  void testProjectModified() {
+    RemoteChangeHandler.RemoteChanges changes = remoteChangeHandler.createChanges(1);
+    changes.putProject(PROJECT_ID, createProject(PROJECT_ID, "Renamed", user, null), null);
+    remoteChangeHandler.apply(changes);
+    assertEquals(Collections.singletonList(State.PROJECT_MODIFIED), published);
+    assertEquals("Renamed", project.getTitle());
+  }
+
+  @Test
+  void testProjectDeleted() {
+    RemoteChangeHandler.RemoteChanges changes = remoteChangeHandler.createChanges(1);
+    changes.putProject(SUB_PROJECT_ID, null, null);
+    remoteChangeHandler.apply(changes);
+    assertEquals(Collections.singletonList(State.PROJECT_DELETED), published);
+    assertNull(user.getProjectById(SUB_PROJECT_ID));
+    assertFalse(project.getSubProjects().contains(subProject));
+  }
+
+  @Test
+  void testCollaborationAdded() {
+    RemoteChangeHandler.RemoteChanges changes = remoteChangeHandler.createChanges(1);
+    Project tree = createProject(5, "Invited", author, null);
+    tree.addTask(new Task(3, "shared task", current, current + HOUR, 5));
+    changes.putCollaboration(5, tree);
+    remoteChangeHandler.apply(changes);
+    assertEquals(Collections.singletonList(State.PROJECT_CREATED), published);
+    assertSame(tree, user.getProjectById(5));
+    assertTrue(user.getProjectList().contains(tree));
+  }
+
+  @Test
+  void testCollaborationRemoved() {
+    RemoteChangeHandler.RemoteChanges changes = remoteChangeHandler.createChanges(1);
+    changes.putCollaboration(SHARED_PROJECT_ID, null);
+    remoteChangeHandler.apply(changes);
+    assertEquals(Collections.singletonList(State.COLLABORATOR_REMOVED), published);
+    assertNull(user.getProjectById(SHARED_PROJECT_ID));
+    assertFalse(sharedProject.getCollaborators().contains(user));
+  }
+
+  @Test
+  void testChangesReadBeforeLocalWriteSkipped() {
+    remoteChangeHandler.start(0, Runnable::run, HOUR);
+    try {
+      RemoteChangeHandler.RemoteChanges changes = remoteChangeHandler.createChanges(1);
+      changes.putTask(1, null, PROJECT_ID);
+      remoteChangeHandler.recordLocalChange();
+      remoteChangeHandler.applyChanges(changes);
+      assertTrue(published.isEmpty());
+      assertTrue(project.getTasks().contains(task));
+
+      changes = remoteChangeHandler.createChanges(1);
+      changes.putTask(1, null, PROJECT_ID);
+      remoteChangeHandler.applyChanges(changes);
+      assertEquals(Collections.singletonList(State.TASK_DELETED), published);
+    } finally {
+      remoteChangeHandler.stop();
+    }
+  }
+}
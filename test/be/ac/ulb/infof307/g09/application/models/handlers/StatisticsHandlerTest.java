@@ -0,0 +1,240 @@
+package be.ac.ulb.infof307.g09.application.models.handlers;
+
+import be.ac.ulb.infof307.g09.application.models.Color;
+import be.ac.ulb.infof307.g09.application.models.Project;
+import be.ac.ulb.infof307.g09.application.models.State;
+import be.ac.ulb.infof307.g09.application.models.Task;
+import be.ac.ulb.infof307.g09.application.models.User;
+import be.ac.ulb.infof307.g09.application.utilities.DateTimeUtils;
+import javafx.util.Pair;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.function.LongSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatisticsHandlerTest {
+  private static final int HOUR = 60 * 60 * 1000;
+  private static final int PROJECT_ID = 1;
+  private static final int SUB_PROJECT_ID = 2;
+  private static final long PROJECT_DURATION = 10 * HOUR;
+  private static final long SUB_PROJECT_DURATION = 4 * HOUR;
+
+  private User user;
+  private Project project;
+  private Project subProject;
+  private long current;
+
+  @BeforeEach
+  void setUp() {
+    current = DateTimeUtils.getCurrentTime();
+    user = new User(1, "JohnDoe", "john@doe.com", "Doe", "John", "password");
+    project = new Project(PROJECT_ID, "Project", "", current, current + PROJECT_DURATION,
+        PROJECT_DURATION, user, null, Color.BLUE);
+    subProject = new Project(SUB_PROJECT_ID, "Sub project", "", current,
+        current + SUB_PROJECT_DURATION, SUB_PROJECT_DURATION, user, project, Color.GREEN);
+    project.addSubProjects(subProject);
+    project.addTask(new Task(1, "done", current - 2 * HOUR, current - HOUR, PROJECT_ID));
+    project.addTask(new Task(2, "ongoing", current, current + HOUR, PROJECT_ID));
+    subProject.addTask(new Task(3, "ongoing", current, current + 2 * HOUR, SUB_PROJECT_ID));
+    user.setProjectList(new ArrayList<>(Arrays.asList(project)));
+  }
+
+  @Test
+  void testInitialTotals() {
+    StatisticsHandler statisticsHandler = new StatisticsHandler(user);
+    assertEquals(PROJECT_DURATION + SUB_PROJECT_DURATION, statisticsHandler.getTotalTime());
+    assertEquals(new Pair<>(1, 2), statisticsHandler.getTotalTasksCount());
+    assertEquals(new Pair<>(1, 1), statisticsHandler.getProjectTasksCount(project));
+    assertEquals(new Pair<>(0, 1), statisticsHandler.getProjectTasksCount(subProject));
+  }
+
+  @Test
+  void testTaskCreated() {
+    StatisticsHandler statisticsHandler = new StatisticsHandler(user);
+    Task task = new Task(4, "new", current - 2 * HOUR, current - HOUR, SUB_PROJECT_ID);
+    subProject.addTask(task);
+    statisticsHandler.update(State.TASK_CREATED, task);
+    assertEquals(new Pair<>(2, 2), statisticsHandler.getTotalTasksCount());
+    assertEquals(new Pair<>(1, 1), statisticsHandler.getProjectTasksCount(subProject));
+  }
+
+  @Test
+  void testTaskModified() {
+    StatisticsHandler statisticsHandler = new StatisticsHandler(user);
+    Task task = project.getTasks().get(1);
+    task.setEndDate(current - HOUR / 2);
+    statisticsHandler.update(State.TASK_MODIFIED, task);
+    assertEquals(new Pair<>(2, 0), statisticsHandler.getProjectTasksCount(project));
+    assertEquals(new Pair<>(2, 1), statisticsHandler.getTotalTasksCount());
+  }
+
+  @Test
+  void testTaskDeleted() {
+    StatisticsHandler statisticsHandler = new StatisticsHandler(user);
+    Task task = project.getTasks().get(0);
+    project.removeTask(task);
+    statisticsHandler.update(State.TASK_DELETED, task);
+    assertEquals(new Pair<>(0, 1), statisticsHandler.getProjectTasksCount(project));
+    assertEquals(new Pair<>(0, 2), statisticsHandler.getTotalTasksCount());
+  }
+
+  @Test
+  void testProjectModified() {
+    StatisticsHandler statisticsHandler = new StatisticsHandler(user);
+    subProject.setEndDate(current + 2 * SUB_PROJECT_DURATION);
+    statisticsHandler.update(State.PROJECT_MODIFIED, subProject);
+    assertEquals(PROJECT_DURATION + 2 * SUB_PROJECT_DURATION, statisticsHandler.getTotalTime());
+  }
+
+  @Test
+  void testProjectDeleted() {
+    StatisticsHandler statisticsHandler = new StatisticsHandler(user);
+    user.removeProjectList(project);
+    statisticsHandler.update(State.PROJECT_DELETED, project);
+    assertEquals(0, statisticsHandler.getTotalTime());
+    assertEquals(new Pair<>(0, 0), statisticsHandler.getTotalTasksCount());
+    assertEquals(new Pair<>(0, 0), statisticsHandler.getProjectTasksCount(subProject));
+  }
+
+  @Test
+  void testProjectCreated() {
+    StatisticsHandler statisticsHandler = new StatisticsHandler(user);
+    Project newProject = new Project(3, "New", "", current, current + HOUR, HOUR,
+        user, null, Color.BLUE);
+    newProject.addTask(new Task(5, "ongoing", current, current + HOUR, 3));
+    user.addProjectList(newProject);
+    statisticsHandler.update(State.PROJECT_CREATED, newProject);
+    assertEquals(PROJECT_DURATION + SUB_PROJECT_DURATION + HOUR, statisticsHandler.getTotalTime());
+    assertEquals(new Pair<>(1, 3), statisticsHandler.getTotalTasksCount());
+  }
+
+  @Test
+  void testRollOver() throws InterruptedException {
+    Task task = new Task(6, "soon", current, DateTimeUtils.getCurrentTime() + 50, PROJECT_ID);
+    project.addTask(task);
+    StatisticsHandler statisticsHandler = new StatisticsHandler(user);
+    assertEquals(new Pair<>(1, 2), statisticsHandler.getProjectTasksCount(project));
+    Thread.sleep(100);
+    assertEquals(new Pair<>(2, 1), statisticsHandler.getProjectTasksCount(project));
+    assertEquals(new Pair<>(2, 2), statisticsHandler.getTotalTasksCount());
+  }
+
+  @Test
+  void testSubtreeInitialTotals() {
+    StatisticsHandler statisticsHandler = new StatisticsHandler(user);
+    assertEquals(PROJECT_DURATION + SUB_PROJECT_DURATION, statisticsHandler.getSubtreeDuration(project));
+    assertEquals(PROJECT_DURATION + SUB_PROJECT_DURATION,
+        statisticsHandler.getSubtreeInitialDuration(project));
+    assertEquals(new Pair<>(1, 2), statisticsHandler.getSubtreeTasksCount(project));
+    assertEquals(new Pair<>(0, 1), statisticsHandler.getSubtreeTasksCount(subProject));
+  }
+
+  @Test
+  void testSubtreeTaskCreatedInSubProject() {
+    StatisticsHandler statisticsHandler = new StatisticsHandler(user);
+    Task task = new Task(4, "new", current - 2 * HOUR, current - HOUR, SUB_PROJECT_ID);
+    subProject.addTask(task);
+    statisticsHandler.update(State.TASK_CREATED, task);
+    assertEquals(new Pair<>(2, 2), statisticsHandler.getSubtreeTasksCount(project));
+    assertEquals(new Pair<>(1, 1), statisticsHandler.getSubtreeTasksCount(subProject));
+  }
+
+  @Test
+  void testSubtreeSubProjectDeleted() {
+    StatisticsHandler statisticsHandler = new StatisticsHandler(user);
+    user.removeSubProject(subProject);
+    statisticsHandler.update(State.PROJECT_DELETED, subProject);
+    assertEquals(PROJECT_DURATION, statisticsHandler.getSubtreeDuration(project));
+    assertEquals(new Pair<>(1, 1), statisticsHandler.getSubtreeTasksCount(project));
+    assertEquals(new Pair<>(1, 1), statisticsHandler.getTotalTasksCount());
+  }
+
+  @Test
+  void testSubtreeSubProjectModified() {
+    StatisticsHandler statisticsHandler = new StatisticsHandler(user);
+    subProject.setEndDate(current + 2 * SUB_PROJECT_DURATION);
+    statisticsHandler.update(State.PROJECT_MODIFIED, subProject);
+    assertEquals(PROJECT_DURATION + 2 * SUB_PROJECT_DURATION,
+        statisticsHandler.getSubtreeDuration(project));
+    assertEquals(PROJECT_DURATION + SUB_PROJECT_DURATION,
+        statisticsHandler.getSubtreeInitialDuration(project));
+  }
+
+  @Test
+  void testSubtreeRollOver() throws InterruptedException {
+    Task task = new Task(6, "soon", current, DateTimeUtils.getCurrentTime() + 50, SUB_PROJECT_ID);
+    subProject.addTask(task);
+    StatisticsHandler statisticsHandler = new StatisticsHandler(user);
+    Thread.sleep(100);
+    assertEquals(new Pair<>(2, 2), statisticsHandler.getSubtreeTasksCount(project));
+  }
+
+  @Test
+  void testTimeLeft() {
+    StatisticsHandler statisticsHandler = new StatisticsHandler(user);
+    assertTimeLeft(2 * current + PROJECT_DURATION + SUB_PROJECT_DURATION, 2,
+        statisticsHandler::getTotalTimeLeft);
+    assertTimeLeft(2 * current + PROJECT_DURATION + SUB_PROJECT_DURATION, 2,
+        () -> statisticsHandler.getSubtreeTimeLeft(project));
+    assertTimeLeft(current + SUB_PROJECT_DURATION, 1,
+        () -> statisticsHandler.getSubtreeTimeLeft(subProject));
+  }
+
+  @Test
+  void testTimeLeftProjectModified() {
+    StatisticsHandler statisticsHandler = new StatisticsHandler(user);
+    subProject.setEndDate(current + 2 * SUB_PROJECT_DURATION);
+    statisticsHandler.update(State.PROJECT_MODIFIED, subProject);
+    assertTimeLeft(2 * current + PROJECT_DURATION + 2 * SUB_PROJECT_DURATION, 2,
+        () -> statisticsHandler.getSubtreeTimeLeft(project));
+    subProject.setEndDate(current - HOUR);
+    statisticsHandler.update(State.PROJECT_MODIFIED, subProject);
+    assertTimeLeft(current + PROJECT_DURATION, 1, statisticsHandler::getTotalTimeLeft);
+  }
+
+  @Test
+  void testTimeLeftProjectDeleted() {
+    StatisticsHandler statisticsHandler = new StatisticsHandler(user);
+    user.removeSubProject(subProject);
+    statisticsHandler.update(State.PROJECT_DELETED, subProject);
+    assertTimeLeft(current + PROJECT_DURATION, 1,
+        () -> statisticsHandler.getSubtreeTimeLeft(project));
+    assertTimeLeft(current + PROJECT_DURATION, 1, statisticsHandler::getTotalTimeLeft);
+  }
+
+  @Test
+  void testTimeLeftRollOver() throws InterruptedException {
+    subProject.setEndDate(DateTimeUtils.getCurrentTime() + 50);
+    StatisticsHandler statisticsHandler = new StatisticsHandler(user);
+    Thread.sleep(100);
+    assertTimeLeft(current + PROJECT_DURATION, 1,
+        () -> statisticsHandler.getSubtreeTimeLeft(project));
+    assertEquals(0, statisticsHandler.getSubtreeTimeLeft(subProject));
+  }
+
+  @Test
+  void testTaskModifiedRepeatedly() throws InterruptedException {
+    StatisticsHandler statisticsHandler = new StatisticsHandler(user);
+    Task task = project.getTasks().get(1);
+    for (int i = 0; i < 10; i++) {
+      task.setEndDate(current + HOUR + i);
+      statisticsHandler.update(State.TASK_MODIFIED, task);
+    }
+    task.setEndDate(DateTimeUtils.getCurrentTime() + 50);
+    statisticsHandler.update(State.TASK_MODIFIED, task);
+    Thread.sleep(100);
+    assertEquals(new Pair<>(2, 0), statisticsHandler.getProjectTasksCount(project));
+    assertEquals(new Pair<>(2, 1), statisticsHandler.getTotalTasksCount());
+  }
+
+  private void assertTimeLeft(long endDates, int count, LongSupplier timeLeft) {
+    long before = DateTimeUtils.getCurrentTime();
+    long actual = timeLeft.getAsLong();
+    long after = DateTimeUtils.getCurrentTime();
+    assertTrue(actual <= endDates - count * before && actual >= endDates - count * after);
+  }
+}
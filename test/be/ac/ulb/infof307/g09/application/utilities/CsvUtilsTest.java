@@ -0,0 +1,46 @@
+package be.ac.ulb.infof307.g09.application.utilities;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvUtilsTest {
+
+  private static final String NEWLINE = System.getProperty("line.separator");
+
+  @Test
+  void testEscapeFieldPlain() {
+    assertEquals("Project", CsvUtils.escapeField("Project"));
+  }
+
+  @Test
+  void testEscapeFieldNull() {
+    assertEquals("", CsvUtils.escapeField(null));
+  }
+
+  @Test
+  void testEscapeFieldSeparator() {
+    assertEquals("\"a;b\"", CsvUtils.escapeField("a;b"));
+  }
+
+  @Test
+  void testEscapeFieldQuote() {
+    assertEquals("\"say \"\"hi\"\"\"", CsvUtils.escapeField("say \"hi\""));
+  }
+
+  @Test
+  void testEscapeFieldLineBreak() {
+    assertEquals("\"first\nsecond\"", CsvUtils.escapeField("first\nsecond"));
+  }
+
+  @Test
+  void testWriteRow() throws IOException {
+    StringWriter writer = new StringWriter();
+    CsvUtils.writeRow(writer, Arrays.asList("JohnDoe", "a;b", "12"));
+    assertEquals("JohnDoe;\"a;b\";12" + NEWLINE, writer.toString());
+  }
+}
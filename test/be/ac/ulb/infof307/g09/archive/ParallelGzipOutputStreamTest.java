@@ -0,0 +1,93 @@
+package be.ac.ulb.infof307.g09.archive;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelGzipOutputStreamTest {
+
+  private static final int BLOCK_SIZE = 1024;
+  private static final int MAX_PENDING_BLOCKS = 2;
+
+  private ExecutorService executor;
+
+  @BeforeEach
+  void setUp() {
+    executor = Executors.newFixedThreadPool(4);
+  }
+
+  @AfterEach
+  void tearDown() {
+    executor.shutdownNow();
+  }
+
+  private byte[] decompress(byte[] compressed) throws IOException {
+    ByteArrayOutputStream decompressed = new ByteArrayOutputStream();
+    try (InputStream gzipIn = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+      byte[] buffer = new byte[512];
+      int read;
+      while ((read = gzipIn.read(buffer)) >= 0) {
+        decompressed.write(buffer, 0, read);
+      }
+    }
+    return decompressed.toByteArray();
+  }
+
+  @Test
+  void testRoundTripSeveralBlocks() throws IOException {
+    byte[] data = new byte[10 * BLOCK_SIZE + 123];
+    new Random(42).nextBytes(data);
+    ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+    ParallelGzipOutputStream gzipOut = new ParallelGzipOutputStream(
+        compressed, executor, BLOCK_SIZE, MAX_PENDING_BLOCKS, null);
+
+    gzipOut.write(data, 0, 100);
+    gzipOut.write(data[100]);
+    gzipOut.write(data, 101, data.length - 101);
+    gzipOut.finish();
+
+    assertArrayEquals(data, decompress(compressed.toByteArray()));
+  }
+
+  @Test
+  void testEmptyStream() throws IOException {
+    ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+    new ParallelGzipOutputStream(compressed, executor).finish();
+
+    assertEquals(0, decompress(compressed.toByteArray()).length);
+  }
+
+  @Test
+  void testProgress() throws IOException {
+    List<Long> progress = new ArrayList<>();
+    ParallelGzipOutputStream gzipOut = new ParallelGzipOutputStream(
+        new ByteArrayOutputStream(), executor, BLOCK_SIZE, MAX_PENDING_BLOCKS, progress::add);
+
+    gzipOut.write(new byte[3 * BLOCK_SIZE + 10]);
+    gzipOut.finish();
+
+    assertEquals(4, progress.size());
+    assertEquals(3L * BLOCK_SIZE + 10, (long) progress.get(3));
+  }
+
+  @Test
+  void testWriteAfterFinish() throws IOException {
+    ParallelGzipOutputStream gzipOut =
+        new ParallelGzipOutputStream(new ByteArrayOutputStream(), executor);
+    gzipOut.finish();
+
+    assertThrows(IOException.class, () -> gzipOut.write(1));
+  }
+}
@@ -0,0 +1,270 @@
+package be.ac.ulb.infof307.g09.archive;
+
+import be.ac.ulb.infof307.g09.application.models.Color;
+import be.ac.ulb.infof307.g09.application.models.Project;
+import be.ac.ulb.infof307.g09.application.models.Tag;
+import be.ac.ulb.infof307.g09.application.models.Task;
+import be.ac.ulb.infof307.g09.application.models.User;
+import be.ac.ulb.infof307.g09.exceptions.ArchiveFormatException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProjectArchiveTest {
+
+  private static final Long START_DATE = 1639047600000L; //9-12-2021 12:00
+  private static final Long END_DATE = 1639306800000L; //12-12-2021 12:00
+  private static final Long TASK_END_DATE = 1639134000000L; //10-12-2021 12:00
+  private static final int DELETED_ID = 3;
+
+  private User author;
+  private User collaborator;
+  private Project parentProject;
+  private Project subProject;
+
+  @BeforeEach
+  void setUp() {
+    author = new User(1, "author", "author@mail.com", "Doe", "John", "");
+    collaborator = new User(2, "collaborator", "collaborator@mail.com", "Doe", "Jane", "");
+    parentProject = new Project(1, "Parent", "Description", START_DATE, END_DATE,
+        END_DATE - START_DATE, author, null, Color.BLUE);
+    subProject = new Project(2, "Sub", "Description", START_DATE, TASK_END_DATE,
+        TASK_END_DATE - START_DATE, author, parentProject, Color.GREEN);
+    Task task = new Task(1, "Task", START_DATE, TASK_END_DATE, 1);
+    task.setAssignedUsers(Arrays.asList(author, collaborator));
+    parentProject.setTasks(Collections.singletonList(task));
+    parentProject.setTags(Arrays.asList(new Tag(1, "urgent"), new Tag(2, "Description")));
+    parentProject.setSubProjects(Collections.singletonList(subProject));
+    parentProject.setCollaborators(Arrays.asList(author, collaborator));
+  }
+
+  private byte[] write(Project... projects) throws IOException {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    ProjectArchiveWriter writer = new ProjectArchiveWriter(output);
+    for (Project project : projects) {
+      writer.writeProject(project);
+    }
+    writer.finish();
+    return output.toByteArray();
+  }
+
+  private void writeVarLong(ByteArrayOutputStream output, long value) {
+    long remaining = (value << 1) ^ (value >> 63);
+    while ((remaining & ~0x7FL) != 0) {
+      output.write((int) ((remaining & 0x7F) | 0x80));
+      remaining >>>= 7;
+    }
+    output.write((int) remaining);
+  }
+
+  private ByteArrayOutputStream writeHeader(int kind) throws IOException {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    new DataOutputStream(output).writeInt(ProjectArchiveFormat.MAGIC);
+    writeVarLong(output, ProjectArchiveFormat.CURRENT_VERSION);
+    writeVarLong(output, kind);
+    writeVarLong(output, 0);
+    return output;
+  }
+
+  @Test
+  void testRoundTrip() throws IOException {
+    ProjectArchiveReader reader = new ProjectArchiveReader(
+        new ByteArrayInputStream(write(parentProject)));
+    Project project = reader.readProject();
+
+    assertEquals(ProjectArchiveFormat.CURRENT_VERSION, reader.getVersion());
+    assertTrue(project.contentEquals(parentProject));
+    assertTrue(project.getSubProjects().get(0).contentEquals(subProject));
+    assertSame(project, project.getSubProjects().get(0).getParentProject());
+    assertEquals(parentProject.getTags(), project.getTags());
+    assertEquals(parentProject.getCollaborators(), project.getCollaborators());
+    assertTrue(project.getTasks().get(0).contentEquals(parentProject.getTasks().get(0)));
+    assertNull(reader.readProject());
+  }
+
+  @Test
+  void testUsersAreInterned() throws IOException {
+    Project project = new ProjectArchiveReader(
+        new ByteArrayInputStream(write(parentProject))).readProject();
+
+    assertSame(project.getAuthor(), project.getCollaborators().get(0));
+    assertSame(project.getAuthor(), project.getTasks().get(0).getAssignedUsers().get(0));
+  }
+
+  @Test
+  void testPasswordNotWritten() throws IOException {
+    author.setPassword("secret");
+    Project project = new ProjectArchiveReader(
+        new ByteArrayInputStream(write(parentProject))).readProject();
+
+    assertEquals("", project.getAuthor().getPassword());
+  }
+
+  @Test
+  void testSeveralProjects() throws IOException {
+    ProjectArchiveReader reader = new ProjectArchiveReader(
+        new ByteArrayInputStream(write(subProject, parentProject)));
+
+    Project first = reader.readProject();
+    Project second = reader.readProject();
+
+    assertEquals(subProject.getTitle(), first.getTitle());
+    assertNull(first.getParentProject());
+    assertEquals(parentProject.getTitle(), second.getTitle());
+    assertSame(second.getAuthor(), first.getAuthor());
+    assertNull(reader.readProject());
+  }
+
+  @Test
+  void testIsProjectArchive() throws IOException {
+    ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+    try (ObjectOutputStream objectOutput = new ObjectOutputStream(serialized)) {
+      objectOutput.writeObject(parentProject);
+    }
+
+    assertTrue(ProjectArchiveReader.isProjectArchive(
+        new BufferedInputStream(new ByteArrayInputStream(write(parentProject)))));
+    assertFalse(ProjectArchiveReader.isProjectArchive(
+        new BufferedInputStream(new ByteArrayInputStream(serialized.toByteArray()))));
+  }
+
+  @Test
+  void testBadMagic() {
+    byte[] archive = new byte[] {0, 1, 2, 3, 2};
+
+    assertThrows(ArchiveFormatException.class,
+        () -> new ProjectArchiveReader(new ByteArrayInputStream(archive)));
+  }
+
+  @Test
+  void testUnsupportedVersion() throws IOException {
+    byte[] archive = write(parentProject);
+    archive[4] = (byte) ((ProjectArchiveFormat.CURRENT_VERSION + 1) << 1);
+
+    assertThrows(ArchiveFormatException.class,
+        () -> new ProjectArchiveReader(new ByteArrayInputStream(archive)));
+  }
+
+  @Test
+  void testSequence() throws IOException {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    ProjectArchiveWriter writer =
+        new ProjectArchiveWriter(output, ProjectArchiveFormat.KIND_FULL, 42);
+    writer.writeProject(parentProject);
+    writer.finish();
+
+    ProjectArchiveReader reader =
+        new ProjectArchiveReader(new ByteArrayInputStream(output.toByteArray()));
+    assertEquals(ProjectArchiveFormat.KIND_FULL, reader.getKind());
+    assertEquals(42, reader.getSequence());
+    assertTrue(reader.readProject().contentEquals(parentProject));
+  }
+
+  @Test
+  void testVersion1Archive() throws IOException {
+    byte[] archive = write(parentProject);
+    byte[] version1Archive = new byte[archive.length - 2];
+    System.arraycopy(archive, 0, version1Archive, 0, 4);
+    version1Archive[4] = (byte) (ProjectArchiveFormat.VERSION_1 << 1);
+    System.arraycopy(archive, 7, version1Archive, 5, archive.length - 7);
+
+    ProjectArchiveReader reader = new ProjectArchiveReader(
+        new ByteArrayInputStream(version1Archive));
+    assertEquals(ProjectArchiveFormat.VERSION_1, reader.getVersion());
+    assertEquals(ProjectArchiveFormat.KIND_FULL, reader.getKind());
+    assertEquals(0, reader.getSequence());
+    assertTrue(reader.readProject().contentEquals(parentProject));
+    assertNull(reader.readProject());
+  }
+
+  @Test
+  void testDeltaRoundTrip() throws IOException {
+    ProjectDelta delta = new ProjectDelta(7, parentProject.getId(), Arrays.asList(
+        new ProjectDelta.Entry(false, null, parentProject),
+        new ProjectDelta.Entry(true, parentProject.getId(), subProject)),
+        Collections.singletonList(DELETED_ID));
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    ProjectArchiveWriter writer =
+        new ProjectArchiveWriter(output, ProjectArchiveFormat.KIND_DELTA, 9);
+    writer.writeDelta(delta);
+    writer.finish();
+
+    ProjectArchiveReader reader =
+        new ProjectArchiveReader(new ByteArrayInputStream(output.toByteArray()));
+    assertEquals(ProjectArchiveFormat.KIND_DELTA, reader.getKind());
+    assertEquals(9, reader.getSequence());
+    ProjectDelta read = reader.readDelta();
+    assertEquals(7, read.getBaseSequence());
+    assertEquals(parentProject.getId(), read.getRootId());
+    assertEquals(Collections.singletonList(DELETED_ID), read.getDeletedIds());
+    assertEquals(2, read.getChangedProjects().size());
+
+    ProjectDelta.Entry root = read.getChangedProjects().get(0);
+    assertFalse(root.isCreated());
+    assertNull(root.getParentId());
+    assertEquals(parentProject.getId(), root.getProject().getId());
+    assertEquals(parentProject.getTitle(), root.getProject().getTitle());
+    assertEquals(1, root.getProject().getTasks().size());
+    assertEquals(2, root.getProject().getTags().size());
+    assertTrue(root.getProject().getSubProjects().isEmpty());
+
+    ProjectDelta.Entry added = read.getChangedProjects().get(1);
+    assertTrue(added.isCreated());
+    assertEquals(parentProject.getId(), (int) added.getParentId());
+    assertEquals(subProject.getId(), added.getProject().getId());
+    assertEquals(subProject.getTitle(), added.getProject().getTitle());
+  }
+
+  @Test
+  void testKindMismatch() throws IOException {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    ProjectArchiveWriter writer =
+        new ProjectArchiveWriter(output, ProjectArchiveFormat.KIND_DELTA, 1);
+    assertThrows(IllegalStateException.class, () -> writer.writeProject(parentProject));
+    writer.writeDelta(new ProjectDelta(0, parentProject.getId(), Collections.emptyList(),
+        Collections.emptyList()));
+    writer.finish();
+
+    ProjectArchiveReader deltaReader =
+        new ProjectArchiveReader(new ByteArrayInputStream(output.toByteArray()));
+    assertThrows(ArchiveFormatException.class, deltaReader::readProject);
+    ProjectArchiveReader fullReader =
+        new ProjectArchiveReader(new ByteArrayInputStream(write(parentProject)));
+    assertThrows(ArchiveFormatException.class, fullReader::readDelta);
+  }
+
+  @Test
+  void testCorruptedStringLength() throws IOException {
+    ByteArrayOutputStream output = writeHeader(ProjectArchiveFormat.KIND_FULL);
+    writeVarLong(output, ProjectArchiveFormat.PROJECT_MARKER);
+    writeVarLong(output, 1);
+    writeVarLong(output, ProjectArchiveFormat.NEW_ENTRY);
+    writeVarLong(output, Integer.MAX_VALUE);
+
+    ProjectArchiveReader reader =
+        new ProjectArchiveReader(new ByteArrayInputStream(output.toByteArray()));
+    assertThrows(EOFException.class, reader::readProject);
+  }
+
+  @Test
+  void testCorruptedCount() throws IOException {
+    ByteArrayOutputStream output = writeHeader(ProjectArchiveFormat.KIND_DELTA);
+    writeVarLong(output, 0);
+    writeVarLong(output, 1);
+    writeVarLong(output, Integer.MAX_VALUE);
+
+    ProjectArchiveReader reader =
+        new ProjectArchiveReader(new ByteArrayInputStream(output.toByteArray()));
+    assertThrows(EOFException.class, reader::readDelta);
+  }
+}
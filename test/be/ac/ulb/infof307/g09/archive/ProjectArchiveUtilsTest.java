@@ -0,0 +1,219 @@
+package be.ac.ulb.infof307.g09.archive;
+
+import be.ac.ulb.infof307.g09.application.models.Color;
+import be.ac.ulb.infof307.g09.application.models.Project;
+import be.ac.ulb.infof307.g09.application.models.User;
+import be.ac.ulb.infof307.g09.exceptions.ArchiveFormatException;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProjectArchiveUtilsTest {
+
+  private static final Long START_DATE = 1639047600000L; //9-12-2021 12:00
+  private static final Long END_DATE = 1639306800000L; //12-12-2021 12:00
+  private static final String ENTRY_NAME = "1_Project";
+  private static final String BASELINE_ARCHIVE = "test/resources/archive/baseline-project.tar.gz";
+
+  private Project project;
+  private Project otherProject;
+
+  @BeforeEach
+  void setUp() {
+    User author = new User(1, "author", "author@mail.com", "Doe", "John", "");
+    project = new Project(1, "Project", "Description", START_DATE, END_DATE,
+        END_DATE - START_DATE, author, null, Color.BLUE);
+    otherProject = new Project(2, "Other project", "Description", START_DATE, END_DATE,
+        END_DATE - START_DATE, author, null, Color.GREEN);
+  }
+
+  private byte[] writeTarGz(List<Project> projects) throws IOException {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    ProjectArchiveUtils.writeTarGz(output, ENTRY_NAME, projects);
+    return output.toByteArray();
+  }
+
+  @Test
+  void testRoundTrip() throws IOException, ClassNotFoundException {
+    List<Project> projects = ProjectArchiveUtils.readTarGz(
+        new ByteArrayInputStream(writeTarGz(Arrays.asList(project, otherProject))));
+
+    assertEquals(2, projects.size());
+    assertTrue(projects.get(0).contentEquals(project));
+    assertTrue(projects.get(1).contentEquals(otherProject));
+  }
+
+  @Test
+  void testParallelRoundTrip() throws IOException, ClassNotFoundException {
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    long[] progress = new long[2];
+    try {
+      ProjectArchiveUtils.writeTarGz(output, ENTRY_NAME, Arrays.asList(project, otherProject),
+          executor, (workDone, totalWork) -> {
+            progress[0] = workDone;
+            progress[1] = totalWork;
+          }, () -> false);
+    } finally {
+      executor.shutdownNow();
+    }
+
+    List<Project> projects = ProjectArchiveUtils.readTarGz(
+        new ByteArrayInputStream(output.toByteArray()));
+
+    assertEquals(2, projects.size());
+    assertTrue(projects.get(0).contentEquals(project));
+    assertTrue(projects.get(1).contentEquals(otherProject));
+    assertEquals(2, progress[0]);
+    assertEquals(progress[1], progress[0]);
+  }
+
+  @Test
+  void testParallelEntryPerProject() throws IOException {
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    try {
+      ProjectArchiveUtils.writeTarGz(output, ENTRY_NAME, Arrays.asList(project, otherProject),
+          executor, null, () -> false);
+    } finally {
+      executor.shutdownNow();
+    }
+
+    try (TarArchiveInputStream tarIn = new TarArchiveInputStream(
+        new GZIPInputStream(new ByteArrayInputStream(output.toByteArray())))) {
+      assertEquals(ENTRY_NAME + "_1" + ProjectArchiveFormat.FILE_EXTENSION,
+          tarIn.getNextTarEntry().getName());
+      assertEquals(ENTRY_NAME + "_2" + ProjectArchiveFormat.FILE_EXTENSION,
+          tarIn.getNextTarEntry().getName());
+      assertNull(tarIn.getNextTarEntry());
+    }
+  }
+
+  @Test
+  void testParallelCancelled() {
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    long[] progress = new long[1];
+    try {
+      assertThrows(InterruptedIOException.class, () -> ProjectArchiveUtils.writeTarGz(
+          new ByteArrayOutputStream(), ENTRY_NAME, Arrays.asList(project, otherProject),
+          executor, (workDone, totalWork) -> progress[0] = workDone, () -> progress[0] > 0));
+    } finally {
+      executor.shutdownNow();
+    }
+    assertEquals(1, progress[0]);
+  }
+
+  @Test
+  void testEntryName() throws IOException {
+    byte[] archive = writeTarGz(Collections.singletonList(project));
+    try (TarArchiveInputStream tarIn = new TarArchiveInputStream(
+        new GZIPInputStream(new ByteArrayInputStream(archive)))) {
+      TarArchiveEntry entry = tarIn.getNextTarEntry();
+
+      assertEquals(ENTRY_NAME + ProjectArchiveFormat.FILE_EXTENSION, entry.getName());
+      assertNull(tarIn.getNextTarEntry());
+    }
+  }
+
+  @Test
+  void testReadSerializedProject() throws IOException, ClassNotFoundException {
+    ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+    try (ObjectOutputStream objectOut = new ObjectOutputStream(serialized)) {
+      objectOut.writeObject(project);
+    }
+    ByteArrayOutputStream archive = new ByteArrayOutputStream();
+    try (TarArchiveOutputStream tarOut = new TarArchiveOutputStream(
+        new GZIPOutputStream(archive))) {
+      TarArchiveEntry entry = new TarArchiveEntry(ENTRY_NAME + ".tmp");
+      entry.setSize(serialized.size());
+      tarOut.putArchiveEntry(entry);
+      serialized.writeTo(tarOut);
+      tarOut.closeArchiveEntry();
+    }
+
+    List<Project> projects = ProjectArchiveUtils.readTarGz(
+        new ByteArrayInputStream(archive.toByteArray()));
+
+    assertEquals(1, projects.size());
+    assertTrue(projects.get(0).contentEquals(project));
+  }
+
+  @Test
+  void testReadBaselineArchive() throws IOException, ClassNotFoundException {
+    List<Project> projects = ProjectArchiveUtils.importProjects(new File(BASELINE_ARCHIVE));
+
+    assertEquals(1, projects.size());
+    Project baseline = projects.get(0);
+    assertEquals("Baseline project", baseline.getTitle());
+    assertEquals("JohnDoe", baseline.getAuthor().getUsername());
+    assertEquals("baseline", baseline.getTags().get(0).getDescription());
+    assertEquals("JaneDoe", baseline.getCollaborators().get(0).getUsername());
+    assertEquals(1, baseline.getTasks().size());
+    assertEquals("JaneDoe", baseline.getTasks().get(0).getAssignedUsers().get(0).getUsername());
+    assertEquals(1, baseline.getSubProjects().size());
+    Project subProject = baseline.getSubProjects().get(0);
+    assertEquals("Baseline sub project", subProject.getTitle());
+    assertSame(baseline, subProject.getParentProject());
+    assertEquals(1, subProject.getTaskIndex().getTasksEndingBefore(Long.MAX_VALUE).size());
+  }
+
+  @Test
+  void testEmptyArchive() throws IOException {
+    ByteArrayOutputStream archive = new ByteArrayOutputStream();
+    try (TarArchiveOutputStream tarOut = new TarArchiveOutputStream(
+        new GZIPOutputStream(archive))) {
+      tarOut.finish();
+    }
+
+    assertThrows(ArchiveFormatException.class,
+        () -> ProjectArchiveUtils.readTarGz(new ByteArrayInputStream(archive.toByteArray())));
+  }
+
+  @Test
+  void testSequenceRoundTrip() throws IOException, ClassNotFoundException {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    ProjectArchiveUtils.writeTarGz(output, ENTRY_NAME, Collections.singletonList(project), 12);
+    ProjectArchive archive =
+        ProjectArchiveUtils.readArchive(new ByteArrayInputStream(output.toByteArray()));
+
+    assertFalse(archive.isDelta());
+    assertEquals(12, archive.getSequence());
+    assertTrue(archive.getProjects().get(0).contentEquals(project));
+  }
+
+  @Test
+  void testDeltaRoundTrip() throws IOException, ClassNotFoundException {
+    ProjectDelta delta = new ProjectDelta(3, project.getId(),
+        Collections.singletonList(new ProjectDelta.Entry(true, project.getId(), otherProject)),
+        Collections.singletonList(otherProject.getId() + 1));
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    ProjectArchiveUtils.writeDeltaTarGz(output, ENTRY_NAME, delta, 5);
+    byte[] archive = output.toByteArray();
+
+    ProjectArchive read = ProjectArchiveUtils.readArchive(new ByteArrayInputStream(archive));
+    assertTrue(read.isDelta());
+    assertEquals(5, read.getSequence());
+    assertEquals(3, read.getDelta().getBaseSequence());
+    assertEquals(otherProject.getTitle(),
+        read.getDelta().getChangedProjects().get(0).getProject().getTitle());
+    assertThrows(ArchiveFormatException.class,
+        () -> ProjectArchiveUtils.readTarGz(new ByteArrayInputStream(archive)));
+  }
+}
@@ -0,0 +1,126 @@
+package be.ac.ulb.infof307.g09.archive;
+
+import be.ac.ulb.infof307.g09.application.models.Color;
+import be.ac.ulb.infof307.g09.application.models.Project;
+import be.ac.ulb.infof307.g09.application.models.Task;
+import be.ac.ulb.infof307.g09.application.models.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionSnapshotTest {
+
+  private static final Long START_DATE = 1639047600000L; //9-12-2021 12:00
+  private static final Long END_DATE = 1639306800000L; //12-12-2021 12:00
+  private static final int USER_ID = 1;
+  private static final String DATABASE_ID = "6f1c2a4e9b7d40c3a8e5f2d1b0c9a7e4";
+
+  private File directory;
+  private File snapshotFile;
+  private Project project;
+  private Project otherProject;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    directory = Files.createTempDirectory("snapshots").toFile();
+    snapshotFile = SessionSnapshot.getFile(directory, USER_ID);
+    User author = new User(USER_ID, "author", "author@mail.com", "Doe", "John", "");
+    project = new Project(1, "Project", "Description", START_DATE, END_DATE,
+        END_DATE - START_DATE, author, null, Color.BLUE);
+    Project subProject = new Project(3, "Sub project", "Description", START_DATE, END_DATE,
+        END_DATE - START_DATE, author, project, Color.ROSE);
+    subProject.addTask(new Task(1, "Task", START_DATE, END_DATE, 3));
+    project.addSubProjects(subProject);
+    otherProject = new Project(2, "Other project", "Description", START_DATE, END_DATE,
+        END_DATE - START_DATE, author, null, Color.GREEN);
+  }
+
+  @AfterEach
+  void tearDown() throws IOException {
+    for (File file : directory.listFiles()) {
+      Files.delete(file.toPath());
+    }
+    Files.delete(directory.toPath());
+  }
+
+  private void writeSnapshot(long sequence, Project... projects) throws IOException {
+    try (SessionSnapshot snapshot = new SessionSnapshot(snapshotFile, DATABASE_ID, sequence)) {
+      for (Project root : projects) {
+        snapshot.add(root);
+      }
+      snapshot.commit();
+    }
+  }
+
+  @Test
+  void testRoundTrip() throws IOException {
+    writeSnapshot(42, project, otherProject);
+
+    ProjectArchive archive = SessionSnapshot.read(snapshotFile, DATABASE_ID);
+
+    assertEquals(42, archive.getSequence());
+    assertEquals(2, archive.getProjects().size());
+    assertTrue(archive.getProjects().get(0).contentEquals(project));
+    assertTrue(archive.getProjects().get(1).contentEquals(otherProject));
+    assertEquals(3, archive.getProjects().get(0).getSubProjects().get(0).getId());
+  }
+
+  @Test
+  void testCommitReplacesPreviousSnapshot() throws IOException {
+    writeSnapshot(1, project, otherProject);
+    writeSnapshot(2, otherProject);
+
+    ProjectArchive archive = SessionSnapshot.read(snapshotFile, DATABASE_ID);
+
+    assertEquals(2, archive.getSequence());
+    assertEquals(Collections.singletonList(otherProject), archive.getProjects());
+    assertEquals(1, directory.listFiles().length);
+  }
+
+  @Test
+  void testUncommittedSnapshotKeepsPreviousOne() throws IOException {
+    writeSnapshot(1, project);
+    try (SessionSnapshot snapshot = new SessionSnapshot(snapshotFile, DATABASE_ID, 2)) {
+      snapshot.add(otherProject);
+    }
+
+    ProjectArchive archive = SessionSnapshot.read(snapshotFile, DATABASE_ID);
+
+    assertEquals(1, archive.getSequence());
+    assertEquals(Collections.singletonList(project), archive.getProjects());
+    assertEquals(1, directory.listFiles().length);
+  }
+
+  @Test
+  void testReadInvalidSnapshot() throws IOException {
+    Files.write(snapshotFile.toPath(), new byte[] {1, 2, 3, 4, 5});
+
+    assertThrows(IOException.class, () -> SessionSnapshot.read(snapshotFile, DATABASE_ID));
+  }
+
+  @Test
+  void testReadSnapshotOfOtherDatabase() throws IOException {
+    writeSnapshot(1, project);
+
+    assertThrows(IOException.class,
+        () -> SessionSnapshot.read(snapshotFile, "0d9e8f7a6b5c4d3e2f1a0b9c8d7e6f5a"));
+  }
+
+  @Test
+  void testCommitAfterRead() throws IOException {
+    writeSnapshot(1, project);
+    SessionSnapshot.read(snapshotFile, DATABASE_ID);
+    writeSnapshot(2, otherProject);
+
+    ProjectArchive archive = SessionSnapshot.read(snapshotFile, DATABASE_ID);
+
+    assertEquals(2, archive.getSequence());
+    assertEquals(Collections.singletonList(otherProject), archive.getProjects());
+  }
+}
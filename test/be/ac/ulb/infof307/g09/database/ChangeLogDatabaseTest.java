@@ -0,0 +1,147 @@
+package be.ac.ulb.infof307.g09.database;
+
+import be.ac.ulb.infof307.g09.application.models.Change;
+import be.ac.ulb.infof307.g09.application.models.Color;
+import be.ac.ulb.infof307.g09.application.models.Project;
+import be.ac.ulb.infof307.g09.application.models.Tag;
+import be.ac.ulb.infof307.g09.application.models.Task;
+import be.ac.ulb.infof307.g09.application.models.User;
+import be.ac.ulb.infof307.g09.exceptions.ConnectionFailedException;
+import be.ac.ulb.infof307.g09.exceptions.DatabaseException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChangeLogDatabaseTest {
+
+  //PROJECT
+  private static final String TITLE = "Test parentProject";
+  private static final String DESCRIPTION = "This is a test of a parentProject";
+  private static final Long START_DATE = 1639047600000L; //9-12-2021 12:00
+  private static final Long END_DATE = 1639306800000L; //12-12-2021 12:00
+  private static final Long INITIAL_DURATION = END_DATE - START_DATE;
+  private static final Color COLOR = Color.BLUE;
+
+  //TASK
+  private static final String TASK_DESCRIPTION = "Test task description";
+  private static final String NEW_TASK_DESCRIPTION = "Test new task description";
+
+  //TAG
+  private static final String TAG_TEXT = "Test text Tag!";
+
+  //USER
+  private static final int USER_ID = 1;
+  private static final String USERNAME = "JohnDoe";
+  private static final String EMAIL = "dummy@gmail.com";
+  private static final String LAST_NAME = "Doe";
+  private static final String FIRST_NAME = "John";
+  private static final String PASSWORD = "dummy";
+
+  private static ChangeLogDatabase changeLogDatabase;
+  private static final String DATABASE_TEST_PATH = Paths.get("").toAbsolutePath() + "/test/test.db";
+  private static final String START_PATH = "src/be/ac/ulb/infof307/g09/";
+  private static File file;
+  private Project project;
+  private long sequence;
+
+  @BeforeEach
+  void setUp() throws DatabaseException, ConnectionFailedException {
+    if (changeLogDatabase == null) {
+      changeLogDatabase = ChangeLogDatabase.getInstance();
+    }
+    ChangeLogDatabase.setDatabasePath(DATABASE_TEST_PATH);
+    ChangeLogDatabase.createNewDatabaseFile(START_PATH);
+    file = ChangeLogDatabase.getInstance().getDatabase();
+    User user = new User(USER_ID, USERNAME, EMAIL, LAST_NAME, FIRST_NAME, PASSWORD);
+    UserDatabase.getInstance().insert(user);
+    project = ProjectDatabase.getInstance().insertProject(
+        new Project(-1, TITLE, DESCRIPTION, START_DATE, END_DATE, INITIAL_DURATION, user, null, COLOR));
+    sequence = changeLogDatabase.getLastSequence();
+  }
+
+  @Test
+  void testProjectInsertionLogged() throws DatabaseException, ConnectionFailedException {
+    List<Change> changes = changeLogDatabase.getChangesSince(0);
+
+    assertEquals(1, changes.size());
+    assertEquals(Change.Entity.PROJECT, changes.get(0).getEntity());
+    assertEquals(project.getId(), changes.get(0).getEntityId());
+    assertNull(changes.get(0).getRelatedId());
+    assertEquals(Change.Operation.INSERT, changes.get(0).getOperation());
+    assertEquals(sequence, changes.get(0).getSequence());
+  }
+
+  @Test
+  void testChangesSinceInOrder() throws DatabaseException, ConnectionFailedException {
+    Task task = TaskDatabase.getInstance().createTask(TASK_DESCRIPTION, START_DATE, END_DATE, project.getId());
+    TaskDatabase.getInstance().updateTask(task, NEW_TASK_DESCRIPTION, START_DATE, END_DATE);
+    Tag tag = TagDatabase.getInstance().createTag(TAG_TEXT);
+    ProjectTagDatabase.getInstance().addProjectTag(project.getId(), tag.getId());
+
+    List<Change> changes = changeLogDatabase.getChangesSince(sequence);
+
+    assertEquals(4, changes.size());
+    assertEquals(Change.Operation.INSERT, changes.get(0).getOperation());
+    assertEquals(Change.Entity.TASK, changes.get(1).getEntity());
+    assertEquals(Change.Operation.UPDATE, changes.get(1).getOperation());
+    assertEquals(Integer.valueOf(project.getId()), changes.get(1).getRelatedId());
+    assertEquals(Change.Entity.TAG, changes.get(2).getEntity());
+    assertEquals(Change.Entity.PROJECT_TAG, changes.get(3).getEntity());
+    assertEquals(project.getId(), changes.get(3).getEntityId());
+    assertEquals(Integer.valueOf(tag.getId()), changes.get(3).getRelatedId());
+    assertTrue(changes.get(0).getSequence() < changes.get(3).getSequence());
+  }
+
+  @Test
+  void testDatabaseIdKeptBySchemaUpdate() throws DatabaseException, ConnectionFailedException {
+    String databaseId = changeLogDatabase.getDatabaseId();
+    ChangeLogDatabase.updateDatabaseSchema(START_PATH);
+
+    assertNotNull(databaseId);
+    assertEquals(databaseId, changeLogDatabase.getDatabaseId());
+  }
+
+  @Test
+  void testCascadeDeletionLogged() throws DatabaseException, ConnectionFailedException {
+    Task task = TaskDatabase.getInstance().createTask(TASK_DESCRIPTION, START_DATE, END_DATE, project.getId());
+    long afterInsertion = changeLogDatabase.getLastSequence();
+    ProjectDatabase.getInstance().delete(project.getId());
+
+    boolean taskDeletionLogged = false;
+    for (Change change : changeLogDatabase.getChangesSince(afterInsertion)) {
+      if (change.getEntity() == Change.Entity.TASK && change.getEntityId() == task.getId()) {
+        taskDeletionLogged = change.getOperation() == Change.Operation.DELETE;
+      }
+    }
+    assertTrue(taskDeletionLogged);
+  }
+
+  @Test
+  void testCompact() throws DatabaseException, ConnectionFailedException {
+    Task task = TaskDatabase.getInstance().createTask(TASK_DESCRIPTION, START_DATE, END_DATE, project.getId());
+    TaskDatabase.getInstance().updateTask(task, NEW_TASK_DESCRIPTION, START_DATE, END_DATE);
+    TaskDatabase.getInstance().deleteTask(task.getId());
+    long lastSequence = changeLogDatabase.getLastSequence();
+
+    assertEquals(2, changeLogDatabase.compact(lastSequence));
+    List<Change> changes = changeLogDatabase.getChangesSince(sequence);
+    assertEquals(1, changes.size());
+    assertEquals(Change.Operation.DELETE, changes.get(0).getOperation());
+    assertEquals(lastSequence, changeLogDatabase.getLastSequence());
+  }
+
+  @AfterEach
+  void deleteDatabase() throws IOException {
+    boolean deletedFile = file.delete();
+    if (!deletedFile) {
+      throw new IOException("Cannot delete file");
+    }
+  }
+}
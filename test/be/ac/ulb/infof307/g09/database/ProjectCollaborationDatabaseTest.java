@@ -1,10 +1,12 @@
 package be.ac.ulb.infof307.g09.database;
 
 import be.ac.ulb.infof307.g09.application.models.Color;
+import be.ac.ulb.infof307.g09.application.models.Invitation;
 import be.ac.ulb.infof307.g09.application.models.Project;
 import be.ac.ulb.infof307.g09.application.models.User;
 import be.ac.ulb.infof307.g09.exceptions.ConnectionFailedException;
 import be.ac.ulb.infof307.g09.exceptions.DatabaseException;
+import javafx.util.Pair;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -12,6 +14,7 @@ import org.junit.jupiter.api.Test;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Paths;
+import java.util.Collections;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -66,12 +69,6 @@ class ProjectCollaborationDatabaseTest {
     assertTrue(userList.contains(collaborator2));
   }
 
-  @Test
-  void testGetCollaboratorsByProjectWaiting() throws DatabaseException, ConnectionFailedException {
-    List<User> userList = db.getCollaboratorsByProjectWaiting(project);
-    assertTrue(userList.contains(collaborator2));
-  }
-
   @Test
   void testGetProjectByCollaborator() throws DatabaseException, ConnectionFailedException {
     db.insertProjectCollaboratorRow(project, collaborator1);
@@ -86,6 +83,13 @@ class ProjectCollaborationDatabaseTest {
     assertTrue(projectList.contains(project));
   }
 
+  @Test
+  void testGetProjectIdsByCollaborator() throws DatabaseException, ConnectionFailedException {
+    db.updateAcceptedColumn(project.getId(), collaborator2, 1);
+    List<Integer> projectIds = db.getProjectIdsByCollaborator(collaborator2);
+    assertTrue(projectIds.contains(project.getId()));
+  }
+
   @Test
   void testInsertProjectCollaboratorRow() throws DatabaseException, ConnectionFailedException {
     db.insertProjectCollaboratorRow(project, collaborator1);
@@ -103,26 +107,21 @@ class ProjectCollaborationDatabaseTest {
   }
 
   @Test
-  void testGetProjectsWithInvitationAccepted() throws DatabaseException, ConnectionFailedException {
+  void testGetInvitationsSentBy() throws DatabaseException, ConnectionFailedException {
     db.insertProjectCollaboratorRow(project, collaborator1);
     db.updateAcceptedColumn(project.getId(), collaborator1, 1);
-    List<Project> listOfProjectAccepted = db.getProjectsWithInvitationAccepted(project.getAuthor());
-    assertTrue(listOfProjectAccepted.contains(project));
-  }
-
-  @Test
-  void testGetProjectsWithInvitationRefused() throws DatabaseException, ConnectionFailedException {
-    db.insertProjectCollaboratorRow(project, collaborator1);
-    db.updateAcceptedColumn(project.getId(), collaborator1, 0);
-    List<Project> listOfProjectRefused = db.getProjectsWithInvitationRefused(project.getAuthor());
-    assertTrue(listOfProjectRefused.contains(project));
-  }
+    List<Invitation> invitations = db.getInvitationsSentBy(project.getAuthor());
+    assertEquals(2, invitations.size());
+    assertEquals(collaborator1, invitations.get(0).getCollaborator());
+    assertEquals(Invitation.Answer.ACCEPTED, invitations.get(0).getAnswer());
+    assertFalse(invitations.get(0).isRead());
+    assertEquals(collaborator2, invitations.get(1).getCollaborator());
+    assertEquals(Invitation.Answer.WAITING, invitations.get(1).getAnswer());
 
-  @Test
-  void testGetProjectsWithInvitationWaiting() throws DatabaseException, ConnectionFailedException {
-    db.insertProjectCollaboratorRow(project, collaborator1);
-    List<Project> listOfProjectWithoutAnswers = db.getProjectsWithInvitationWaiting(project.getAuthor());
-    assertTrue(listOfProjectWithoutAnswers.contains(project));
+    db.updateInvitationRead(project, collaborator1);
+    invitations = db.getInvitationsSentBy(project.getAuthor());
+    assertEquals(1, invitations.size());
+    assertEquals(project.getId(), invitations.get(0).getProjectId());
   }
 
   @Test
@@ -151,6 +150,19 @@ class ProjectCollaborationDatabaseTest {
     assertEquals(project, tmp);
   }
 
+  @Test
+  void testAcknowledgeInvitations() throws DatabaseException, ConnectionFailedException {
+    db.insertProjectCollaboratorRow(project, collaborator1);
+    db.updateAcceptedColumn(project.getId(), collaborator1, 0);
+    db.updateAcceptedColumn(project.getId(), collaborator2, 1);
+    db.acknowledgeInvitations(Collections.singletonList(new Pair<>(project, collaborator1)),
+        Collections.singletonList(new Pair<>(project, collaborator2)));
+
+    assertTrue(db.getCollaboratorsByProjectRefused(project).isEmpty());
+    assertTrue(db.getCollaboratorsByProjectAccepted(project).isEmpty());
+    assertTrue(db.getCollaboratorsOfProjects(project).contains(collaborator2));
+  }
+
   @Test
   void testGetAllUnansweredProjectsByCollaborator() throws DatabaseException, ConnectionFailedException {
     db.insertProjectCollaboratorRow(project, collaborator1);
@@ -13,8 +13,12 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 class ProjectDatabaseTest {
@@ -154,6 +158,61 @@ class ProjectDatabaseTest {
     assertEquals(list, projectDatabase.getAllParentProjectsByAuthor(USERNAME));
   }
 
+  @Test
+  void testGetParentProjectIdsByAuthor() throws DatabaseException, ConnectionFailedException {
+    Project projectTest = projectDatabase.insertProject(
+        new Project(PARENT_PROJECT_ID, PARENT_TITLE, PARENT_DESCRIPTION,
+            PARENT_START_DATE, PARENT_END_DATE, PARENT_INITIAL_DURATION, user, null, PARENT_COLOR));
+    projectDatabase.insertSubProject(
+        new Project(SUB_PROJECT_ID, SUB_TITLE,
+            SUB_DESCRIPTION, SUB_START_DATE, SUB_END_DATE, SUB_INITIAL_DURATION, user, projectTest, SUB_COLOR));
+
+    assertEquals(Collections.singletonList(projectTest.getId()),
+        projectDatabase.getParentProjectIdsByAuthor(USERNAME));
+  }
+
+  @Test
+  void testGetRootProjectIds() throws DatabaseException, ConnectionFailedException {
+    Project projectTest = projectDatabase.insertProject(
+        new Project(PARENT_PROJECT_ID, PARENT_TITLE, PARENT_DESCRIPTION,
+            PARENT_START_DATE, PARENT_END_DATE, PARENT_INITIAL_DURATION, user, null, PARENT_COLOR));
+    Project subProjectTest = projectDatabase.insertSubProject(
+        new Project(SUB_PROJECT_ID, SUB_TITLE,
+            SUB_DESCRIPTION, SUB_START_DATE, SUB_END_DATE, SUB_INITIAL_DURATION, user, projectTest, SUB_COLOR));
+
+    Map<Integer, Integer> rootIds = projectDatabase.getRootProjectIds(Arrays.asList(
+        projectTest.getId(), subProjectTest.getId(), subProjectTest.getId() + 1));
+
+    assertEquals(2, rootIds.size());
+    assertEquals(Integer.valueOf(projectTest.getId()), rootIds.get(projectTest.getId()));
+    assertEquals(Integer.valueOf(projectTest.getId()), rootIds.get(subProjectTest.getId()));
+  }
+
+  @Test
+  void testGetProjectNode() throws DatabaseException, ConnectionFailedException {
+    Project projectTest = projectDatabase.insertProject(
+        new Project(PARENT_PROJECT_ID, PARENT_TITLE, PARENT_DESCRIPTION,
+            PARENT_START_DATE, PARENT_END_DATE, PARENT_INITIAL_DURATION, user, null, PARENT_COLOR));
+    Project subProjectTest = projectDatabase.insertSubProject(
+        new Project(SUB_PROJECT_ID, SUB_TITLE,
+            SUB_DESCRIPTION, SUB_START_DATE, SUB_END_DATE, SUB_INITIAL_DURATION, user, projectTest, SUB_COLOR));
+    Tag tagTest = TagDatabase.getInstance().createTag(TAG_TEXT);
+    ProjectTagDatabase.getInstance().addProjectTag(SUB_PROJECT_ID, TAG_ID);
+
+    Project node = projectDatabase.getProjectNode(subProjectTest.getId());
+    assertEquals(SUB_TITLE, node.getTitle());
+    assertNull(node.getParentProject());
+    assertEquals(Collections.singletonList(tagTest), node.getTags());
+    assertEquals(Collections.emptyList(), node.getSubProjects());
+    assertEquals(Integer.valueOf(projectTest.getId()),
+        projectDatabase.getParentProjectId(subProjectTest.getId()));
+    assertNull(projectDatabase.getParentProjectId(projectTest.getId()));
+
+    Project tree = projectDatabase.getProjectTree(projectTest.getId());
+    assertEquals(Collections.singletonList(subProjectTest), tree.getSubProjects());
+    assertNull(projectDatabase.getProjectNode(subProjectTest.getId() + 1));
+  }
+
   @Test
   void testGetProjectsWithUniqueTags() throws DatabaseException, ConnectionFailedException {
     Project projectTest = projectDatabase.insertProject(
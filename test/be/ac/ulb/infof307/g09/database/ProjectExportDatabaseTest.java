@@ -0,0 +1,136 @@
+package be.ac.ulb.infof307.g09.database;
+
+import be.ac.ulb.infof307.g09.application.models.Color;
+import be.ac.ulb.infof307.g09.application.models.Project;
+import be.ac.ulb.infof307.g09.application.models.User;
+import be.ac.ulb.infof307.g09.exceptions.ConnectionFailedException;
+import be.ac.ulb.infof307.g09.exceptions.DatabaseException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProjectExportDatabaseTest {
+
+  //PROJECT
+  private static final String TITLE = "Test parentProject";
+  private static final String SUB_TITLE = "Test subProject";
+  private static final String DESCRIPTION = "This is a test of a parentProject";
+  private static final Long START_DATE = 1639047600000L; //9-12-2021 12:00
+  private static final Long END_DATE = 1639306800000L; //12-12-2021 12:00
+  private static final Long INITIAL_DURATION = END_DATE - START_DATE;
+  private static final Color COLOR = Color.BLUE;
+
+  //SEQUENCE
+  private static final long FIRST_SEQUENCE = 4;
+  private static final long SECOND_SEQUENCE = 9;
+  private static final int SOURCE_ID = 42;
+
+  //USER
+  private static final int USER_ID = 1;
+  private static final String USERNAME = "JohnDoe";
+  private static final String EMAIL = "dummy@gmail.com";
+  private static final String LAST_NAME = "Doe";
+  private static final String FIRST_NAME = "John";
+  private static final String PASSWORD = "dummy";
+
+  private static ProjectExportDatabase projectExportDatabase;
+  private static final String DATABASE_TEST_PATH = Paths.get("").toAbsolutePath() + "/test/test.db";
+  private static final String START_PATH = "src/be/ac/ulb/infof307/g09/";
+  private static File file;
+  private Project project;
+
+  @BeforeEach
+  void setUp() throws DatabaseException, ConnectionFailedException {
+    if (projectExportDatabase == null) {
+      projectExportDatabase = ProjectExportDatabase.getInstance();
+    }
+    ProjectExportDatabase.setDatabasePath(DATABASE_TEST_PATH);
+    ProjectExportDatabase.createNewDatabaseFile(START_PATH);
+    file = ProjectExportDatabase.getInstance().getDatabase();
+    User user = new User(USER_ID, USERNAME, EMAIL, LAST_NAME, FIRST_NAME, PASSWORD);
+    UserDatabase.getInstance().insert(user);
+    project = ProjectDatabase.getInstance().insertProject(
+        new Project(-1, TITLE, DESCRIPTION, START_DATE, END_DATE, INITIAL_DURATION, user, null, COLOR));
+  }
+
+  @Test
+  void testNeverExported() throws DatabaseException, ConnectionFailedException {
+    assertEquals(ProjectExportDatabase.NEVER, projectExportDatabase.getExportSequence(project.getId()));
+    assertTrue(projectExportDatabase.getExportedProjects(project.getId()).isEmpty());
+  }
+
+  @Test
+  void testRecordExport() throws DatabaseException, ConnectionFailedException {
+    Map<Integer, String> titles = new HashMap<>();
+    titles.put(project.getId(), TITLE);
+    titles.put(project.getId() + 1, SUB_TITLE);
+    projectExportDatabase.recordExport(project.getId(), titles, FIRST_SEQUENCE);
+
+    assertEquals(FIRST_SEQUENCE, projectExportDatabase.getExportSequence(project.getId()));
+    assertEquals(titles, projectExportDatabase.getExportedProjects(project.getId()));
+  }
+
+  @Test
+  void testRecordExportReplacesPrevious() throws DatabaseException, ConnectionFailedException {
+    Map<Integer, String> titles = new HashMap<>();
+    titles.put(project.getId(), TITLE);
+    titles.put(project.getId() + 1, SUB_TITLE);
+    projectExportDatabase.recordExport(project.getId(), titles, FIRST_SEQUENCE);
+    Map<Integer, String> newTitles = Collections.singletonMap(project.getId(), TITLE);
+    projectExportDatabase.recordExport(project.getId(), newTitles, SECOND_SEQUENCE);
+
+    assertEquals(SECOND_SEQUENCE, projectExportDatabase.getExportSequence(project.getId()));
+    assertEquals(newTitles, projectExportDatabase.getExportedProjects(project.getId()));
+  }
+
+  @Test
+  void testRecordImport() throws DatabaseException, ConnectionFailedException {
+    assertEquals(ProjectExportDatabase.NEVER, projectExportDatabase.getImportSequence(project.getId()));
+    Map<Integer, Integer> sourceIds = Collections.singletonMap(project.getId(), SOURCE_ID);
+    projectExportDatabase.recordImport(project.getId(), sourceIds, FIRST_SEQUENCE);
+    projectExportDatabase.recordImport(project.getId(), sourceIds, SECOND_SEQUENCE);
+
+    assertEquals(SECOND_SEQUENCE, projectExportDatabase.getImportSequence(project.getId()));
+  }
+
+  @Test
+  void testImportedProjects() throws DatabaseException, ConnectionFailedException {
+    assertTrue(projectExportDatabase.getImportedRootIds(SOURCE_ID).isEmpty());
+    projectExportDatabase.recordImport(project.getId(),
+        Collections.singletonMap(project.getId(), SOURCE_ID), FIRST_SEQUENCE);
+
+    assertEquals(Collections.singletonList(project.getId()), projectExportDatabase.getImportedRootIds(SOURCE_ID));
+    assertEquals(Collections.singletonMap(SOURCE_ID, project.getId()),
+        projectExportDatabase.getImportedProjects(project.getId()));
+  }
+
+  @Test
+  void testDeletedWithProject() throws DatabaseException, ConnectionFailedException {
+    projectExportDatabase.recordExport(project.getId(),
+        Collections.singletonMap(project.getId(), TITLE), FIRST_SEQUENCE);
+    projectExportDatabase.recordImport(project.getId(),
+        Collections.singletonMap(project.getId(), SOURCE_ID), FIRST_SEQUENCE);
+    ProjectDatabase.getInstance().delete(project.getId());
+
+    assertEquals(ProjectExportDatabase.NEVER, projectExportDatabase.getExportSequence(project.getId()));
+    assertEquals(ProjectExportDatabase.NEVER, projectExportDatabase.getImportSequence(project.getId()));
+    assertTrue(projectExportDatabase.getImportedRootIds(SOURCE_ID).isEmpty());
+  }
+
+  @AfterEach
+  void deleteDatabase() throws IOException {
+    boolean deletedFile = file.delete();
+    if (!deletedFile) {
+      throw new IOException("Cannot delete file");
+    }
+  }
+}
@@ -0,0 +1,239 @@
+package be.ac.ulb.infof307.g09.database;
+
+import be.ac.ulb.infof307.g09.application.models.Color;
+import be.ac.ulb.infof307.g09.application.models.Project;
+import be.ac.ulb.infof307.g09.application.models.Tag;
+import be.ac.ulb.infof307.g09.application.models.Task;
+import be.ac.ulb.infof307.g09.application.models.User;
+import be.ac.ulb.infof307.g09.archive.ProjectDelta;
+import be.ac.ulb.infof307.g09.exceptions.ConnectionFailedException;
+import be.ac.ulb.infof307.g09.exceptions.DatabaseException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProjectImportDatabaseTest {
+
+  //PROJECT
+  private static final String TITLE = "Test parentProject";
+  private static final String SUB_TITLE = "Test subProject";
+  private static final String NEW_TITLE = "Test renamed parentProject";
+  private static final String ADDED_TITLE = "Test added subProject";
+  private static final String DESCRIPTION = "This is a test of a parentProject";
+  private static final Long START_DATE = 1639047600000L; //9-12-2021 12:00
+  private static final Long END_DATE = 1639306800000L; //12-12-2021 12:00
+  private static final Long INITIAL_DURATION = END_DATE - START_DATE;
+  private static final Color COLOR = Color.BLUE;
+
+  //TASK
+  private static final String TASK_DESCRIPTION = "Test task description";
+  private static final int TASKS_COUNT = 1200;
+
+  //DELTA
+  private static final long DELTA_SEQUENCE = 5;
+  private static final int SOURCE_ID = 10;
+  private static final int SOURCE_SUB_ID = 11;
+  private static final int SOURCE_ADDED_ID = 12;
+
+  //TAG
+  private static final String EXISTING_TAG = "Existing tag";
+  private static final String NEW_TAG = "New tag";
+
+  //USER
+  private static final int USER_ID = 1;
+  private static final String USERNAME = "JohnDoe";
+  private static final String EMAIL = "dummy@gmail.com";
+  private static final String LAST_NAME = "Doe";
+  private static final String FIRST_NAME = "John";
+  private static final String PASSWORD = "dummy";
+
+  private static ProjectImportDatabase projectImportDatabase;
+  private static final String DATABASE_TEST_PATH = Paths.get("").toAbsolutePath() + "/test/test.db";
+  private static final String START_PATH = "src/be/ac/ulb/infof307/g09/";
+  private static File file;
+  private User user;
+  private Project project;
+
+  @BeforeEach
+  void setUp() throws DatabaseException, ConnectionFailedException {
+    if (projectImportDatabase == null) {
+      projectImportDatabase = ProjectImportDatabase.getInstance();
+    }
+    ProjectImportDatabase.setDatabasePath(DATABASE_TEST_PATH);
+    ProjectImportDatabase.createNewDatabaseFile(START_PATH);
+    file = ProjectImportDatabase.getInstance().getDatabase();
+    user = new User(USER_ID, USERNAME, EMAIL, LAST_NAME, FIRST_NAME, PASSWORD);
+    UserDatabase.getInstance().insert(user);
+    TagDatabase.getInstance().createTag(EXISTING_TAG);
+
+    project = new Project(-1, TITLE, DESCRIPTION, START_DATE, END_DATE, INITIAL_DURATION, user, null, COLOR);
+    List<Task> tasks = new ArrayList<>();
+    for (int i = 0; i < TASKS_COUNT; i++) {
+      tasks.add(new Task(-1, TASK_DESCRIPTION + i, START_DATE, END_DATE, -1));
+    }
+    project.setTasks(tasks);
+    project.setTags(Arrays.asList(new Tag(-1, EXISTING_TAG), new Tag(-1, NEW_TAG)));
+    Project subProject = new Project(-1, SUB_TITLE, DESCRIPTION, START_DATE, END_DATE, INITIAL_DURATION, user, project, COLOR);
+    subProject.setTags(Collections.singletonList(new Tag(-1, NEW_TAG)));
+    project.setSubProjects(Collections.singletonList(subProject));
+  }
+
+  @Test
+  void testImportProject() throws DatabaseException, ConnectionFailedException {
+    Project importedProject = projectImportDatabase.importProject(project, user);
+    Project projectFromDatabase = ProjectDatabase.getInstance().getProjectById(importedProject.getId());
+
+    assertEquals(TITLE, projectFromDatabase.getTitle());
+    assertEquals(1, projectFromDatabase.getSubProjects().size());
+    assertEquals(importedProject.getSubProjects().get(0), projectFromDatabase.getSubProjects().get(0));
+  }
+
+  @Test
+  void testImportTasks() throws DatabaseException, ConnectionFailedException {
+    Project importedProject = projectImportDatabase.importProject(project, user);
+    List<Task> tasksFromDatabase = TaskDatabase.getInstance().getAllTasksOfProject(importedProject);
+
+    assertEquals(TASKS_COUNT, tasksFromDatabase.size());
+    assertEquals(importedProject.getTasks().size(), tasksFromDatabase.size());
+    for (Task task : importedProject.getTasks()) {
+      assertTrue(tasksFromDatabase.contains(task));
+      assertEquals(Collections.singletonList(user),
+          CollaboratorTaskDatabase.getInstance().getAssignedCollaboratorsToTask(task));
+    }
+  }
+
+  @Test
+  void testImportTags() throws DatabaseException, ConnectionFailedException {
+    Tag existingTag = TagDatabase.getInstance().getTag(EXISTING_TAG);
+    Project importedProject = projectImportDatabase.importProject(project, user);
+    Tag newTag = TagDatabase.getInstance().getTag(NEW_TAG);
+
+    assertNotNull(newTag);
+    assertEquals(Arrays.asList(existingTag, newTag), importedProject.getTags());
+    assertEquals(Collections.singletonList(newTag), importedProject.getSubProjects().get(0).getTags());
+    assertEquals(2, ProjectDatabase.getInstance().getTagsOfProject(importedProject).size());
+  }
+
+  @Test
+  void testImportRolledBack() throws DatabaseException, ConnectionFailedException {
+    User unknownUser = new User(2, "Unknown", "unknown@gmail.com", LAST_NAME, FIRST_NAME, PASSWORD);
+
+    assertThrows(DatabaseException.class, () -> projectImportDatabase.importProject(project, unknownUser));
+    assertNull(TagDatabase.getInstance().getTag(NEW_TAG));
+    assertTrue(ProjectDatabase.getInstance().getAllParentProjectsByAuthor(USERNAME).isEmpty());
+  }
+
+  @Test
+  void testApplyDelta() throws DatabaseException, ConnectionFailedException {
+    Project importedProject = projectImportDatabase.importProject(project, user);
+    Map<Integer, Integer> localIds = new HashMap<>();
+    localIds.put(SOURCE_ID, importedProject.getId());
+    localIds.put(SOURCE_SUB_ID, importedProject.getSubProjects().get(0).getId());
+    Project changedProject = new Project(SOURCE_ID, NEW_TITLE, DESCRIPTION, START_DATE, END_DATE, INITIAL_DURATION, user, null, COLOR);
+    changedProject.setTasks(Arrays.asList(
+        new Task(-1, TASK_DESCRIPTION + 0, START_DATE, END_DATE, -1),
+        new Task(-1, TASK_DESCRIPTION, START_DATE, END_DATE, -1)));
+    changedProject.setTags(Collections.singletonList(new Tag(-1, NEW_TAG)));
+    Project addedProject = new Project(SOURCE_ADDED_ID, ADDED_TITLE, DESCRIPTION, START_DATE, END_DATE, INITIAL_DURATION, user, null, COLOR);
+    ProjectDelta delta = new ProjectDelta(1, SOURCE_ID, Arrays.asList(
+        new ProjectDelta.Entry(false, null, changedProject),
+        new ProjectDelta.Entry(true, SOURCE_ID, addedProject)),
+        Collections.singletonList(SOURCE_SUB_ID));
+
+    projectImportDatabase.applyDelta(delta, localIds, importedProject.getId(), user, DELTA_SEQUENCE);
+    Project projectFromDatabase = ProjectDatabase.getInstance().getProjectById(importedProject.getId());
+
+    assertEquals(NEW_TITLE, projectFromDatabase.getTitle());
+    assertEquals(2, projectFromDatabase.getTasks().size());
+    assertTrue(projectFromDatabase.getTasks().contains(importedProject.getTasks().get(0)));
+    assertEquals(1, projectFromDatabase.getTags().size());
+    assertEquals(1, projectFromDatabase.getSubProjects().size());
+    assertEquals(ADDED_TITLE, projectFromDatabase.getSubProjects().get(0).getTitle());
+    assertEquals(DELTA_SEQUENCE, ProjectExportDatabase.getInstance().getImportSequence(importedProject.getId()));
+    assertEquals(projectFromDatabase.getSubProjects().get(0).getId(),
+        (int) ProjectExportDatabase.getInstance().getImportedProjects(importedProject.getId()).get(SOURCE_ADDED_ID));
+  }
+
+  @Test
+  void testApplyDeltaKeepsAssignments() throws DatabaseException, ConnectionFailedException {
+    Project importedProject = projectImportDatabase.importProject(project, user);
+    Task unchangedTask = importedProject.getTasks().get(0);
+    User collaborator = new User(2, "JaneDoe", "jane@gmail.com", LAST_NAME, "Jane", PASSWORD);
+    UserDatabase.getInstance().insert(collaborator);
+    CollaboratorTaskDatabase.getInstance().insertCollaboratorTask(collaborator, unchangedTask);
+    Project changedProject = new Project(SOURCE_ID, NEW_TITLE, DESCRIPTION, START_DATE, END_DATE, INITIAL_DURATION, user, null, COLOR);
+    changedProject.setTasks(Collections.singletonList(
+        new Task(-1, unchangedTask.getDescription(), START_DATE, END_DATE, -1)));
+    ProjectDelta delta = new ProjectDelta(1, SOURCE_ID,
+        Collections.singletonList(new ProjectDelta.Entry(false, null, changedProject)),
+        Collections.emptyList());
+
+    projectImportDatabase.applyDelta(delta, Collections.singletonMap(SOURCE_ID, importedProject.getId()),
+        importedProject.getId(), user, DELTA_SEQUENCE);
+
+    assertEquals(Collections.singletonList(unchangedTask),
+        TaskDatabase.getInstance().getAllTasksOfProject(importedProject));
+    assertTrue(CollaboratorTaskDatabase.getInstance().getAssignedCollaboratorsToTask(unchangedTask)
+        .contains(collaborator));
+  }
+
+  @Test
+  void testApplyDeltaKeepsDuplicateTasks() throws DatabaseException, ConnectionFailedException {
+    project.setTasks(Arrays.asList(
+        new Task(-1, TASK_DESCRIPTION, START_DATE, END_DATE, -1),
+        new Task(-1, TASK_DESCRIPTION, START_DATE, END_DATE, -1)));
+    Project importedProject = projectImportDatabase.importProject(project, user);
+    Project changedProject = new Project(SOURCE_ID, TITLE, DESCRIPTION, START_DATE, END_DATE, INITIAL_DURATION, user, null, COLOR);
+    changedProject.setTasks(Arrays.asList(
+        new Task(-1, TASK_DESCRIPTION, START_DATE, END_DATE, -1),
+        new Task(-1, TASK_DESCRIPTION, START_DATE, END_DATE, -1),
+        new Task(-1, TASK_DESCRIPTION, START_DATE, END_DATE, -1)));
+    ProjectDelta delta = new ProjectDelta(1, SOURCE_ID,
+        Collections.singletonList(new ProjectDelta.Entry(false, null, changedProject)),
+        Collections.emptyList());
+
+    projectImportDatabase.applyDelta(delta, Collections.singletonMap(SOURCE_ID, importedProject.getId()),
+        importedProject.getId(), user, DELTA_SEQUENCE);
+
+    List<Task> tasks = TaskDatabase.getInstance().getAllTasksOfProject(importedProject);
+    assertEquals(3, tasks.size());
+    assertTrue(tasks.containsAll(importedProject.getTasks()));
+  }
+
+  @Test
+  void testApplyDeltaRolledBack() throws DatabaseException, ConnectionFailedException {
+    Project importedProject = projectImportDatabase.importProject(project, user);
+    Map<Integer, Integer> localIds = Collections.singletonMap(SOURCE_ID, importedProject.getId());
+    Project changedProject = new Project(SOURCE_ID, NEW_TITLE, DESCRIPTION, START_DATE, END_DATE, INITIAL_DURATION, user, null, COLOR);
+    Project addedProject = new Project(SOURCE_ADDED_ID, ADDED_TITLE, DESCRIPTION, START_DATE, END_DATE, INITIAL_DURATION, user, null, COLOR);
+    ProjectDelta delta = new ProjectDelta(1, SOURCE_ID, Arrays.asList(
+        new ProjectDelta.Entry(false, null, changedProject),
+        new ProjectDelta.Entry(true, SOURCE_SUB_ID, addedProject)),
+        Collections.emptyList());
+
+    assertThrows(DatabaseException.class,
+        () -> projectImportDatabase.applyDelta(delta, localIds, importedProject.getId(), user, DELTA_SEQUENCE));
+    assertEquals(TITLE, ProjectDatabase.getInstance().getProjectById(importedProject.getId()).getTitle());
+    assertEquals(ProjectExportDatabase.NEVER, ProjectExportDatabase.getInstance().getImportSequence(importedProject.getId()));
+  }
+
+  @AfterEach
+  void deleteDatabase() throws IOException {
+    boolean deletedFile = file.delete();
+    if (!deletedFile) {
+      throw new IOException("Cannot delete file");
+    }
+  }
+}
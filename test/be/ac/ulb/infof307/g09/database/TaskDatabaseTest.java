@@ -95,6 +95,13 @@ class TaskDatabaseTest {
     assertEquals(taskDatabase.getAllTasksOfProject(this.project), list);
   }
 
+  @Test
+  void testGetTaskById() throws DatabaseException, ConnectionFailedException {
+    Task taskTest = taskDatabase.createTask(DESCRIPTION, TASK_START_DATE, TASK_END_DATE, PROJECT_ID);
+    assertTrue(taskTest.contentEquals(taskDatabase.getTaskById(taskTest.getId())));
+    assertNull(taskDatabase.getTaskById(taskTest.getId() + 1));
+  }
+
   @Test
   void testDeleteTask() throws DatabaseException, ConnectionFailedException {
     taskDatabase.createTask(DESCRIPTION, TASK_START_DATE, TASK_END_DATE, PROJECT_ID);